@@ -0,0 +1,110 @@
+package br.com.newmusic.benchmark;
+
+import br.com.newmusic.web.dto.LinhaRelatorio;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alocação por relatório de mensalidades (100 mil linhas): montagem das linhas + serialização JSON.
+ * Compara o formato anterior (um {@code LinkedHashMap} por linha, datas formatadas por célula) com {@link LinhaRelatorio}.
+ * Rodar com {@code ./gradlew jmh} e comparar {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LinhaRelatorioBenchmark {
+
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final LinhaRelatorio.Cabecalho COLUNAS = LinhaRelatorio.Cabecalho.of(
+            "id", "alunoNome", "mes", "ano", "vencimento", "valor", "status", "dataPagamento", "formaPagamento");
+
+    @Param("100000")
+    private int linhas;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Mensalidade> mensalidades;
+
+    private record Mensalidade(Long id, String alunoNome, Integer mes, Integer ano, LocalDate vencimento, BigDecimal valor,
+                               String status, LocalDate dataPagamento, String formaPagamento) {
+    }
+
+    @Setup
+    public void setUp() {
+        mensalidades = new ArrayList<>(linhas);
+        LocalDate base = LocalDate.of(2025, 1, 10);
+        for (int i = 0; i < linhas; i++) {
+            LocalDate venc = base.plusMonths(i % 12);
+            boolean pago = i % 3 == 0;
+            mensalidades.add(new Mensalidade((long) i, "Aluno " + (i % 500), venc.getMonthValue(), venc.getYear(), venc,
+                    new BigDecimal("180.00"), pago ? "PAGO" : "PENDENTE", pago ? venc.minusDays(2) : null, pago ? "PIX" : null));
+        }
+    }
+
+    @Benchmark
+    public long linkedHashMap() throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>(mensalidades.size());
+        for (Mensalidade m : mensalidades) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", m.id());
+            row.put("alunoNome", m.alunoNome());
+            row.put("mes", m.mes());
+            row.put("ano", m.ano());
+            row.put("vencimento", m.vencimento().format(DATE_FMT));
+            row.put("valor", m.valor());
+            row.put("status", m.status());
+            row.put("dataPagamento", m.dataPagamento() != null ? m.dataPagamento().format(DATE_FMT) : "");
+            row.put("formaPagamento", m.formaPagamento() != null ? m.formaPagamento() : "");
+            rows.add(row);
+        }
+        return serializar(rows);
+    }
+
+    @Benchmark
+    public long linhaRelatorio() throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>(mensalidades.size());
+        for (Mensalidade m : mensalidades) {
+            rows.add(COLUNAS.linha(m.id(), m.alunoNome(), m.mes(), m.ano(), m.vencimento(), m.valor(), m.status(),
+                    m.dataPagamento() != null ? m.dataPagamento() : "", m.formaPagamento() != null ? m.formaPagamento() : ""));
+        }
+        return serializar(rows);
+    }
+
+    private long serializar(List<Map<String, Object>> rows) throws IOException {
+        ContadorOutputStream out = new ContadorOutputStream();
+        objectMapper.writeValue(out, rows);
+        return out.bytes;
+    }
+
+    /** Descarta a saída (só conta bytes), para medir a serialização e não a memória do buffer. */
+    private static final class ContadorOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package br.com.newmusic.benchmark;
+
+import br.com.newmusic.service.XlsxStreamWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exportação XLSX do relatório de mensalidades: {@link XlsxStreamWriter} (linha a linha direto no ZIP) contra a
+ * montagem da pasta de trabalho inteira em memória antes de gravar (modelo de células + tabela de strings compartilhadas,
+ * como faz uma biblioteca de planilhas tradicional).
+ * Rodar com {@code ./gradlew jmh} e comparar tempo e {@code gc.alloc.rate.norm}; para ver o pico de heap,
+ * rodar com um {@code -Xmx} baixo (ex.: 256m): a versão em memória estoura com 300 mil linhas, a em streaming não.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class XlsxExportBenchmark {
+
+    private static final List<String> COLUNAS = List.of(
+            "id", "alunoNome", "mes", "ano", "vencimento", "valor", "status", "dataPagamento", "formaPagamento");
+
+    @Param({"100000", "300000"})
+    private int linhas;
+
+    private List<Object[]> mensalidades;
+
+    @Setup
+    public void setUp() {
+        mensalidades = new ArrayList<>(linhas);
+        LocalDate base = LocalDate.of(2025, 1, 10);
+        for (int i = 0; i < linhas; i++) {
+            LocalDate venc = base.plusMonths(i % 12);
+            boolean pago = i % 3 == 0;
+            mensalidades.add(new Object[]{(long) i, "Aluno " + (i % 500), venc.getMonthValue(), venc.getYear(), venc,
+                    new BigDecimal("180.00"), pago ? "PAGO" : "PENDENTE", pago ? venc.minusDays(2) : "", pago ? "PIX" : ""});
+        }
+    }
+
+    @Benchmark
+    public long streaming() throws IOException {
+        ContadorOutputStream out = new ContadorOutputStream();
+        try (XlsxStreamWriter xlsx = new XlsxStreamWriter(out, "Relatório")) {
+            xlsx.cabecalho(COLUNAS);
+            for (Object[] m : mensalidades) {
+                xlsx.iniciarLinha();
+                for (Object v : m) xlsx.celula(v);
+                xlsx.terminarLinha();
+            }
+        }
+        return out.bytes;
+    }
+
+    @Benchmark
+    public long emMemoria() throws IOException {
+        // 1) pasta de trabalho inteira em memória: uma célula por valor e strings compartilhadas indexadas
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> indiceStrings = new HashMap<>();
+        List<List<Celula>> planilha = new ArrayList<>(mensalidades.size() + 1);
+        List<Celula> cabecalho = new ArrayList<>(COLUNAS.size());
+        for (String c : COLUNAS) cabecalho.add(Celula.texto(indiceStrings.computeIfAbsent(c, k -> adicionar(strings, k))));
+        planilha.add(cabecalho);
+        for (Object[] m : mensalidades) {
+            List<Celula> linha = new ArrayList<>(m.length);
+            for (Object v : m) {
+                if (v instanceof String s) {
+                    linha.add(s.isEmpty() ? null : Celula.texto(indiceStrings.computeIfAbsent(s, k -> adicionar(strings, k))));
+                } else if (v instanceof LocalDate d) {
+                    linha.add(new Celula(Long.toString(d.toEpochDay() + 25_569), 2, null));
+                } else if (v instanceof BigDecimal d) {
+                    linha.add(new Celula(d.toPlainString(), 4, null));
+                } else {
+                    linha.add(new Celula(v.toString(), 0, null));
+                }
+            }
+            planilha.add(linha);
+        }
+        // 2) só então serializa
+        ContadorOutputStream out = new ContadorOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            StringBuilder sheet = new StringBuilder("<worksheet><sheetData>");
+            for (int r = 0; r < planilha.size(); r++) {
+                sheet.append("<row r=\"").append(r + 1).append("\">");
+                for (Celula c : planilha.get(r)) {
+                    if (c == null) continue;
+                    sheet.append("<c s=\"").append(c.estilo).append('"');
+                    if (c.tipo != null) sheet.append(" t=\"").append(c.tipo).append('"');
+                    sheet.append("><v>").append(c.valor).append("</v></c>");
+                }
+                sheet.append("</row>");
+            }
+            sheet.append("</sheetData></worksheet>");
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            zip.write(sheet.toString().getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            StringBuilder sst = new StringBuilder("<sst>");
+            for (String s : strings) sst.append("<si><t>").append(s).append("</t></si>");
+            zip.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+            zip.write(sst.append("</sst>").toString().getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return out.bytes;
+    }
+
+    private record Celula(String valor, int estilo, String tipo) {
+        static Celula texto(int indice) {
+            return new Celula(Integer.toString(indice), 0, "s");
+        }
+    }
+
+    private static int adicionar(List<String> strings, String s) {
+        strings.add(s);
+        return strings.size() - 1;
+    }
+
+    /** Descarta a saída (só conta bytes), para medir a geração da planilha e não a memória do buffer. */
+    private static final class ContadorOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
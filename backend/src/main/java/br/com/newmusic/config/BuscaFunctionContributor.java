@@ -0,0 +1,23 @@
+package br.com.newmusic.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registra no HQL as funções de busca criadas na migração V11 ({@code f_normalizar}, {@code f_busca_pessoa}),
+ * para as consultas usarem exatamente as expressões dos índices trigram. Carregada via
+ * {@code META-INF/services/org.hibernate.boot.model.FunctionContributor}.
+ */
+public class BuscaFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicType<String> texto = functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.STRING);
+        SqmFunctionRegistry registry = functionContributions.getFunctionRegistry();
+        registry.namedDescriptorBuilder("f_normalizar").setExactArgumentCount(1).setInvariantType(texto).register();
+        registry.namedDescriptorBuilder("f_busca_pessoa").setExactArgumentCount(2).setInvariantType(texto).register();
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.newmusic.config;
+
+import br.com.newmusic.service.CoordenacaoJobs;
+import br.com.newmusic.service.DashboardKpiService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardKpiJob {
+
+    private final DashboardKpiService dashboardKpiService;
+    private final CoordenacaoJobs coordenacaoJobs;
+
+    /** Na subida (após as migrações) garante que o snapshot existe e está coerente com as tabelas. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        reconciliarAgora();
+    }
+
+    /**
+     * Reconciliação periódica: corrige qualquer divergência dos ajustes incrementais (padrão: a cada 30 minutos).
+     * Com várias instâncias, só uma reconcilia em cada disparo (rodada = minuto do disparo).
+     */
+    @Scheduled(cron = "${newmusic.job.dashboard-kpi.cron:0 */30 * * * ?}", zone = "${newmusic.job.dashboard-kpi.zone:America/Recife}")
+    public void reconciliar() {
+        String rodada = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MINUTES).toString();
+        try {
+            coordenacaoJobs.executar("dashboard-kpi", rodada, this::reconciliarAgora);
+        } catch (Exception e) {
+            log.error("DashboardKpiJob: erro ao coordenar a reconciliação do dashboard.", e);
+        }
+    }
+
+    private void reconciliarAgora() {
+        try {
+            dashboardKpiService.reconciliar();
+        } catch (Exception e) {
+            log.error("DashboardKpiJob: erro ao reconciliar indicadores do dashboard.", e);
+        }
+    }
+}
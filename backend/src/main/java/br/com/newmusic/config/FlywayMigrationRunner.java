@@ -2,13 +2,16 @@ package br.com.newmusic.config;
 
 import org.flywaydb.core.Flyway;
 import org.flywaydb.core.api.exception.FlywayValidateException;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.core.annotation.Order;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.stereotype.Component;
 
+/**
+ * Aplica as migrações depois que todos os beans foram criados (o Hibernate já fez o {@code ddl-auto: update}) e
+ * antes de o Tomcat e os jobs agendados subirem: nenhuma requisição grava enquanto uma migração preenche dados
+ * (ex.: o backfill de {@code receita_diaria}).
+ */
 @Component
-@Order(Integer.MIN_VALUE)
-public class FlywayMigrationRunner implements CommandLineRunner {
+public class FlywayMigrationRunner implements SmartInitializingSingleton {
 
     private final Flyway flyway;
 
@@ -17,7 +20,7 @@ public class FlywayMigrationRunner implements CommandLineRunner {
     }
 
     @Override
-    public void run(String... args) {
+    public void afterSingletonsInstantiated() {
         try {
             flyway.migrate();
         } catch (FlywayValidateException e) {
@@ -1,32 +1,176 @@
 package br.com.newmusic.config;
 
+import br.com.newmusic.domain.TipoExecucaoJob;
+import br.com.newmusic.service.CoordenacaoJobs;
+import br.com.newmusic.service.DashboardKpiService;
+import br.com.newmusic.service.JobExecucaoService;
 import br.com.newmusic.service.MensalidadeService;
-import lombok.RequiredArgsConstructor;
+import br.com.newmusic.web.dto.JobExecucaoDTO;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class MensalidadeStatusJob {
 
+    public static final String JOB = "mensalidade-status";
+
     private final MensalidadeService mensalidadeService;
+    private final CoordenacaoJobs coordenacaoJobs;
+    private final JobExecucaoService jobExecucaoService;
+    private final DashboardKpiService dashboardKpiService;
+    private final String cron;
+    private final ZoneId zone;
+    private final long tamanhoFatia;
+    private final long tamanhoLote;
+
+    public MensalidadeStatusJob(MensalidadeService mensalidadeService, CoordenacaoJobs coordenacaoJobs, JobExecucaoService jobExecucaoService,
+                                DashboardKpiService dashboardKpiService,
+                                @Value("${newmusic.job.mensalidade-atrasado.cron:0 0 9 * * ?}") String cron,
+                                @Value("${newmusic.job.mensalidade-atrasado.zone:America/Recife}") String zone,
+                                @Value("${newmusic.job.mensalidade-atrasado.fatia:0}") long tamanhoFatia,
+                                @Value("${newmusic.job.mensalidade-atrasado.lote:5000}") long tamanhoLote) {
+        this.mensalidadeService = mensalidadeService;
+        this.coordenacaoJobs = coordenacaoJobs;
+        this.jobExecucaoService = jobExecucaoService;
+        this.dashboardKpiService = dashboardKpiService;
+        this.cron = cron;
+        this.zone = ZoneId.of(zone);
+        this.tamanhoFatia = tamanhoFatia;
+        this.tamanhoLote = tamanhoLote > 0 ? tamanhoLote : Long.MAX_VALUE;
+    }
 
-    /** Todos os dias às 9h (Recife/PE): marca pendentes vencidas como atrasado (multa 10% e juros 1%/dia) e recalcula juros das atrasadas. */
+    /** Contadores de uma execução nesta instância; a linha em job_execucao só é criada quando alguma fatia é pega. */
+    private static final class Execucao {
+        Long id;
+        long novasAtrasadas;
+        long atrasadasRecalc;
+        int lotes;
+        int erros;
+        Throwable ultimoErro;
+    }
+
+    /**
+     * Todos os dias às 9h (Recife/PE): marca pendentes vencidas como atrasado (multa 10% e juros 1%/dia) e recalcula juros das atrasadas.
+     * Com várias instâncias, só uma roda por dia; com {@code fatia > 0} as faixas de ids são divididas entre as instâncias.
+     */
     @Scheduled(cron = "${newmusic.job.mensalidade-atrasado.cron:0 0 9 * * ?}", zone = "${newmusic.job.mensalidade-atrasado.zone:America/Recife}")
     public void executar() {
+        rodar(LocalDate.now(zone).toString(), TipoExecucaoJob.AGENDADA, null);
+    }
+
+    /**
+     * Na subida do servidor: se algum horário agendado passou desde a última execução com sucesso (servidor fora do ar
+     * ou execução com falha), roda uma vez. O job sempre trabalha com a data atual, então uma execução cobre todos os
+     * dias perdidos; a rodada é a do último horário perdido, e as demais instâncias que subirem junto não a repetem.
+     * Antes, se nenhum nó está rodando o job, as execuções deixadas como em andamento por uma instância que caiu
+     * são marcadas com erro.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recuperarExecucoesPerdidas() {
         try {
-            int novasAtrasadas = mensalidadeService.atualizarPendentesParaAtrasado();
-            if (novasAtrasadas > 0) {
-                log.info("MensalidadeStatusJob: {} mensalidade(s) marcada(s) de PENDENTE para ATRASADO (multa e juros aplicados).", novasAtrasadas);
+            if (!coordenacaoJobs.emExecucao(JOB)) {
+                int interrompidas = jobExecucaoService.encerrarInterrompidas(JOB);
+                if (interrompidas > 0) log.warn("MensalidadeStatusJob: {} execução(ões) interrompida(s) marcada(s) com erro.", interrompidas);
             }
-            int atrasadasRecalc = mensalidadeService.atualizarMultaJurosAtrasados();
-            if (atrasadasRecalc > 0) {
-                log.info("MensalidadeStatusJob: {} parcela(s) em atraso com multa/juros recalculados.", atrasadasRecalc);
+            List<ZonedDateTime> perdidos = jobExecucaoService.horariosPerdidos(JOB, cron, ZonedDateTime.now(zone));
+            if (perdidos.isEmpty()) return;
+            LocalDate primeiro = perdidos.get(0).toLocalDate();
+            String rodada = perdidos.get(perdidos.size() - 1).toLocalDate().toString();
+            log.warn("MensalidadeStatusJob: {} execução(ões) perdida(s) desde {}; recuperando.", perdidos.size(), primeiro);
+            rodar(rodada, TipoExecucaoJob.RECUPERACAO, perdidos.size() + " execução(ões) agendada(s) perdida(s) desde " + primeiro);
+        } catch (Exception e) {
+            log.error("MensalidadeStatusJob: erro ao verificar execuções perdidas.", e);
+        }
+    }
+
+    /** Reexecução pedida pelo administrador, numa rodada própria; vazio se outra instância está rodando o job. */
+    public Optional<JobExecucaoDTO> executarManualmente() {
+        String rodada = "manual-" + LocalDateTime.now(zone).truncatedTo(ChronoUnit.SECONDS);
+        return rodar(rodada, TipoExecucaoJob.MANUAL, null);
+    }
+
+    private Optional<JobExecucaoDTO> rodar(String rodada, TipoExecucaoJob tipo, String observacao) {
+        Execucao execucao = new Execucao();
+        try {
+            long maiorId = mensalidadeService.maiorId();
+            CoordenacaoJobs.Fatia fatia = (idInicio, idFim) -> {
+                if (execucao.id == null) execucao.id = jobExecucaoService.iniciar(JOB, rodada, tipo, observacao);
+                processarEmLotes(idInicio, idFim, maiorId, execucao);
+            };
+            if (tamanhoFatia > 0) {
+                coordenacaoJobs.executarEmFatias(JOB, rodada, maiorId, tamanhoFatia, fatia);
+            } else {
+                coordenacaoJobs.executar(JOB, rodada, () -> fatia.processar(0, Long.MAX_VALUE));
             }
         } catch (Exception e) {
-            log.error("MensalidadeStatusJob: erro ao atualizar status e multa/juros das mensalidades.", e);
+            log.error("MensalidadeStatusJob: erro ao atualizar status e multa/juros das mensalidades (rodada {}).", rodada, e);
+            if (execucao.erros == 0) {
+                execucao.erros++;
+                execucao.ultimoErro = e;
+            }
+        }
+        recalcularIndicadores(execucao);
+        if (execucao.id == null) {
+            log.info("MensalidadeStatusJob: rodada {} já executada ou em andamento em outra instância.", rodada);
+            return Optional.empty();
+        }
+        JobExecucaoDTO resultado = jobExecucaoService.concluir(execucao.id, execucao.novasAtrasadas + execucao.atrasadasRecalc,
+                execucao.lotes, execucao.erros, execucao.ultimoErro);
+        log.info("MensalidadeStatusJob: {} nova(s) atrasada(s), {} parcela(s) em atraso com multa/juros alterados ({} lote(s), {} com erro, {} ms).",
+                execucao.novasAtrasadas, execucao.atrasadasRecalc, execucao.lotes, execucao.erros, resultado.getDuracaoMs());
+        return Optional.of(resultado);
+    }
+
+    /** Uma recontagem dos indicadores financeiros do dashboard por execução, depois do último lote (não por lote). */
+    private void recalcularIndicadores(Execucao execucao) {
+        if (execucao.novasAtrasadas == 0) return;
+        try {
+            dashboardKpiService.recalcularFinanceiro();
+        } catch (RuntimeException e) {
+            log.error("MensalidadeStatusJob: erro ao recalcular os indicadores do dashboard; a reconciliação periódica corrige.", e);
+            execucao.erros++;
+            execucao.ultimoErro = e;
+        }
+    }
+
+    /**
+     * Percorre {@code [idInicio, idFim]} em lotes de {@code tamanhoLote} ids, cada um commitado na sua transação: um lote
+     * com erro é contado e os seguintes continuam. O último lote vai até {@code idFim}, para pegar ids novos. Se algum
+     * lote falhou, lança no fim para a fatia não ser dada como concluída na rodada.
+     */
+    private void processarEmLotes(long idInicio, long idFim, long maiorId, Execucao execucao) {
+        int errosAntes = execucao.erros;
+        long inicio = idInicio;
+        while (true) {
+            boolean ultimo = idFim - inicio < tamanhoLote || inicio > maiorId - tamanhoLote;
+            long fim = ultimo ? idFim : inicio + tamanhoLote - 1;
+            try {
+                execucao.novasAtrasadas += mensalidadeService.atualizarPendentesParaAtrasado(inicio, fim);
+                execucao.atrasadasRecalc += mensalidadeService.atualizarMultaJurosAtrasados(inicio, fim);
+                execucao.lotes++;
+            } catch (RuntimeException e) {
+                execucao.erros++;
+                execucao.ultimoErro = e;
+                log.warn("MensalidadeStatusJob: lote de ids {}-{} falhou; os demais seguem.", inicio, fim, e);
+            }
+            if (ultimo) break;
+            inicio = fim + 1;
+        }
+        if (execucao.erros > errosAntes) {
+            throw new IllegalStateException((execucao.erros - errosAntes) + " lote(s) com erro entre os ids " + idInicio + " e " + idFim);
         }
     }
 }
@@ -0,0 +1,28 @@
+package br.com.newmusic.config;
+
+import br.com.newmusic.service.RelatorioJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RelatorioJobLimpezaJob {
+
+    private final RelatorioJobService relatorioJobService;
+
+    /** Remove relatórios assíncronos finalizados além do período de retenção (padrão: verifica a cada 10 minutos). */
+    @Scheduled(fixedDelayString = "${newmusic.relatorios.jobs.limpeza:PT10M}")
+    public void limpar() {
+        try {
+            int removidos = relatorioJobService.limparExpirados();
+            if (removidos > 0) {
+                log.info("RelatorioJobLimpezaJob: {} relatório(s) expirado(s) removido(s).", removidos);
+            }
+        } catch (Exception e) {
+            log.error("RelatorioJobLimpezaJob: erro ao remover relatórios expirados.", e);
+        }
+    }
+}
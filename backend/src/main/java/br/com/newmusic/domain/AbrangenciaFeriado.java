@@ -0,0 +1,6 @@
+package br.com.newmusic.domain;
+
+public enum AbrangenciaFeriado {
+    ESTADUAL,
+    MUNICIPAL
+}
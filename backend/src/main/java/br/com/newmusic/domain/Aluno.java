@@ -17,7 +17,8 @@ import java.util.List;
 public class Aluno {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "aluno_seq")
+    @SequenceGenerator(name = "aluno_seq", sequenceName = "aluno_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
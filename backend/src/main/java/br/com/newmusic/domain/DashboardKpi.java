@@ -0,0 +1,50 @@
+package br.com.newmusic.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot dos indicadores do dashboard (linha única, id = 1). Mantido pelos serviços a cada escrita
+ * e reconciliado periodicamente com as tabelas de origem.
+ */
+@Entity
+@Table(name = "dashboard_kpi")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardKpi {
+
+    public static final Long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long alunos;
+
+    @Column(nullable = false)
+    private Long professores;
+
+    @Column(nullable = false)
+    private Long turmas;
+
+    @Column(name = "matriculas_ativas", nullable = false)
+    private Long matriculasAtivas;
+
+    @Column(name = "alunos_com_pagamento_atrasado", nullable = false)
+    private Long alunosComPagamentoAtrasado;
+
+    @Column(name = "alunos_com_mensalidade", nullable = false)
+    private Long alunosComMensalidade;
+
+    /** Mensalidades PENDENTE ou ATRASADO. */
+    @Column(nullable = false)
+    private Long pendentes;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private LocalDateTime atualizadoEm;
+}
@@ -0,0 +1,80 @@
+package br.com.newmusic.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Totais congelados de um mês fechado. Faturado é pela competência (ano/mês da parcela), recebido pela data de
+ * pagamento dentro do mês e em atraso é a posição no último dia do mês; a inadimplência por aluno é a das parcelas
+ * da competência em atraso ao fechar. Enquanto existir, as parcelas da competência
+ * não podem ser criadas nem excluídas e não se registra pagamento com data no mês.
+ */
+@Entity
+@Table(name = "fechamento_mensal", uniqueConstraints = {
+    @UniqueConstraint(columnNames = { "ano", "mes" })
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FechamentoMensal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer ano;
+
+    @Column(nullable = false)
+    private Integer mes;
+
+    @Column(name = "quantidade_parcelas", nullable = false)
+    private Long quantidadeParcelas;
+
+    @Column(name = "valor_faturado", nullable = false, precision = 12, scale = 2)
+    private BigDecimal valorFaturado;
+
+    @Column(name = "quantidade_recebidas", nullable = false)
+    private Long quantidadeRecebidas;
+
+    @Column(name = "valor_recebido", nullable = false, precision = 12, scale = 2)
+    private BigDecimal valorRecebido;
+
+    @Column(name = "valor_multa", nullable = false, precision = 12, scale = 2)
+    private BigDecimal valorMulta;
+
+    @Column(name = "valor_juros", nullable = false, precision = 12, scale = 2)
+    private BigDecimal valorJuros;
+
+    @Column(name = "quantidade_atrasadas", nullable = false)
+    private Long quantidadeAtrasadas;
+
+    @Column(name = "valor_atrasado", nullable = false, precision = 12, scale = 2)
+    private BigDecimal valorAtrasado;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "fechamento_mensal_recebimento", joinColumns = @JoinColumn(name = "fechamento_id"))
+    @OrderBy("formaPagamento ASC")
+    @Builder.Default
+    private List<RecebimentoFechamento> recebimentos = new ArrayList<>();
+
+    /** Lida só pelos relatórios de inadimplência do mês (lazy: {@code recebimentos} já é a coleção eager). */
+    @ElementCollection
+    @CollectionTable(name = "fechamento_mensal_inadimplencia", joinColumns = @JoinColumn(name = "fechamento_id"))
+    @OrderBy("alunoId ASC")
+    @Builder.Default
+    private List<InadimplenciaFechamento> inadimplencia = new ArrayList<>();
+
+    @Column(name = "fechado_em", nullable = false)
+    private LocalDateTime fechadoEm;
+
+    @Column(name = "fechado_por")
+    private String fechadoPor;
+}
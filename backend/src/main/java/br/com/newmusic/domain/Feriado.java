@@ -0,0 +1,38 @@
+package br.com.newmusic.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Feriado estadual ou municipal (os nacionais são calculados em {@link br.com.newmusic.util.FeriadosNacionais}).
+ * Quando recorrente, só o dia e o mês de {@code data} importam: vale todo ano.
+ */
+@Entity
+@Table(name = "feriado")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Feriado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate data;
+
+    @Column(nullable = false)
+    private String descricao;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AbrangenciaFeriado abrangencia;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean recorrente = false;
+}
@@ -0,0 +1,51 @@
+package br.com.newmusic.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Parcelas da competência em atraso no momento do fechamento, por aluno. {@code valor} é sem encargos; as faixas e
+ * {@code valorTotal} somam valor + multa + juros, com o atraso contado até o último dia do mês fechado.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InadimplenciaFechamento {
+
+    @Column(name = "aluno_id", nullable = false)
+    private Long alunoId;
+
+    @Column(name = "aluno_nome", nullable = false)
+    private String alunoNome;
+
+    @Column(name = "quantidade_parcelas", nullable = false)
+    private Long quantidadeParcelas;
+
+    @Column(name = "vencimento_mais_antigo", nullable = false)
+    private LocalDate vencimentoMaisAntigo;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal valor;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal ate30;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal de31a60;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal de61a90;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal acima90;
+
+    @Column(name = "valor_total", nullable = false, precision = 12, scale = 2)
+    private BigDecimal valorTotal;
+}
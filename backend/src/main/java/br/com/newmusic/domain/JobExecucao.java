@@ -0,0 +1,64 @@
+package br.com.newmusic.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/** Histórico de execuções dos jobs agendados, uma linha por execução em cada instância. */
+@Entity
+@Table(name = "job_execucao")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobExecucao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String job;
+
+    @Column(nullable = false, length = 40)
+    private String rodada;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoExecucaoJob tipo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatusJobExecucao status;
+
+    @Column(nullable = false)
+    private String no;
+
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+
+    private LocalDateTime fim;
+
+    @Column(name = "duracao_ms")
+    private Long duracaoMs;
+
+    @Column(name = "linhas_processadas", nullable = false)
+    @Builder.Default
+    private Long linhasProcessadas = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer lotes = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer erros = 0;
+
+    @Column(name = "mensagem_erro", length = 2000)
+    private String mensagemErro;
+
+    @Column(length = 500)
+    private String observacao;
+}
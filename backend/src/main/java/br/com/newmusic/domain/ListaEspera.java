@@ -0,0 +1,57 @@
+package br.com.newmusic.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Aluno aguardando vaga numa turma lotada, com os dados da matrícula a criar. Quando uma vaga é liberada, a entrada
+ * mais antiga vira matrícula na mesma transação (ver {@code MatriculaService#promoverListaEspera}). Excluir a turma ou
+ * o aluno remove as entradas (ON DELETE CASCADE).
+ */
+@Entity
+@Table(name = "lista_espera", uniqueConstraints = {
+    @UniqueConstraint(columnNames = { "turma_id", "aluno_id" })
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ListaEspera {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "turma_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Turma turma;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "aluno_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Aluno aluno;
+
+    /** Início pedido; na promoção vale o maior entre ele e o dia da promoção. */
+    @Column(name = "data_inicio", nullable = false)
+    private LocalDate dataInicio;
+
+    @Column(name = "valor_curso", precision = 10, scale = 2)
+    private BigDecimal valorCurso;
+
+    @Column(name = "data_vencimento")
+    private LocalDate dataVencimento;
+
+    @Column(name = "aulas_por_semana")
+    private Integer aulasPorSemana;
+
+    @Column(name = "criado_em", nullable = false)
+    private LocalDateTime criadoEm;
+}
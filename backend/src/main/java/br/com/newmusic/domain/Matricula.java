@@ -16,7 +16,8 @@ import java.time.LocalDate;
 public class Matricula {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "matricula_seq")
+    @SequenceGenerator(name = "matricula_seq", sequenceName = "matricula_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "data_inicio", nullable = false)
@@ -16,7 +16,8 @@ import java.time.LocalDate;
 public class Mensalidade {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mensalidade_seq")
+    @SequenceGenerator(name = "mensalidade_seq", sequenceName = "mensalidade_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -17,7 +17,8 @@ import java.time.LocalDate;
 public class Presenca {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "presenca_seq")
+    @SequenceGenerator(name = "presenca_seq", sequenceName = "presenca_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "data_aula", nullable = false)
@@ -0,0 +1,26 @@
+package br.com.newmusic.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/** Recebido no mês fechado por forma de pagamento (valor + multa + juros). */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecebimentoFechamento {
+
+    @Column(name = "forma_pagamento", nullable = false, length = 100)
+    private String formaPagamento;
+
+    @Column(nullable = false)
+    private Long quantidade;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal valor;
+}
@@ -0,0 +1,44 @@
+package br.com.newmusic.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Receita já somada por dia de pagamento e forma de pagamento (forma vazia quando não informada).
+ * Incrementada na baixa de cada mensalidade; base da série de receita dos relatórios.
+ */
+@Entity
+@Table(name = "receita_diaria")
+@IdClass(ReceitaDiaria.Chave.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReceitaDiaria {
+
+    @Id
+    private LocalDate data;
+
+    @Id
+    @Column(name = "forma_pagamento", nullable = false)
+    private String formaPagamento;
+
+    @Column(name = "valor_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal valorTotal;
+
+    @Column(nullable = false)
+    private Long quantidade;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+        private LocalDate data;
+        private String formaPagamento;
+    }
+}
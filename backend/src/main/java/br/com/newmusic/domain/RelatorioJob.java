@@ -0,0 +1,65 @@
+package br.com.newmusic.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pedido de relatório assíncrono. Fica no banco para qualquer instância responder o status e o download; o
+ * arquivo gerado fica no diretório de relatórios, que precisa ser compartilhado entre as instâncias.
+ */
+@Entity
+@Table(name = "relatorio_job")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RelatorioJob {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(nullable = false, length = 50)
+    private String relatorio;
+
+    /** Extensão do formato (csv, ndjson ou xlsx). */
+    @Column(nullable = false, length = 10)
+    private String formato;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatusRelatorioJob status;
+
+    @Column(name = "linhas_processadas", nullable = false)
+    @Builder.Default
+    private Long linhasProcessadas = 0L;
+
+    /** Instância que gera o arquivo (pid@host). */
+    @Column(nullable = false)
+    private String no;
+
+    @Column(name = "criado_em", nullable = false)
+    private LocalDateTime criadoEm;
+
+    @Column(name = "iniciado_em")
+    private LocalDateTime iniciadoEm;
+
+    @Column(name = "concluido_em")
+    private LocalDateTime concluidoEm;
+
+    @Column(name = "mensagem_erro", length = 2000)
+    private String mensagemErro;
+
+    @Column(length = 1000)
+    private String arquivo;
+
+    public boolean ativo() {
+        return status == StatusRelatorioJob.PENDENTE || status == StatusRelatorioJob.EXECUTANDO;
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.newmusic.domain;
+
+public enum StatusJobExecucao {
+    EXECUTANDO,
+    SUCESSO,
+    /** Terminou com lotes com erro (os demais lotes ficaram gravados). */
+    FALHA,
+    /** A instância caiu no meio da execução, sem concluí-la. */
+    ERRO
+}
@@ -0,0 +1,8 @@
+package br.com.newmusic.domain;
+
+public enum StatusRelatorioJob {
+    PENDENTE,
+    EXECUTANDO,
+    CONCLUIDO,
+    ERRO
+}
@@ -0,0 +1,8 @@
+package br.com.newmusic.domain;
+
+public enum TipoExecucaoJob {
+    AGENDADA,
+    /** Disparada na subida do servidor para cobrir horários agendados perdidos. */
+    RECUPERACAO,
+    MANUAL
+}
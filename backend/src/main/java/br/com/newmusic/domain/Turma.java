@@ -29,6 +29,11 @@ public class Turma {
     private String sala;
     private Integer capacidade;
 
+    /** Matrículas ativas; só muda pelas consultas atômicas de {@code TurmaRepository} (reservarVaga/liberarVaga). */
+    @Column(name = "vagas_ocupadas", insertable = false, updatable = false)
+    @Builder.Default
+    private Integer vagasOcupadas = 0;
+
     @Column(nullable = false)
     @Builder.Default
     private Boolean ativo = true;
@@ -4,13 +4,14 @@ import br.com.newmusic.domain.Aluno;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface AlunoRepository extends JpaRepository<Aluno, Long> {
+public interface AlunoRepository extends JpaRepository<Aluno, Long>, JpaSpecificationExecutor<Aluno> {
 
     Optional<Aluno> findByEmail(String email);
 
@@ -18,8 +19,14 @@ public interface AlunoRepository extends JpaRepository<Aluno, Long> {
 
     boolean existsByEmailAndIdNot(String email, Long id);
 
-    Page<Aluno> findByNomeContainingIgnoreCaseOrCpfContaining(String nome, String cpf, Pageable pageable);
+    /** {@code padrao}: ver {@link br.com.newmusic.util.StringUtil#padraoBuscaPessoa}; usa o índice trigram de nome/CPF. */
+    @Query("SELECT a FROM Aluno a WHERE f_busca_pessoa(a.nome, a.cpf) LIKE :padrao")
+    Page<Aluno> buscar(@Param("padrao") String padrao, Pageable pageable);
 
     @Query("SELECT a FROM Aluno a WHERE LOWER(TRIM(a.nome)) = LOWER(TRIM(:nome))")
     List<Aluno> findByNomeTrimEqualsIgnoreCase(@Param("nome") String nome);
+
+    /** Importação em massa: [id, nome, email, cpf, ativo] de todos os alunos, para validar duplicidades em memória. */
+    @Query("SELECT a.id, a.nome, a.email, a.cpf, a.ativo FROM Aluno a")
+    List<Object[]> findDadosImportacao();
 }
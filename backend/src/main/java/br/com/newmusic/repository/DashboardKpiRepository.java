@@ -0,0 +1,69 @@
+package br.com.newmusic.repository;
+
+import br.com.newmusic.domain.DashboardKpi;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface DashboardKpiRepository extends JpaRepository<DashboardKpi, Long> {
+
+    /** Recalcula todos os indicadores a partir das tabelas de origem (cria a linha se ainda não existir). */
+    String RECALCULAR_TUDO = "INSERT INTO dashboard_kpi (id, alunos, professores, turmas, matriculas_ativas, " +
+            "alunos_com_pagamento_atrasado, alunos_com_mensalidade, pendentes, atualizado_em) VALUES (1, " +
+            "(SELECT COUNT(*) FROM aluno), " +
+            "(SELECT COUNT(*) FROM professor), " +
+            "(SELECT COUNT(*) FROM turma), " +
+            "(SELECT COUNT(*) FROM matricula WHERE ativo = true), " +
+            "(SELECT COUNT(DISTINCT aluno_id) FROM mensalidade WHERE status = 'ATRASADO'), " +
+            "(SELECT COUNT(DISTINCT aluno_id) FROM mensalidade), " +
+            "(SELECT COUNT(*) FROM mensalidade WHERE status IN ('PENDENTE', 'ATRASADO')), " +
+            "CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (id) DO UPDATE SET alunos = EXCLUDED.alunos, professores = EXCLUDED.professores, " +
+            "turmas = EXCLUDED.turmas, matriculas_ativas = EXCLUDED.matriculas_ativas, " +
+            "alunos_com_pagamento_atrasado = EXCLUDED.alunos_com_pagamento_atrasado, " +
+            "alunos_com_mensalidade = EXCLUDED.alunos_com_mensalidade, pendentes = EXCLUDED.pendentes, " +
+            "atualizado_em = EXCLUDED.atualizado_em";
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = RECALCULAR_TUDO, nativeQuery = true)
+    int recalcularTudo();
+
+    /**
+     * Recalcula só os indicadores financeiros, usado após alterações em lote de mensalidades. Chamado no meio de
+     * transações que ainda usam as entidades carregadas; o UPDATE nativo só toca {@code dashboard_kpi}, então a
+     * sessão não é limpa.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE dashboard_kpi SET " +
+            "alunos_com_pagamento_atrasado = (SELECT COUNT(DISTINCT aluno_id) FROM mensalidade WHERE status = 'ATRASADO'), " +
+            "alunos_com_mensalidade = (SELECT COUNT(DISTINCT aluno_id) FROM mensalidade), " +
+            "pendentes = (SELECT COUNT(*) FROM mensalidade WHERE status IN ('PENDENTE', 'ATRASADO')), " +
+            "atualizado_em = CURRENT_TIMESTAMP WHERE id = 1", nativeQuery = true)
+    int recalcularFinanceiro();
+
+    @Modifying
+    @Query("UPDATE DashboardKpi k SET k.alunos = k.alunos + :delta, k.atualizadoEm = CURRENT_TIMESTAMP WHERE k.id = 1")
+    int somarAlunos(@Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE DashboardKpi k SET k.professores = k.professores + :delta, k.atualizadoEm = CURRENT_TIMESTAMP WHERE k.id = 1")
+    int somarProfessores(@Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE DashboardKpi k SET k.turmas = k.turmas + :delta, k.atualizadoEm = CURRENT_TIMESTAMP WHERE k.id = 1")
+    int somarTurmas(@Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE DashboardKpi k SET k.matriculasAtivas = k.matriculasAtivas + :delta, k.atualizadoEm = CURRENT_TIMESTAMP WHERE k.id = 1")
+    int somarMatriculasAtivas(@Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE DashboardKpi k SET k.pendentes = k.pendentes + :pendentes, " +
+            "k.alunosComPagamentoAtrasado = k.alunosComPagamentoAtrasado + :alunosAtrasados, " +
+            "k.alunosComMensalidade = k.alunosComMensalidade + :alunosComMensalidade, " +
+            "k.atualizadoEm = CURRENT_TIMESTAMP WHERE k.id = 1")
+    int somarFinanceiro(@Param("pendentes") long pendentes,
+                        @Param("alunosAtrasados") long alunosAtrasados,
+                        @Param("alunosComMensalidade") long alunosComMensalidade);
+}
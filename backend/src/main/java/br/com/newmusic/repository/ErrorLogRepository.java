@@ -1,15 +1,8 @@
 package br.com.newmusic.repository;
 
 import br.com.newmusic.domain.ErrorLog;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.time.LocalDateTime;
-import java.util.List;
-
+/** Consultas do relatório de erros: {@link ReportSpecifications#erros}. */
 public interface ErrorLogRepository extends JpaRepository<ErrorLog, Long> {
-
-    List<ErrorLog> findAllByOrderByIdAsc(Pageable pageable);
-
-    List<ErrorLog> findByDataHoraBetweenOrderByIdAsc(LocalDateTime dataInicio, LocalDateTime dataFim, Pageable pageable);
 }
@@ -0,0 +1,65 @@
+package br.com.newmusic.repository;
+
+import br.com.newmusic.domain.FechamentoMensal;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface FechamentoMensalRepository extends JpaRepository<FechamentoMensal, Long> {
+
+    /**
+     * Chave do advisory lock do fechamento (uma chave só, {@code bigint}: não colide com as de
+     * {@link br.com.newmusic.service.CoordenacaoJobs}).
+     */
+    long CHAVE_LOCK = 1L;
+
+    /**
+     * Trava compartilhada até o fim da transação, tomada pelas escritas em parcelas antes de conferir se o mês está
+     * fechado: escritas não se bloqueiam entre si, mas fechar/reabrir espera todas terminarem.
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock_shared(" + CHAVE_LOCK + ")) l", nativeQuery = true)
+    Integer travarCompartilhado();
+
+    /** Trava exclusiva até o fim da transação, para fechar ou reabrir um mês sem escrita em andamento. */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(" + CHAVE_LOCK + ")) l", nativeQuery = true)
+    Integer travarExclusivo();
+
+    Optional<FechamentoMensal> findByAnoAndMes(Integer ano, Integer mes);
+
+    boolean existsByAnoAndMes(Integer ano, Integer mes);
+
+    List<FechamentoMensal> findByAnoOrderByMes(Integer ano);
+
+    /** Meses fechados entre dois meses (inclusive), como {@code ano * 100 + mes}. */
+    @Query("SELECT f.ano * 100 + f.mes FROM FechamentoMensal f WHERE f.ano * 100 + f.mes BETWEEN :inicioYm AND :fimYm")
+    List<Integer> findMesesFechados(@Param("inicioYm") int inicioYm, @Param("fimYm") int fimYm);
+
+    /** Recebido por forma de pagamento nos meses fechados do intervalo. Linha: [ano, mes, formaPagamento, valor, quantidade]. */
+    @Query("SELECT f.ano, f.mes, r.formaPagamento, r.valor, r.quantidade FROM FechamentoMensal f JOIN f.recebimentos r " +
+            "WHERE f.ano * 100 + f.mes BETWEEN :inicioYm AND :fimYm AND (:formaPagamento IS NULL OR r.formaPagamento = :formaPagamento)")
+    List<Object[]> findRecebimentos(@Param("inicioYm") int inicioYm, @Param("fimYm") int fimYm, @Param("formaPagamento") String formaPagamento);
+
+    /**
+     * Inadimplência por faixa congelada no fechamento, no mesmo formato de
+     * {@link MensalidadeRepository#findInadimplenciaPorFaixa} (os aliases permitem a mesma ordenação).
+     */
+    @Query(value = "SELECT i.alunoId AS id, i.alunoNome AS alunoNome, i.quantidadeParcelas AS quantidadeParcelas, " +
+            "i.vencimentoMaisAntigo AS vencimentoMaisAntigo, i.ate30 AS ate30, i.de31a60 AS de31a60, i.de61a90 AS de61a90, " +
+            "i.acima90 AS acima90, i.valorTotal AS valorTotal " +
+            "FROM FechamentoMensal f JOIN f.inadimplencia i WHERE f.ano = :ano AND f.mes = :mes",
+            countQuery = "SELECT COUNT(i) FROM FechamentoMensal f JOIN f.inadimplencia i WHERE f.ano = :ano AND f.mes = :mes")
+    Page<Object[]> findInadimplenciaPorFaixa(@Param("ano") Integer ano, @Param("mes") Integer mes, Pageable pageable);
+
+    @Query("SELECT COUNT(f) > 0 FROM FechamentoMensal f WHERE EXISTS "
+            + "(SELECT 1 FROM Mensalidade m WHERE m.matricula.id = :matriculaId AND m.ano = f.ano AND m.mes = f.mes)")
+    boolean existsComParcelaDaMatricula(@Param("matriculaId") Long matriculaId);
+
+    @Query("SELECT COUNT(f) > 0 FROM FechamentoMensal f WHERE f.ano * 100 + f.mes BETWEEN :inicioYm AND :fimYm AND EXISTS "
+            + "(SELECT 1 FROM Mensalidade m WHERE m.aluno.id = :alunoId AND m.matricula IS NULL AND m.ano = f.ano AND m.mes = f.mes)")
+    boolean existsComParcelaAvulsaDoAluno(@Param("alunoId") Long alunoId, @Param("inicioYm") int inicioYm, @Param("fimYm") int fimYm);
+}
@@ -0,0 +1,7 @@
+package br.com.newmusic.repository;
+
+import br.com.newmusic.domain.Feriado;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface FeriadoRepository extends JpaRepository<Feriado, Long> {
+}
@@ -2,10 +2,15 @@ package br.com.newmusic.repository;
 
 import br.com.newmusic.domain.Grupo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface GrupoRepository extends JpaRepository<Grupo, Long> {
 
     List<Grupo> findAllByOrderByNomeAsc();
+
+    /** id, nome e quantidade de instrumentos de cada grupo, em uma única consulta. */
+    @Query("SELECT g.id, g.nome, COUNT(i.id) FROM Grupo g LEFT JOIN Instrumento i ON i.grupo = g GROUP BY g.id, g.nome ORDER BY g.id")
+    List<Object[]> findIdNomeEQuantidadeInstrumentos();
 }
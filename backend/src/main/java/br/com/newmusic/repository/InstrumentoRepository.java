@@ -4,6 +4,8 @@ import br.com.newmusic.domain.Instrumento;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,4 +25,11 @@ public interface InstrumentoRepository extends JpaRepository<Instrumento, Long>
     List<Instrumento> findByAtivoTrueAndGrupoIdOrderByNomeAsc(Long grupoId);
 
     Page<Instrumento> findByGrupoIdOrderByNomeAsc(Long grupoId, Pageable pageable);
+
+    /** id, nome, descrição, nome do grupo, ativo e quantidade de turmas de cada instrumento, em uma única consulta. */
+    @Query("SELECT i.id, i.nome, i.descricao, g.nome, i.ativo, COUNT(t.id) FROM Instrumento i JOIN i.grupo g " +
+            "LEFT JOIN Turma t ON t.instrumento = i " +
+            "WHERE (:grupoId IS NULL OR g.id = :grupoId) " +
+            "GROUP BY i.id, i.nome, i.descricao, g.nome, i.ativo ORDER BY i.id")
+    List<Object[]> findResumoComQuantidadeTurmas(@Param("grupoId") Long grupoId);
 }
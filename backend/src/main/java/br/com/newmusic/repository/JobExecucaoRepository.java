@@ -0,0 +1,20 @@
+package br.com.newmusic.repository;
+
+import br.com.newmusic.domain.JobExecucao;
+import br.com.newmusic.domain.StatusJobExecucao;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface JobExecucaoRepository extends JpaRepository<JobExecucao, Long> {
+
+    List<JobExecucao> findByOrderByInicioDesc(Pageable pageable);
+
+    List<JobExecucao> findByJobOrderByInicioDesc(String job, Pageable pageable);
+
+    List<JobExecucao> findByJobAndStatus(String job, StatusJobExecucao status);
+
+    Optional<JobExecucao> findFirstByJobAndStatusOrderByInicioDesc(String job, StatusJobExecucao status);
+}
@@ -0,0 +1,25 @@
+package br.com.newmusic.repository;
+
+import br.com.newmusic.domain.ListaEspera;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ListaEsperaRepository extends JpaRepository<ListaEspera, Long> {
+
+    /**
+     * Primeira da fila da turma, travada até o fim da transação; entradas travadas por outra promoção em andamento
+     * são puladas.
+     */
+    @Query(value = "SELECT * FROM lista_espera WHERE turma_id = :turmaId ORDER BY criado_em, id LIMIT 1 FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<ListaEspera> findProximaParaPromover(@Param("turmaId") Long turmaId);
+
+    @Query("SELECT e FROM ListaEspera e JOIN FETCH e.aluno WHERE e.turma.id = :turmaId ORDER BY e.criadoEm, e.id")
+    List<ListaEspera> findByTurmaIdWithAluno(@Param("turmaId") Long turmaId);
+
+    boolean existsByTurmaIdAndAlunoId(Long turmaId, Long alunoId);
+}
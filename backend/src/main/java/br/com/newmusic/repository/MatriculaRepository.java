@@ -1,9 +1,11 @@
 package br.com.newmusic.repository;
 
 import br.com.newmusic.domain.Matricula;
+import br.com.newmusic.domain.TurmaHorario;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -11,27 +13,67 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
-public interface MatriculaRepository extends JpaRepository<Matricula, Long> {
+public interface MatriculaRepository extends JpaRepository<Matricula, Long>, JpaSpecificationExecutor<Matricula> {
 
     @Query("SELECT DISTINCT mat FROM Matricula mat JOIN FETCH mat.turma t JOIN FETCH t.instrumento JOIN FETCH t.professor LEFT JOIN FETCH t.horarios WHERE mat.id IN :ids")
     List<Matricula> findByIdInWithTurma(@Param("ids") List<Long> ids);
 
+    @Query("SELECT mat FROM Matricula mat JOIN FETCH mat.aluno WHERE mat.id IN :ids")
+    List<Matricula> findByIdInWithAluno(@Param("ids") List<Long> ids);
+
     @Query("SELECT DISTINCT m.aluno.id FROM Matricula m WHERE m.ativo = true")
     List<Long> findDistinctAlunoIdsByAtivoTrue();
 
+    /** Importação: matrículas ativas como [id, alunoId, turmaId]. */
+    @Query("SELECT m.id, m.aluno.id, m.turma.id FROM Matricula m WHERE m.ativo = true")
+    List<Object[]> findAtivasAlunoETurma();
+
+    /** Horários das turmas das matrículas ativas do aluno, sem a matrícula {@code matriculaIgnorada} (a que está sendo editada). */
+    @Query("SELECT h FROM Matricula m JOIN m.turma t JOIN t.horarios h WHERE m.aluno.id = :alunoId AND m.ativo = true " +
+            "AND (:matriculaIgnorada IS NULL OR m.id <> :matriculaIgnorada)")
+    List<TurmaHorario> findHorariosAtivosDoAluno(@Param("alunoId") Long alunoId, @Param("matriculaIgnorada") Long matriculaIgnorada);
+
+    /**
+     * Previsão: meses do contrato das matrículas ativas (mesma regra da geração de parcelas: até o mês anterior a
+     * {@code dataFim}, ou 12/24 meses conforme aulas por semana) que caem entre {@code primeiroMes} e {@code ultimoMes}
+     * e ainda não têm parcela gerada. Linha: [ano, mes, quantidade, valorCurso somado].
+     */
+    @Query(value = "SELECT CAST(EXTRACT(YEAR FROM s.mes) AS integer) AS ano, CAST(EXTRACT(MONTH FROM s.mes) AS integer) AS mes, " +
+            "COUNT(*) AS quantidade, SUM(mt.valor_curso) AS valor " +
+            "FROM matricula mt CROSS JOIN LATERAL generate_series(" +
+            "GREATEST(date_trunc('month', CAST(mt.data_inicio AS timestamp)), CAST(:primeiroMes AS timestamp)), " +
+            "LEAST(CASE WHEN mt.data_fim IS NOT NULL THEN date_trunc('month', CAST(mt.data_fim AS timestamp)) - INTERVAL '1 month' " +
+            "WHEN mt.aulas_por_semana IS NOT NULL AND mt.aulas_por_semana <> 2 THEN date_trunc('month', CAST(mt.data_inicio AS timestamp)) + INTERVAL '23 months' " +
+            "ELSE date_trunc('month', CAST(mt.data_inicio AS timestamp)) + INTERVAL '11 months' END, CAST(:ultimoMes AS timestamp)), " +
+            "INTERVAL '1 month') AS s(mes) " +
+            "WHERE mt.ativo = TRUE AND mt.valor_curso IS NOT NULL AND mt.data_vencimento IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM mensalidade m WHERE m.matricula_id = mt.id " +
+            "AND m.ano = EXTRACT(YEAR FROM s.mes) AND m.mes = EXTRACT(MONTH FROM s.mes)) " +
+            "GROUP BY 1, 2",
+            nativeQuery = true)
+    List<Object[]> somarMesesContratadosSemParcela(@Param("primeiroMes") LocalDate primeiroMes, @Param("ultimoMes") LocalDate ultimoMes);
+
     List<Matricula> findByAlunoId(Long alunoId);
 
     List<Matricula> findByAlunoIdAndAtivoTrue(Long alunoId);
 
     List<Matricula> findByTurmaId(Long turmaId);
 
+    @Query("SELECT mat FROM Matricula mat JOIN FETCH mat.aluno WHERE mat.turma.id = :turmaId")
+    List<Matricula> findByTurmaIdWithAluno(@Param("turmaId") Long turmaId);
+
     long countByTurmaIdAndAtivoTrue(Long turmaId);
 
+    @Query("SELECT m.turma.id, COUNT(m) FROM Matricula m WHERE m.ativo = true GROUP BY m.turma.id")
+    List<Object[]> countAtivasGroupByTurmaId();
+
     Optional<Matricula> findByAlunoIdAndTurmaIdAndAtivoTrue(Long alunoId, Long turmaId);
 
     boolean existsByAlunoIdAndTurmaIdAndAtivoTrue(Long alunoId, Long turmaId);
 
-    Page<Matricula> findByAlunoNomeContainingIgnoreCaseOrAlunoCpfContainingOrderByAlunoNomeAscDataInicioDesc(String nome, String cpf, Pageable pageable);
+    @Query(value = "SELECT mat FROM Matricula mat JOIN mat.aluno a WHERE f_busca_pessoa(a.nome, a.cpf) LIKE :padrao ORDER BY a.nome, mat.dataInicio DESC",
+            countQuery = "SELECT COUNT(mat) FROM Matricula mat JOIN mat.aluno a WHERE f_busca_pessoa(a.nome, a.cpf) LIKE :padrao")
+    Page<Matricula> buscarPorAluno(@Param("padrao") String padrao, Pageable pageable);
 
     List<Matricula> findByDataInicioBetweenOrderByDataInicioDesc(LocalDate start, LocalDate end);
 }
@@ -5,15 +5,24 @@ import br.com.newmusic.domain.StatusMensalidade;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface MensalidadeRepository extends JpaRepository<Mensalidade, Long> {
+public interface MensalidadeRepository extends JpaRepository<Mensalidade, Long>, JpaSpecificationExecutor<Mensalidade> {
+
+    /** Valor devido de uma parcela: valor + multa + juros. */
+    String VALOR_DEVIDO = "(m.valor + COALESCE(m.valorMulta, 0) + COALESCE(m.valorJuros, 0))";
+    /** Nome/CPF do aluno contra um padrão de {@link br.com.newmusic.util.StringUtil#padraoBuscaPessoa} (índice trigram). */
+    String BUSCA_ALUNO = "f_busca_pessoa(m.aluno.nome, m.aluno.cpf) LIKE :padrao";
+    String FILTROS_INADIMPLENCIA = "m.status = :status AND (:ano IS NULL OR m.ano = :ano) AND (:mes IS NULL OR m.mes = :mes)";
 
     List<Mensalidade> findByAlunoIdOrderByAnoDescMesDesc(Long alunoId);
 
@@ -25,18 +34,18 @@ public interface MensalidadeRepository extends JpaRepository<Mensalidade, Long>
 
     Page<Mensalidade> findByAlunoIdAndMatricula_AtivoTrueOrderByAnoAscMesAsc(Long alunoId, Pageable pageable);
 
-    @Query(value = "SELECT m.aluno.id, m.aluno.nome, COUNT(m) FROM Mensalidade m WHERE (:busca IS NULL OR :busca = '' OR LOWER(m.aluno.nome) LIKE LOWER(CONCAT('%', :busca, '%')) OR m.aluno.cpf LIKE CONCAT('%', :busca, '%')) GROUP BY m.aluno.id, m.aluno.nome ORDER BY m.aluno.nome",
-            countQuery = "SELECT COUNT(DISTINCT m.aluno.id) FROM Mensalidade m WHERE (:busca IS NULL OR :busca = '' OR LOWER(m.aluno.nome) LIKE LOWER(CONCAT('%', :busca, '%')) OR m.aluno.cpf LIKE CONCAT('%', :busca, '%'))")
-    Page<Object[]> findDistinctAlunoIdNomeECount(Pageable pageable, @Param("busca") String busca);
+    @Query(value = "SELECT m.aluno.id, m.aluno.nome, COUNT(m) FROM Mensalidade m WHERE (:padrao IS NULL OR " + BUSCA_ALUNO + ") GROUP BY m.aluno.id, m.aluno.nome ORDER BY m.aluno.nome",
+            countQuery = "SELECT COUNT(DISTINCT m.aluno.id) FROM Mensalidade m WHERE (:padrao IS NULL OR " + BUSCA_ALUNO + ")")
+    Page<Object[]> findDistinctAlunoIdNomeECount(Pageable pageable, @Param("padrao") String padrao);
 
     @Query(value = "SELECT m.matricula.id, m.aluno.id, m.aluno.nome, COUNT(m) " +
             "FROM Mensalidade m " +
             "WHERE m.matricula IS NOT NULL AND m.matricula.ativo = true " +
-            "AND (:busca IS NULL OR :busca = '' OR LOWER(m.aluno.nome) LIKE LOWER(CONCAT('%', :busca, '%')) OR m.aluno.cpf LIKE CONCAT('%', :busca, '%')) " +
+            "AND (:padrao IS NULL OR " + BUSCA_ALUNO + ") " +
             "GROUP BY m.matricula.id, m.aluno.id, m.aluno.nome ORDER BY m.aluno.nome, m.matricula.id",
             countQuery = "SELECT COUNT(DISTINCT m.matricula.id) FROM Mensalidade m WHERE m.matricula IS NOT NULL AND m.matricula.ativo = true " +
-            "AND (:busca IS NULL OR :busca = '' OR LOWER(m.aluno.nome) LIKE LOWER(CONCAT('%', :busca, '%')) OR m.aluno.cpf LIKE CONCAT('%', :busca, '%'))")
-    Page<Object[]> findDistinctMatriculaAlunoIdNomeECount(Pageable pageable, @Param("busca") String busca);
+            "AND (:padrao IS NULL OR " + BUSCA_ALUNO + ")")
+    Page<Object[]> findDistinctMatriculaAlunoIdNomeECount(Pageable pageable, @Param("padrao") String padrao);
 
     List<Mensalidade> findByAnoAndMesOrderByAluno_NomeAsc(Integer ano, Integer mes);
 
@@ -50,10 +59,16 @@ public interface MensalidadeRepository extends JpaRepository<Mensalidade, Long>
 
     Optional<Mensalidade> findByAlunoIdAndAnoAndMes(Long alunoId, Integer ano, Integer mes);
 
-    Optional<Mensalidade> findByAlunoIdAndMatricula_AtivoTrueAndAnoAndMes(Long alunoId, Integer ano, Integer mes);
+    /** Alunos (entre os informados) cujas mensalidades do mês, de matrículas ativas, estão todas com o status dado. */
+    @Query("SELECT m.aluno.id FROM Mensalidade m WHERE m.aluno.id IN :alunoIds AND m.matricula.ativo = true AND m.ano = :ano AND m.mes = :mes "
+            + "GROUP BY m.aluno.id HAVING COUNT(m) = COUNT(CASE WHEN m.status = :status THEN 1 END)")
+    List<Long> findAlunoIdsComMesPago(@Param("alunoIds") Collection<Long> alunoIds, @Param("ano") int ano, @Param("mes") int mes, @Param("status") StatusMensalidade status);
 
     boolean existsByMatriculaIdAndStatus(Long matriculaId, StatusMensalidade status);
 
+    @Query("SELECT DISTINCT m.matricula.id FROM Mensalidade m WHERE m.matricula.id IN :matriculaIds")
+    List<Long> findMatriculaIdsComMensalidade(@Param("matriculaIds") List<Long> matriculaIds);
+
     @Query("SELECT COUNT(m) FROM Mensalidade m WHERE m.aluno.id = :alunoId AND m.matricula IS NULL AND (m.ano * 100 + m.mes) >= :startYm AND (m.ano * 100 + m.mes) <= :endYm AND m.status = :status")
     long countByAlunoIdAndMatriculaNullAndPeriodoAndStatus(@Param("alunoId") Long alunoId, @Param("startYm") int startYm, @Param("endYm") int endYm, @Param("status") StatusMensalidade status);
 
@@ -69,17 +84,21 @@ public interface MensalidadeRepository extends JpaRepository<Mensalidade, Long>
 
     boolean existsByAlunoIdAndStatus(Long alunoId, StatusMensalidade status);
 
+    boolean existsByAlunoId(Long alunoId);
+
     List<Mensalidade> findByAlunoIdAndStatus(Long alunoId, StatusMensalidade status);
 
-    Page<Mensalidade> findByAlunoNomeContainingIgnoreCaseOrAlunoCpfContainingOrderByAlunoNomeAscAnoAscMesAsc(String nome, String cpf, Pageable pageable);
+    @Query(value = "SELECT m FROM Mensalidade m JOIN m.aluno a WHERE f_busca_pessoa(a.nome, a.cpf) LIKE :padrao ORDER BY a.nome, m.ano, m.mes",
+            countQuery = "SELECT COUNT(m) FROM Mensalidade m JOIN m.aluno a WHERE f_busca_pessoa(a.nome, a.cpf) LIKE :padrao")
+    Page<Mensalidade> buscarPorAluno(@Param("padrao") String padrao, Pageable pageable);
 
     long countByStatusIn(List<StatusMensalidade> statuses);
 
     @Query("SELECT COUNT(DISTINCT m.aluno.id) FROM Mensalidade m")
     long countDistinctAluno();
 
-    @Query("SELECT COUNT(DISTINCT m.aluno.id) FROM Mensalidade m WHERE LOWER(m.aluno.nome) LIKE LOWER(CONCAT('%', :busca, '%')) OR m.aluno.cpf LIKE CONCAT('%', :busca, '%')")
-    long countDistinctAlunoByBusca(@Param("busca") String busca);
+    @Query("SELECT COUNT(DISTINCT m.aluno.id) FROM Mensalidade m WHERE " + BUSCA_ALUNO)
+    long countDistinctAlunoByBusca(@Param("padrao") String padrao);
 
     @Query("SELECT COUNT(DISTINCT m.aluno.id) FROM Mensalidade m WHERE m.status = :status")
     long countDistinctAlunoByStatus(@Param("status") StatusMensalidade status);
@@ -90,5 +109,131 @@ public interface MensalidadeRepository extends JpaRepository<Mensalidade, Long>
     @Query("SELECT COUNT(DISTINCT m.aluno.id) FROM Mensalidade m WHERE m.status = :status AND m.ano = :ano")
     long countDistinctAlunoByStatusAndAno(@Param("status") StatusMensalidade status, @Param("ano") Integer ano);
 
-    List<Mensalidade> findByStatusAndVencimentoBefore(StatusMensalidade status, LocalDate vencimento);
+    /**
+     * Dívida por aluno em faixas de atraso, agrupada no banco. Os limites são datas de vencimento
+     * (data base menos 30, 60 e 90 dias): [0–30] vencimento >= limite30, [31–60] entre limite60 e limite30,
+     * [61–90] entre limite90 e limite60, [90+] antes de limite90.
+     * Linha: [alunoId, alunoNome, quantidadeParcelas, vencimentoMaisAntigo, ate30, de31a60, de61a90, acima90, valorTotal].
+     */
+    @Query(value = "SELECT m.aluno.id AS id, m.aluno.nome AS alunoNome, COUNT(m) AS quantidadeParcelas, " +
+            "MIN(m.vencimento) AS vencimentoMaisAntigo, " +
+            "COALESCE(SUM(" + VALOR_DEVIDO + ") FILTER (WHERE m.vencimento >= :limite30), 0) AS ate30, " +
+            "COALESCE(SUM(" + VALOR_DEVIDO + ") FILTER (WHERE m.vencimento < :limite30 AND m.vencimento >= :limite60), 0) AS de31a60, " +
+            "COALESCE(SUM(" + VALOR_DEVIDO + ") FILTER (WHERE m.vencimento < :limite60 AND m.vencimento >= :limite90), 0) AS de61a90, " +
+            "COALESCE(SUM(" + VALOR_DEVIDO + ") FILTER (WHERE m.vencimento < :limite90), 0) AS acima90, " +
+            "SUM(" + VALOR_DEVIDO + ") AS valorTotal " +
+            "FROM Mensalidade m WHERE " + FILTROS_INADIMPLENCIA + " GROUP BY m.aluno.id, m.aluno.nome",
+            countQuery = "SELECT COUNT(DISTINCT m.aluno.id) FROM Mensalidade m WHERE " + FILTROS_INADIMPLENCIA)
+    Page<Object[]> findInadimplenciaPorFaixa(@Param("status") StatusMensalidade status,
+                                             @Param("ano") Integer ano,
+                                             @Param("mes") Integer mes,
+                                             @Param("limite30") LocalDate limite30,
+                                             @Param("limite60") LocalDate limite60,
+                                             @Param("limite90") LocalDate limite90,
+                                             Pageable pageable);
+
+    /**
+     * Fechamento: parcelas da competência com {@code status} por aluno, com as faixas de atraso de
+     * {@link #findInadimplenciaPorFaixa}. Linha: [alunoId, alunoNome, quantidadeParcelas, vencimentoMaisAntigo, valor,
+     * ate30, de31a60, de61a90, acima90, valorTotal].
+     */
+    @Query("SELECT m.aluno.id, m.aluno.nome, COUNT(m), MIN(m.vencimento), SUM(m.valor), " +
+            "COALESCE(SUM(" + VALOR_DEVIDO + ") FILTER (WHERE m.vencimento >= :limite30), 0), " +
+            "COALESCE(SUM(" + VALOR_DEVIDO + ") FILTER (WHERE m.vencimento < :limite30 AND m.vencimento >= :limite60), 0), " +
+            "COALESCE(SUM(" + VALOR_DEVIDO + ") FILTER (WHERE m.vencimento < :limite60 AND m.vencimento >= :limite90), 0), " +
+            "COALESCE(SUM(" + VALOR_DEVIDO + ") FILTER (WHERE m.vencimento < :limite90), 0), " +
+            "SUM(" + VALOR_DEVIDO + ") " +
+            "FROM Mensalidade m WHERE m.status = :status AND m.ano = :ano AND m.mes = :mes GROUP BY m.aluno.id, m.aluno.nome")
+    List<Object[]> somarInadimplenciaPorAluno(@Param("status") StatusMensalidade status,
+                                              @Param("ano") int ano,
+                                              @Param("mes") int mes,
+                                              @Param("limite30") LocalDate limite30,
+                                              @Param("limite60") LocalDate limite60,
+                                              @Param("limite90") LocalDate limite90);
+
+    /**
+     * Previsão: parcelas em aberto (de matrículas ativas ou avulsas) por mês de vencimento em {@code [inicio, fim)}.
+     * Linha: [ano, mes, quantidade, valorDevido].
+     */
+    @Query("SELECT YEAR(m.vencimento), MONTH(m.vencimento), COUNT(m), SUM(" + VALOR_DEVIDO + ") FROM Mensalidade m LEFT JOIN m.matricula mt " +
+            "WHERE m.status IN :status AND m.vencimento >= :inicio AND m.vencimento < :fim AND (mt IS NULL OR mt.ativo = true) " +
+            "GROUP BY YEAR(m.vencimento), MONTH(m.vencimento)")
+    List<Object[]> somarEmAbertoPorMesVencimento(@Param("status") Collection<StatusMensalidade> status,
+                                                 @Param("inicio") LocalDate inicio,
+                                                 @Param("fim") LocalDate fim);
+
+    /** Previsão: parcelas em aberto vencidas antes de {@code inicio}. Uma linha: [quantidade, valorDevido]. */
+    @Query("SELECT COUNT(m), COALESCE(SUM(" + VALOR_DEVIDO + "), 0) FROM Mensalidade m LEFT JOIN m.matricula mt " +
+            "WHERE m.status IN :status AND m.vencimento < :inicio AND (mt IS NULL OR mt.ativo = true)")
+    List<Object[]> somarEmAbertoVencidasAntesDe(@Param("status") Collection<StatusMensalidade> status,
+                                                @Param("inicio") LocalDate inicio);
+
+    /**
+     * Histórico de recebimento por mês do ano (1–12) das parcelas vencidas em {@code [inicio, fim)}.
+     * Linha: [mes, valorTotal, valorNaoRecebidoNoPrazo (não paga até {@code tolerancia} dias após o vencimento),
+     * valorQueAtrasou (ainda em atraso ou paga após o vencimento), valorRecuperado (paga após o vencimento)].
+     */
+    @Query(value = "SELECT CAST(EXTRACT(MONTH FROM vencimento) AS integer) AS mes, SUM(valor) AS total, " +
+            "COALESCE(SUM(valor) FILTER (WHERE status <> 'PAGO' OR data_pagamento IS NULL OR data_pagamento > vencimento + CAST(:tolerancia AS integer)), 0) AS nao_recebido, " +
+            "COALESCE(SUM(valor) FILTER (WHERE status = 'ATRASADO' OR (status = 'PAGO' AND data_pagamento > vencimento)), 0) AS atrasou, " +
+            "COALESCE(SUM(valor) FILTER (WHERE status = 'PAGO' AND data_pagamento > vencimento), 0) AS recuperado " +
+            "FROM mensalidade WHERE vencimento >= :inicio AND vencimento < :fim GROUP BY 1",
+            nativeQuery = true)
+    List<Object[]> historicoRecebimentoPorMes(@Param("inicio") LocalDate inicio,
+                                              @Param("fim") LocalDate fim,
+                                              @Param("tolerancia") int tolerancia);
+
+    /** Fechamento: parcelas da competência. Uma linha: [quantidade, valor]. */
+    @Query("SELECT COUNT(m), COALESCE(SUM(m.valor), 0) FROM Mensalidade m WHERE m.ano = :ano AND m.mes = :mes")
+    List<Object[]> somarFaturado(@Param("ano") int ano, @Param("mes") int mes);
+
+    /** Fechamento: pagamentos com data no período, por forma. Linha: [forma, quantidade, valorDevido, multa, juros]. */
+    @Query("SELECT COALESCE(m.formaPagamento, ''), COUNT(m), SUM(" + VALOR_DEVIDO + "), COALESCE(SUM(m.valorMulta), 0), COALESCE(SUM(m.valorJuros), 0) " +
+            "FROM Mensalidade m WHERE m.status = :status AND m.dataPagamento BETWEEN :inicio AND :fim GROUP BY COALESCE(m.formaPagamento, '')")
+    List<Object[]> somarRecebidoPorForma(@Param("status") StatusMensalidade status, @Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    /**
+     * Fechamento: parcelas vencidas até {@code data} e não pagas até ela (ainda em aberto ou pagas depois).
+     * Uma linha: [quantidade, valor].
+     */
+    @Query("SELECT COUNT(m), COALESCE(SUM(m.valor), 0) FROM Mensalidade m " +
+            "WHERE m.vencimento <= :data AND (m.status IN :abertos OR m.dataPagamento > :data)")
+    List<Object[]> somarEmAtrasoEm(@Param("abertos") Collection<StatusMensalidade> abertos, @Param("data") LocalDate data);
+
+    /**
+     * Multa e juros calculados no banco com o mesmo arredondamento do cálculo em Java (HALF_UP, 2 casas):
+     * multa = round(valor × multa, 2); juros = round(round(valor × jurosDia, 2) × dias de atraso, 2).
+     */
+    String MULTA_SQL = "ROUND(valor * :multa, 2)";
+    String JUROS_SQL = "ROUND(ROUND(valor * :jurosDia, 2) * GREATEST(CAST(:dataReferencia AS date) - vencimento, 0), 2)";
+
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM Mensalidade m")
+    long findMaxId();
+
+    /**
+     * PENDENTE vencida antes de {@code hoje} → ATRASADO com multa e juros, num único UPDATE (o WHERE protege baixas concorrentes).
+     * A faixa de ids permite dividir a execução em fatias.
+     */
+    @Modifying
+    @Query(value = "UPDATE mensalidade SET status = 'ATRASADO', valor_multa = " + MULTA_SQL + ", valor_juros = " + JUROS_SQL + " " +
+            "WHERE status = 'PENDENTE' AND vencimento < :hoje AND id BETWEEN :idInicio AND :idFim",
+            nativeQuery = true)
+    int marcarVencidasComoAtrasado(@Param("hoje") LocalDate hoje,
+                                   @Param("dataReferencia") LocalDate dataReferencia,
+                                   @Param("multa") BigDecimal multa,
+                                   @Param("jurosDia") BigDecimal jurosDia,
+                                   @Param("idInicio") long idInicio,
+                                   @Param("idFim") long idFim);
+
+    /** Recalcula multa e juros das ATRASADO; só toca (e conta) as linhas cujo valor muda. */
+    @Modifying
+    @Query(value = "UPDATE mensalidade SET valor_multa = " + MULTA_SQL + ", valor_juros = " + JUROS_SQL + " " +
+            "WHERE status = 'ATRASADO' AND id BETWEEN :idInicio AND :idFim " +
+            "AND (valor_multa IS DISTINCT FROM " + MULTA_SQL + " OR valor_juros IS DISTINCT FROM " + JUROS_SQL + ")",
+            nativeQuery = true)
+    int recalcularMultaJurosAtrasados(@Param("dataReferencia") LocalDate dataReferencia,
+                                      @Param("multa") BigDecimal multa,
+                                      @Param("jurosDia") BigDecimal jurosDia,
+                                      @Param("idInicio") long idInicio,
+                                      @Param("idFim") long idFim);
 }
@@ -1,11 +1,17 @@
 package br.com.newmusic.repository;
 
 import br.com.newmusic.domain.PresencaProfessor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PresencaProfessorRepository extends JpaRepository<PresencaProfessor, Long> {
 
@@ -20,4 +26,14 @@ public interface PresencaProfessorRepository extends JpaRepository<PresencaProfe
     List<PresencaProfessor> findByTurmaId(Long turmaId);
 
     List<PresencaProfessor> findByTurmaIdAndDataAulaBetweenOrderByDataAulaAsc(Long turmaId, LocalDate start, LocalDate end);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM PresencaProfessor p JOIN FETCH p.professor JOIN FETCH p.turma t LEFT JOIN FETCH t.instrumento " +
+            "WHERE p.dataAula BETWEEN :start AND :end ORDER BY p.dataAula, p.id")
+    Stream<PresencaProfessor> streamByDataAulaBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM PresencaProfessor p JOIN FETCH p.professor pr JOIN FETCH p.turma t LEFT JOIN FETCH t.instrumento " +
+            "WHERE pr.id = :professorId AND p.dataAula BETWEEN :start AND :end ORDER BY p.dataAula, p.id")
+    Stream<PresencaProfessor> streamByProfessorIdAndDataAulaBetween(@Param("professorId") Long professorId, @Param("start") LocalDate start, @Param("end") LocalDate end);
 }
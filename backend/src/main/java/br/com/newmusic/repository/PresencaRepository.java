@@ -1,13 +1,16 @@
 package br.com.newmusic.repository;
 
 import br.com.newmusic.domain.Presenca;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PresencaRepository extends JpaRepository<Presenca, Long> {
 
@@ -16,9 +19,8 @@ public interface PresencaRepository extends JpaRepository<Presenca, Long> {
     @Query("SELECT p FROM Presenca p JOIN FETCH p.turma JOIN FETCH p.matricula m JOIN FETCH m.aluno WHERE p.turma.id = :turmaId ORDER BY p.dataAula ASC, m.aluno.nome")
     List<Presenca> findByTurmaIdWithAlunoOrderByDataAulaAscAlunoNome(@Param("turmaId") Long turmaId);
 
-    List<Presenca> findByTurmaIdAndDataAulaOrderByMatricula_Aluno_Nome(Long turmaId, LocalDate dataAula);
-
-    Optional<Presenca> findByTurmaIdAndMatriculaIdAndDataAula(Long turmaId, Long matriculaId, LocalDate dataAula);
+    @Query("SELECT p FROM Presenca p JOIN FETCH p.matricula m JOIN FETCH m.aluno a WHERE p.turma.id = :turmaId AND p.dataAula = :dataAula ORDER BY a.nome")
+    List<Presenca> findByTurmaIdAndDataAulaWithAluno(@Param("turmaId") Long turmaId, @Param("dataAula") LocalDate dataAula);
 
     List<Presenca> findByMatriculaIdOrderByDataAulaDesc(Long matriculaId);
 
@@ -28,8 +30,34 @@ public interface PresencaRepository extends JpaRepository<Presenca, Long> {
     @Query("SELECT p FROM Presenca p JOIN FETCH p.turma JOIN FETCH p.matricula m JOIN FETCH m.aluno WHERE p.turma.id = :turmaId AND p.dataAula BETWEEN :start AND :end ORDER BY p.dataAula, m.aluno.nome")
     List<Presenca> findByTurmaIdAndDataAulaBetweenWithAluno(@Param("turmaId") Long turmaId, @Param("start") LocalDate start, @Param("end") LocalDate end);
 
-    List<Presenca> findByMatriculaIdAndDataAulaBetweenOrderByDataAulaAsc(Long matriculaId, LocalDate start, LocalDate end);
-
-    @Query("SELECT DISTINCT p FROM Presenca p JOIN FETCH p.turma JOIN FETCH p.matricula m JOIN FETCH m.aluno ORDER BY p.dataAula ASC, m.aluno.nome")
-    List<Presenca> findAllWithAlunoOrderByDataAulaAscAlunoNome();
+    /** Presenças do período (de um aluno ou de todos) com turma, instrumento, professor e aluno numa única consulta. */
+    @Query("SELECT p FROM Presenca p JOIN FETCH p.turma t LEFT JOIN FETCH t.instrumento LEFT JOIN FETCH t.professor JOIN FETCH p.matricula m JOIN FETCH m.aluno a " +
+            "WHERE (:alunoId IS NULL OR a.id = :alunoId) AND p.dataAula BETWEEN :start AND :end ORDER BY p.dataAula, a.nome")
+    List<Presenca> findByPeriodoWithAluno(@Param("alunoId") Long alunoId, @Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    /** Frequência por aluno no período: [alunoId, alunoNome, presencas, faltas]. */
+    @Query("SELECT a.id, a.nome, COUNT(p) FILTER (WHERE p.presente = true), COUNT(p) FILTER (WHERE p.presente = false) " +
+            "FROM Presenca p JOIN p.matricula m JOIN m.aluno a " +
+            "WHERE (:alunoId IS NULL OR a.id = :alunoId) AND (:turmaId IS NULL OR p.turma.id = :turmaId) " +
+            "AND p.dataAula BETWEEN :start AND :end GROUP BY a.id, a.nome ORDER BY a.nome, a.id")
+    List<Object[]> frequenciaPorAluno(@Param("alunoId") Long alunoId, @Param("turmaId") Long turmaId,
+                                      @Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    /** Frequência por turma no período: [turmaId, instrumentoNome, professorNome, presencas, faltas]. */
+    @Query("SELECT t.id, i.nome, pr.nome, COUNT(p) FILTER (WHERE p.presente = true), COUNT(p) FILTER (WHERE p.presente = false) " +
+            "FROM Presenca p JOIN p.turma t LEFT JOIN t.instrumento i LEFT JOIN t.professor pr " +
+            "WHERE (:alunoId IS NULL OR p.matricula.aluno.id = :alunoId) AND (:turmaId IS NULL OR t.id = :turmaId) " +
+            "AND p.dataAula BETWEEN :start AND :end GROUP BY t.id, i.nome, pr.nome ORDER BY i.nome, t.id")
+    List<Object[]> frequenciaPorTurma(@Param("alunoId") Long alunoId, @Param("turmaId") Long turmaId,
+                                      @Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Presenca p JOIN FETCH p.turma t LEFT JOIN FETCH t.instrumento LEFT JOIN FETCH t.professor JOIN FETCH p.matricula m JOIN FETCH m.aluno a " +
+            "WHERE p.dataAula BETWEEN :start AND :end ORDER BY p.dataAula, a.nome")
+    Stream<Presenca> streamByDataAulaBetweenWithAluno(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Presenca p JOIN FETCH p.turma t LEFT JOIN FETCH t.instrumento LEFT JOIN FETCH t.professor JOIN FETCH p.matricula m JOIN FETCH m.aluno a " +
+            "WHERE a.id = :alunoId AND p.dataAula BETWEEN :start AND :end ORDER BY p.dataAula, a.nome")
+    Stream<Presenca> streamByAlunoIdAndDataAulaBetweenWithAluno(@Param("alunoId") Long alunoId, @Param("start") LocalDate start, @Param("end") LocalDate end);
 }
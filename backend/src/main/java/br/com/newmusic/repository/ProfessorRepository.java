@@ -4,13 +4,14 @@ import br.com.newmusic.domain.Professor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface ProfessorRepository extends JpaRepository<Professor, Long> {
+public interface ProfessorRepository extends JpaRepository<Professor, Long>, JpaSpecificationExecutor<Professor> {
 
     Optional<Professor> findByUsuario_Id(Long usuarioId);
 
@@ -22,8 +23,13 @@ public interface ProfessorRepository extends JpaRepository<Professor, Long> {
 
     List<Professor> findByAtivoTrue();
 
-    Page<Professor> findByNomeContainingIgnoreCaseOrCpfContainingOrInstrumentosContainingIgnoreCase(String nome, String cpf, String instrumentos, Pageable pageable);
+    @Query("SELECT p FROM Professor p WHERE f_busca_pessoa(p.nome, p.cpf) LIKE :padrao OR f_normalizar(p.instrumentos) LIKE :padrao")
+    Page<Professor> buscar(@Param("padrao") String padrao, Pageable pageable);
 
     @Query("SELECT p FROM Professor p WHERE LOWER(TRIM(p.nome)) = LOWER(TRIM(:nome))")
     List<Professor> findByNomeTrimEqualsIgnoreCase(@Param("nome") String nome);
+
+    /** Importação em massa: [nome, email, cpf] de todos os professores, para validar duplicidades em memória. */
+    @Query("SELECT p.nome, p.email, p.cpf FROM Professor p")
+    List<Object[]> findDadosImportacao();
 }
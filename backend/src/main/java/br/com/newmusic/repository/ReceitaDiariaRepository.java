@@ -0,0 +1,42 @@
+package br.com.newmusic.repository;
+
+import br.com.newmusic.domain.ReceitaDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReceitaDiariaRepository extends JpaRepository<ReceitaDiaria, ReceitaDiaria.Chave> {
+
+    /** Soma um pagamento ao dia/forma (cria a linha no primeiro pagamento). */
+    @Modifying
+    @Query(value = "INSERT INTO receita_diaria (data, forma_pagamento, valor_total, quantidade) " +
+            "VALUES (:data, :formaPagamento, :valor, 1) " +
+            "ON CONFLICT (data, forma_pagamento) DO UPDATE SET " +
+            "valor_total = receita_diaria.valor_total + EXCLUDED.valor_total, quantidade = receita_diaria.quantidade + 1",
+            nativeQuery = true)
+    int registrarPagamento(@Param("data") LocalDate data,
+                           @Param("formaPagamento") String formaPagamento,
+                           @Param("valor") BigDecimal valor);
+
+    /**
+     * Série de receita agrupada no PostgreSQL: [periodo (início do dia/semana/mês), formaPagamento, valorTotal, quantidade].
+     * {@code granularidade} é o campo do {@code date_trunc} (day, week ou month).
+     */
+    @Query(value = "SELECT CAST(date_trunc(:granularidade, CAST(r.data AS timestamp)) AS date) AS periodo, " +
+            "r.forma_pagamento, SUM(r.valor_total), SUM(r.quantidade) " +
+            "FROM receita_diaria r " +
+            "WHERE (CAST(:dataInicio AS date) IS NULL OR r.data >= CAST(:dataInicio AS date)) " +
+            "AND (CAST(:dataFim AS date) IS NULL OR r.data <= CAST(:dataFim AS date)) " +
+            "AND (CAST(:formaPagamento AS text) IS NULL OR r.forma_pagamento = CAST(:formaPagamento AS text)) " +
+            "GROUP BY 1, 2 ORDER BY 1, 2",
+            nativeQuery = true)
+    List<Object[]> serie(@Param("granularidade") String granularidade,
+                         @Param("dataInicio") LocalDate dataInicio,
+                         @Param("dataFim") LocalDate dataFim,
+                         @Param("formaPagamento") String formaPagamento);
+}
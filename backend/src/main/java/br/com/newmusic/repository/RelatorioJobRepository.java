@@ -0,0 +1,35 @@
+package br.com.newmusic.repository;
+
+import br.com.newmusic.domain.RelatorioJob;
+import br.com.newmusic.domain.StatusRelatorioJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface RelatorioJobRepository extends JpaRepository<RelatorioJob, String> {
+
+    /**
+     * 1º argumento do advisory lock por usuário ({@code pg_advisory_xact_lock(chave, usuario)}); fica fora das chaves
+     * de {@link br.com.newmusic.service.CoordenacaoJobs} (1, 2, ...).
+     */
+    int CHAVE_LOCK = 100;
+
+    /**
+     * Trava os jobs do usuário até o fim da transação, em todas as instâncias: a contagem dos ativos e o insert do
+     * novo job não se intercalam com os de outro pedido do mesmo usuário.
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(" + CHAVE_LOCK + ", CAST(:usuarioId AS integer))) l", nativeQuery = true)
+    Integer travarUsuario(@Param("usuarioId") Long usuarioId);
+
+    List<RelatorioJob> findByUsuarioIdOrderByCriadoEmDesc(Long usuarioId);
+
+    long countByUsuarioIdAndStatusIn(Long usuarioId, Collection<StatusRelatorioJob> status);
+
+    List<RelatorioJob> findByConcluidoEmBefore(LocalDateTime limite);
+
+    List<RelatorioJob> findByStatusInAndCriadoEmBefore(Collection<StatusRelatorioJob> status, LocalDateTime limite);
+}
@@ -0,0 +1,133 @@
+package br.com.newmusic.repository;
+
+import br.com.newmusic.domain.Aluno;
+import br.com.newmusic.domain.AuditLog;
+import br.com.newmusic.domain.ErrorLog;
+import br.com.newmusic.domain.Matricula;
+import br.com.newmusic.domain.Mensalidade;
+import br.com.newmusic.domain.Perfil;
+import br.com.newmusic.domain.Professor;
+import br.com.newmusic.domain.StatusMensalidade;
+import br.com.newmusic.domain.Usuario;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtros dos relatórios como {@link Specification}, para que WHERE, ORDER BY e LIMIT/OFFSET rodem no PostgreSQL.
+ * Parâmetros nulos não filtram.
+ */
+public final class ReportSpecifications {
+
+    private ReportSpecifications() {
+    }
+
+    public static Specification<Aluno> alunos(Boolean ativo, Long instrumentoId) {
+        return (root, query, cb) -> {
+            List<Predicate> filtros = new ArrayList<>();
+            if (ativo != null) filtros.add(cb.equal(root.get("ativo"), ativo));
+            if (instrumentoId != null) {
+                Subquery<Long> sub = query.subquery(Long.class);
+                Root<Matricula> mat = sub.from(Matricula.class);
+                sub.select(mat.get("id")).where(
+                        cb.equal(mat.get("aluno"), root),
+                        cb.equal(mat.get("turma").get("instrumento").get("id"), instrumentoId));
+                filtros.add(cb.exists(sub));
+            }
+            return cb.and(filtros.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Specification<Professor> professores(Boolean ativo) {
+        return (root, query, cb) -> ativo != null ? cb.equal(root.get("ativo"), ativo) : cb.conjunction();
+    }
+
+    public static Specification<Usuario> usuarios(Perfil perfil) {
+        return (root, query, cb) -> perfil != null ? cb.equal(root.get("perfil"), perfil) : cb.conjunction();
+    }
+
+    public static Specification<Matricula> matriculas(Boolean ativo, Long alunoId, LocalDate dataInicio, LocalDate dataFim) {
+        return (root, query, cb) -> {
+            if (!consultaDeContagem(query)) {
+                root.fetch("aluno");
+                Fetch<?, ?> turma = root.fetch("turma");
+                turma.fetch("instrumento");
+            }
+            List<Predicate> filtros = new ArrayList<>();
+            if (ativo != null) filtros.add(cb.equal(root.get("ativo"), ativo));
+            if (alunoId != null) filtros.add(cb.equal(root.get("aluno").get("id"), alunoId));
+            if (dataInicio != null) filtros.add(cb.greaterThanOrEqualTo(root.get("dataInicio"), dataInicio));
+            if (dataFim != null) filtros.add(cb.lessThanOrEqualTo(root.get("dataInicio"), dataFim));
+            return cb.and(filtros.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Specification<Mensalidade> mensalidades(Integer ano, Integer mes, StatusMensalidade status, Long alunoId) {
+        return (root, query, cb) -> {
+            if (!consultaDeContagem(query)) root.fetch("aluno");
+            List<Predicate> filtros = new ArrayList<>();
+            if (ano != null) filtros.add(cb.equal(root.get("ano"), ano));
+            if (mes != null) filtros.add(cb.equal(root.get("mes"), mes));
+            if (status != null) filtros.add(cb.equal(root.get("status"), status));
+            if (alunoId != null) filtros.add(cb.equal(root.get("aluno").get("id"), alunoId));
+            return cb.and(filtros.toArray(Predicate[]::new));
+        };
+    }
+
+    /** Parcelas pagas com data de pagamento no período (inclusivo) e, opcionalmente, na forma de pagamento informada. */
+    public static Specification<Mensalidade> receita(LocalDate dataInicio, LocalDate dataFim, String formaPagamento) {
+        return (root, query, cb) -> {
+            if (!consultaDeContagem(query)) root.fetch("aluno");
+            List<Predicate> filtros = new ArrayList<>();
+            filtros.add(cb.equal(root.get("status"), StatusMensalidade.PAGO));
+            filtros.add(cb.isNotNull(root.get("dataPagamento")));
+            if (dataInicio != null) filtros.add(cb.greaterThanOrEqualTo(root.get("dataPagamento"), dataInicio));
+            if (dataFim != null) filtros.add(cb.lessThanOrEqualTo(root.get("dataPagamento"), dataFim));
+            if (formaPagamento != null && !formaPagamento.isBlank()) filtros.add(cb.equal(root.get("formaPagamento"), formaPagamento));
+            return cb.and(filtros.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Auditoria a partir do cursor ({@code id > aposId}). Cada filtro só entra no SQL quando informado,
+     * sem {@code ? IS NULL OR ...}, para o planejador poder escolher o índice. {@code tabela} filtra por prefixo.
+     */
+    public static Specification<AuditLog> auditoria(Long usuarioId, String tabela, String acao,
+                                                    LocalDateTime dataInicio, LocalDateTime dataFim, Long aposId) {
+        return (root, query, cb) -> {
+            List<Predicate> filtros = new ArrayList<>();
+            if (usuarioId != null) filtros.add(cb.equal(root.get("usuarioId"), usuarioId));
+            if (tabela != null) filtros.add(cb.like(root.get("tabela"), tabela + "%"));
+            if (acao != null) filtros.add(cb.equal(root.get("acao"), acao));
+            if (dataInicio != null) filtros.add(cb.greaterThanOrEqualTo(root.get("dataHora"), dataInicio));
+            if (dataFim != null) filtros.add(cb.lessThanOrEqualTo(root.get("dataHora"), dataFim));
+            if (aposId != null) filtros.add(cb.greaterThan(root.get("id"), aposId));
+            return cb.and(filtros.toArray(Predicate[]::new));
+        };
+    }
+
+    /** Log de erros a partir do cursor ({@code id > aposId}), no período informado (inclusivo). */
+    public static Specification<ErrorLog> erros(LocalDateTime dataInicio, LocalDateTime dataFim, Long aposId) {
+        return (root, query, cb) -> {
+            List<Predicate> filtros = new ArrayList<>();
+            if (dataInicio != null) filtros.add(cb.greaterThanOrEqualTo(root.get("dataHora"), dataInicio));
+            if (dataFim != null) filtros.add(cb.lessThanOrEqualTo(root.get("dataHora"), dataFim));
+            if (aposId != null) filtros.add(cb.greaterThan(root.get("id"), aposId));
+            return cb.and(filtros.toArray(Predicate[]::new));
+        };
+    }
+
+    /** A query de contagem da paginação não aceita JOIN FETCH. */
+    private static boolean consultaDeContagem(CriteriaQuery<?> query) {
+        Class<?> tipo = query.getResultType();
+        return tipo == Long.class || tipo == long.class;
+    }
+}
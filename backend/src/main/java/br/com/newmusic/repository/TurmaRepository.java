@@ -5,9 +5,11 @@ import br.com.newmusic.domain.Turma;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +24,13 @@ public interface TurmaRepository extends JpaRepository<Turma, Long> {
     @Query("SELECT DISTINCT t FROM Turma t LEFT JOIN FETCH t.horarios LEFT JOIN FETCH t.instrumento LEFT JOIN FETCH t.professor")
     List<Turma> findAllWithHorariosAndInstrumentoAndProfessor();
 
+    /** Importação de matrículas: turmas com tudo que o cálculo da matrícula lê, usáveis fora da sessão. */
+    @Query("SELECT DISTINCT t FROM Turma t LEFT JOIN FETCH t.horarios LEFT JOIN FETCH t.instrumento i LEFT JOIN FETCH i.grupo LEFT JOIN FETCH t.professor")
+    List<Turma> findAllWithHorariosAndInstrumentoGrupo();
+
+    @Query("SELECT t FROM Turma t LEFT JOIN FETCH t.horarios LEFT JOIN FETCH t.instrumento LEFT JOIN FETCH t.professor WHERE t.id = :id")
+    Optional<Turma> findByIdWithHorariosAndInstrumentoAndProfessor(@Param("id") Long id);
+
     List<Turma> findByProfessor_IdOrderById(Long professorId);
 
     @Query("SELECT DISTINCT t FROM Turma t LEFT JOIN FETCH t.horarios WHERE t.professor.id = :professorId ORDER BY t.id")
@@ -29,12 +38,47 @@ public interface TurmaRepository extends JpaRepository<Turma, Long> {
 
     Page<Turma> findByInstrumentoNomeContainingIgnoreCaseAndProfessorNomeContainingIgnoreCase(String instrumentoNome, String professorNome, Pageable pageable);
 
-    @Query("SELECT t FROM Turma t WHERE LOWER(t.instrumento.nome) LIKE LOWER(CONCAT('%', :busca, '%')) OR LOWER(t.professor.nome) LIKE LOWER(CONCAT('%', :busca, '%'))")
-    Page<Turma> findByInstrumentoOuProfessor(@Param("busca") String busca, Pageable pageable);
+    /** {@code padrao}: ver {@link br.com.newmusic.util.StringUtil#padraoBusca}. */
+    @Query(value = "SELECT t FROM Turma t JOIN t.instrumento i JOIN t.professor p WHERE f_normalizar(i.nome) LIKE :padrao OR f_normalizar(p.nome) LIKE :padrao",
+            countQuery = "SELECT COUNT(t) FROM Turma t JOIN t.instrumento i JOIN t.professor p WHERE f_normalizar(i.nome) LIKE :padrao OR f_normalizar(p.nome) LIKE :padrao")
+    Page<Turma> findByInstrumentoOuProfessor(@Param("padrao") String padrao, Pageable pageable);
+
+    @Query(value = "SELECT t FROM Turma t JOIN t.instrumento i WHERE t.professor.id = :professorId AND (:padrao IS NULL OR f_normalizar(i.nome) LIKE :padrao)",
+            countQuery = "SELECT COUNT(t) FROM Turma t JOIN t.instrumento i WHERE t.professor.id = :professorId AND (:padrao IS NULL OR f_normalizar(i.nome) LIKE :padrao)")
+    Page<Turma> findByProfessorIdAndInstrumento(@Param("professorId") Long professorId, @Param("padrao") String padrao, Pageable pageable);
+
+    /**
+     * Ocupa uma vaga se houver (turma sem capacidade não tem limite). A checagem e o incremento são um único UPDATE,
+     * então matrículas simultâneas não passam da capacidade. Devolve as vagas ocupadas depois, ou vazio se lotada.
+     */
+    @Query(value = "UPDATE turma SET vagas_ocupadas = vagas_ocupadas + 1 WHERE id = :id AND (capacidade IS NULL OR vagas_ocupadas < capacidade) RETURNING vagas_ocupadas",
+            nativeQuery = true)
+    List<Integer> reservarVaga(@Param("id") Long id);
 
-    Page<Turma> findByProfessor_IdAndInstrumentoNomeContainingIgnoreCase(Long professorId, String instrumentoNome, Pageable pageable);
+    /** Como {@link #reservarVaga}, ocupando {@code quantidade} vagas de uma vez: tudo ou nada. */
+    @Query(value = "UPDATE turma SET vagas_ocupadas = vagas_ocupadas + :quantidade WHERE id = :id AND (capacidade IS NULL OR vagas_ocupadas + :quantidade <= capacidade) RETURNING vagas_ocupadas",
+            nativeQuery = true)
+    List<Integer> reservarVagas(@Param("id") Long id, @Param("quantidade") int quantidade);
+
+    /**
+     * Muda a capacidade só se ela ainda comporta as vagas ocupadas, no mesmo UPDATE (trava a linha como
+     * {@link #reservarVaga}). Devolve 0 se a turma tem mais alunos que a nova capacidade.
+     */
+    @Modifying
+    @Query(value = "UPDATE turma SET capacidade = :capacidade WHERE id = :id AND vagas_ocupadas <= :capacidade", nativeQuery = true)
+    int alterarCapacidade(@Param("id") Long id, @Param("capacidade") int capacidade);
+
+    @Query(value = "SELECT vagas_ocupadas FROM turma WHERE id = :id", nativeQuery = true)
+    Integer findVagasOcupadas(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE turma SET vagas_ocupadas = vagas_ocupadas - 1 WHERE id = :id AND vagas_ocupadas > 0", nativeQuery = true)
+    int liberarVaga(@Param("id") Long id);
 
     boolean existsByInstrumentoId(Long instrumentoId);
 
     long countByInstrumentoId(Long instrumentoId);
+
+    @Query("SELECT t.professor.id, COUNT(t) FROM Turma t WHERE t.professor.id IN :professorIds GROUP BY t.professor.id")
+    List<Object[]> countByProfessorIdIn(@Param("professorIds") Collection<Long> professorIds);
 }
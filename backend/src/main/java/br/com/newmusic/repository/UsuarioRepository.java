@@ -5,10 +5,14 @@ import br.com.newmusic.domain.Usuario;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+public interface UsuarioRepository extends JpaRepository<Usuario, Long>, JpaSpecificationExecutor<Usuario> {
 
     long countByPerfil(Perfil perfil);
 
@@ -18,5 +22,10 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
     boolean existsByEmailAndIdNot(String email, Long id);
 
-    Page<Usuario> findByEmailContainingIgnoreCaseOrNomeContainingIgnoreCase(String email, String nome, Pageable pageable);
+    /** Importação em massa: e-mails já usados por login, checados em memória. */
+    @Query("SELECT u.email FROM Usuario u")
+    List<String> findAllEmails();
+
+    @Query("SELECT u FROM Usuario u WHERE f_normalizar(u.email) LIKE :padrao OR f_normalizar(u.nome) LIKE :padrao")
+    Page<Usuario> buscar(@Param("padrao") String padrao, Pageable pageable);
 }
@@ -31,13 +31,14 @@ public class AlunoService {
     private final MatriculaRepository matriculaRepository;
     private final MensalidadeRepository mensalidadeRepository;
     private final AuditService auditService;
+    private final DashboardKpiService dashboardKpiService;
 
     @Transactional(readOnly = true)
     public Page<AlunoDTO> listar(Pageable pageable, String busca) {
         if (busca == null || busca.isBlank()) {
             return alunoRepository.findAll(pageable).map(this::toDTO);
         }
-        return alunoRepository.findByNomeContainingIgnoreCaseOrCpfContaining(busca.trim(), busca.trim(), pageable).map(this::toDTO);
+        return alunoRepository.buscar(StringUtil.padraoBuscaPessoa(busca), pageable).map(this::toDTO);
     }
 
     @Transactional(readOnly = true)
@@ -60,6 +61,7 @@ public class AlunoService {
         validarNomeECpfUnicos(null, input.getNome(), input.getCpf());
         Aluno aluno = toEntity(input);
         aluno = alunoRepository.save(aluno);
+        dashboardKpiService.alunosAlterados(1);
         String conteudo = "Nome: " + aluno.getNome() + ", Email: " + aluno.getEmail() + ", Telefone: " + StringUtil.nvl(aluno.getTelefone()) + ", CPF: " + StringUtil.nvl(aluno.getCpf()) + ", Data nascimento: " + StringUtil.nvl(aluno.getDataNascimento()) + ", Ativo: " + aluno.getAtivo();
         auditService.registrar("CRIAR", "alunos", String.valueOf(aluno.getId()), "Criou o aluno " + aluno.getNome() + " (id " + aluno.getId() + ")", conteudo);
         return toDTO(aluno);
@@ -127,6 +129,8 @@ public class AlunoService {
             aluno.setUsuario(null);
         }
         alunoRepository.delete(aluno);
+        dashboardKpiService.alunosAlterados(-1);
+        dashboardKpiService.recalcularFinanceiro();
         auditService.registrar("EXCLUIR", "alunos", String.valueOf(idAluno), "Excluiu o aluno " + nomeAluno + " (id " + idAluno + ")", "Aluno: " + nomeAluno + ", Email: " + emailAluno);
     }
 
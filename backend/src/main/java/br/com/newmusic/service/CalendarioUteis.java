@@ -0,0 +1,145 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.Feriado;
+import br.com.newmusic.repository.FeriadoRepository;
+import br.com.newmusic.util.FeriadosNacionais;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+
+/**
+ * Calendário de dias úteis: feriados nacionais (inclusive os móveis da Páscoa) mais os estaduais/municipais da
+ * tabela {@code feriado}, pré-calculados num bitmap contínuo de dias (um bit por dia, anos inteiros).
+ * Consultas dentro da janela calculada são O(1) e não alocam; uma data fora dela amplia a janela até o seu ano.
+ * A janela é recarregada do banco depois de {@code newmusic.calendario.recarga}, para pegar feriados cadastrados.
+ */
+@Component
+@Slf4j
+public class CalendarioUteis {
+
+    /** Anos carregados antes e depois do ano corrente na primeira consulta. */
+    private static final int ANOS_ANTES = 2;
+    private static final int ANOS_DEPOIS = 3;
+
+    private final FeriadoRepository feriadoRepository;
+    private final long recargaNanos;
+    private volatile Janela janela;
+
+    /** {@code uteis} e {@code feriados}: bit i = dia {@code primeiroDia + i} (epoch day). */
+    private record Janela(int primeiroAno, int ultimoAno, long primeiroDia, int dias, long[] uteis, long[] feriados, long carregadaEm) {
+
+        boolean contem(long epochDay) {
+            return epochDay >= primeiroDia && epochDay < primeiroDia + dias;
+        }
+
+        static boolean bit(long[] bits, int i) {
+            return (bits[i >>> 6] & (1L << i)) != 0;
+        }
+    }
+
+    public CalendarioUteis(FeriadoRepository feriadoRepository,
+                           @Value("${newmusic.calendario.recarga:PT1H}") Duration recarga) {
+        this.feriadoRepository = feriadoRepository;
+        this.recargaNanos = recarga.toNanos();
+    }
+
+    /** Dia útil: nem sábado, nem domingo, nem feriado. */
+    public boolean isDiaUtil(LocalDate data) {
+        long dia = data.toEpochDay();
+        Janela j = janelaPara(dia);
+        return Janela.bit(j.uteis(), (int) (dia - j.primeiroDia()));
+    }
+
+    /** Feriado nacional, estadual ou municipal (independe do dia da semana): não há aula. */
+    public boolean isFeriado(LocalDate data) {
+        long dia = data.toEpochDay();
+        Janela j = janelaPara(dia);
+        return Janela.bit(j.feriados(), (int) (dia - j.primeiroDia()));
+    }
+
+    /** A própria data, se for dia útil; senão o primeiro dia útil seguinte. */
+    public LocalDate proximoDiaUtil(LocalDate data) {
+        long dia = data.toEpochDay();
+        while (true) {
+            Janela j = janelaPara(dia);
+            int i = (int) (dia - j.primeiroDia());
+            long[] uteis = j.uteis();
+            for (int palavra = i >>> 6; palavra < uteis.length; palavra++) {
+                long bits = uteis[palavra] & (palavra == i >>> 6 ? -1L << i : -1L);
+                if (bits != 0) {
+                    int achado = (palavra << 6) + Long.numberOfTrailingZeros(bits);
+                    if (achado >= j.dias()) break;
+                    return achado == i ? data : LocalDate.ofEpochDay(j.primeiroDia() + achado);
+                }
+            }
+            dia = j.primeiroDia() + j.dias();
+        }
+    }
+
+    /** Descarta a janela: a próxima consulta relê os feriados do banco. */
+    public void recarregar() {
+        janela = null;
+    }
+
+    private Janela janelaPara(long epochDay) {
+        Janela j = janela;
+        if (j != null && j.contem(epochDay) && System.nanoTime() - j.carregadaEm() < recargaNanos) {
+            return j;
+        }
+        return carregar(epochDay);
+    }
+
+    private synchronized Janela carregar(long epochDay) {
+        Janela atual = janela;
+        boolean valida = atual != null && System.nanoTime() - atual.carregadaEm() < recargaNanos;
+        if (valida && atual.contem(epochDay)) {
+            return atual;
+        }
+        int ano = LocalDate.ofEpochDay(epochDay).getYear();
+        int primeiroAno = Math.min(ano, atual != null ? atual.primeiroAno() : LocalDate.now().getYear() - ANOS_ANTES);
+        int ultimoAno = Math.max(ano, atual != null ? atual.ultimoAno() : LocalDate.now().getYear() + ANOS_DEPOIS);
+        Janela nova = montar(primeiroAno, ultimoAno, feriadoRepository.findAll());
+        janela = nova;
+        log.debug("CalendarioUteis: janela {}-{} carregada.", primeiroAno, ultimoAno);
+        return nova;
+    }
+
+    private static Janela montar(int primeiroAno, int ultimoAno, List<Feriado> locais) {
+        long primeiroDia = LocalDate.of(primeiroAno, 1, 1).toEpochDay();
+        int dias = (int) (LocalDate.of(ultimoAno + 1, 1, 1).toEpochDay() - primeiroDia);
+        long[] feriados = new long[(dias + 63) >>> 6];
+        long[] uteis = new long[feriados.length];
+        for (int ano = primeiroAno; ano <= ultimoAno; ano++) {
+            for (LocalDate d : FeriadosNacionais.feriadosDoAno(ano)) {
+                marcar(feriados, d.toEpochDay() - primeiroDia);
+            }
+        }
+        for (Feriado f : locais) {
+            if (Boolean.TRUE.equals(f.getRecorrente())) {
+                MonthDay md = MonthDay.from(f.getData());
+                for (int ano = primeiroAno; ano <= ultimoAno; ano++) {
+                    if (md.isValidYear(ano)) marcar(feriados, md.atYear(ano).toEpochDay() - primeiroDia);
+                }
+            } else if (f.getData().getYear() >= primeiroAno && f.getData().getYear() <= ultimoAno) {
+                marcar(feriados, f.getData().toEpochDay() - primeiroDia);
+            }
+        }
+        // 1970-01-01 (epoch day 0) foi quinta-feira: ISO 1 = segunda ... 7 = domingo
+        for (int i = 0; i < dias; i++) {
+            int diaSemana = (int) Math.floorMod(primeiroDia + i + 3, 7L) + 1;
+            boolean fimDeSemana = diaSemana == DayOfWeek.SATURDAY.getValue() || diaSemana == DayOfWeek.SUNDAY.getValue();
+            if (!fimDeSemana && !Janela.bit(feriados, i)) marcar(uteis, i);
+        }
+        return new Janela(primeiroAno, ultimoAno, primeiroDia, dias, uteis, feriados, System.nanoTime());
+    }
+
+    private static void marcar(long[] bits, long i) {
+        bits[(int) (i >>> 6)] |= 1L << i;
+    }
+}
@@ -0,0 +1,133 @@
+package br.com.newmusic.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Executa consultas independentes em paralelo num pool limitado, com prazo único para todas.
+ * Cada consulta roda em outra thread, portanto fora da transação de quem chamou: abre sua própria transação
+ * somente leitura (uma conexão) e as consultas do serviço chamado participam dela. Consulta que falha ou passa do
+ * prazo fica de fora do resultado e é listada como indisponível, em vez de derrubar a resposta inteira.
+ * <p>
+ * O prazo também vale no banco: a transação recebe o tempo restante como {@code statement_timeout} (e como timeout
+ * da transação, que o Spring aplica às consultas JPA). Uma consulta que passou do prazo não continua segurando a
+ * thread do pool e a conexão: o PostgreSQL a cancela. Interromper a thread não adiantaria, o driver JDBC não para
+ * uma consulta em andamento por interrupção.
+ */
+@Component
+@Slf4j
+public class ConsultasParalelas {
+
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    /** Nulos nos testes sem banco: a consulta roda sem transação própria. */
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+
+    @Autowired
+    public ConsultasParalelas(@Value("${newmusic.consultas-paralelas.threads:4}") int threads,
+                              @Value("${newmusic.consultas-paralelas.fila:50}") int fila,
+                              @Value("${newmusic.consultas-paralelas.timeout:PT2S}") Duration timeout,
+                              PlatformTransactionManager transactionManager,
+                              EntityManager entityManager) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila), new CustomizableThreadFactory("consulta-paralela-"), new ThreadPoolExecutor.AbortPolicy());
+        this.timeout = timeout;
+        this.transactionManager = transactionManager;
+        this.entityManager = entityManager;
+    }
+
+    ConsultasParalelas(int threads, int fila, Duration timeout) {
+        this(threads, fila, timeout, null, null);
+    }
+
+    public record Resultados(Map<String, Object> valores, List<String> indisponiveis) {
+
+        public boolean parcial() {
+            return !indisponiveis.isEmpty();
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T valor(String nome) {
+            return (T) valores.get(nome);
+        }
+    }
+
+    /** Dispara todas as consultas e espera no máximo o timeout configurado (contado a partir do disparo). */
+    public Resultados executar(Map<String, Supplier<?>> consultas) {
+        Map<String, CompletableFuture<?>> futuros = new LinkedHashMap<>();
+        long prazo = System.nanoTime() + timeout.toNanos();
+        consultas.forEach((nome, consulta) -> {
+            try {
+                futuros.put(nome, CompletableFuture.supplyAsync(() -> comPrazo(consulta, prazo), executor));
+            } catch (RejectedExecutionException e) {
+                futuros.put(nome, CompletableFuture.failedFuture(e));
+            }
+        });
+        Map<String, Object> valores = new LinkedHashMap<>();
+        List<String> indisponiveis = new ArrayList<>();
+        futuros.forEach((nome, futuro) -> {
+            try {
+                valores.put(nome, futuro.get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                // a consulta segue na thread do pool até o statement_timeout cancelá-la no banco
+                log.warn("ConsultasParalelas: {} excedeu {} ms.", nome, timeout.toMillis());
+                indisponiveis.add(nome);
+            } catch (ExecutionException e) {
+                log.warn("ConsultasParalelas: {} falhou.", nome, e.getCause());
+                indisponiveis.add(nome);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                indisponiveis.add(nome);
+            }
+        });
+        return new Resultados(valores, indisponiveis);
+    }
+
+    /**
+     * Roda a consulta numa transação somente leitura limitada ao tempo que resta do prazo. Se o prazo acabou enquanto
+     * ela esperava na fila, nem pega conexão.
+     */
+    private <T> T comPrazo(Supplier<T> consulta, long prazo) {
+        long restanteMs = TimeUnit.NANOSECONDS.toMillis(prazo - System.nanoTime());
+        if (restanteMs <= 0) {
+            throw new IllegalStateException("Prazo esgotado antes de iniciar a consulta");
+        }
+        if (transactionManager == null) return consulta.get();
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+        transacao.setTimeout((int) Math.max(1, (restanteMs + 999) / 1000));
+        return transacao.execute(status -> {
+            entityManager.createNativeQuery("SELECT set_config('statement_timeout', :ms, true)")
+                    .setParameter("ms", String.valueOf(restanteMs))
+                    .getSingleResult();
+            return consulta.get();
+        });
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,173 @@
+package br.com.newmusic.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Coordena jobs agendados entre várias instâncias do backend usando só o PostgreSQL (sem coordenador externo).
+ * <p>
+ * Cada execução é identificada por job + rodada (ex.: a data do job diário) e dividida em fatias de ids.
+ * Uma fatia só roda no nó que conseguir {@code pg_try_advisory_lock(job, fatia)}; ao terminar, é gravada em
+ * {@code job_lock} e nenhum outro nó a repete na mesma rodada. O lock é de sessão, numa conexão reservada durante a
+ * execução: se o nó cair, o PostgreSQL o libera e a fatia (não registrada) pode ser feita por outro nó ou rodada.
+ * Uma fatia que falha também não é registrada: as demais seguem e a exceção é relançada no fim.
+ * <p>
+ * A conexão reservada fica fora das usadas pelas fatias: cada job coordenado em andamento ocupa uma conexão a mais
+ * do pool ({@code spring.datasource.hikari.maximum-pool-size} já conta com uma por job de {@link #CHAVES}).
+ */
+@Component
+@Slf4j
+public class CoordenacaoJobs {
+
+    /** Dias que os registros de fatias concluídas ficam em {@code job_lock}. */
+    private static final int RETENCAO_DIAS = 30;
+    /** Identificação desta instância (pid@host). */
+    static final String NO = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * Chave fixa do advisory lock de cada job (1º argumento de {@code pg_try_advisory_lock(chave, fatia)}). Não vem do
+     * nome (um hash pode colidir e dois jobs diferentes se bloqueariam). Job novo ganha uma chave nova; uma chave de
+     * job removido não é reaproveitada. Os locks de uma chave só ({@code bigint}, ex.: o do fechamento mensal) ficam
+     * em outro espaço de chaves do PostgreSQL e não se misturam com estes. A chave 100 é a trava por usuário de
+     * {@link br.com.newmusic.repository.RelatorioJobRepository#CHAVE_LOCK}.
+     */
+    static final Map<String, Integer> CHAVES = Map.of(
+            "mensalidade-status", 1,
+            "dashboard-kpi", 2);
+
+    private final DataSource dataSource;
+
+    public CoordenacaoJobs(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @FunctionalInterface
+    public interface Fatia {
+        void processar(long idInicio, long idFim);
+    }
+
+    /** Roda a tarefa inteira em um único nó por rodada; devolve {@code false} se outro nó já rodou ou está rodando. */
+    public boolean executar(String job, String rodada, Runnable tarefa) {
+        return executarEmFatias(job, rodada, 0, Long.MAX_VALUE, (inicio, fim) -> tarefa.run()) > 0;
+    }
+
+    /**
+     * Percorre as fatias {@code [k × tamanho, (k + 1) × tamanho - 1]} até {@code maiorId} (a última vai até o fim,
+     * para pegar ids inseridos durante a execução), processando as que ninguém pegou nem concluiu na rodada.
+     * Vários nós chamando ao mesmo tempo dividem as fatias entre si. Devolve quantas fatias este nó processou.
+     */
+    public int executarEmFatias(String job, String rodada, long maiorId, long tamanhoFatia, Fatia tarefa) {
+        if (tamanhoFatia <= 0) {
+            throw new IllegalArgumentException("Tamanho da fatia deve ser maior que zero");
+        }
+        int ultima = Math.toIntExact(Math.max(0, maiorId) / tamanhoFatia);
+        Integer chave = CHAVES.get(job);
+        if (chave == null) {
+            throw new IllegalArgumentException("Job sem chave de lock em CoordenacaoJobs.CHAVES: " + job);
+        }
+        int processadas = 0;
+        RuntimeException falha = null;
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(true);
+            for (int fatia = 0; fatia <= ultima; fatia++) {
+                if (!bloquear(conexao, chave, fatia)) continue;
+                try {
+                    if (concluida(conexao, job, rodada, fatia)) continue;
+                    long inicio = fatia * tamanhoFatia;
+                    long fim = fatia == ultima ? Long.MAX_VALUE : inicio + tamanhoFatia - 1;
+                    tarefa.processar(inicio, fim);
+                    registrarConclusao(conexao, job, rodada, fatia);
+                    processadas++;
+                } catch (RuntimeException e) {
+                    log.warn("CoordenacaoJobs: fatia {} de {} (rodada {}) falhou e fica para outra execução.", fatia, job, rodada);
+                    if (falha == null) falha = e; else falha.addSuppressed(e);
+                } finally {
+                    desbloquear(conexao, chave, fatia);
+                }
+            }
+            if (processadas > 0) limparAntigos(conexao, job);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao coordenar o job " + job + " (rodada " + rodada + ")", e);
+        }
+        if (falha != null) throw falha;
+        if (processadas == 0) {
+            log.debug("CoordenacaoJobs: {} rodada {} já feita ou em andamento em outro nó.", job, rodada);
+        }
+        return processadas;
+    }
+
+    /** Se algum nó segura agora o lock de alguma fatia do job (o PostgreSQL solta os de um nó que caiu). */
+    public boolean emExecucao(String job) {
+        Integer chave = CHAVES.get(job);
+        if (chave == null) {
+            throw new IllegalArgumentException("Job sem chave de lock em CoordenacaoJobs.CHAVES: " + job);
+        }
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement(
+                     "SELECT 1 FROM pg_locks WHERE locktype = 'advisory' AND objsubid = 2 AND CAST(classid AS bigint) = ? AND granted")) {
+            ps.setInt(1, chave);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao consultar os locks do job " + job, e);
+        }
+    }
+
+    private static boolean bloquear(Connection conexao, int chave, int fatia) throws SQLException {
+        try (PreparedStatement ps = conexao.prepareStatement("SELECT pg_try_advisory_lock(?, ?)")) {
+            ps.setInt(1, chave);
+            ps.setInt(2, fatia);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static void desbloquear(Connection conexao, int chave, int fatia) throws SQLException {
+        try (PreparedStatement ps = conexao.prepareStatement("SELECT pg_advisory_unlock(?, ?)")) {
+            ps.setInt(1, chave);
+            ps.setInt(2, fatia);
+            ps.execute();
+        }
+    }
+
+    private static boolean concluida(Connection conexao, String job, String rodada, int fatia) throws SQLException {
+        try (PreparedStatement ps = conexao.prepareStatement("SELECT 1 FROM job_lock WHERE nome = ? AND rodada = ? AND fatia = ?")) {
+            ps.setString(1, job);
+            ps.setString(2, rodada);
+            ps.setInt(3, fatia);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static void registrarConclusao(Connection conexao, String job, String rodada, int fatia) throws SQLException {
+        try (PreparedStatement ps = conexao.prepareStatement(
+                "INSERT INTO job_lock (nome, rodada, fatia, no, concluida_em) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING")) {
+            ps.setString(1, job);
+            ps.setString(2, rodada);
+            ps.setInt(3, fatia);
+            ps.setString(4, NO);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void limparAntigos(Connection conexao, String job) throws SQLException {
+        try (PreparedStatement ps = conexao.prepareStatement(
+                "DELETE FROM job_lock WHERE nome = ? AND concluida_em < CURRENT_TIMESTAMP - make_interval(days => ?)")) {
+            ps.setString(1, job);
+            ps.setInt(2, RETENCAO_DIAS);
+            ps.executeUpdate();
+        }
+    }
+}
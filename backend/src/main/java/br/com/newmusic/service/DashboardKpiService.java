@@ -0,0 +1,108 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.DashboardKpi;
+import br.com.newmusic.domain.StatusMensalidade;
+import br.com.newmusic.repository.DashboardKpiRepository;
+import br.com.newmusic.repository.MensalidadeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Indicadores do dashboard mantidos na tabela {@code dashboard_kpi}. Os serviços de escrita chamam os métodos
+ * de ajuste dentro da própria transação, então o snapshot é confirmado (ou desfeito) junto com a alteração.
+ * <p>
+ * Todos os ajustes atualizam a mesma linha ({@code id = 1}): escritas concorrentes de mensalidades, alunos etc.
+ * esperam umas pelas outras nesse UPDATE até o commit. Com o volume de escrita de uma escola isso é aceitável; se
+ * virar gargalo, o caminho é gravar os deltas em linhas próprias e somá-los na leitura.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardKpiService {
+
+    private final DashboardKpiRepository dashboardKpiRepository;
+    private final MensalidadeRepository mensalidadeRepository;
+
+    /** Se o aluno tem alguma mensalidade e se tem alguma em atraso; usado para ajustar as contagens distintas por aluno. */
+    public record SituacaoFinanceira(boolean possuiMensalidade, boolean possuiAtraso) {
+    }
+
+    /** Leitura por chave primária; a linha é criada pela migração e reconciliada na subida da aplicação. */
+    @Transactional(readOnly = true)
+    public DashboardKpi obter() {
+        return dashboardKpiRepository.findById(DashboardKpi.ID)
+                .orElseThrow(() -> new IllegalStateException("Indicadores do dashboard ainda não foram calculados."));
+    }
+
+    @Transactional
+    public void alunosAlterados(long delta) {
+        dashboardKpiRepository.somarAlunos(delta);
+    }
+
+    @Transactional
+    public void professoresAlterados(long delta) {
+        dashboardKpiRepository.somarProfessores(delta);
+    }
+
+    @Transactional
+    public void turmasAlteradas(long delta) {
+        dashboardKpiRepository.somarTurmas(delta);
+    }
+
+    @Transactional
+    public void matriculasAtivasAlteradas(long delta) {
+        if (delta != 0) dashboardKpiRepository.somarMatriculasAtivas(delta);
+    }
+
+    /** Dois {@code exists} pelo índice de {@code mensalidade.aluno_id}; chamado antes e depois de cada escrita. */
+    @Transactional(readOnly = true)
+    public SituacaoFinanceira situacaoFinanceira(Long alunoId) {
+        return new SituacaoFinanceira(
+                mensalidadeRepository.existsByAlunoId(alunoId),
+                mensalidadeRepository.existsByAlunoIdAndStatus(alunoId, StatusMensalidade.ATRASADO));
+    }
+
+    /**
+     * Aplica a variação de pendentes e compara a situação do aluno antes/depois da escrita para ajustar
+     * "alunos com mensalidade" e "alunos com pagamento atrasado" sem recontar a tabela.
+     */
+    @Transactional
+    public void mensalidadesAlteradas(Long alunoId, SituacaoFinanceira antes, long deltaPendentes) {
+        SituacaoFinanceira depois = situacaoFinanceira(alunoId);
+        long deltaAtrasados = Boolean.compare(depois.possuiAtraso(), antes.possuiAtraso());
+        long deltaComMensalidade = Boolean.compare(depois.possuiMensalidade(), antes.possuiMensalidade());
+        if (deltaPendentes != 0 || deltaAtrasados != 0 || deltaComMensalidade != 0) {
+            dashboardKpiRepository.somarFinanceiro(deltaPendentes, deltaAtrasados, deltaComMensalidade);
+        }
+    }
+
+    /** Para alterações em lote (job diário, exclusão de matrícula/aluno), onde o delta por aluno não compensa. */
+    @Transactional
+    public void recalcularFinanceiro() {
+        dashboardKpiRepository.recalcularFinanceiro();
+    }
+
+    /** Recalcula tudo a partir das tabelas de origem e registra no log se o snapshot tinha divergido. */
+    @Transactional
+    public DashboardKpi reconciliar() {
+        DashboardKpi antes = dashboardKpiRepository.findById(DashboardKpi.ID).orElse(null);
+        Long[] valoresAntes = antes != null ? valores(antes) : null;
+        dashboardKpiRepository.recalcularTudo();
+        DashboardKpi depois = dashboardKpiRepository.findById(DashboardKpi.ID).orElseThrow();
+        if (valoresAntes != null && !Objects.deepEquals(valoresAntes, valores(depois))) {
+            log.warn("DashboardKpi: snapshot divergente corrigido na reconciliação (antes {}, depois {}).",
+                    Arrays.toString(valoresAntes), Arrays.toString(valores(depois)));
+        }
+        return depois;
+    }
+
+    private static Long[] valores(DashboardKpi k) {
+        return new Long[]{k.getAlunos(), k.getProfessores(), k.getTurmas(), k.getMatriculasAtivas(),
+                k.getAlunosComPagamentoAtrasado(), k.getAlunosComMensalidade(), k.getPendentes()};
+    }
+}
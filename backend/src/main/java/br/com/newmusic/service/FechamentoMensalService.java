@@ -0,0 +1,243 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.FechamentoMensal;
+import br.com.newmusic.domain.InadimplenciaFechamento;
+import br.com.newmusic.domain.RecebimentoFechamento;
+import br.com.newmusic.repository.FechamentoMensalRepository;
+import br.com.newmusic.repository.MensalidadeRepository;
+import br.com.newmusic.web.dto.FechamentoMensalDTO;
+import br.com.newmusic.web.dto.RecebimentoFormaPagamentoDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static br.com.newmusic.domain.StatusMensalidade.ATRASADO;
+import static br.com.newmusic.domain.StatusMensalidade.PAGO;
+import static br.com.newmusic.domain.StatusMensalidade.PENDENTE;
+
+/**
+ * Fechamento mensal: congela em {@code fechamento_mensal} os totais do mês (faturado, recebido por forma de pagamento,
+ * multa, juros e em atraso) e bloqueia alterações que mudariam esses totais. O resumo mensal lê o fechamento dos
+ * meses fechados e só agrega {@code mensalidade} para os abertos.
+ * <p>
+ * Fechar e reabrir tomam a trava exclusiva do fechamento antes de conferir e agregar; toda conferência
+ * {@code exigir*} toma a compartilhada antes de consultar. Assim uma escrita que passou pela conferência termina
+ * antes do fechamento agregar o mês, e nenhuma passa pela conferência enquanto ele agrega.
+ */
+@Service
+@RequiredArgsConstructor
+public class FechamentoMensalService {
+
+    private static final ZoneId ZONE_RECIFE = ZoneId.of("America/Recife");
+
+    private final FechamentoMensalRepository fechamentoMensalRepository;
+    private final MensalidadeRepository mensalidadeRepository;
+    private final AuditService auditService;
+
+    /** Fecha um mês já encerrado; os totais são calculados agora e não mudam mais. */
+    @Transactional
+    public FechamentoMensalDTO fechar(int ano, int mes, String usuario) {
+        YearMonth competencia = competencia(ano, mes);
+        if (!competencia.isBefore(YearMonth.now(ZONE_RECIFE))) {
+            throw new IllegalArgumentException("Só é possível fechar meses já encerrados");
+        }
+        fechamentoMensalRepository.travarExclusivo();
+        if (fechamentoMensalRepository.existsByAnoAndMes(ano, mes)) {
+            throw new IllegalArgumentException("Mês " + rotulo(competencia) + " já está fechado");
+        }
+        FechamentoMensal fechamento = calcular(competencia);
+        fechamento.setInadimplencia(inadimplencia(competencia));
+        fechamento.setFechadoEm(LocalDateTime.now());
+        fechamento.setFechadoPor(usuario);
+        fechamento = fechamentoMensalRepository.save(fechamento);
+        auditService.registrar("FECHAR", "fechamentos", String.valueOf(fechamento.getId()), "Fechou o mês " + rotulo(competencia),
+                "Faturado: " + fechamento.getValorFaturado() + ", Recebido: " + fechamento.getValorRecebido() + ", Em atraso: " + fechamento.getValorAtrasado());
+        return toDTO(fechamento, true);
+    }
+
+    /** Desfaz o fechamento (para correções); o mês volta a aceitar alterações e a ser calculado das parcelas. */
+    @Transactional
+    public void reabrir(int ano, int mes) {
+        YearMonth competencia = competencia(ano, mes);
+        fechamentoMensalRepository.travarExclusivo();
+        FechamentoMensal fechamento = fechamentoMensalRepository.findByAnoAndMes(ano, mes)
+                .orElseThrow(() -> new IllegalArgumentException("Mês " + rotulo(competencia) + " não está fechado"));
+        fechamentoMensalRepository.delete(fechamento);
+        auditService.registrar("REABRIR", "fechamentos", String.valueOf(fechamento.getId()), "Reabriu o mês " + rotulo(competencia),
+                "Fechado em " + fechamento.getFechadoEm() + " por " + fechamento.getFechadoPor());
+    }
+
+    /** Resumo dos 12 meses do ano: fechamento congelado quando houver, senão agregado das parcelas. */
+    @Transactional(readOnly = true)
+    public List<FechamentoMensalDTO> resumo(int ano) {
+        Map<Integer, FechamentoMensal> fechados = fechamentoMensalRepository.findByAnoOrderByMes(ano).stream()
+                .collect(Collectors.toMap(FechamentoMensal::getMes, Function.identity()));
+        List<FechamentoMensalDTO> meses = new ArrayList<>(12);
+        for (int mes = 1; mes <= 12; mes++) {
+            FechamentoMensal fechado = fechados.get(mes);
+            meses.add(fechado != null ? toDTO(fechado, true) : toDTO(calcular(competencia(ano, mes)), false));
+        }
+        return meses;
+    }
+
+    /** Lança se a competência estiver fechada. */
+    @Transactional(readOnly = true)
+    public void exigirAberto(int ano, int mes) {
+        fechamentoMensalRepository.travarCompartilhado();
+        if (fechamentoMensalRepository.existsByAnoAndMes(ano, mes)) {
+            throw new IllegalArgumentException(mensagemFechado(YearMonth.of(ano, mes)));
+        }
+    }
+
+    /** Lança se alguma das competências estiver fechada. */
+    @Transactional(readOnly = true)
+    public void exigirAbertos(Collection<YearMonth> competencias) {
+        if (competencias.isEmpty()) return;
+        fechamentoMensalRepository.travarCompartilhado();
+        YearMonth primeira = competencias.stream().min(YearMonth::compareTo).get();
+        YearMonth ultima = competencias.stream().max(YearMonth::compareTo).get();
+        Set<Integer> fechados = new HashSet<>(fechamentoMensalRepository.findMesesFechados(anoMes(primeira), anoMes(ultima)));
+        if (fechados.isEmpty()) return;
+        for (YearMonth c : competencias) {
+            if (fechados.contains(anoMes(c))) throw new IllegalArgumentException(mensagemFechado(c));
+        }
+    }
+
+    /** Pagamento com data num mês fechado mudaria o recebido congelado. */
+    @Transactional(readOnly = true)
+    public void exigirPagamentoEmMesAberto(LocalDate dataPagamento) {
+        fechamentoMensalRepository.travarCompartilhado();
+        if (fechamentoMensalRepository.existsByAnoAndMes(dataPagamento.getYear(), dataPagamento.getMonthValue())) {
+            throw new IllegalArgumentException("Não é possível registrar pagamento em " + rotulo(YearMonth.from(dataPagamento))
+                    + ": o mês está fechado");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exigirSemParcelaFechadaDaMatricula(Long matriculaId) {
+        fechamentoMensalRepository.travarCompartilhado();
+        if (fechamentoMensalRepository.existsComParcelaDaMatricula(matriculaId)) {
+            throw new IllegalArgumentException("A matrícula possui parcela(s) em mês fechado");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exigirSemParcelaAvulsaFechada(Long alunoId, int inicioYm, int fimYm) {
+        fechamentoMensalRepository.travarCompartilhado();
+        if (fechamentoMensalRepository.existsComParcelaAvulsaDoAluno(alunoId, inicioYm, fimYm)) {
+            throw new IllegalArgumentException("O aluno possui parcela(s) em mês fechado no período");
+        }
+    }
+
+    FechamentoMensal calcular(YearMonth competencia) {
+        Object[] faturado = mensalidadeRepository.somarFaturado(competencia.getYear(), competencia.getMonthValue()).get(0);
+        List<Object[]> porForma = mensalidadeRepository.somarRecebidoPorForma(PAGO, competencia.atDay(1), competencia.atEndOfMonth());
+        Object[] atrasado = mensalidadeRepository.somarEmAtrasoEm(List.of(PENDENTE, ATRASADO), competencia.atEndOfMonth()).get(0);
+        List<RecebimentoFechamento> recebimentos = new ArrayList<>();
+        long quantidadeRecebidas = 0;
+        BigDecimal recebido = BigDecimal.ZERO;
+        BigDecimal multa = BigDecimal.ZERO;
+        BigDecimal juros = BigDecimal.ZERO;
+        for (Object[] row : porForma) {
+            long quantidade = ((Number) row[1]).longValue();
+            BigDecimal valor = decimal(row[2]);
+            recebimentos.add(RecebimentoFechamento.builder().formaPagamento((String) row[0]).quantidade(quantidade).valor(valor).build());
+            quantidadeRecebidas += quantidade;
+            recebido = recebido.add(valor);
+            multa = multa.add(decimal(row[3]));
+            juros = juros.add(decimal(row[4]));
+        }
+        recebimentos.sort((a, b) -> a.getFormaPagamento().compareTo(b.getFormaPagamento()));
+        return FechamentoMensal.builder()
+                .ano(competencia.getYear())
+                .mes(competencia.getMonthValue())
+                .quantidadeParcelas(((Number) faturado[0]).longValue())
+                .valorFaturado(decimal(faturado[1]))
+                .quantidadeRecebidas(quantidadeRecebidas)
+                .valorRecebido(recebido)
+                .valorMulta(multa)
+                .valorJuros(juros)
+                .recebimentos(recebimentos)
+                .quantidadeAtrasadas(((Number) atrasado[0]).longValue())
+                .valorAtrasado(decimal(atrasado[1]))
+                .build();
+    }
+
+    /** Parcelas da competência em atraso agora, por aluno, com as faixas contadas até o último dia do mês. */
+    private List<InadimplenciaFechamento> inadimplencia(YearMonth competencia) {
+        LocalDate fim = competencia.atEndOfMonth();
+        return mensalidadeRepository.somarInadimplenciaPorAluno(ATRASADO, competencia.getYear(), competencia.getMonthValue(),
+                        fim.minusDays(30), fim.minusDays(60), fim.minusDays(90)).stream()
+                .map(r -> InadimplenciaFechamento.builder()
+                        .alunoId(((Number) r[0]).longValue())
+                        .alunoNome((String) r[1])
+                        .quantidadeParcelas(((Number) r[2]).longValue())
+                        .vencimentoMaisAntigo((LocalDate) r[3])
+                        .valor(decimal(r[4]))
+                        .ate30(decimal(r[5]))
+                        .de31a60(decimal(r[6]))
+                        .de61a90(decimal(r[7]))
+                        .acima90(decimal(r[8]))
+                        .valorTotal(decimal(r[9]))
+                        .build())
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static YearMonth competencia(int ano, int mes) {
+        if (mes < 1 || mes > 12) throw new IllegalArgumentException("Mês inválido: " + mes);
+        return YearMonth.of(ano, mes);
+    }
+
+    private static int anoMes(YearMonth ym) {
+        return ym.getYear() * 100 + ym.getMonthValue();
+    }
+
+    private static String rotulo(YearMonth ym) {
+        return String.format("%02d/%d", ym.getMonthValue(), ym.getYear());
+    }
+
+    private static String mensagemFechado(YearMonth ym) {
+        return "Competência " + rotulo(ym) + " está fechada; reabra o fechamento para alterar parcelas do mês";
+    }
+
+    private static BigDecimal decimal(Object valor) {
+        if (valor == null) return BigDecimal.ZERO;
+        return valor instanceof BigDecimal b ? b : new BigDecimal(valor.toString());
+    }
+
+    private FechamentoMensalDTO toDTO(FechamentoMensal f, boolean fechado) {
+        return FechamentoMensalDTO.builder()
+                .ano(f.getAno())
+                .mes(f.getMes())
+                .fechado(fechado)
+                .fechadoEm(f.getFechadoEm())
+                .fechadoPor(f.getFechadoPor())
+                .quantidadeParcelas(f.getQuantidadeParcelas())
+                .valorFaturado(f.getValorFaturado())
+                .quantidadeRecebidas(f.getQuantidadeRecebidas())
+                .valorRecebido(f.getValorRecebido())
+                .valorMulta(f.getValorMulta())
+                .valorJuros(f.getValorJuros())
+                .recebimentos(f.getRecebimentos().stream()
+                        .map(r -> RecebimentoFormaPagamentoDTO.builder().formaPagamento(r.getFormaPagamento())
+                                .quantidade(r.getQuantidade()).valor(r.getValor()).build())
+                        .toList())
+                .quantidadeAtrasadas(f.getQuantidadeAtrasadas())
+                .valorAtrasado(f.getValorAtrasado())
+                .build();
+    }
+}
@@ -0,0 +1,272 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.Turma;
+import br.com.newmusic.domain.TurmaHorario;
+import br.com.newmusic.repository.TurmaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Grade semanal em memória: para cada turma, os horários por dia da semana, mais as turmas de cada professor.
+ * Responde "quais turmas têm aula hoje" e "a turma tem aula neste dia" sem ir ao banco.
+ * <p>
+ * O índice é imutável e trocado inteiro a cada escrita ({@code TurmaService}, {@code ProfessorService} e
+ * {@code InstrumentoService} avisam; a troca acontece após o commit). É montado na subida e recarregado do banco depois
+ * de {@code newmusic.grade-horaria.recarga}, para pegar escritas feitas por outras instâncias. Por isso serve só a
+ * consultas e relatórios: validações de escrita (choque de horário, dia de aula da chamada) leem do banco.
+ */
+@Component
+@Slf4j
+public class GradeHorariaIndex {
+
+    private static final Comparator<Slot> POR_INICIO = Comparator.comparing(Slot::inicio).thenComparing(Slot::fim);
+
+    private final TurmaRepository turmaRepository;
+    private final long recargaNanos;
+    private volatile Indice indice;
+
+    public GradeHorariaIndex(TurmaRepository turmaRepository,
+                             @Value("${newmusic.grade-horaria.recarga:PT5M}") Duration recarga) {
+        this.turmaRepository = turmaRepository;
+        this.recargaNanos = recarga.toNanos();
+    }
+
+    /** Horário de aula; sem horário fim cadastrado a aula dura uma hora, como no cadastro da turma. */
+    public record Slot(int diaSemana, LocalTime inicio, LocalTime fim) {
+
+        boolean sobrepoe(Slot outro) {
+            return inicio.isBefore(outro.fim) && fim.isAfter(outro.inicio);
+        }
+    }
+
+    /** Horários por dia da semana (1 = segunda ... 7 = domingo), ordenados pelo início. */
+    public static final class Grade {
+
+        static final Grade VAZIA = new Grade(new Slot[8][]);
+
+        private final Slot[][] porDia;
+
+        private Grade(Slot[][] porDia) {
+            this.porDia = porDia;
+        }
+
+        /** Grade dos horários de {@code turma_horario} (os sem dia ou início são ignorados). */
+        public static Grade de(Collection<TurmaHorario> horarios) {
+            if (horarios == null || horarios.isEmpty()) return VAZIA;
+            List<Slot> slots = new ArrayList<>(horarios.size());
+            for (TurmaHorario h : horarios) {
+                if (h.getDiaSemana() == null || h.getHorarioInicio() == null) continue;
+                LocalTime fim = h.getHorarioFim() != null ? h.getHorarioFim() : h.getHorarioInicio().plusHours(1);
+                slots.add(new Slot(h.getDiaSemana(), h.getHorarioInicio(), fim));
+            }
+            return montar(slots);
+        }
+
+        private static Grade montar(List<Slot> slots) {
+            if (slots.isEmpty()) return VAZIA;
+            Slot[][] porDia = new Slot[8][];
+            for (int dia = 1; dia <= 7; dia++) {
+                final int d = dia;
+                Slot[] doDia = slots.stream().filter(s -> s.diaSemana() == d).sorted(POR_INICIO).toArray(Slot[]::new);
+                if (doDia.length > 0) porDia[dia] = doDia;
+            }
+            return new Grade(porDia);
+        }
+
+        public boolean isVazia() {
+            return this == VAZIA;
+        }
+
+        public boolean temAula(int diaSemana) {
+            return diaSemana >= 1 && diaSemana <= 7 && porDia[diaSemana] != null;
+        }
+
+        public List<Slot> doDia(int diaSemana) {
+            return temAula(diaSemana) ? List.of(porDia[diaSemana]) : List.of();
+        }
+
+        /**
+         * Algum horário coincide com um da outra grade no mesmo dia. Percorre as duas listas ordenadas em paralelo,
+         * avançando a que termina antes: O(n + m) por dia.
+         */
+        public boolean sobrepoe(Grade outra) {
+            for (int dia = 1; dia <= 7; dia++) {
+                Slot[] a = porDia[dia];
+                Slot[] b = outra.porDia[dia];
+                if (a == null || b == null) continue;
+                int i = 0;
+                int j = 0;
+                while (i < a.length && j < b.length) {
+                    if (a[i].sobrepoe(b[j])) return true;
+                    if (a[i].fim().isBefore(b[j].fim())) i++; else j++;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Turma na grade. Sem horários em {@code turma_horario}, vale o dia/horário legado da própria turma
+     * ({@code diaLegado}/{@code inicioLegado}), usado só para saber se há aula no dia.
+     */
+    public record TurmaGrade(Long id, boolean ativo, Long professorId, Long instrumentoId, String instrumentoNome,
+                             String professorNome, Grade grade, Integer diaLegado, LocalTime inicioLegado) {
+
+        static TurmaGrade de(Turma t) {
+            return new TurmaGrade(t.getId(), Boolean.TRUE.equals(t.getAtivo()),
+                    t.getProfessor() != null ? t.getProfessor().getId() : null,
+                    t.getInstrumento() != null ? t.getInstrumento().getId() : null,
+                    t.getInstrumento() != null ? t.getInstrumento().getNome() : "",
+                    t.getProfessor() != null ? t.getProfessor().getNome() : "",
+                    Grade.de(t.getHorarios()), t.getDiaSemana(), t.getHorarioInicio());
+        }
+
+        TurmaGrade comProfessorNome(String nome) {
+            return new TurmaGrade(id, ativo, professorId, instrumentoId, instrumentoNome, nome, grade, diaLegado, inicioLegado);
+        }
+
+        TurmaGrade comInstrumentoNome(String nome) {
+            return new TurmaGrade(id, ativo, professorId, instrumentoId, nome, professorNome, grade, diaLegado, inicioLegado);
+        }
+
+        public boolean temAulaNoDia(int diaSemana) {
+            return grade.isVazia() ? diaLegado != null && diaLegado == diaSemana : grade.temAula(diaSemana);
+        }
+    }
+
+    private record Indice(Map<Long, TurmaGrade> turmas, Map<Long, List<Long>> turmasPorProfessor,
+                          List<List<TurmaGrade>> ativasPorDia, long carregadoEm) {
+
+        static Indice montar(Map<Long, TurmaGrade> turmas, long carregadoEm) {
+            Map<Long, List<Long>> porProfessor = new HashMap<>();
+            for (TurmaGrade t : turmas.values()) {
+                if (t.professorId() != null) porProfessor.computeIfAbsent(t.professorId(), k -> new ArrayList<>()).add(t.id());
+            }
+            porProfessor.values().forEach(ids -> ids.sort(null));
+            List<List<TurmaGrade>> porDia = new ArrayList<>(8);
+            porDia.add(List.of());
+            for (int dia = 1; dia <= 7; dia++) {
+                final int d = dia;
+                porDia.add(turmas.values().stream().filter(t -> t.ativo() && t.temAulaNoDia(d))
+                        .sorted(Comparator.comparing(TurmaGrade::id)).toList());
+            }
+            return new Indice(turmas, porProfessor, porDia, carregadoEm);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaSubida() {
+        recarregar();
+    }
+
+    /** Relê as turmas do banco e troca o índice. */
+    public synchronized void recarregar() {
+        Map<Long, TurmaGrade> turmas = new HashMap<>();
+        for (Turma t : turmaRepository.findAllWithHorariosAndInstrumentoAndProfessor()) {
+            turmas.put(t.getId(), TurmaGrade.de(t));
+        }
+        indice = Indice.montar(turmas, System.nanoTime());
+        log.debug("GradeHorariaIndex: {} turmas carregadas.", turmas.size());
+    }
+
+    /** Turma na grade; se ainda não estiver (criada em outra instância), busca no banco e inclui. */
+    public Optional<TurmaGrade> turma(Long turmaId) {
+        TurmaGrade t = atual().turmas().get(turmaId);
+        if (t != null) return Optional.of(t);
+        Optional<TurmaGrade> doBanco = turmaRepository.findByIdWithHorariosAndInstrumentoAndProfessor(turmaId).map(TurmaGrade::de);
+        doBanco.ifPresent(g -> alterar(turmas -> turmas.put(g.id(), g)));
+        return doBanco;
+    }
+
+    /** A turma tem aula no dia da semana (pelos horários ou, sem eles, pelo dia legado). */
+    public boolean temAulaNoDia(Long turmaId, int diaSemana) {
+        return turma(turmaId).map(t -> t.temAulaNoDia(diaSemana)).orElse(false);
+    }
+
+    /** Turmas ativas com aula no dia da semana, em ordem de id. */
+    public List<TurmaGrade> turmasAtivasNoDia(int diaSemana) {
+        return diaSemana >= 1 && diaSemana <= 7 ? atual().ativasPorDia().get(diaSemana) : List.of();
+    }
+
+    /** Turmas do professor com horário cadastrado no dia da semana, em ordem de id. */
+    public List<TurmaGrade> turmasDoProfessorNoDia(Long professorId, int diaSemana) {
+        Indice i = atual();
+        List<TurmaGrade> noDia = new ArrayList<>();
+        for (Long turmaId : i.turmasPorProfessor().getOrDefault(professorId, List.of())) {
+            TurmaGrade t = i.turmas().get(turmaId);
+            if (t.grade().temAula(diaSemana)) noDia.add(t);
+        }
+        return noDia;
+    }
+
+    /** A turma entrou ou mudou (horários, professor, situação); aplicado após o commit. */
+    public void turmaSalva(Turma turma) {
+        TurmaGrade t = TurmaGrade.de(turma);
+        aposCommit(turmas -> turmas.put(t.id(), t));
+    }
+
+    public void turmaExcluida(Long turmaId) {
+        aposCommit(turmas -> turmas.remove(turmaId));
+    }
+
+    /** O professor mudou de nome: atualiza o nome nas turmas dele, após o commit. */
+    public void professorRenomeado(Long professorId, String nome) {
+        aposCommit(turmas -> turmas.replaceAll((id, t) -> professorId.equals(t.professorId()) ? t.comProfessorNome(nome) : t));
+    }
+
+    /** O instrumento mudou de nome: atualiza o nome nas turmas dele, após o commit. */
+    public void instrumentoRenomeado(Long instrumentoId, String nome) {
+        aposCommit(turmas -> turmas.replaceAll((id, t) -> instrumentoId.equals(t.instrumentoId()) ? t.comInstrumentoNome(nome) : t));
+    }
+
+    private Indice atual() {
+        Indice i = indice;
+        if (i != null && System.nanoTime() - i.carregadoEm() < recargaNanos) return i;
+        synchronized (this) {
+            i = indice;
+            if (i == null || System.nanoTime() - i.carregadoEm() >= recargaNanos) {
+                recarregar();
+                i = indice;
+            }
+            return i;
+        }
+    }
+
+    /** A alteração recebe uma cópia mutável das turmas do índice. */
+    private void aposCommit(Consumer<Map<Long, TurmaGrade>> alteracao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            alterar(alteracao);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                alterar(alteracao);
+            }
+        });
+    }
+
+    private synchronized void alterar(Consumer<Map<Long, TurmaGrade>> alteracao) {
+        Indice i = indice;
+        if (i == null) return; // ainda não carregado: a primeira consulta lê tudo do banco
+        Map<Long, TurmaGrade> turmas = new HashMap<>(i.turmas());
+        alteracao.accept(turmas);
+        indice = Indice.montar(turmas, i.carregadoEm());
+    }
+}
@@ -0,0 +1,589 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.Aluno;
+import br.com.newmusic.domain.Matricula;
+import br.com.newmusic.domain.Professor;
+import br.com.newmusic.domain.Turma;
+import br.com.newmusic.repository.AlunoRepository;
+import br.com.newmusic.repository.FechamentoMensalRepository;
+import br.com.newmusic.repository.MatriculaRepository;
+import br.com.newmusic.repository.ProfessorRepository;
+import br.com.newmusic.repository.TurmaRepository;
+import br.com.newmusic.repository.UsuarioRepository;
+import br.com.newmusic.util.CpfValidator;
+import br.com.newmusic.util.StringUtil;
+import br.com.newmusic.web.dto.ImportacaoErroDTO;
+import br.com.newmusic.web.dto.ImportacaoResultadoDTO;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em massa de alunos, professores e matrículas a partir de planilha (.csv/.xlsx), para a carga inicial
+ * de uma escola.
+ * <p>
+ * As regras de {@code criar} de cada cadastro são checadas contra conjuntos carregados uma vez no início (e-mails,
+ * nome + CPF, matrículas ativas, vagas livres, grade horária, meses fechados), e não com consultas por linha. As
+ * linhas válidas são gravadas em lotes de {@link #LOTE} com INSERTs em lote JDBC (ids de sequência) e a sessão é
+ * limpa a cada lote; as inválidas voltam no relatório, com o número da linha. Tudo numa transação: um erro de gravação desfaz
+ * a importação inteira. A auditoria registra um único resumo por arquivo.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImportacaoService {
+
+    /** Linhas válidas gravadas por vez (múltiplo do batch_size do JDBC). */
+    static final int LOTE = 500;
+    private static final DateTimeFormatter DATA_BR = DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT);
+    /** Dia zero das datas seriais do Excel. */
+    private static final LocalDate DIA_ZERO_EXCEL = LocalDate.of(1899, 12, 30);
+    /** Maior data serial aceita (31/12/2099): números maiores, como "20240115", não são datas do Excel. */
+    private static final BigDecimal SERIAL_EXCEL_MAXIMO = BigDecimal.valueOf(ChronoUnit.DAYS.between(DIA_ZERO_EXCEL, LocalDate.of(2099, 12, 31)));
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    /** CPF guardado como número na planilha perde os zeros à esquerda. */
+    private static final Pattern CPF_SEM_ZEROS = Pattern.compile("\\d{9,10}");
+
+    private final AlunoRepository alunoRepository;
+    private final ProfessorRepository professorRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final MatriculaRepository matriculaRepository;
+    private final TurmaRepository turmaRepository;
+    private final FechamentoMensalRepository fechamentoMensalRepository;
+    private final MatriculaService matriculaService;
+    private final DashboardKpiService dashboardKpiService;
+    private final AuditService auditService;
+    private final EntityManager entityManager;
+
+    public enum Tipo {
+        ALUNOS("alunos", "nome", "email"),
+        PROFESSORES("professores", "nome", "email"),
+        MATRICULAS("matriculas", "aluno", "turma_id", "data_inicio");
+
+        private final String tabela;
+        private final List<String> obrigatorias;
+
+        Tipo(String tabela, String... obrigatorias) {
+            this.tabela = tabela;
+            this.obrigatorias = List.of(obrigatorias);
+        }
+
+        public static Tipo of(String valor) {
+            if (valor != null) {
+                for (Tipo t : values()) {
+                    if (t.tabela.equalsIgnoreCase(valor.trim())) return t;
+                }
+            }
+            throw new IllegalArgumentException("Tipo de importação inválido: " + valor + ". Use alunos, professores ou matriculas.");
+        }
+    }
+
+    /**
+     * Importa o arquivo linha a linha. Colunas (cabeçalho sem diferença de maiúsculas, acentos ou espaços):
+     * <ul>
+     *   <li>alunos: nome, email, telefone, cpf, data_nascimento, responsavel_nome, responsavel_cpf, endereco,
+     *   observacoes, ativo;</li>
+     *   <li>professores: nome, email, telefone, cpf, instrumentos, disponibilidade, ativo (sem login: a senha é
+     *   definida depois, no cadastro);</li>
+     *   <li>matriculas: aluno (e-mail ou CPF), turma_id, data_inicio, valor_curso, data_vencimento,
+     *   aulas_por_semana, ativo.</li>
+     * </ul>
+     * Datas em dd/mm/aaaa, aaaa-mm-dd ou data do Excel; ativo em sim/não.
+     */
+    @Transactional
+    public ImportacaoResultadoDTO importar(Tipo tipo, String nomeArquivo, InputStream conteudo) {
+        long inicio = System.nanoTime();
+        List<ImportacaoErroDTO> erros = new ArrayList<>();
+        int[] gravadas = new int[2]; // [registros, parcelas]
+        int lidas;
+        try (LeitorPlanilha leitor = LeitorPlanilha.abrir(nomeArquivo, conteudo)) {
+            Colunas colunas = Colunas.de(leitor.cabecalho(), tipo.obrigatorias);
+            lidas = switch (tipo) {
+                case ALUNOS -> processar(leitor, colunas, new LinhaAluno(), lote -> {
+                    alunoRepository.saveAll(lote);
+                    gravadas[0] += lote.size();
+                }, erros);
+                case PROFESSORES -> processar(leitor, colunas, new LinhaProfessor(), lote -> {
+                    professorRepository.saveAll(lote);
+                    gravadas[0] += lote.size();
+                }, erros);
+                case MATRICULAS -> {
+                    LinhaMatricula linhaMatricula = new LinhaMatricula();
+                    yield processar(leitor, colunas, linhaMatricula, lote -> {
+                        linhaMatricula.reservarVagasDoLote();
+                        gravadas[1] += matriculaService.matricularEmLote(lote);
+                        gravadas[0] += lote.size();
+                    }, erros);
+                }
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (tipo == Tipo.ALUNOS && gravadas[0] > 0) dashboardKpiService.alunosAlterados(gravadas[0]);
+        if (tipo == Tipo.PROFESSORES && gravadas[0] > 0) dashboardKpiService.professoresAlterados(gravadas[0]);
+        if (tipo == Tipo.MATRICULAS && gravadas[1] > 0) dashboardKpiService.recalcularFinanceiro();
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+        String conteudoAuditoria = "Arquivo: " + StringUtil.nvl(nomeArquivo) + ", Linhas lidas: " + lidas + ", Importadas: " + gravadas[0]
+                + ", Recusadas: " + erros.size() + (tipo == Tipo.MATRICULAS ? ", Parcelas geradas: " + gravadas[1] : "") + ", Tempo: " + ms + " ms";
+        auditService.registrar("IMPORTAR", tipo.tabela, null, "Importou " + gravadas[0] + " registro(s) em " + tipo.tabela + " da planilha " + StringUtil.nvl(nomeArquivo), conteudoAuditoria);
+        return ImportacaoResultadoDTO.builder()
+                .tipo(tipo.tabela)
+                .linhasLidas(lidas)
+                .importadas(gravadas[0])
+                .parcelasGeradas(gravadas[1])
+                .erros(erros)
+                .build();
+    }
+
+    /** Converte uma linha; se algo estiver errado, anota em {@code problemas} e o retorno é ignorado. */
+    private interface Conversor<T> {
+        T converter(Linha linha, List<String> problemas);
+    }
+
+    /** Percorre o arquivo acumulando as linhas válidas e gravando a cada {@link #LOTE}. Devolve as linhas lidas. */
+    private <T> int processar(LeitorPlanilha leitor, Colunas colunas, Conversor<T> conversor, Consumer<List<T>> gravar, List<ImportacaoErroDTO> erros) throws IOException {
+        List<T> lote = new ArrayList<>(LOTE);
+        int lidas = 0;
+        String[] valores;
+        while ((valores = leitor.proximaLinha()) != null) {
+            lidas++;
+            List<String> problemas = new ArrayList<>();
+            T item = conversor.converter(new Linha(colunas, valores, leitor.numeroLinha()), problemas);
+            if (!problemas.isEmpty()) {
+                erros.add(ImportacaoErroDTO.builder().linha(leitor.numeroLinha()).mensagem(String.join("; ", problemas)).build());
+                continue;
+            }
+            lote.add(item);
+            if (lote.size() == LOTE) {
+                gravarLote(lote, gravar);
+                lote = new ArrayList<>(LOTE);
+            }
+        }
+        if (!lote.isEmpty()) gravarLote(lote, gravar);
+        return lidas;
+    }
+
+    /** Grava e tira o lote da sessão, para a memória não crescer com o tamanho do arquivo. */
+    private <T> void gravarLote(List<T> lote, Consumer<List<T>> gravar) {
+        gravar.accept(lote);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private final class LinhaAluno implements Conversor<Aluno> {
+
+        private final Set<String> emails = new HashSet<>();
+        private final Set<String> nomesECpfs = new HashSet<>();
+        /** E-mail / nome + CPF → linha da planilha que já o usou. */
+        private final Map<String, Integer> emailsNaPlanilha = new HashMap<>();
+        private final Map<String, Integer> nomesECpfsNaPlanilha = new HashMap<>();
+
+        LinhaAluno() {
+            for (Object[] a : alunoRepository.findDadosImportacao()) {
+                emails.add(chaveEmail((String) a[2]));
+                nomesECpfs.add(chaveNomeCpf((String) a[1], (String) a[3]));
+            }
+            for (String email : usuarioRepository.findAllEmails()) emails.add(chaveEmail(email));
+        }
+
+        @Override
+        public Aluno converter(Linha linha, List<String> problemas) {
+            String nome = linha.obrigatorio("nome", "Nome é obrigatório", problemas);
+            String email = linha.email(problemas);
+            String cpf = linha.cpf("cpf", "CPF inválido", problemas);
+            String responsavelCpf = linha.cpf("responsavel_cpf", "CPF do responsável inválido", problemas);
+            LocalDate dataNascimento = linha.data("data_nascimento", "Data de nascimento", problemas);
+            Boolean ativo = linha.ativo(problemas);
+            if (email != null) {
+                linha.unico(emails, emailsNaPlanilha, chaveEmail(email), "Já existe aluno com este e-mail", "E-mail", problemas);
+            }
+            if (nome != null) {
+                linha.unico(nomesECpfs, nomesECpfsNaPlanilha, chaveNomeCpf(nome, cpf), "Já existe um aluno com o mesmo nome e CPF.", "Nome e CPF", problemas);
+            }
+            if (!problemas.isEmpty()) return null;
+            emailsNaPlanilha.put(chaveEmail(email), linha.numero());
+            nomesECpfsNaPlanilha.put(chaveNomeCpf(nome, cpf), linha.numero());
+            return Aluno.builder()
+                    .nome(nome)
+                    .email(email)
+                    .telefone(linha.valor("telefone"))
+                    .cpf(cpf)
+                    .dataNascimento(dataNascimento)
+                    .responsavelNome(linha.valor("responsavel_nome"))
+                    .responsavelCpf(responsavelCpf)
+                    .endereco(linha.valor("endereco"))
+                    .observacoes(linha.valor("observacoes"))
+                    .ativo(ativo)
+                    .build();
+        }
+    }
+
+    private final class LinhaProfessor implements Conversor<Professor> {
+
+        private final Set<String> emails = new HashSet<>();
+        private final Set<String> nomesECpfs = new HashSet<>();
+        private final Map<String, Integer> emailsNaPlanilha = new HashMap<>();
+        private final Map<String, Integer> nomesECpfsNaPlanilha = new HashMap<>();
+
+        LinhaProfessor() {
+            for (Object[] p : professorRepository.findDadosImportacao()) {
+                emails.add(chaveEmail((String) p[1]));
+                nomesECpfs.add(chaveNomeCpf((String) p[0], (String) p[2]));
+            }
+            for (String email : usuarioRepository.findAllEmails()) emails.add(chaveEmail(email));
+        }
+
+        @Override
+        public Professor converter(Linha linha, List<String> problemas) {
+            String nome = linha.obrigatorio("nome", "Nome é obrigatório", problemas);
+            String email = linha.email(problemas);
+            String cpf = linha.cpf("cpf", "CPF inválido", problemas);
+            Boolean ativo = linha.ativo(problemas);
+            if (email != null) {
+                linha.unico(emails, emailsNaPlanilha, chaveEmail(email), "Já existe professor com este e-mail", "E-mail", problemas);
+            }
+            if (nome != null) {
+                linha.unico(nomesECpfs, nomesECpfsNaPlanilha, chaveNomeCpf(nome, cpf), "Já existe um professor com o mesmo nome e CPF.", "Nome e CPF", problemas);
+            }
+            if (!problemas.isEmpty()) return null;
+            emailsNaPlanilha.put(chaveEmail(email), linha.numero());
+            nomesECpfsNaPlanilha.put(chaveNomeCpf(nome, cpf), linha.numero());
+            return Professor.builder()
+                    .nome(nome)
+                    .email(email)
+                    .telefone(linha.valor("telefone"))
+                    .cpf(cpf)
+                    .instrumentos(linha.valor("instrumentos"))
+                    .disponibilidade(linha.valor("disponibilidade"))
+                    .ativo(ativo)
+                    .build();
+        }
+    }
+
+    private final class LinhaMatricula implements Conversor<Matricula> {
+
+        /** Alunos por e-mail e por CPF (só dígitos); CPF de mais de um aluno não serve para identificar. */
+        private final Map<String, Long> alunoPorEmail = new HashMap<>();
+        private final Map<String, Long> alunoPorCpf = new HashMap<>();
+        private final Set<String> cpfsRepetidos = new HashSet<>();
+        private final Set<Long> alunosInativos = new HashSet<>();
+        private final Map<Long, Turma> turmas = new HashMap<>();
+        private final Map<Long, GradeHorariaIndex.Grade> grades = new HashMap<>();
+        /** Vagas livres das turmas com capacidade. */
+        private final Map<Long, Integer> vagasLivres = new HashMap<>();
+        /** "alunoId|turmaId" das matrículas ativas, do banco e da planilha. */
+        private final Set<String> ativas = new HashSet<>();
+        /** Turmas das matrículas ativas do aluno, do banco e desta planilha, para checar horário. */
+        private final Map<Long, List<Long>> turmasDoAluno = new HashMap<>();
+        /** Vagas a reservar no banco quando o lote atual for gravado. */
+        private final Map<Long, Integer> vagasDoLote = new LinkedHashMap<>();
+        /** Meses fechados ({@code ano * 100 + mes}): parcela numa competência fechada recusa a linha. */
+        private final Set<Integer> mesesFechados;
+
+        LinhaMatricula() {
+            for (Object[] a : alunoRepository.findDadosImportacao()) {
+                Long id = (Long) a[0];
+                alunoPorEmail.put(chaveEmail((String) a[2]), id);
+                String cpf = CpfValidator.normalize((String) a[3]);
+                if (!cpf.isEmpty() && alunoPorCpf.putIfAbsent(cpf, id) != null) cpfsRepetidos.add(cpf);
+                if (!Boolean.TRUE.equals(a[4])) alunosInativos.add(id);
+            }
+            for (Turma t : turmaRepository.findAllWithHorariosAndInstrumentoGrupo()) {
+                turmas.put(t.getId(), t);
+                grades.put(t.getId(), GradeHorariaIndex.Grade.de(t.getHorarios()));
+                if (t.getCapacidade() != null) {
+                    vagasLivres.put(t.getId(), Math.max(0, t.getCapacidade() - (t.getVagasOcupadas() != null ? t.getVagasOcupadas() : 0)));
+                }
+            }
+            for (Object[] m : matriculaRepository.findAtivasAlunoETurma()) {
+                ativas.add(m[1] + "|" + m[2]);
+                turmasDoAluno.computeIfAbsent((Long) m[1], k -> new ArrayList<>()).add((Long) m[2]);
+            }
+            mesesFechados = new HashSet<>(fechamentoMensalRepository.findMesesFechados(0, Integer.MAX_VALUE));
+        }
+
+        @Override
+        public Matricula converter(Linha linha, List<String> problemas) {
+            Long alunoId = aluno(linha, problemas);
+            Turma turma = turma(linha, problemas);
+            if (linha.valor("data_inicio") == null) problemas.add("Data de início é obrigatória");
+            LocalDate dataInicio = linha.data("data_inicio", "Data de início", problemas);
+            BigDecimal valorCurso = linha.valorMonetario("valor_curso", problemas);
+            LocalDate dataVencimento = linha.data("data_vencimento", "Data de vencimento", problemas);
+            Integer aulasPorSemana = aulasPorSemana(linha, problemas);
+            boolean ativa = linha.ativo(problemas);
+            if (alunoId == null || turma == null) return null;
+            if (ativas.contains(alunoId + "|" + turma.getId())) {
+                problemas.add("Aluno já possui matrícula ativa nesta turma");
+            } else if (conflita(alunoId, turma.getId())) {
+                problemas.add("Horário da turma coincide com outra matrícula ativa do aluno");
+            }
+            Integer livres = vagasLivres.get(turma.getId());
+            if (ativa && livres != null && livres == 0) {
+                problemas.add("Turma lotada: inclua o aluno na lista de espera");
+            }
+            if (dataInicio != null && valorCurso != null && dataVencimento != null) {
+                conferirCompetencias(turma, dataInicio, aulasPorSemana, problemas);
+            }
+            if (!problemas.isEmpty()) return null;
+            if (ativa) {
+                ativas.add(alunoId + "|" + turma.getId());
+                turmasDoAluno.computeIfAbsent(alunoId, k -> new ArrayList<>()).add(turma.getId());
+                if (livres != null) vagasLivres.put(turma.getId(), livres - 1);
+                vagasDoLote.merge(turma.getId(), 1, Integer::sum);
+            }
+            return Matricula.builder()
+                    .aluno(alunoRepository.getReferenceById(alunoId))
+                    .turma(turma)
+                    .dataInicio(dataInicio)
+                    .ativo(ativa)
+                    .valorCurso(valorCurso)
+                    .dataVencimento(dataVencimento)
+                    .aulasPorSemana(aulasPorSemana)
+                    .build();
+        }
+
+        /**
+         * Ocupa no banco as vagas das matrículas ativas do lote, por turma. Se outra matrícula entrou na turma
+         * durante a importação e as vagas acabaram, a importação inteira é desfeita.
+         */
+        void reservarVagasDoLote() {
+            for (Map.Entry<Long, Integer> e : vagasDoLote.entrySet()) {
+                if (turmaRepository.reservarVagas(e.getKey(), e.getValue()).isEmpty()) {
+                    throw new IllegalArgumentException("As vagas da turma " + e.getKey() + " foram ocupadas por outra matrícula durante a importação. Importe a planilha novamente.");
+                }
+            }
+            vagasDoLote.clear();
+        }
+
+        /**
+         * Confere as competências das parcelas que a matrícula vai gerar (do mês de início ao anterior ao fim do
+         * curso): a geração recusaria o lote inteiro, então a linha é recusada aqui.
+         */
+        private void conferirCompetencias(Turma turma, LocalDate dataInicio, Integer aulasPorSemana, List<String> problemas) {
+            if (mesesFechados.isEmpty()) return;
+            YearMonth ultima = YearMonth.from(MatriculaService.dataFimEmLote(turma, dataInicio, aulasPorSemana)).minusMonths(1);
+            for (YearMonth c = YearMonth.from(dataInicio); !c.isAfter(ultima); c = c.plusMonths(1)) {
+                if (mesesFechados.contains(c.getYear() * 100 + c.getMonthValue())) {
+                    problemas.add(String.format("Competência %02d/%d está fechada", c.getMonthValue(), c.getYear()));
+                    return;
+                }
+            }
+        }
+
+        private Long aluno(Linha linha, List<String> problemas) {
+            String valor = linha.valor("aluno");
+            if (valor == null) {
+                problemas.add("Aluno é obrigatório (e-mail ou CPF)");
+                return null;
+            }
+            Long id;
+            if (valor.contains("@")) {
+                id = alunoPorEmail.get(chaveEmail(valor));
+            } else {
+                String cpf = CpfValidator.normalize(cpfCompleto(valor));
+                if (cpfsRepetidos.contains(cpf)) {
+                    problemas.add("Mais de um aluno com o CPF " + valor + ": informe o e-mail");
+                    return null;
+                }
+                id = alunoPorCpf.get(cpf);
+            }
+            if (id == null) {
+                problemas.add("Aluno não encontrado: " + valor);
+            } else if (alunosInativos.contains(id)) {
+                problemas.add("Só é possível matricular alunos ativos");
+                return null;
+            }
+            return id;
+        }
+
+        private Turma turma(Linha linha, List<String> problemas) {
+            String valor = linha.valor("turma_id");
+            if (valor == null) {
+                problemas.add("Turma é obrigatória");
+                return null;
+            }
+            Turma turma = null;
+            try {
+                turma = turmas.get(Long.valueOf(valor));
+            } catch (NumberFormatException e) {
+                // cai na mensagem abaixo
+            }
+            if (turma == null) problemas.add("Turma não encontrada: " + valor);
+            return turma;
+        }
+
+        private Integer aulasPorSemana(Linha linha, List<String> problemas) {
+            String valor = linha.valor("aulas_por_semana");
+            if (valor == null) return null;
+            if (!valor.equals("1") && !valor.equals("2")) {
+                problemas.add("Aulas por semana deve ser 1 ou 2");
+                return null;
+            }
+            return Integer.valueOf(valor);
+        }
+
+        private boolean conflita(Long alunoId, Long turmaId) {
+            GradeHorariaIndex.Grade nova = grades.get(turmaId);
+            if (nova.isVazia()) return false;
+            for (Long outra : turmasDoAluno.getOrDefault(alunoId, List.of())) {
+                GradeHorariaIndex.Grade existente = grades.get(outra);
+                if (existente != null && existente.sobrepoe(nova)) return true;
+            }
+            return false;
+        }
+    }
+
+    /** Cabeçalho normalizado → posição da coluna. */
+    private record Colunas(Map<String, Integer> posicoes) {
+
+        static Colunas de(List<String> cabecalho, List<String> obrigatorias) {
+            if (cabecalho.isEmpty()) throw new IllegalArgumentException("Planilha vazia: a primeira linha deve ser o cabeçalho");
+            Map<String, Integer> posicoes = new HashMap<>();
+            for (int i = 0; i < cabecalho.size(); i++) {
+                posicoes.putIfAbsent(normalizarColuna(cabecalho.get(i)), i);
+            }
+            List<String> faltando = obrigatorias.stream().filter(c -> !posicoes.containsKey(c)).collect(Collectors.toList());
+            if (!faltando.isEmpty()) {
+                throw new IllegalArgumentException("Coluna(s) obrigatória(s) ausente(s) no cabeçalho: " + String.join(", ", faltando));
+            }
+            return new Colunas(posicoes);
+        }
+
+        /** "Data Nascimento" / "data-nascimento" → "data_nascimento"; "E-mail" → "email". */
+        private static String normalizarColuna(String nome) {
+            String c = StringUtil.normalizar(nome).trim().replaceAll("[^a-z0-9]+", "_").replaceAll("^_|_$", "");
+            return c.equals("e_mail") ? "email" : c;
+        }
+    }
+
+    /** Valores de uma linha por nome de coluna, com as conversões usadas pelos três tipos. */
+    private record Linha(Colunas colunas, String[] valores, int numero) {
+
+        /** Valor da coluna, ou {@code null} se ausente ou em branco. */
+        String valor(String coluna) {
+            Integer i = colunas.posicoes().get(coluna);
+            if (i == null || i >= valores.length || valores[i].isEmpty()) return null;
+            return valores[i];
+        }
+
+        String obrigatorio(String coluna, String mensagem, List<String> problemas) {
+            String v = valor(coluna);
+            if (v == null) problemas.add(mensagem);
+            return v;
+        }
+
+        String email(List<String> problemas) {
+            String v = obrigatorio("email", "E-mail é obrigatório", problemas);
+            if (v != null && !EMAIL.matcher(v).matches()) {
+                problemas.add("E-mail inválido: " + v);
+                return null;
+            }
+            return v;
+        }
+
+        String cpf(String coluna, String mensagem, List<String> problemas) {
+            String v = cpfCompleto(valor(coluna));
+            if (!CpfValidator.isValid(v)) problemas.add(mensagem + ": " + v);
+            return v;
+        }
+
+        LocalDate data(String coluna, String rotulo, List<String> problemas) {
+            String v = valor(coluna);
+            if (v == null) return null;
+            try {
+                if (v.matches("\\d+(\\.\\d+)?")) {
+                    BigDecimal serial = new BigDecimal(v);
+                    if (serial.compareTo(BigDecimal.ONE) < 0 || serial.compareTo(SERIAL_EXCEL_MAXIMO) > 0) {
+                        problemas.add(rotulo + " inválida: " + v + " (use dd/mm/aaaa)");
+                        return null;
+                    }
+                    return DIA_ZERO_EXCEL.plusDays(serial.longValue());
+                }
+                if (v.contains("-")) return LocalDate.parse(v.length() > 10 ? v.substring(0, 10) : v);
+                return LocalDate.parse(v, DATA_BR);
+            } catch (DateTimeParseException e) {
+                problemas.add(rotulo + " inválida: " + v + " (use dd/mm/aaaa)");
+                return null;
+            }
+        }
+
+        /** Aceita "150,00", "1.234,56", "R$ 150" e "150.00". */
+        BigDecimal valorMonetario(String coluna, List<String> problemas) {
+            String v = valor(coluna);
+            if (v == null) return null;
+            String n = v.replace("R$", "").replace(" ", "");
+            if (n.contains(",")) n = n.replace(".", "").replace(",", ".");
+            try {
+                BigDecimal valor = new BigDecimal(n);
+                if (valor.signum() < 0) throw new NumberFormatException();
+                return valor;
+            } catch (NumberFormatException e) {
+                problemas.add("Valor inválido: " + v);
+                return null;
+            }
+        }
+
+        /** Coluna "ativo": sim/não (ou true/false, 1/0); em branco conta como sim. */
+        Boolean ativo(List<String> problemas) {
+            String v = valor("ativo");
+            if (v == null) return true;
+            return switch (StringUtil.normalizar(v)) {
+                case "sim", "s", "true", "1", "ativo", "x" -> true;
+                case "nao", "n", "false", "0", "inativo" -> false;
+                default -> {
+                    problemas.add("Valor inválido para ativo: " + v + " (use sim ou não)");
+                    yield true;
+                }
+            };
+        }
+
+        /** Acusa chave já existente no banco ({@code existentes}) ou em linha anterior da planilha. */
+        void unico(Set<String> existentes, Map<String, Integer> naPlanilha, String chave, String mensagemBanco, String rotulo, List<String> problemas) {
+            if (existentes.contains(chave)) {
+                problemas.add(mensagemBanco);
+                return;
+            }
+            Integer anterior = naPlanilha.get(chave);
+            if (anterior != null) problemas.add(rotulo + " repetido na planilha (linha " + anterior + ")");
+        }
+    }
+
+    private static String chaveEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Mesma regra de {@code validarNomeECpfUnicos}: nome sem espaços nas pontas e sem caixa, CPF só dígitos. */
+    private static String chaveNomeCpf(String nome, String cpf) {
+        return (nome == null ? "" : nome.trim().toLowerCase(Locale.ROOT)) + "|" + CpfValidator.normalize(cpf);
+    }
+
+    private static String cpfCompleto(String cpf) {
+        if (cpf != null && CPF_SEM_ZEROS.matcher(cpf).matches()) {
+            return "0".repeat(11 - cpf.length()) + cpf;
+        }
+        return cpf;
+    }
+}
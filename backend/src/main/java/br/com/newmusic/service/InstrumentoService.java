@@ -25,6 +25,7 @@ public class InstrumentoService {
     private final GrupoRepository grupoRepository;
     private final TurmaRepository turmaRepository;
     private final AuditService auditService;
+    private final GradeHorariaIndex gradeHorariaIndex;
 
     @Transactional(readOnly = true)
     public Page<InstrumentoDTO> listarPaginado(Pageable pageable, Long grupoId) {
@@ -104,6 +105,7 @@ public class InstrumentoService {
             instrumento.setAtivo(input.getAtivo());
         }
         instrumento = instrumentoRepository.save(instrumento);
+        if (!java.util.Objects.equals(nomeAntes, instrumento.getNome())) gradeHorariaIndex.instrumentoRenomeado(id, instrumento.getNome());
         StringBuilder sb = new StringBuilder();
         if (!java.util.Objects.equals(nomeAntes, input.getNome())) sb.append("Nome: ").append(StringUtil.nvl(nomeAntes)).append(" -> ").append(StringUtil.nvl(input.getNome())).append("; ");
         if (!java.util.Objects.equals(descAntes, input.getDescricao())) sb.append("Descrição: ").append(StringUtil.nvl(descAntes)).append(" -> ").append(StringUtil.nvl(input.getDescricao())).append("; ");
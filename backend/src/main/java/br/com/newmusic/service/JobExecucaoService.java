@@ -0,0 +1,138 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.JobExecucao;
+import br.com.newmusic.domain.StatusJobExecucao;
+import br.com.newmusic.domain.TipoExecucaoJob;
+import br.com.newmusic.repository.JobExecucaoRepository;
+import br.com.newmusic.web.dto.JobExecucaoDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Histórico das execuções dos jobs agendados ({@code job_execucao}) e cálculo de execuções perdidas. */
+@Service
+@RequiredArgsConstructor
+public class JobExecucaoService {
+
+    private static final int MENSAGEM_MAX = 2000;
+    private static final int OBSERVACAO_MAX = 500;
+    private static final int LIMITE_MAXIMO = 200;
+    /** Teto de horários perdidos considerados (um ano de job diário). */
+    private static final int PERDIDOS_MAX = 366;
+
+    private final JobExecucaoRepository jobExecucaoRepository;
+
+    @Transactional
+    public Long iniciar(String job, String rodada, TipoExecucaoJob tipo, String observacao) {
+        JobExecucao execucao = JobExecucao.builder()
+                .job(job)
+                .rodada(rodada)
+                .tipo(tipo)
+                .status(StatusJobExecucao.EXECUTANDO)
+                .no(CoordenacaoJobs.NO)
+                .inicio(LocalDateTime.now())
+                .observacao(truncar(observacao, OBSERVACAO_MAX))
+                .build();
+        return jobExecucaoRepository.save(execucao).getId();
+    }
+
+    /** Fecha a execução: {@code FALHA} se algum lote deu erro ({@code ultimoErro} vai para a mensagem). */
+    @Transactional
+    public JobExecucaoDTO concluir(Long id, long linhasProcessadas, int lotes, int erros, Throwable ultimoErro) {
+        JobExecucao execucao = jobExecucaoRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Execução não encontrada: " + id));
+        LocalDateTime fim = LocalDateTime.now();
+        execucao.setFim(fim);
+        execucao.setDuracaoMs(Duration.between(execucao.getInicio(), fim).toMillis());
+        execucao.setLinhasProcessadas(linhasProcessadas);
+        execucao.setLotes(lotes);
+        execucao.setErros(erros);
+        execucao.setStatus(erros > 0 ? StatusJobExecucao.FALHA : StatusJobExecucao.SUCESSO);
+        if (ultimoErro != null) {
+            String mensagem = ultimoErro.getMessage() != null ? ultimoErro.getMessage() : ultimoErro.getClass().getSimpleName();
+            execucao.setMensagemErro(truncar(mensagem, MENSAGEM_MAX));
+        }
+        return toDTO(jobExecucaoRepository.save(execucao));
+    }
+
+    /**
+     * Marca como {@code ERRO} as execuções do job ainda {@code EXECUTANDO} de outras instâncias. Só deve ser chamado
+     * quando nenhum nó segura o lock do job ({@link CoordenacaoJobs#emExecucao}): a instância que as iniciou caiu e
+     * a linha ficaria como em andamento para sempre. Devolve quantas foram encerradas.
+     */
+    @Transactional
+    public int encerrarInterrompidas(String job) {
+        LocalDateTime agora = LocalDateTime.now();
+        int encerradas = 0;
+        for (JobExecucao execucao : jobExecucaoRepository.findByJobAndStatus(job, StatusJobExecucao.EXECUTANDO)) {
+            if (CoordenacaoJobs.NO.equals(execucao.getNo())) continue;
+            execucao.setStatus(StatusJobExecucao.ERRO);
+            execucao.setFim(agora);
+            execucao.setDuracaoMs(Duration.between(execucao.getInicio(), agora).toMillis());
+            execucao.setMensagemErro("Execução interrompida: a instância " + execucao.getNo() + " não concluiu a rodada.");
+            jobExecucaoRepository.save(execucao);
+            encerradas++;
+        }
+        return encerradas;
+    }
+
+    /** Execuções mais recentes primeiro; {@code job} nulo lista todos os jobs. */
+    @Transactional(readOnly = true)
+    public List<JobExecucaoDTO> listar(String job, int limite) {
+        PageRequest pagina = PageRequest.of(0, Math.max(1, Math.min(limite, LIMITE_MAXIMO)));
+        List<JobExecucao> execucoes = job == null || job.isBlank()
+                ? jobExecucaoRepository.findByOrderByInicioDesc(pagina)
+                : jobExecucaoRepository.findByJobOrderByInicioDesc(job, pagina);
+        return execucoes.stream().map(this::toDTO).toList();
+    }
+
+    /**
+     * Horários do {@code cron} que passaram sem execução: os posteriores ao início da última execução com sucesso
+     * (de qualquer tipo) até {@code agora}. Sem nenhuma execução com sucesso no histórico, não há o que recuperar.
+     */
+    @Transactional(readOnly = true)
+    public List<ZonedDateTime> horariosPerdidos(String job, String cron, ZonedDateTime agora) {
+        List<ZonedDateTime> perdidos = new ArrayList<>();
+        jobExecucaoRepository.findFirstByJobAndStatusOrderByInicioDesc(job, StatusJobExecucao.SUCESSO).ifPresent(ultima -> {
+            CronExpression expressao = CronExpression.parse(cron);
+            ZonedDateTime horario = expressao.next(ultima.getInicio().atZone(ZoneId.systemDefault()).withZoneSameInstant(agora.getZone()));
+            while (horario != null && !horario.isAfter(agora) && perdidos.size() < PERDIDOS_MAX) {
+                perdidos.add(horario);
+                horario = expressao.next(horario);
+            }
+        });
+        return perdidos;
+    }
+
+    private static String truncar(String texto, int max) {
+        return texto != null && texto.length() > max ? texto.substring(0, max) : texto;
+    }
+
+    private JobExecucaoDTO toDTO(JobExecucao e) {
+        return JobExecucaoDTO.builder()
+                .id(e.getId())
+                .job(e.getJob())
+                .rodada(e.getRodada())
+                .tipo(e.getTipo().name())
+                .status(e.getStatus().name())
+                .no(e.getNo())
+                .inicio(e.getInicio())
+                .fim(e.getFim())
+                .duracaoMs(e.getDuracaoMs())
+                .linhasProcessadas(e.getLinhasProcessadas() != null ? e.getLinhasProcessadas() : 0)
+                .lotes(e.getLotes() != null ? e.getLotes() : 0)
+                .erros(e.getErros() != null ? e.getErros() : 0)
+                .mensagemErro(e.getMensagemErro())
+                .observacao(e.getObservacao())
+                .build();
+    }
+}
@@ -0,0 +1,356 @@
+package br.com.newmusic.service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Lê uma planilha de importação (.csv ou .xlsx) linha a linha, sem montar o arquivo inteiro em memória; linhas
+ * em branco são puladas e os valores saem sem espaços nas pontas.
+ * <p>
+ * CSV: UTF-8 (BOM opcional), separador {@code ;} ou {@code ,} detectado pelo cabeçalho, campos entre aspas com
+ * {@code ""} como escape. XLSX: a primeira planilha da pasta de trabalho, lida por StAX; o arquivo vai para um
+ * temporário porque a tabela de strings compartilhadas costuma vir depois da planilha no ZIP. Números saem como
+ * texto sem ".0" e sem notação científica; datas ficam como o número serial do Excel.
+ * <p>
+ * Não é thread-safe.
+ */
+public abstract class LeitorPlanilha implements Closeable {
+
+    public static LeitorPlanilha abrir(String nomeArquivo, InputStream conteudo) throws IOException {
+        String nome = nomeArquivo != null ? nomeArquivo.toLowerCase(Locale.ROOT) : "";
+        if (nome.endsWith(".csv")) return new Csv(conteudo);
+        if (nome.endsWith(".xlsx")) return new Xlsx(conteudo);
+        throw new IllegalArgumentException("Formato de arquivo inválido: " + nomeArquivo + ". Use .csv ou .xlsx.");
+    }
+
+    /** Primeira linha não vazia do arquivo; vazia se o arquivo não tem nenhuma. */
+    public abstract List<String> cabecalho();
+
+    /** Próxima linha com algum valor, ou {@code null} no fim do arquivo. */
+    public abstract String[] proximaLinha() throws IOException;
+
+    /** Número (a partir de 1, como no editor de planilhas) da última linha devolvida. */
+    public abstract int numeroLinha();
+
+    private static boolean vazia(String[] valores) {
+        for (String v : valores) {
+            if (!v.isEmpty()) return false;
+        }
+        return true;
+    }
+
+    private static final class Csv extends LeitorPlanilha {
+
+        private final BufferedReader reader;
+        private final char separador;
+        private final List<String> cabecalho;
+        private int linhasLidas;
+        private int numeroLinha;
+
+        Csv(InputStream conteudo) throws IOException {
+            reader = new BufferedReader(new InputStreamReader(conteudo, StandardCharsets.UTF_8), 1 << 16);
+            reader.mark(1);
+            if (reader.read() != '\uFEFF') reader.reset();
+            reader.mark(1 << 16);
+            String primeira = reader.readLine();
+            reader.reset();
+            separador = primeira != null && contar(primeira, ';') >= contar(primeira, ',') && contar(primeira, ';') > 0 ? ';' : ',';
+            String[] valores = proximaLinha();
+            cabecalho = valores != null ? List.of(valores) : List.of();
+        }
+
+        private static int contar(String texto, char c) {
+            int n = 0;
+            for (int i = 0; i < texto.length(); i++) {
+                if (texto.charAt(i) == c) n++;
+            }
+            return n;
+        }
+
+        @Override
+        public List<String> cabecalho() {
+            return cabecalho;
+        }
+
+        @Override
+        public String[] proximaLinha() throws IOException {
+            while (true) {
+                int inicio = linhasLidas + 1;
+                String[] valores = lerRegistro();
+                if (valores == null) return null;
+                if (!vazia(valores)) {
+                    numeroLinha = inicio;
+                    return valores;
+                }
+            }
+        }
+
+        /** Um registro pode ocupar várias linhas físicas (quebra de linha entre aspas). */
+        private String[] lerRegistro() throws IOException {
+            List<String> campos = new ArrayList<>();
+            StringBuilder campo = new StringBuilder();
+            boolean entreAspas = false;
+            boolean leuAlgo = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                leuAlgo = true;
+                if (entreAspas) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            campo.append('"');
+                        } else {
+                            entreAspas = false;
+                            reader.reset();
+                        }
+                    } else {
+                        if (c == '\n') linhasLidas++;
+                        campo.append((char) c);
+                    }
+                } else if (c == '"') {
+                    entreAspas = true;
+                } else if (c == separador) {
+                    campos.add(campo.toString().trim());
+                    campo.setLength(0);
+                } else if (c == '\n') {
+                    linhasLidas++;
+                    break;
+                } else if (c != '\r') {
+                    campo.append((char) c);
+                }
+            }
+            if (!leuAlgo) return null;
+            if (c == -1) linhasLidas++;
+            campos.add(campo.toString().trim());
+            return campos.toArray(new String[0]);
+        }
+
+        @Override
+        public int numeroLinha() {
+            return numeroLinha;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class Xlsx extends LeitorPlanilha {
+
+        private static final String NS_REL = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+        private final XMLInputFactory fabrica = XMLInputFactory.newFactory();
+        private final Path arquivo;
+        private final ZipFile zip;
+        private final List<String> stringsCompartilhadas;
+        private final InputStream planilhaStream;
+        private final XMLStreamReader planilha;
+        private final List<String> cabecalho;
+        private int numeroLinha;
+
+        Xlsx(InputStream conteudo) throws IOException {
+            fabrica.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            fabrica.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            arquivo = Files.createTempFile("importacao", ".xlsx");
+            ZipFile z = null;
+            InputStream in = null;
+            try {
+                Files.copy(conteudo, arquivo, StandardCopyOption.REPLACE_EXISTING);
+                z = new ZipFile(arquivo.toFile());
+                zip = z;
+                stringsCompartilhadas = lerStringsCompartilhadas();
+                ZipEntry entrada = zip.getEntry(caminhoPrimeiraPlanilha());
+                if (entrada == null) throw new IllegalArgumentException("Planilha não encontrada no arquivo .xlsx");
+                in = zip.getInputStream(entrada);
+                planilhaStream = in;
+                planilha = fabrica.createXMLStreamReader(in);
+                String[] valores = proximaLinha();
+                cabecalho = valores != null ? List.of(valores) : List.of();
+            } catch (XMLStreamException | IOException | RuntimeException e) {
+                if (in != null) in.close();
+                if (z != null) z.close();
+                Files.deleteIfExists(arquivo);
+                if (e instanceof IllegalArgumentException iae) throw iae;
+                throw new IllegalArgumentException("Arquivo .xlsx inválido ou corrompido", e);
+            }
+        }
+
+        /** Primeira {@code <sheet>} de workbook.xml, resolvida pelo relacionamento; padrão sheet1.xml. */
+        private String caminhoPrimeiraPlanilha() throws IOException, XMLStreamException {
+            String relId = null;
+            ZipEntry workbook = zip.getEntry("xl/workbook.xml");
+            if (workbook != null) {
+                try (InputStream in = zip.getInputStream(workbook)) {
+                    XMLStreamReader xml = fabrica.createXMLStreamReader(in);
+                    while (xml.hasNext() && relId == null) {
+                        if (xml.next() == XMLStreamConstants.START_ELEMENT && xml.getLocalName().equals("sheet")) {
+                            relId = xml.getAttributeValue(NS_REL, "id");
+                        }
+                    }
+                    xml.close();
+                }
+            }
+            ZipEntry rels = zip.getEntry("xl/_rels/workbook.xml.rels");
+            if (relId != null && rels != null) {
+                try (InputStream in = zip.getInputStream(rels)) {
+                    XMLStreamReader xml = fabrica.createXMLStreamReader(in);
+                    while (xml.hasNext()) {
+                        if (xml.next() == XMLStreamConstants.START_ELEMENT && xml.getLocalName().equals("Relationship")
+                                && relId.equals(xml.getAttributeValue(null, "Id"))) {
+                            String alvo = xml.getAttributeValue(null, "Target");
+                            xml.close();
+                            return alvo.startsWith("/") ? alvo.substring(1) : "xl/" + alvo;
+                        }
+                    }
+                    xml.close();
+                }
+            }
+            return "xl/worksheets/sheet1.xml";
+        }
+
+        private List<String> lerStringsCompartilhadas() throws IOException, XMLStreamException {
+            List<String> strings = new ArrayList<>();
+            ZipEntry entrada = zip.getEntry("xl/sharedStrings.xml");
+            if (entrada == null) return strings;
+            try (InputStream in = zip.getInputStream(entrada)) {
+                XMLStreamReader xml = fabrica.createXMLStreamReader(in);
+                StringBuilder atual = new StringBuilder();
+                boolean fonetica = false;
+                while (xml.hasNext()) {
+                    int evento = xml.next();
+                    if (evento == XMLStreamConstants.START_ELEMENT) {
+                        switch (xml.getLocalName()) {
+                            case "si" -> atual.setLength(0);
+                            case "rPh" -> fonetica = true;
+                            case "t" -> {
+                                if (!fonetica) atual.append(xml.getElementText());
+                            }
+                            default -> { }
+                        }
+                    } else if (evento == XMLStreamConstants.END_ELEMENT) {
+                        if (xml.getLocalName().equals("rPh")) fonetica = false;
+                        else if (xml.getLocalName().equals("si")) strings.add(atual.toString());
+                    }
+                }
+                xml.close();
+            }
+            return strings;
+        }
+
+        @Override
+        public List<String> cabecalho() {
+            return cabecalho;
+        }
+
+        @Override
+        public String[] proximaLinha() throws IOException {
+            try {
+                while (planilha.hasNext()) {
+                    if (planilha.next() != XMLStreamConstants.START_ELEMENT || !planilha.getLocalName().equals("row")) continue;
+                    String r = planilha.getAttributeValue(null, "r");
+                    int numero = r != null ? Integer.parseInt(r) : numeroLinha + 1;
+                    String[] valores = lerLinha();
+                    numeroLinha = numero;
+                    if (!vazia(valores)) return valores;
+                }
+                return null;
+            } catch (XMLStreamException | RuntimeException e) {
+                throw new IllegalArgumentException("Arquivo .xlsx inválido ou corrompido (após a linha " + numeroLinha + ")", e);
+            }
+        }
+
+        /** Lê as células até {@code </row>}; colunas sem célula ficam vazias. */
+        private String[] lerLinha() throws XMLStreamException {
+            List<String> valores = new ArrayList<>();
+            while (planilha.hasNext()) {
+                int evento = planilha.next();
+                if (evento == XMLStreamConstants.END_ELEMENT && planilha.getLocalName().equals("row")) break;
+                if (evento != XMLStreamConstants.START_ELEMENT || !planilha.getLocalName().equals("c")) continue;
+                String ref = planilha.getAttributeValue(null, "r");
+                String tipo = planilha.getAttributeValue(null, "t");
+                int coluna = ref != null ? coluna(ref) : valores.size();
+                String valor = valorCelula(tipo);
+                while (valores.size() < coluna) valores.add("");
+                if (valores.size() == coluna) valores.add(valor); else valores.set(coluna, valor);
+            }
+            return valores.toArray(new String[0]);
+        }
+
+        private String valorCelula(String tipo) throws XMLStreamException {
+            StringBuilder texto = new StringBuilder();
+            String v = null;
+            while (planilha.hasNext()) {
+                int evento = planilha.next();
+                if (evento == XMLStreamConstants.END_ELEMENT && planilha.getLocalName().equals("c")) break;
+                if (evento != XMLStreamConstants.START_ELEMENT) continue;
+                if (planilha.getLocalName().equals("v")) v = planilha.getElementText();
+                else if (planilha.getLocalName().equals("t")) texto.append(planilha.getElementText());
+            }
+            if ("inlineStr".equals(tipo)) return texto.toString().trim();
+            if (v == null) return "";
+            if ("s".equals(tipo)) {
+                int indice = Integer.parseInt(v.trim());
+                return indice < stringsCompartilhadas.size() ? stringsCompartilhadas.get(indice).trim() : "";
+            }
+            if ("b".equals(tipo)) return "1".equals(v.trim()) ? "true" : "false";
+            if (tipo == null || "n".equals(tipo)) return numero(v.trim());
+            return v.trim();
+        }
+
+        /** "AB12" → 27 (colunas a partir de zero). */
+        private static int coluna(String ref) {
+            int n = 0;
+            for (int i = 0; i < ref.length() && Character.isLetter(ref.charAt(i)); i++) {
+                n = n * 26 + (Character.toUpperCase(ref.charAt(i)) - 'A' + 1);
+            }
+            return n - 1;
+        }
+
+        private static String numero(String v) {
+            try {
+                return new BigDecimal(v).stripTrailingZeros().toPlainString();
+            } catch (NumberFormatException e) {
+                return v;
+            }
+        }
+
+        @Override
+        public int numeroLinha() {
+            return numeroLinha;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                planilha.close();
+            } catch (XMLStreamException e) {
+                // o ZIP é fechado abaixo de qualquer forma
+            } finally {
+                try {
+                    planilhaStream.close();
+                    zip.close();
+                } finally {
+                    Files.deleteIfExists(arquivo);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.Aluno;
+import br.com.newmusic.domain.ListaEspera;
+import br.com.newmusic.domain.Turma;
+import br.com.newmusic.repository.AlunoRepository;
+import br.com.newmusic.repository.ListaEsperaRepository;
+import br.com.newmusic.repository.MatriculaRepository;
+import br.com.newmusic.repository.TurmaRepository;
+import br.com.newmusic.web.dto.ListaEsperaDTO;
+import br.com.newmusic.web.dto.MatriculaInput;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Lista de espera das turmas lotadas; a promoção para matrícula fica em {@link MatriculaService#promoverListaEspera}. */
+@Service
+@RequiredArgsConstructor
+public class ListaEsperaService {
+
+    private final ListaEsperaRepository listaEsperaRepository;
+    private final AlunoRepository alunoRepository;
+    private final TurmaRepository turmaRepository;
+    private final MatriculaRepository matriculaRepository;
+    private final MatriculaService matriculaService;
+    private final AuditService auditService;
+
+    @Transactional(readOnly = true)
+    public List<ListaEsperaDTO> listarPorTurma(Long turmaId) {
+        List<ListaEspera> fila = listaEsperaRepository.findByTurmaIdWithAluno(turmaId);
+        List<ListaEsperaDTO> dtos = new ArrayList<>(fila.size());
+        for (int i = 0; i < fila.size(); i++) {
+            dtos.add(toDTO(fila.get(i), i + 1, null));
+        }
+        return dtos;
+    }
+
+    /**
+     * Coloca o aluno no fim da fila da turma, com os dados da matrícula a criar. Se houver vaga (liberada enquanto isso),
+     * a fila é promovida na hora e o DTO volta com {@code matriculaId}.
+     */
+    @Transactional
+    public ListaEsperaDTO inscrever(MatriculaInput input) {
+        Aluno aluno = alunoRepository.findById(input.getAlunoId()).orElseThrow(() -> new IllegalArgumentException("Aluno não encontrado"));
+        if (!Boolean.TRUE.equals(aluno.getAtivo())) {
+            throw new IllegalArgumentException("Só é possível incluir alunos ativos na lista de espera.");
+        }
+        Turma turma = turmaRepository.findById(input.getTurmaId()).orElseThrow(() -> new IllegalArgumentException("Turma não encontrada"));
+        if (turma.getCapacidade() == null) {
+            throw new IllegalArgumentException("Turma não tem limite de vagas: faça a matrícula diretamente.");
+        }
+        if (matriculaRepository.existsByAlunoIdAndTurmaIdAndAtivoTrue(aluno.getId(), turma.getId())) {
+            throw new IllegalArgumentException("Aluno já possui matrícula ativa nesta turma");
+        }
+        if (listaEsperaRepository.existsByTurmaIdAndAlunoId(turma.getId(), aluno.getId())) {
+            throw new IllegalArgumentException("Aluno já está na lista de espera desta turma");
+        }
+        ListaEspera entrada = listaEsperaRepository.save(ListaEspera.builder()
+                .turma(turma)
+                .aluno(aluno)
+                .dataInicio(input.getDataInicio())
+                .valorCurso(input.getValorCurso())
+                .dataVencimento(input.getDataVencimento())
+                .aulasPorSemana(input.getAulasPorSemana())
+                .criadoEm(LocalDateTime.now())
+                .build());
+        auditService.registrar("CRIAR", "lista_espera", String.valueOf(entrada.getId()), "Incluiu o aluno " + aluno.getNome() + " na lista de espera da turma (id " + turma.getId() + ")", "Aluno: " + aluno.getNome() + ", Data início: " + input.getDataInicio());
+        Long matriculaId = matriculaService.promoverListaEspera(turma.getId()).get(aluno.getId());
+        if (matriculaId != null) {
+            return toDTO(entrada, null, matriculaId);
+        }
+        int posicao = 0;
+        for (ListaEspera e : listaEsperaRepository.findByTurmaIdWithAluno(turma.getId())) {
+            posicao++;
+            if (e.getId().equals(entrada.getId())) return toDTO(entrada, posicao, null);
+        }
+        // saiu da fila sem virar matrícula: horário coincide com outra matrícula ativa do aluno
+        throw new IllegalArgumentException("Não é permitido incluir o aluno: os dias e horários da turma coincidem com outra matrícula ativa.");
+    }
+
+    @Transactional
+    public void cancelar(Long id) {
+        ListaEspera entrada = listaEsperaRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Entrada da lista de espera não encontrada"));
+        String alunoNome = entrada.getAluno().getNome();
+        Long turmaId = entrada.getTurma().getId();
+        listaEsperaRepository.delete(entrada);
+        auditService.registrar("EXCLUIR", "lista_espera", String.valueOf(id), "Retirou o aluno " + alunoNome + " da lista de espera da turma (id " + turmaId + ")", "Aluno: " + alunoNome);
+    }
+
+    private ListaEsperaDTO toDTO(ListaEspera e, Integer posicao, Long matriculaId) {
+        return ListaEsperaDTO.builder()
+                .id(e.getId())
+                .turmaId(e.getTurma().getId())
+                .alunoId(e.getAluno().getId())
+                .alunoNome(e.getAluno().getNome())
+                .posicao(posicao)
+                .matriculaId(matriculaId)
+                .dataInicio(e.getDataInicio())
+                .valorCurso(e.getValorCurso())
+                .dataVencimento(e.getDataVencimento())
+                .aulasPorSemana(e.getAulasPorSemana())
+                .criadoEm(e.getCriadoEm())
+                .build();
+    }
+}
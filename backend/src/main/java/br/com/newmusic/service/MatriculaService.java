@@ -1,28 +1,30 @@
 package br.com.newmusic.service;
 
 import br.com.newmusic.domain.Aluno;
+import br.com.newmusic.domain.ListaEspera;
 import br.com.newmusic.domain.Matricula;
 import br.com.newmusic.domain.StatusMensalidade;
 import br.com.newmusic.domain.Turma;
 import br.com.newmusic.repository.AlunoRepository;
+import br.com.newmusic.repository.ListaEsperaRepository;
 import br.com.newmusic.repository.MatriculaRepository;
 import br.com.newmusic.repository.MensalidadeRepository;
 import br.com.newmusic.repository.TurmaRepository;
 import br.com.newmusic.web.dto.MatriculaDTO;
 import br.com.newmusic.web.dto.MatriculaInput;
+import br.com.newmusic.util.StringUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import br.com.newmusic.domain.TurmaHorario;
-
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.time.YearMonth;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,14 +37,18 @@ public class MatriculaService {
     private final MensalidadeRepository mensalidadeRepository;
     private final MensalidadeService mensalidadeService;
     private final AuditService auditService;
+    private final DashboardKpiService dashboardKpiService;
+    private final PagamentoEmDiaCache pagamentoEmDiaCache;
+    private final ListaEsperaRepository listaEsperaRepository;
+
+    private static final String TURMA_LOTADA = "Turma já está com capacidade máxima. Inclua o aluno na lista de espera: ele será matriculado quando uma vaga for liberada.";
 
     @Transactional(readOnly = true)
     public Page<MatriculaDTO> listar(Pageable pageable, String busca) {
         if (busca == null || busca.isBlank()) {
             return matriculaRepository.findAll(pageable).map(this::toDTO);
         }
-        String b = busca.trim();
-        return matriculaRepository.findByAlunoNomeContainingIgnoreCaseOrAlunoCpfContainingOrderByAlunoNomeAscDataInicioDesc(b, b, pageable).map(this::toDTO);
+        return matriculaRepository.buscarPorAluno(StringUtil.padraoBuscaPessoa(busca), pageable).map(this::toDTO);
     }
 
     @Transactional(readOnly = true)
@@ -76,52 +82,116 @@ public class MatriculaService {
         if (matriculaRepository.existsByAlunoIdAndTurmaIdAndAtivoTrue(input.getAlunoId(), input.getTurmaId())) {
             throw new IllegalArgumentException("Aluno já possui matrícula ativa nesta turma");
         }
-        if (turma.getCapacidade() != null && matriculaRepository.countByTurmaIdAndAtivoTrue(turma.getId()) >= turma.getCapacidade()) {
-            throw new IllegalArgumentException("Turma já está com capacidade máxima. Só é possível matricular quando uma vaga for liberada.");
-        }
         validarTurmaComDiasEPeriodosDiferentes(input.getAlunoId(), turma, null);
-        Integer aulasPorSemana = input.getAulasPorSemana() != null ? input.getAulasPorSemana() : aulasPorSemanaDaTurma(turma);
-        boolean isCanto = turma.getInstrumento() != null
-                && turma.getInstrumento().getGrupo() != null
-                && turma.getInstrumento().getGrupo().getNome() != null
-                && turma.getInstrumento().getGrupo().getNome().equalsIgnoreCase("Canto");
-        LocalDate dataFim = calcularDataFimCurso(input.getDataInicio(), aulasPorSemana, isCanto);
+        boolean ativa = input.getAtivo() == null || input.getAtivo();
+        if (ativa && !reservarVaga(turma.getId())) {
+            throw new IllegalArgumentException(TURMA_LOTADA);
+        }
+        Matricula matricula = matricular(aluno, turma, input.getDataInicio(), ativa, input.getValorCurso(), input.getDataVencimento(), input.getAulasPorSemana());
+        String conteudo = "Aluno: " + aluno.getNome() + ", Turma: " + turma.getInstrumento().getNome() + " - " + turma.getProfessor().getNome() + ", Data início: " + input.getDataInicio() + ", Data fim: " + matricula.getDataFim();
+        auditService.registrar("CRIAR", "matriculas", String.valueOf(matricula.getId()), "Criou matrícula do aluno " + aluno.getNome() + " na turma " + turma.getInstrumento().getNome() + " (id " + matricula.getId() + ")", conteudo);
+        return toDTO(matricula);
+    }
+
+    /**
+     * Promove a lista de espera da turma em ordem de chegada enquanto houver vaga, na transação de quem liberou a vaga.
+     * Entradas que não podem mais virar matrícula (aluno inativo, já matriculado ou com horário coincidente) saem da fila.
+     * Devolve aluno → matrícula criada, na ordem da promoção.
+     */
+    @Transactional
+    public Map<Long, Long> promoverListaEspera(Long turmaId) {
+        Map<Long, Long> criadas = new LinkedHashMap<>();
+        Turma turma = null;
+        while (true) {
+            ListaEspera entrada = listaEsperaRepository.findProximaParaPromover(turmaId).orElse(null);
+            if (entrada == null) break;
+            if (turma == null) turma = turmaRepository.findByIdWithHorarios(turmaId).orElseThrow(() -> new IllegalArgumentException("Turma não encontrada"));
+            Aluno aluno = entrada.getAluno();
+            String motivo = !Boolean.TRUE.equals(aluno.getAtivo()) ? "aluno inativo"
+                    : matriculaRepository.existsByAlunoIdAndTurmaIdAndAtivoTrue(aluno.getId(), turmaId) ? "aluno já matriculado na turma"
+                    : conflitaComOutraMatricula(aluno.getId(), turma, null) ? "horário coincide com outra matrícula ativa"
+                    : null;
+            if (motivo != null) {
+                listaEsperaRepository.delete(entrada);
+                auditService.registrar("EXCLUIR", "lista_espera", String.valueOf(entrada.getId()), "Retirou o aluno " + aluno.getNome() + " da lista de espera da turma (id " + turmaId + ")", "Motivo: " + motivo);
+                continue;
+            }
+            if (!reservarVaga(turmaId)) break;
+            LocalDate hoje = LocalDate.now();
+            LocalDate dataInicio = entrada.getDataInicio().isBefore(hoje) ? hoje : entrada.getDataInicio();
+            Matricula matricula = matricular(aluno, turma, dataInicio, true, entrada.getValorCurso(), entrada.getDataVencimento(), entrada.getAulasPorSemana());
+            listaEsperaRepository.delete(entrada);
+            criadas.put(aluno.getId(), matricula.getId());
+            auditService.registrar("CRIAR", "matriculas", String.valueOf(matricula.getId()), "Matriculou o aluno " + aluno.getNome() + " pela lista de espera da turma " + turma.getInstrumento().getNome() + " (id " + matricula.getId() + ")",
+                    "Aluno: " + aluno.getNome() + ", Na fila desde: " + entrada.getCriadoEm() + ", Data início: " + dataInicio + ", Data fim: " + matricula.getDataFim());
+        }
+        return criadas;
+    }
+
+    /** Cria a matrícula (vaga já reservada, se ativa) e gera as parcelas. */
+    private Matricula matricular(Aluno aluno, Turma turma, LocalDate dataInicio, boolean ativa, BigDecimal valorCurso, LocalDate dataVencimento, Integer aulasPorSemanaInformadas) {
+        Integer aulasPorSemana = aulasPorSemanaInformadas != null ? aulasPorSemanaInformadas : aulasPorSemanaDaTurma(turma);
+        LocalDate dataFim = calcularDataFimCurso(dataInicio, aulasPorSemana, isCanto(turma));
         Matricula matricula = Matricula.builder()
-                .dataInicio(input.getDataInicio())
+                .dataInicio(dataInicio)
                 .dataFim(dataFim)
-                .ativo(input.getAtivo() != null ? input.getAtivo() : true)
-                .valorCurso(input.getValorCurso())
-                .dataVencimento(input.getDataVencimento())
+                .ativo(ativa)
+                .valorCurso(valorCurso)
+                .dataVencimento(dataVencimento)
                 .aulasPorSemana(aulasPorSemana)
                 .aluno(aluno)
                 .turma(turma)
                 .build();
         matricula = matriculaRepository.save(matricula);
-        if (input.getValorCurso() != null && input.getDataVencimento() != null) {
-            mensalidadeService.criarMensalidadesParaMatricula(matricula.getId(), aluno.getId(), input.getDataInicio(), dataFim, input.getValorCurso(), input.getDataVencimento(), aulasPorSemana);
+        if (ativa) dashboardKpiService.matriculasAtivasAlteradas(1);
+        if (valorCurso != null && dataVencimento != null) {
+            mensalidadeService.criarMensalidadesParaMatricula(matricula.getId(), aluno.getId(), dataInicio, dataFim, valorCurso, dataVencimento, aulasPorSemana);
         }
-        String conteudo = "Aluno: " + aluno.getNome() + ", Turma: " + turma.getInstrumento().getNome() + " - " + turma.getProfessor().getNome() + ", Data início: " + input.getDataInicio() + ", Data fim: " + dataFim;
-        auditService.registrar("CRIAR", "matriculas", String.valueOf(matricula.getId()), "Criou matrícula do aluno " + aluno.getNome() + " na turma " + turma.getInstrumento().getNome() + " (id " + matricula.getId() + ")", conteudo);
-        return toDTO(matricula);
+        return matricula;
+    }
+
+    /**
+     * Versão em lote de {@link #matricular} para a importação: recebe as matrículas montadas (aluno, turma, início,
+     * situação e valores; vagas das ativas já reservadas), calcula aulas por semana e data fim, grava com INSERTs em
+     * lote e gera as parcelas de todas numa chamada só. Devolve quantas parcelas foram geradas. Não recalcula o
+     * snapshot financeiro do dashboard: a importação chama um lote por vez e recalcula uma vez no fim.
+     */
+    @Transactional
+    public int matricularEmLote(List<Matricula> novas) {
+        if (novas.isEmpty()) return 0;
+        int ativas = 0;
+        for (Matricula m : novas) {
+            if (m.getAulasPorSemana() == null) m.setAulasPorSemana(aulasPorSemanaDaTurma(m.getTurma()));
+            m.setDataFim(dataFimEmLote(m.getTurma(), m.getDataInicio(), m.getAulasPorSemana()));
+            if (Boolean.TRUE.equals(m.getAtivo())) ativas++;
+        }
+        List<Matricula> salvas = matriculaRepository.saveAll(novas);
+        if (ativas > 0) dashboardKpiService.matriculasAtivasAlteradas(ativas);
+        return mensalidadeService.criarMensalidadesParaMatriculasSemRecalcular(salvas.stream().map(Matricula::getId).collect(Collectors.toList()));
+    }
+
+    private boolean reservarVaga(Long turmaId) {
+        return !turmaRepository.reservarVaga(turmaId).isEmpty();
+    }
+
+    /** Devolve a vaga e a passa para o primeiro da lista de espera. */
+    private void liberarVaga(Long turmaId) {
+        turmaRepository.liberarVaga(turmaId);
+        promoverListaEspera(turmaId);
     }
 
     @Transactional
     public MatriculaDTO atualizar(Long id, MatriculaInput input) {
         Matricula matricula = matriculaRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Matrícula não encontrada"));
-        Turma turmaDestino = matricula.getTurma();
+        boolean ativaAntes = Boolean.TRUE.equals(matricula.getAtivo());
+        Turma turmaAntes = matricula.getTurma();
+        Turma turmaDestino = turmaAntes;
         if (!turmaDestino.getId().equals(input.getTurmaId())) {
             Turma novaTurma = turmaRepository.findByIdWithHorarios(input.getTurmaId()).orElseThrow(() -> new IllegalArgumentException("Turma não encontrada"));
-            if (novaTurma.getCapacidade() != null && matriculaRepository.countByTurmaIdAndAtivoTrue(novaTurma.getId()) >= novaTurma.getCapacidade()) {
-                throw new IllegalArgumentException("Turma já está com capacidade máxima. Só é possível matricular quando uma vaga for liberada.");
-            }
             validarTurmaComDiasEPeriodosDiferentes(matricula.getAluno().getId(), novaTurma, matricula.getId());
             turmaDestino = novaTurma;
         }
-        boolean isCanto = turmaDestino.getInstrumento() != null
-                && turmaDestino.getInstrumento().getGrupo() != null
-                && turmaDestino.getInstrumento().getGrupo().getNome() != null
-                && turmaDestino.getInstrumento().getGrupo().getNome().equalsIgnoreCase("Canto");
-        LocalDate novaDataFim = calcularDataFimCurso(input.getDataInicio(), input.getAulasPorSemana(), isCanto);
+        LocalDate novaDataFim = calcularDataFimCurso(input.getDataInicio(), input.getAulasPorSemana(), isCanto(turmaDestino));
         validarNenhumaMensalidadePagaAposDataFim(matricula.getAluno().getId(), novaDataFim);
         matricula.setDataInicio(input.getDataInicio());
         matricula.setDataFim(novaDataFim);
@@ -144,7 +214,15 @@ public class MatriculaService {
         if (!matricula.getTurma().getId().equals(input.getTurmaId())) {
             matricula.setTurma(turmaDestino);
         }
+        boolean ativaDepois = Boolean.TRUE.equals(matricula.getAtivo());
+        boolean mudouDeTurma = !turmaAntes.getId().equals(turmaDestino.getId());
+        if (ativaDepois && (!ativaAntes || mudouDeTurma) && !reservarVaga(turmaDestino.getId())) {
+            throw new IllegalArgumentException(TURMA_LOTADA);
+        }
         matricula = matriculaRepository.save(matricula);
+        if (ativaAntes && (!ativaDepois || mudouDeTurma)) liberarVaga(turmaAntes.getId());
+        dashboardKpiService.matriculasAtivasAlteradas(Boolean.compare(Boolean.TRUE.equals(matricula.getAtivo()), ativaAntes));
+        if (Boolean.TRUE.equals(matricula.getAtivo()) != ativaAntes) pagamentoEmDiaCache.invalidar();
         auditService.registrar("ATUALIZAR", "matriculas", String.valueOf(id), "Editou a matrícula (id " + id + ")", "Aluno id: " + input.getAlunoId() + ", Turma id: " + input.getTurmaId() + ", Data início: " + input.getDataInicio());
         return toDTO(matricula);
     }
@@ -156,7 +234,13 @@ public class MatriculaService {
         String turmaDesc = matricula.getTurma().getInstrumento().getNome() + " - " + matricula.getTurma().getProfessor().getNome();
         Long idMat = matricula.getId();
         mensalidadeService.excluirPorMatriculaId(id, matricula.getAluno().getId(), matricula.getDataInicio(), matricula.getDataFim());
+        boolean ativa = Boolean.TRUE.equals(matricula.getAtivo());
+        Long turmaId = matricula.getTurma().getId();
         matriculaRepository.delete(matricula);
+        if (ativa) {
+            dashboardKpiService.matriculasAtivasAlteradas(-1);
+            liberarVaga(turmaId);
+        }
         auditService.registrar("EXCLUIR", "matriculas", String.valueOf(idMat), "Excluiu a matrícula do aluno " + alunoNome + " (id " + idMat + ")", "Aluno: " + alunoNome + ", Turma: " + turmaDesc);
     }
 
@@ -167,6 +251,21 @@ public class MatriculaService {
         return turma.getDiaSemana() != null ? 1 : 1;
     }
 
+    /**
+     * Data fim que {@link #matricularEmLote} grava para a matrícula: aulas por semana informadas ou, sem elas, as da
+     * turma. A importação usa para saber de antemão as competências das parcelas.
+     */
+    static LocalDate dataFimEmLote(Turma turma, LocalDate dataInicio, Integer aulasPorSemana) {
+        return calcularDataFimCurso(dataInicio, aulasPorSemana != null ? aulasPorSemana : aulasPorSemanaDaTurma(turma), isCanto(turma));
+    }
+
+    private static boolean isCanto(Turma turma) {
+        return turma.getInstrumento() != null
+                && turma.getInstrumento().getGrupo() != null
+                && turma.getInstrumento().getGrupo().getNome() != null
+                && turma.getInstrumento().getGrupo().getNome().equalsIgnoreCase("Canto");
+    }
+
     private static LocalDate calcularDataFimCurso(LocalDate dataInicio, Integer aulasPorSemana) {
         return calcularDataFimCurso(dataInicio, aulasPorSemana, false);
     }
@@ -202,28 +301,23 @@ public class MatriculaService {
         }
     }
 
+    /**
+     * Compara os horários da nova turma com os das outras matrículas ativas do aluno, lidos do banco na transação da
+     * escrita: o {@link GradeHorariaIndex} pode não ter as matrículas gravadas por outra instância nem as desta transação.
+     */
     private void validarTurmaComDiasEPeriodosDiferentes(Long alunoId, Turma novaTurma, Long matriculaIdExcluir) {
-        if (novaTurma == null || novaTurma.getHorarios() == null || novaTurma.getHorarios().isEmpty()) return;
-        List<Matricula> ativas = matriculaRepository.findByAlunoIdAndAtivoTrue(alunoId).stream()
-                .filter(m -> matriculaIdExcluir == null || !m.getId().equals(matriculaIdExcluir))
-                .collect(Collectors.toList());
-        for (Matricula m : ativas) {
-            Turma existente = turmaRepository.findByIdWithHorarios(m.getTurma().getId()).orElse(m.getTurma());
-            if (existente.getHorarios() == null || existente.getHorarios().isEmpty()) continue;
-            for (TurmaHorario slotNovo : novaTurma.getHorarios()) {
-                LocalTime fimNovo = slotNovo.getHorarioFim() != null ? slotNovo.getHorarioFim() : slotNovo.getHorarioInicio().plusHours(1);
-                for (TurmaHorario slotExistente : existente.getHorarios()) {
-                    if (!slotNovo.getDiaSemana().equals(slotExistente.getDiaSemana())) continue;
-                    LocalTime fimExistente = slotExistente.getHorarioFim() != null ? slotExistente.getHorarioFim() : slotExistente.getHorarioInicio().plusHours(1);
-                    boolean sobrepoe = slotNovo.getHorarioInicio().isBefore(fimExistente) && fimNovo.isAfter(slotExistente.getHorarioInicio());
-                    if (sobrepoe) {
-                        throw new IllegalArgumentException("Não é permitido matricular o aluno em turma com dias e horários que coincidem com outra matrícula ativa. Escolha uma turma com dias e períodos diferentes.");
-                    }
-                }
-            }
+        if (conflitaComOutraMatricula(alunoId, novaTurma, matriculaIdExcluir)) {
+            throw new IllegalArgumentException("Não é permitido matricular o aluno em turma com dias e horários que coincidem com outra matrícula ativa. Escolha uma turma com dias e períodos diferentes.");
         }
     }
 
+    private boolean conflitaComOutraMatricula(Long alunoId, Turma novaTurma, Long matriculaIdExcluir) {
+        if (novaTurma == null) return false;
+        GradeHorariaIndex.Grade nova = GradeHorariaIndex.Grade.de(novaTurma.getHorarios());
+        return !nova.isVazia()
+                && GradeHorariaIndex.Grade.de(matriculaRepository.findHorariosAtivosDoAluno(alunoId, matriculaIdExcluir)).sobrepoe(nova);
+    }
+
     private MatriculaDTO toDTO(Matricula matricula) {
         Turma t = matricula.getTurma();
         String instrumentoNome = t.getInstrumento().getNome();
@@ -9,6 +9,7 @@ import br.com.newmusic.domain.TurmaHorario;
 import br.com.newmusic.repository.AlunoRepository;
 import br.com.newmusic.repository.MatriculaRepository;
 import br.com.newmusic.repository.MensalidadeRepository;
+import br.com.newmusic.repository.ReceitaDiariaRepository;
 import br.com.newmusic.security.UsuarioPrincipal;
 import br.com.newmusic.web.dto.AlunoMensalidadeResumoDTO;
 import br.com.newmusic.web.dto.BaixaPagamentoInput;
@@ -18,25 +19,25 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import br.com.newmusic.util.FeriadosNacionais;
 import br.com.newmusic.util.StringUtil;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static br.com.newmusic.domain.StatusMensalidade.ATRASADO;
@@ -48,7 +49,6 @@ public class MensalidadeService {
 
     private static final BigDecimal MULTA_PERCENTUAL = new BigDecimal("0.10");
     private static final BigDecimal JUROS_PERCENTUAL_DIA = new BigDecimal("0.01");
-    private static final int ESCALA_MONETARIA = 2;
     /** Timezone para "hoje" em operações de atraso/multa/juros (Recife/PE). */
     private static final ZoneId ZONE_RECIFE = ZoneId.of("America/Recife");
     /** Horário em que o job roda: só contamos um novo dia de juros a partir das 9h. */
@@ -58,14 +58,19 @@ public class MensalidadeService {
     private final AlunoRepository alunoRepository;
     private final MatriculaRepository matriculaRepository;
     private final AuditService auditService;
+    private final DashboardKpiService dashboardKpiService;
+    private final ReportCache reportCache;
+    private final ReceitaDiariaRepository receitaDiariaRepository;
+    private final CalendarioUteis calendarioUteis;
+    private final PagamentoEmDiaCache pagamentoEmDiaCache;
+    private final FechamentoMensalService fechamentoMensalService;
 
     @Transactional(readOnly = true)
     public Page<MensalidadeDTO> listar(Pageable pageable, String busca) {
         if (busca == null || busca.isBlank()) {
             return mensalidadeRepository.findAll(pageable).map(this::toDTO);
         }
-        String b = busca.trim();
-        return mensalidadeRepository.findByAlunoNomeContainingIgnoreCaseOrAlunoCpfContainingOrderByAlunoNomeAscAnoAscMesAsc(b, b, pageable).map(this::toDTO);
+        return mensalidadeRepository.buscarPorAluno(StringUtil.padraoBuscaPessoa(busca), pageable).map(this::toDTO);
     }
 
     @Transactional(readOnly = true)
@@ -80,8 +85,7 @@ public class MensalidadeService {
 
     @Transactional(readOnly = true)
     public Page<AlunoMensalidadeResumoDTO> listarAlunosPaginado(Pageable pageable, String busca) {
-        String b = (busca != null && !busca.isBlank()) ? busca.trim() : null;
-        Page<Object[]> page = mensalidadeRepository.findDistinctMatriculaAlunoIdNomeECount(pageable, b);
+        Page<Object[]> page = mensalidadeRepository.findDistinctMatriculaAlunoIdNomeECount(pageable, StringUtil.padraoBuscaPessoa(busca));
         List<Object[]> content = page.getContent();
         List<Long> matriculaIds = content.stream()
                 .map(row -> row[0])
@@ -131,29 +135,36 @@ public class MensalidadeService {
 
     @Transactional(readOnly = true)
     public long contagemPendentes() {
-        return mensalidadeRepository.countByStatusIn(List.of(PENDENTE, ATRASADO));
+        return dashboardKpiService.obter().getPendentes();
     }
 
     @Transactional(readOnly = true)
     public long contagemAlunos(String busca) {
         if (busca == null || busca.isBlank()) {
-            return mensalidadeRepository.countDistinctAluno();
+            return dashboardKpiService.obter().getAlunosComMensalidade();
         }
-        return mensalidadeRepository.countDistinctAlunoByBusca(busca.trim());
+        return mensalidadeRepository.countDistinctAlunoByBusca(StringUtil.padraoBuscaPessoa(busca));
     }
 
     @Transactional(readOnly = true)
     public long contagemAlunosComPagamentoAtrasado() {
-        return mensalidadeRepository.countDistinctAlunoByStatus(ATRASADO);
+        return dashboardKpiService.obter().getAlunosComPagamentoAtrasado();
     }
 
     @Transactional(readOnly = true)
     public boolean alunoPagamentoEmDia(Long alunoId) {
-        int ano = LocalDate.now().getYear();
-        int mes = LocalDate.now().getMonthValue();
-        return mensalidadeRepository.findByAlunoIdAndMatricula_AtivoTrueAndAnoAndMes(alunoId, ano, mes)
-                .map(m -> m.getStatus() == StatusMensalidade.PAGO)
-                .orElse(false);
+        return statusPagamentoMesAtual(List.of(alunoId)).get(alunoId);
+    }
+
+    /**
+     * Em dia = mensalidade do mês corrente (de matrícula ativa) paga. Resolve a turma inteira numa consulta
+     * {@code IN} para os alunos que não estão no {@link PagamentoEmDiaCache}.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Boolean> statusPagamentoMesAtual(Collection<Long> alunoIds) {
+        YearMonth mes = YearMonth.now();
+        return pagamentoEmDiaCache.obter(mes, alunoIds, faltantes ->
+                mensalidadeRepository.findAlunoIdsComMesPago(faltantes, mes.getYear(), mes.getMonthValue(), StatusMensalidade.PAGO));
     }
 
     @Transactional
@@ -162,7 +173,8 @@ public class MensalidadeService {
         if (mensalidadeRepository.findByAlunoIdAndAnoAndMes(input.getAlunoId(), input.getAno(), input.getMes()).isPresent()) {
             throw new IllegalArgumentException("Já existe mensalidade para este aluno no mês/ano informado");
         }
-        LocalDate vencimento = proximoDiaUtil(input.getVencimento());
+        fechamentoMensalService.exigirAberto(input.getAno(), input.getMes());
+        LocalDate vencimento = calendarioUteis.proximoDiaUtil(input.getVencimento());
         StatusMensalidade status = vencimento.isBefore(LocalDate.now()) ? StatusMensalidade.ATRASADO : StatusMensalidade.PENDENTE;
         Mensalidade mensalidade = Mensalidade.builder()
                 .ano(input.getAno())
@@ -172,7 +184,10 @@ public class MensalidadeService {
                 .status(status)
                 .aluno(aluno)
                 .build();
+        var situacaoAntes = dashboardKpiService.situacaoFinanceira(aluno.getId());
         mensalidade = mensalidadeRepository.save(mensalidade);
+        dashboardKpiService.mensalidadesAlteradas(aluno.getId(), situacaoAntes, 1);
+        pagamentoEmDiaCache.invalidar();
         auditService.registrar("CRIAR", "mensalidades", String.valueOf(mensalidade.getId()), "Criou mensalidade " + mensalidade.getMes() + "/" + mensalidade.getAno() + " para aluno " + aluno.getNome() + " (id " + mensalidade.getId() + ")", "Aluno: " + aluno.getNome() + ", " + mensalidade.getMes() + "/" + mensalidade.getAno() + ", Valor: " + mensalidade.getValor());
         return toDTO(mensalidade);
     }
@@ -183,10 +198,17 @@ public class MensalidadeService {
         if (mensalidade.getStatus() == StatusMensalidade.PAGO) {
             throw new IllegalArgumentException("Mensalidade já está paga");
         }
+        LocalDate dataPagamento = input.getDataPagamento() != null ? input.getDataPagamento() : LocalDate.now();
+        fechamentoMensalService.exigirPagamentoEmMesAberto(dataPagamento);
+        var situacaoAntes = dashboardKpiService.situacaoFinanceira(mensalidade.getAluno().getId());
         mensalidade.setStatus(StatusMensalidade.PAGO);
-        mensalidade.setDataPagamento(input.getDataPagamento() != null ? input.getDataPagamento() : LocalDate.now());
+        mensalidade.setDataPagamento(dataPagamento);
         mensalidade.setFormaPagamento(input.getFormaPagamento());
         mensalidade = mensalidadeRepository.save(mensalidade);
+        dashboardKpiService.mensalidadesAlteradas(mensalidade.getAluno().getId(), situacaoAntes, -1);
+        pagamentoEmDiaCache.invalidar();
+        receitaDiariaRepository.registrarPagamento(mensalidade.getDataPagamento(),
+                StringUtil.nvl(mensalidade.getFormaPagamento()), valorComEncargos(mensalidade));
         auditService.registrar("ATUALIZAR", "mensalidades", String.valueOf(id), "Deu baixa na mensalidade " + mensalidade.getMes() + "/" + mensalidade.getAno() + " do aluno " + mensalidade.getAluno().getNome() + " (id " + id + ")", "Data pagamento: " + mensalidade.getDataPagamento() + ", Forma: " + StringUtil.nvl(input.getFormaPagamento()));
         return toDTO(mensalidade);
     }
@@ -197,15 +219,24 @@ public class MensalidadeService {
         if (mensalidade.getStatus() == StatusMensalidade.PAGO) {
             throw new IllegalArgumentException("Mensalidade não pode ser excluída pois está com status PAGO.");
         }
+        fechamentoMensalService.exigirAberto(mensalidade.getAno(), mensalidade.getMes());
         String ref = mensalidade.getMes() + "/" + mensalidade.getAno() + " - " + mensalidade.getAluno().getNome();
         Long idMen = mensalidade.getId();
+        Long alunoId = mensalidade.getAluno().getId();
+        var situacaoAntes = dashboardKpiService.situacaoFinanceira(alunoId);
         mensalidadeRepository.delete(mensalidade);
+        dashboardKpiService.mensalidadesAlteradas(alunoId, situacaoAntes, -1);
+        pagamentoEmDiaCache.invalidar();
         auditService.registrar("EXCLUIR", "mensalidades", String.valueOf(idMen), "Excluiu a mensalidade " + ref + " (id " + idMen + ")", "Mensalidade: " + ref);
     }
 
     @Transactional
     public void excluirPorMatriculaId(Long matriculaId) {
+        fechamentoMensalService.exigirSemParcelaFechadaDaMatricula(matriculaId);
         mensalidadeRepository.deleteByMatriculaId(matriculaId);
+        dashboardKpiService.recalcularFinanceiro();
+        reportCache.invalidar(Mensalidade.class);
+        pagamentoEmDiaCache.invalidar();
     }
 
     @Transactional
@@ -218,10 +249,17 @@ public class MensalidadeService {
         if (alunoId != null && startYm > 0 && endYm > 0 && mensalidadeRepository.countByAlunoIdAndMatriculaNullAndPeriodoAndStatus(alunoId, startYm, endYm, StatusMensalidade.PAGO) > 0) {
             throw new IllegalArgumentException("Matrícula não pode ser excluída pois possui mensalidade(s) com status PAGO.");
         }
+        fechamentoMensalService.exigirSemParcelaFechadaDaMatricula(matriculaId);
+        if (alunoId != null && startYm > 0 && endYm > 0) {
+            fechamentoMensalService.exigirSemParcelaAvulsaFechada(alunoId, startYm, endYm);
+        }
         mensalidadeRepository.deleteByMatriculaId(matriculaId);
         if (alunoId != null && startYm > 0 && endYm > 0) {
             mensalidadeRepository.deleteByAlunoIdAndMatriculaNullAndPeriodo(alunoId, startYm, endYm);
         }
+        dashboardKpiService.recalcularFinanceiro();
+        reportCache.invalidar(Mensalidade.class);
+        pagamentoEmDiaCache.invalidar();
     }
 
     @Transactional
@@ -229,16 +267,20 @@ public class MensalidadeService {
         LocalDate fim = dataFim != null ? dataFim : dataInicio.plusMonths(12);
         YearMonth startYm = YearMonth.from(dataInicio);
         YearMonth endYm = YearMonth.from(fim);
-        List<Mensalidade> list = mensalidadeRepository.findByAlunoIdOrderByAnoDescMesDesc(alunoId);
-        for (Mensalidade m : list) {
+        List<Mensalidade> doPeriodo = new ArrayList<>();
+        for (Mensalidade m : mensalidadeRepository.findByAlunoIdOrderByAnoDescMesDesc(alunoId)) {
             YearMonth ym = YearMonth.of(m.getAno(), m.getMes());
             if (!ym.isBefore(startYm) && !ym.isAfter(endYm)) {
                 if (m.getStatus() == StatusMensalidade.PAGO) {
                     throw new IllegalArgumentException("Não é possível excluir mensalidades do período pois existe mensalidade com status PAGO.");
                 }
-                mensalidadeRepository.delete(m);
+                doPeriodo.add(m);
             }
         }
+        fechamentoMensalService.exigirAbertos(competencias(doPeriodo));
+        mensalidadeRepository.deleteAll(doPeriodo);
+        dashboardKpiService.recalcularFinanceiro();
+        pagamentoEmDiaCache.invalidar();
     }
 
     @Transactional
@@ -256,6 +298,56 @@ public class MensalidadeService {
         if (valor == null || dataVencimento == null) return;
         Aluno aluno = alunoRepository.findById(alunoId).orElseThrow(() -> new IllegalArgumentException("Aluno não encontrado"));
         Matricula matricula = matriculaId != null ? matriculaRepository.findById(matriculaId).orElse(null) : null;
+        var situacaoAntes = dashboardKpiService.situacaoFinanceira(alunoId);
+        List<Mensalidade> parcelas = gerarParcelas(aluno, matricula, dataInicio, dataFim, valor, dataVencimento, aulasPorSemana);
+        fechamentoMensalService.exigirAbertos(competencias(parcelas));
+        mensalidadeRepository.saveAll(parcelas);
+        dashboardKpiService.mensalidadesAlteradas(alunoId, situacaoAntes, parcelas.size());
+        pagamentoEmDiaCache.invalidar();
+    }
+
+    /**
+     * Gera as parcelas de várias matrículas numa única transação (ex.: onda de rematrículas do início do ano).
+     * Ignora matrículas sem valor/vencimento e as que já têm parcelas, então pode ser repetida com a mesma lista.
+     * Os INSERTs saem em lotes JDBC (ids de sequência) e o snapshot financeiro do dashboard é recalculado uma vez só.
+     * Retorna quantas parcelas foram criadas.
+     */
+    @Transactional
+    public int criarMensalidadesParaMatriculas(List<Long> matriculaIds) {
+        int criadas = criarMensalidadesParaMatriculasSemRecalcular(matriculaIds);
+        if (criadas > 0) dashboardKpiService.recalcularFinanceiro();
+        return criadas;
+    }
+
+    /**
+     * Como {@link #criarMensalidadesParaMatriculas}, sem recalcular o snapshot financeiro do dashboard: para quem grava
+     * em vários lotes na mesma transação (importação) e recalcula uma vez no fim.
+     */
+    @Transactional
+    public int criarMensalidadesParaMatriculasSemRecalcular(List<Long> matriculaIds) {
+        if (matriculaIds == null || matriculaIds.isEmpty()) return 0;
+        Set<Long> comParcelas = new HashSet<>(mensalidadeRepository.findMatriculaIdsComMensalidade(matriculaIds));
+        List<Mensalidade> parcelas = new ArrayList<>();
+        for (Matricula matricula : matriculaRepository.findByIdInWithAluno(matriculaIds)) {
+            if (matricula.getValorCurso() == null || matricula.getDataVencimento() == null || comParcelas.contains(matricula.getId())) continue;
+            parcelas.addAll(gerarParcelas(matricula.getAluno(), matricula, matricula.getDataInicio(), matricula.getDataFim(),
+                    matricula.getValorCurso(), matricula.getDataVencimento(), matricula.getAulasPorSemana()));
+        }
+        if (parcelas.isEmpty()) return 0;
+        fechamentoMensalService.exigirAbertos(competencias(parcelas));
+        mensalidadeRepository.saveAll(parcelas);
+        pagamentoEmDiaCache.invalidar();
+        return parcelas.size();
+    }
+
+    private static Set<YearMonth> competencias(Collection<Mensalidade> mensalidades) {
+        Set<YearMonth> competencias = new HashSet<>();
+        for (Mensalidade m : mensalidades) competencias.add(YearMonth.of(m.getAno(), m.getMes()));
+        return competencias;
+    }
+
+    /** Monta (sem salvar) uma parcela por mês, do mês de início até o mês anterior ao fim do curso. */
+    private List<Mensalidade> gerarParcelas(Aluno aluno, Matricula matricula, LocalDate dataInicio, LocalDate dataFim, BigDecimal valor, LocalDate dataVencimento, Integer aulasPorSemana) {
         int diaVencimento = dataVencimento.getDayOfMonth();
         YearMonth mesInicio = YearMonth.from(dataInicio);
         YearMonth ultimoMesCobranca;
@@ -267,13 +359,15 @@ public class MensalidadeService {
         } else {
             ultimoMesCobranca = mesInicio.plusMonths(11);
         }
-        for (YearMonth ym = YearMonth.from(dataInicio); !ym.isAfter(ultimoMesCobranca); ym = ym.plusMonths(1)) {
+        LocalDate hoje = LocalDate.now();
+        List<Mensalidade> parcelas = new ArrayList<>();
+        for (YearMonth ym = mesInicio; !ym.isAfter(ultimoMesCobranca); ym = ym.plusMonths(1)) {
             int ano = ym.getYear();
             int mes = ym.getMonthValue();
             int dia = Math.min(diaVencimento, ym.lengthOfMonth());
-            LocalDate vencimento = proximoDiaUtil(LocalDate.of(ano, mes, dia));
-            StatusMensalidade status = vencimento.isBefore(LocalDate.now()) ? StatusMensalidade.ATRASADO : StatusMensalidade.PENDENTE;
-            Mensalidade m = Mensalidade.builder()
+            LocalDate vencimento = calendarioUteis.proximoDiaUtil(LocalDate.of(ano, mes, dia));
+            StatusMensalidade status = vencimento.isBefore(hoje) ? StatusMensalidade.ATRASADO : StatusMensalidade.PENDENTE;
+            parcelas.add(Mensalidade.builder()
                     .ano(ano)
                     .mes(mes)
                     .valor(valor)
@@ -282,9 +376,14 @@ public class MensalidadeService {
                     .rematricula(false)
                     .aluno(aluno)
                     .matricula(matricula)
-                    .build();
-            mensalidadeRepository.save(m);
+                    .build());
         }
+        return parcelas;
+    }
+
+    @Transactional(readOnly = true)
+    public long maiorId() {
+        return mensalidadeRepository.findMaxId();
     }
 
     /** Data de referência para contar dias em atraso: só conta um novo dia após as 9h (quando o job roda). */
@@ -297,57 +396,48 @@ public class MensalidadeService {
         return hoje;
     }
 
+    /**
+     * Marca como ATRASADO as PENDENTE vencidas (multa 10% e juros 1%/dia) num único UPDATE no banco.
+     * O {@code WHERE status = 'PENDENTE'} é reavaliado na linha travada, então uma baixa concorrente não é sobrescrita.
+     */
     @Transactional
     public int atualizarPendentesParaAtrasado() {
-        LocalDate hoje = LocalDate.now(ZONE_RECIFE);
-        List<Mensalidade> pendentesVencidas = mensalidadeRepository.findByStatusAndVencimentoBefore(PENDENTE, hoje);
-        LocalDate dataRefJuros = dataReferenciaParaJuros();
-        for (Mensalidade m : pendentesVencidas) {
-            m.setStatus(StatusMensalidade.ATRASADO);
-            aplicarMultaEJuros(m, dataRefJuros);
-        }
-        if (!pendentesVencidas.isEmpty()) {
-            mensalidadeRepository.saveAll(pendentesVencidas);
-        }
-        return pendentesVencidas.size();
+        int atualizadas = atualizarPendentesParaAtrasado(0, Long.MAX_VALUE);
+        if (atualizadas > 0) dashboardKpiService.recalcularFinanceiro();
+        return atualizadas;
     }
 
-    /** Recalcula juros (1% ao dia) em todas as parcelas ATRASADO e persiste. Multa (10%) permanece. Novo dia só conta após 9h. */
+    /**
+     * Mesmo que {@link #atualizarPendentesParaAtrasado()}, restrito às mensalidades com id na faixa (lote do job).
+     * Não recalcula os indicadores do dashboard (recontagem da tabela inteira): quem percorre os lotes chama
+     * {@link DashboardKpiService#recalcularFinanceiro()} uma vez no fim.
+     */
     @Transactional
-    public int atualizarMultaJurosAtrasados() {
-        LocalDate dataRefJuros = dataReferenciaParaJuros();
-        List<Mensalidade> atrasadas = mensalidadeRepository.findByStatusOrderByAluno_NomeAsc(ATRASADO);
-        for (Mensalidade m : atrasadas) {
-            aplicarMultaEJuros(m, dataRefJuros);
-        }
-        if (!atrasadas.isEmpty()) {
-            mensalidadeRepository.saveAll(atrasadas);
+    public int atualizarPendentesParaAtrasado(long idInicio, long idFim) {
+        LocalDate hoje = LocalDate.now(ZONE_RECIFE);
+        int atualizadas = mensalidadeRepository.marcarVencidasComoAtrasado(hoje, dataReferenciaParaJuros(),
+                MULTA_PERCENTUAL, JUROS_PERCENTUAL_DIA, idInicio, idFim);
+        if (atualizadas > 0) {
+            reportCache.invalidar(Mensalidade.class);
+            pagamentoEmDiaCache.invalidar();
         }
-        return atrasadas.size();
+        return atualizadas;
     }
 
-    private void aplicarMultaEJuros(Mensalidade m, LocalDate dataReferencia) {
-        BigDecimal valor = m.getValor() != null ? m.getValor() : BigDecimal.ZERO;
-        long dias = ChronoUnit.DAYS.between(m.getVencimento(), dataReferencia);
-        if (dias < 0) dias = 0;
-        BigDecimal multa = valor.multiply(MULTA_PERCENTUAL).setScale(ESCALA_MONETARIA, RoundingMode.HALF_UP);
-        BigDecimal jurosPorDia = valor.multiply(JUROS_PERCENTUAL_DIA).setScale(ESCALA_MONETARIA, RoundingMode.HALF_UP);
-        BigDecimal juros = jurosPorDia.multiply(BigDecimal.valueOf(dias)).setScale(ESCALA_MONETARIA, RoundingMode.HALF_UP);
-        m.setValorMulta(multa);
-        m.setValorJuros(juros);
+    /** Recalcula juros (1% ao dia) das parcelas ATRASADO num único UPDATE; devolve quantas mudaram. Novo dia só conta após 9h. */
+    @Transactional
+    public int atualizarMultaJurosAtrasados() {
+        return atualizarMultaJurosAtrasados(0, Long.MAX_VALUE);
     }
 
-    private static LocalDate proximoDiaUtil(LocalDate data) {
-        LocalDate d = data;
-        while (isFimDeSemana(d) || FeriadosNacionais.isFeriadoNacional(d)) {
-            d = d.plusDays(1);
+    @Transactional
+    public int atualizarMultaJurosAtrasados(long idInicio, long idFim) {
+        int atualizadas = mensalidadeRepository.recalcularMultaJurosAtrasados(dataReferenciaParaJuros(),
+                MULTA_PERCENTUAL, JUROS_PERCENTUAL_DIA, idInicio, idFim);
+        if (atualizadas > 0) {
+            reportCache.invalidar(Mensalidade.class);
         }
-        return d;
-    }
-
-    private static boolean isFimDeSemana(LocalDate data) {
-        DayOfWeek d = data.getDayOfWeek();
-        return d == DayOfWeek.SATURDAY || d == DayOfWeek.SUNDAY;
+        return atualizadas;
     }
 
     private static final String[] DIAS_SEMANA = { "", "Segunda", "Terça", "Quarta", "Quinta", "Sexta", "Sábado", "Domingo" };
@@ -374,6 +464,14 @@ public class MensalidadeService {
         return "";
     }
 
+    /** Valor efetivamente recebido: parcela + multa + juros. */
+    private static BigDecimal valorComEncargos(Mensalidade m) {
+        BigDecimal total = m.getValor();
+        if (m.getValorMulta() != null) total = total.add(m.getValorMulta());
+        if (m.getValorJuros() != null) total = total.add(m.getValorJuros());
+        return total;
+    }
+
     private MensalidadeDTO toDTO(Mensalidade mensalidade) {
         return MensalidadeDTO.builder()
                 .id(mensalidade.getId())
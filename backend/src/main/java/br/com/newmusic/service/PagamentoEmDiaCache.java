@@ -0,0 +1,105 @@
+package br.com.newmusic.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache curto da situação "pagamento em dia" (mensalidade do mês corrente paga) por aluno, usada pela chamada e
+ * pelos DTOs de presença. Cada entrada vale só para o mês em que foi calculada e por {@code ttl}; as escritas em
+ * mensalidade/matrícula chamam {@link #invalidar()}, que limpa tudo após o commit.
+ */
+@Component
+public class PagamentoEmDiaCache {
+
+    private final Duration ttl;
+    private final Clock clock;
+    private final ConcurrentHashMap<Long, Entrada> entradas = new ConcurrentHashMap<>();
+    /** Incrementado a cada invalidação; um resultado consultado antes dela não entra no cache. */
+    private final AtomicLong geracao = new AtomicLong();
+
+    @Autowired
+    public PagamentoEmDiaCache(@Value("${newmusic.pagamento-em-dia.cache.ttl:PT2M}") Duration ttl) {
+        this(ttl, Clock.systemUTC());
+    }
+
+    PagamentoEmDiaCache(Duration ttl, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    private record Entrada(YearMonth mes, boolean emDia, long expiraEm) {
+    }
+
+    /**
+     * Situação de cada aluno no mês. Os que não estão em cache são resolvidos numa única chamada a {@code carregarEmDia},
+     * que recebe esses ids e devolve os que estão em dia.
+     */
+    public Map<Long, Boolean> obter(YearMonth mes, Collection<Long> alunoIds, Function<List<Long>, Collection<Long>> carregarEmDia) {
+        long agora = clock.millis();
+        Map<Long, Boolean> resultado = new HashMap<>();
+        List<Long> faltantes = new ArrayList<>();
+        for (Long alunoId : alunoIds) {
+            if (alunoId == null || resultado.containsKey(alunoId)) continue;
+            Entrada e = entradas.get(alunoId);
+            if (e != null && e.mes().equals(mes) && e.expiraEm() > agora) {
+                resultado.put(alunoId, e.emDia());
+            } else {
+                resultado.put(alunoId, false);
+                faltantes.add(alunoId);
+            }
+        }
+        if (faltantes.isEmpty()) return resultado;
+        long geracaoInicial = geracao.get();
+        Set<Long> emDia = new HashSet<>(carregarEmDia.apply(faltantes));
+        for (Long alunoId : faltantes) {
+            resultado.put(alunoId, emDia.contains(alunoId));
+        }
+        synchronized (this) {
+            if (geracao.get() == geracaoInicial) {
+                long expiraEm = agora + ttl.toMillis();
+                for (Long alunoId : faltantes) {
+                    entradas.put(alunoId, new Entrada(mes, emDia.contains(alunoId), expiraEm));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /** Descarta todas as entradas; dentro de uma transação, só depois do commit. */
+    public void invalidar() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidarAgora();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidarAgora();
+            }
+        });
+    }
+
+    void invalidarAgora() {
+        synchronized (this) {
+            geracao.incrementAndGet();
+            entradas.clear();
+        }
+    }
+}
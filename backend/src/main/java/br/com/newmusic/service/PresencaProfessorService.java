@@ -26,26 +26,27 @@ public class PresencaProfessorService {
     private final ProfessorRepository professorRepository;
     private final TurmaRepository turmaRepository;
     private final AuditService auditService;
+    private final CalendarioUteis calendarioUteis;
+    private final GradeHorariaIndex gradeHorariaIndex;
 
     @Transactional(readOnly = true)
     public List<PresencaProfessorDTO> listarChamadaPorProfessorEData(Long professorId, LocalDate dataAula) {
         Professor professor = professorRepository.findById(professorId).orElseThrow(() -> new IllegalArgumentException("Professor não encontrado"));
-        List<Turma> turmasProfessor = turmaRepository.findByProfessorIdWithHorarios(professorId);
-        int diaSemana = dataAula.getDayOfWeek().getValue();
-        List<Turma> turmasNoDia = turmasProfessor.stream()
-                .filter(t -> t.getHorarios().stream().anyMatch(h -> h.getDiaSemana() != null && h.getDiaSemana() == diaSemana))
-                .collect(Collectors.toList());
+        if (calendarioUteis.isFeriado(dataAula)) {
+            return List.of();
+        }
+        List<GradeHorariaIndex.TurmaGrade> turmasNoDia = gradeHorariaIndex.turmasDoProfessorNoDia(professorId, dataAula.getDayOfWeek().getValue());
         List<PresencaProfessor> existentes = presencaProfessorRepository.findByProfessorIdAndDataAulaOrderByTurma_Id(professorId, dataAula);
         Map<Long, PresencaProfessor> porTurma = existentes.stream().collect(Collectors.toMap(p -> p.getTurma().getId(), p -> p));
         return turmasNoDia.stream().map(turma -> {
-            PresencaProfessor p = porTurma.get(turma.getId());
+            PresencaProfessor p = porTurma.get(turma.id());
             if (p != null) {
                 return toDTO(p);
             }
             return PresencaProfessorDTO.builder()
                     .professorId(professorId)
-                    .turmaId(turma.getId())
-                    .turmaDescricao(turma.getInstrumento().getNome() + " — " + turma.getProfessor().getNome())
+                    .turmaId(turma.id())
+                    .turmaDescricao(turma.instrumentoNome() + " — " + turma.professorNome())
                     .dataAula(dataAula)
                     .presente(true)
                     .build();
@@ -59,6 +60,9 @@ public class PresencaProfessorService {
         if (data.isAfter(LocalDate.now())) {
             throw new IllegalArgumentException("Não é possível fazer chamada em data futura. Selecione uma data até hoje.");
         }
+        if (calendarioUteis.isFeriado(data)) {
+            throw new IllegalArgumentException("Não há aula nesta data: é feriado. Selecione outro dia.");
+        }
         for (PresencaProfessorLoteInput.RegistroInput reg : input.getRegistros()) {
             Turma turma = turmaRepository.findById(reg.getTurmaId()).orElseThrow(() -> new IllegalArgumentException("Turma não encontrada: " + reg.getTurmaId()));
             if (!turma.getProfessor().getId().equals(professorId)) {
@@ -16,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -29,11 +30,12 @@ public class PresencaService {
     private final MatriculaRepository matriculaRepository;
     private final MensalidadeService mensalidadeService;
     private final AuditService auditService;
+    private final CalendarioUteis calendarioUteis;
+    private final GradeHorariaIndex gradeHorariaIndex;
 
     @Transactional(readOnly = true)
     public List<PresencaDTO> listarPorTurmaEData(Long turmaId, LocalDate dataAula) {
-        return presencaRepository.findByTurmaIdAndDataAulaOrderByMatricula_Aluno_Nome(turmaId, dataAula)
-                .stream().map(this::toDTO).collect(Collectors.toList());
+        return toDTOs(presencaRepository.findByTurmaIdAndDataAulaWithAluno(turmaId, dataAula));
     }
 
     @Transactional(readOnly = true)
@@ -41,23 +43,21 @@ public class PresencaService {
         YearMonth ym = YearMonth.of(ano, mes);
         LocalDate start = ym.atDay(1);
         LocalDate end = ym.atEndOfMonth();
-        return presencaRepository.findByTurmaIdAndMatriculaIdAndDataAulaBetweenOrderByDataAulaAsc(turmaId, matriculaId, start, end)
-                .stream().map(this::toDTO).collect(Collectors.toList());
+        return toDTOs(presencaRepository.findByTurmaIdAndMatriculaIdAndDataAulaBetweenOrderByDataAulaAsc(turmaId, matriculaId, start, end));
     }
 
     @Transactional(readOnly = true)
     public List<PresencaDTO> listarChamadaPorTurmaEData(Long turmaId, LocalDate dataAula) {
-        Turma turma = turmaRepository.findById(turmaId).orElseThrow(() -> new IllegalArgumentException("Turma não encontrada"));
-        Set<Integer> diasAula = diasAulaDaTurma(turma);
-        int diaDaData = dataAula.getDayOfWeek().getValue();
-        if (!diasAula.contains(diaDaData)) {
+        GradeHorariaIndex.TurmaGrade turma = gradeHorariaIndex.turma(turmaId).orElseThrow(() -> new IllegalArgumentException("Turma não encontrada"));
+        if (!turma.temAulaNoDia(dataAula.getDayOfWeek().getValue()) || calendarioUteis.isFeriado(dataAula)) {
             return List.of();
         }
-        List<Matricula> matriculas = matriculaRepository.findByTurmaId(turmaId);
-        List<Presenca> existentes = presencaRepository.findByTurmaIdAndDataAulaOrderByMatricula_Aluno_Nome(turmaId, dataAula);
+        List<Matricula> matriculas = matriculaRepository.findByTurmaIdWithAluno(turmaId);
+        List<Presenca> existentes = presencaRepository.findByTurmaIdAndDataAulaWithAluno(turmaId, dataAula);
         var porMatricula = existentes.stream().collect(Collectors.toMap(p -> p.getMatricula().getId(), p -> p));
+        Map<Long, Boolean> emDia = mensalidadeService.statusPagamentoMesAtual(matriculas.stream().map(m -> m.getAluno().getId()).toList());
         return matriculas.stream().map(m -> {
-            boolean pagamentoEmDia = mensalidadeService.alunoPagamentoEmDia(m.getAluno().getId());
+            boolean pagamentoEmDia = emDia.get(m.getAluno().getId());
             Presenca p = porMatricula.get(m.getId());
             if (p != null) {
                 return toDTO(p, pagamentoEmDia);
@@ -81,25 +81,33 @@ public class PresencaService {
         if (data.isAfter(LocalDate.now())) {
             throw new IllegalArgumentException("Não é possível fazer chamada em data futura. Selecione uma data até hoje.");
         }
-        Set<Integer> diasAula = diasAulaDaTurma(turma);
-        int diaDaData = data.getDayOfWeek().getValue();
-        if (!diasAula.contains(diaDaData)) {
+        if (!diasAulaDaTurma(turma).contains(data.getDayOfWeek().getValue())) {
             throw new IllegalArgumentException("Não há aula desta turma nesta data. Selecione um dia em que a turma tem aula.");
         }
+        if (calendarioUteis.isFeriado(data)) {
+            throw new IllegalArgumentException("Não há aula nesta data: é feriado. Selecione outro dia.");
+        }
+        List<Long> matriculaIds = input.getRegistros().stream().map(PresencaLoteInput.PresencaRegistroInput::getMatriculaId).toList();
+        Map<Long, Matricula> matriculas = matriculaRepository.findByIdInWithAluno(matriculaIds).stream()
+                .collect(Collectors.toMap(Matricula::getId, m -> m));
+        Map<Long, Boolean> emDia = mensalidadeService.statusPagamentoMesAtual(matriculas.values().stream().map(m -> m.getAluno().getId()).toList());
+        Map<Long, Presenca> existentes = presencaRepository.findByTurmaIdAndDataAulaWithAluno(turmaId, data).stream()
+                .collect(Collectors.toMap(p -> p.getMatricula().getId(), p -> p));
         for (PresencaLoteInput.PresencaRegistroInput reg : input.getRegistros()) {
-            Matricula matricula = matriculaRepository.findById(reg.getMatriculaId())
-                    .orElseThrow(() -> new IllegalArgumentException("Matrícula não encontrada: " + reg.getMatriculaId()));
+            Matricula matricula = matriculas.get(reg.getMatriculaId());
+            if (matricula == null) {
+                throw new IllegalArgumentException("Matrícula não encontrada: " + reg.getMatriculaId());
+            }
             if (!matricula.getTurma().getId().equals(turmaId)) {
                 throw new IllegalArgumentException("Matrícula não pertence a esta turma");
             }
             boolean presente = reg.getPresente() == null || reg.getPresente();
-            if (presente && !mensalidadeService.alunoPagamentoEmDia(matricula.getAluno().getId())) {
+            if (presente && !emDia.get(matricula.getAluno().getId())) {
                 throw new IllegalArgumentException(
                     "Não é possível marcar presença para " + matricula.getAluno().getNome()
                     + ": aluno não está em dia com as mensalidades. Regularize o pagamento no financeiro.");
             }
-            Presenca presenca = presencaRepository.findByTurmaIdAndMatriculaIdAndDataAula(turmaId, reg.getMatriculaId(), data)
-                    .orElse(null);
+            Presenca presenca = existentes.get(reg.getMatriculaId());
             String conteudoAula = reg.getConteudoAula() != null && !reg.getConteudoAula().isBlank() ? reg.getConteudoAula().trim() : null;
             if (presenca != null) {
                 presenca.setPresente(presente);
@@ -121,6 +129,7 @@ public class PresencaService {
         return listarPorTurmaEData(turmaId, data);
     }
 
+    /** Dias de aula da turma carregada nesta transação (a gravação não confia no {@link GradeHorariaIndex}, que pode estar atrasado). */
     private Set<Integer> diasAulaDaTurma(Turma turma) {
         if (turma.getHorarios() != null && !turma.getHorarios().isEmpty()) {
             return turma.getHorarios().stream()
@@ -134,9 +143,12 @@ public class PresencaService {
         return Set.of();
     }
 
-    private PresencaDTO toDTO(Presenca p) {
-        boolean pagamentoEmDia = mensalidadeService.alunoPagamentoEmDia(p.getMatricula().getAluno().getId());
-        return toDTO(p, pagamentoEmDia);
+    /** Converte as presenças resolvendo o "pagamento em dia" de todos os alunos numa chamada só. */
+    private List<PresencaDTO> toDTOs(List<Presenca> presencas) {
+        if (presencas.isEmpty()) return List.of();
+        Map<Long, Boolean> emDia = mensalidadeService.statusPagamentoMesAtual(
+                presencas.stream().map(p -> p.getMatricula().getAluno().getId()).toList());
+        return presencas.stream().map(p -> toDTO(p, emDia.get(p.getMatricula().getAluno().getId()))).collect(Collectors.toList());
     }
 
     private PresencaDTO toDTO(Presenca p, boolean pagamentoEmDia) {
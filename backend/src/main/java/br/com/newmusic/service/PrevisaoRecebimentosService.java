@@ -0,0 +1,154 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.Matricula;
+import br.com.newmusic.domain.Mensalidade;
+import br.com.newmusic.repository.MatriculaRepository;
+import br.com.newmusic.repository.MensalidadeRepository;
+import br.com.newmusic.web.dto.PrevisaoMesDTO;
+import br.com.newmusic.web.dto.PrevisaoRecebimentosDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static br.com.newmusic.domain.StatusMensalidade.ATRASADO;
+import static br.com.newmusic.domain.StatusMensalidade.PENDENTE;
+
+/**
+ * Previsão de recebimentos dos próximos meses, toda em agregações no banco: parcelas em aberto por mês de vencimento,
+ * meses de contrato das matrículas ativas ainda sem parcela e, para descontar a inadimplência, o histórico de
+ * recebimento por mês do ano. Fica no {@link ReportCache} até a próxima escrita em mensalidade ou matrícula.
+ */
+@Service
+@RequiredArgsConstructor
+public class PrevisaoRecebimentosService {
+
+    static final int MESES = 12;
+    /**
+     * Meses usados para as taxas históricas: os últimos cujas parcelas já passaram todas da tolerância, para uma
+     * parcela ainda dentro do prazo não contar como não recebida.
+     */
+    static final int MESES_HISTORICO = 24;
+    /** Pago até este número de dias após o vencimento conta como recebido no mês previsto. */
+    static final int TOLERANCIA_DIAS = 30;
+    private static final ZoneId ZONE_RECIFE = ZoneId.of("America/Recife");
+    private static final Set<Class<?>> DEPENDENCIAS = Set.of(Mensalidade.class, Matricula.class);
+    private static final int ESCALA_TAXA = 4;
+
+    private final MensalidadeRepository mensalidadeRepository;
+    private final MatriculaRepository matriculaRepository;
+    private final ReportCache reportCache;
+
+    /** Previsão a partir do mês corrente; o mês entra na chave do cache para virar sozinha. */
+    @Transactional(readOnly = true)
+    public PrevisaoRecebimentosDTO previsao() {
+        YearMonth mesAtual = YearMonth.now(ZONE_RECIFE);
+        return reportCache.obter("previsao-recebimentos", DEPENDENCIAS, () -> calcular(mesAtual), mesAtual);
+    }
+
+    PrevisaoRecebimentosDTO calcular(YearMonth primeiroMes) {
+        LocalDate inicio = primeiroMes.atDay(1);
+        LocalDate fim = primeiroMes.plusMonths(MESES).atDay(1);
+
+        Map<YearMonth, Object[]> emAberto = porMes(mensalidadeRepository.somarEmAbertoPorMesVencimento(List.of(PENDENTE, ATRASADO), inicio, fim));
+        Map<YearMonth, Object[]> programado = porMes(matriculaRepository.somarMesesContratadosSemParcela(inicio, primeiroMes.plusMonths(MESES - 1).atDay(1)));
+
+        Map<Integer, BigDecimal> taxaPorMes = new HashMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal naoRecebido = BigDecimal.ZERO;
+        BigDecimal atrasou = BigDecimal.ZERO;
+        BigDecimal recuperado = BigDecimal.ZERO;
+        LocalDate fimHistorico = fimHistorico(inicio);
+        for (Object[] row : mensalidadeRepository.historicoRecebimentoPorMes(fimHistorico.minusMonths(MESES_HISTORICO), fimHistorico, TOLERANCIA_DIAS)) {
+            BigDecimal totalMes = decimal(row[1]);
+            taxaPorMes.put(((Number) row[0]).intValue(), taxa(decimal(row[2]), totalMes));
+            total = total.add(totalMes);
+            naoRecebido = naoRecebido.add(decimal(row[2]));
+            atrasou = atrasou.add(decimal(row[3]));
+            recuperado = recuperado.add(decimal(row[4]));
+        }
+        BigDecimal taxaGeral = taxa(naoRecebido, total);
+        BigDecimal taxaRecuperacao = taxa(recuperado, atrasou);
+
+        List<Object[]> vencidas = mensalidadeRepository.somarEmAbertoVencidasAntesDe(List.of(PENDENTE, ATRASADO), inicio);
+        long parcelasAtrasadas = vencidas.isEmpty() ? 0 : ((Number) vencidas.get(0)[0]).longValue();
+        BigDecimal valorAtrasado = vencidas.isEmpty() ? BigDecimal.ZERO : decimal(vencidas.get(0)[1]);
+        BigDecimal atrasadoRecuperavel = moeda(valorAtrasado.multiply(taxaRecuperacao));
+
+        List<PrevisaoMesDTO> meses = new ArrayList<>(MESES);
+        BigDecimal totalPrevisto = BigDecimal.ZERO;
+        for (int i = 0; i < MESES; i++) {
+            YearMonth ym = primeiroMes.plusMonths(i);
+            Object[] aberto = emAberto.get(ym);
+            Object[] prog = programado.get(ym);
+            BigDecimal valorAberto = aberto != null ? decimal(aberto[3]) : BigDecimal.ZERO;
+            BigDecimal valorProgramado = prog != null ? decimal(prog[3]) : BigDecimal.ZERO;
+            BigDecimal taxa = taxaPorMes.getOrDefault(ym.getMonthValue(), taxaGeral);
+            BigDecimal recuperavel = i == 0 ? atrasadoRecuperavel : BigDecimal.ZERO;
+            BigDecimal previsto = moeda(valorAberto.add(valorProgramado).multiply(BigDecimal.ONE.subtract(taxa)).add(recuperavel));
+            totalPrevisto = totalPrevisto.add(previsto);
+            meses.add(PrevisaoMesDTO.builder()
+                    .ano(ym.getYear())
+                    .mes(ym.getMonthValue())
+                    .parcelasEmAberto(aberto != null ? ((Number) aberto[2]).longValue() : 0)
+                    .valorEmAberto(moeda(valorAberto))
+                    .parcelasProgramadas(prog != null ? ((Number) prog[2]).longValue() : 0)
+                    .valorProgramado(moeda(valorProgramado))
+                    .taxaInadimplencia(taxa)
+                    .valorAtrasadoRecuperavel(recuperavel)
+                    .valorPrevisto(previsto)
+                    .build());
+        }
+        return PrevisaoRecebimentosDTO.builder()
+                .calculadoEm(LocalDateTime.now(ZONE_RECIFE))
+                .parcelasAtrasadasAnteriores(parcelasAtrasadas)
+                .valorAtrasadoAnterior(moeda(valorAtrasado))
+                .taxaRecuperacaoAtrasados(taxaRecuperacao)
+                .totalPrevisto(totalPrevisto)
+                .meses(meses)
+                .build();
+    }
+
+    /** Indexa linhas [ano, mes, ...] pelo mês. */
+    /**
+     * Fim (exclusivo) do histórico: início do mês em que cai {@code inicio - TOLERANCIA_DIAS}. Todo mês anterior
+     * termina antes dessa data, então suas parcelas já passaram da tolerância; meses inteiros, para a taxa do mês
+     * do ano não sair de metade das parcelas.
+     */
+    static LocalDate fimHistorico(LocalDate inicio) {
+        return YearMonth.from(inicio.minusDays(TOLERANCIA_DIAS)).atDay(1);
+    }
+
+    private static Map<YearMonth, Object[]> porMes(List<Object[]> rows) {
+        Map<YearMonth, Object[]> mapa = new HashMap<>();
+        for (Object[] row : rows) {
+            mapa.put(YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()), row);
+        }
+        return mapa;
+    }
+
+    private static BigDecimal taxa(BigDecimal parte, BigDecimal total) {
+        if (total.signum() == 0) return BigDecimal.ZERO.setScale(ESCALA_TAXA);
+        return parte.divide(total, ESCALA_TAXA, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal moeda(BigDecimal valor) {
+        return valor.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal decimal(Object valor) {
+        if (valor == null) return BigDecimal.ZERO;
+        return valor instanceof BigDecimal b ? b : new BigDecimal(valor.toString());
+    }
+}
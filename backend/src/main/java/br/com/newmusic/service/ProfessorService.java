@@ -43,14 +43,15 @@ public class ProfessorService {
     private final PresencaRepository presencaRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuditService auditService;
+    private final DashboardKpiService dashboardKpiService;
+    private final GradeHorariaIndex gradeHorariaIndex;
 
     @Transactional(readOnly = true)
     public Page<ProfessorDTO> listar(Pageable pageable, String busca) {
         if (busca == null || busca.isBlank()) {
             return professorRepository.findAll(pageable).map(this::toDTO);
         }
-        String b = busca.trim();
-        return professorRepository.findByNomeContainingIgnoreCaseOrCpfContainingOrInstrumentosContainingIgnoreCase(b, b, b, pageable).map(this::toDTO);
+        return professorRepository.buscar(StringUtil.padraoBuscaPessoa(busca), pageable).map(this::toDTO);
     }
 
     @Transactional(readOnly = true)
@@ -86,6 +87,7 @@ public class ProfessorService {
             professor.setUsuario(usuario);
         }
         professor = professorRepository.save(professor);
+        dashboardKpiService.professoresAlterados(1);
         if (professor.getUsuario() != null) {
             professor.getUsuario().setProfessor(professor);
             usuarioRepository.save(professor.getUsuario());
@@ -157,6 +159,7 @@ public class ProfessorService {
             }
         }
         professor = professorRepository.save(professor);
+        if (!java.util.Objects.equals(nomeAntes, professor.getNome())) gradeHorariaIndex.professorRenomeado(id, professor.getNome());
         StringBuilder sb = new StringBuilder();
         StringUtil.diff(sb, "Nome", nomeAntes, input.getNome());
         StringUtil.diff(sb, "Email", emailAntes, input.getEmail());
@@ -185,6 +188,7 @@ public class ProfessorService {
         for (Turma t : turmas) {
             presencaRepository.findByTurmaId(t.getId()).forEach(presencaRepository::delete);
             turmaRepository.delete(t);
+            gradeHorariaIndex.turmaExcluida(t.getId());
         }
         String nomeProf = professor.getNome();
         Long idProf = professor.getId();
@@ -194,6 +198,8 @@ public class ProfessorService {
             professor.setUsuario(null);
         }
         professorRepository.delete(professor);
+        dashboardKpiService.professoresAlterados(-1);
+        if (!turmas.isEmpty()) dashboardKpiService.turmasAlteradas(-turmas.size());
         auditService.registrar("EXCLUIR", "professores", String.valueOf(idProf), "Excluiu o professor " + nomeProf + " (id " + idProf + ")", "Professor: " + nomeProf);
     }
 
@@ -0,0 +1,423 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.RelatorioJob;
+import br.com.newmusic.domain.StatusRelatorioJob;
+import br.com.newmusic.repository.RelatorioJobRepository;
+import br.com.newmusic.web.dto.RelatorioJobDTO;
+import br.com.newmusic.web.dto.RelatorioJobInput;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Geração assíncrona de relatórios: o pedido entra numa fila limitada, uma thread do pool escreve o resultado
+ * completo (sem o limite das rotas síncronas) num arquivo temporário e o cliente acompanha o status até baixar.
+ * <p>
+ * Os pedidos ficam na tabela {@code relatorio_job}, então status e download funcionam em qualquer instância atrás
+ * do balanceador; para isso o diretório de arquivos ({@code newmusic.relatorios.jobs.diretorio}) precisa ser
+ * compartilhado entre elas. Arquivos concluídos são removidos após o período de retenção.
+ */
+@Service
+@Slf4j
+public class RelatorioJobService {
+
+    private static final String PREFIXO_ARQUIVO = "relatorio-";
+    private static final Set<StatusRelatorioJob> ATIVOS = EnumSet.of(StatusRelatorioJob.PENDENTE, StatusRelatorioJob.EXECUTANDO);
+
+    private final ReportService reportService;
+    private final ReportExportService reportExportService;
+    private final RelatorioJobRepository relatorioJobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path diretorio;
+    private final int limitePorUsuario;
+    private final Duration retencao;
+    private final ThreadPoolExecutor executor;
+    /** Jobs desta instância ainda não finalizados, com o progresso ao vivo (no banco só no fim). */
+    private final Map<String, AtomicLong> emAndamento = new ConcurrentHashMap<>();
+
+    public RelatorioJobService(ReportService reportService,
+                               ReportExportService reportExportService,
+                               RelatorioJobRepository relatorioJobRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${newmusic.relatorios.jobs.diretorio:${java.io.tmpdir}/newmusic-relatorios}") Path diretorio,
+                               @Value("${newmusic.relatorios.jobs.threads:2}") int threads,
+                               @Value("${newmusic.relatorios.jobs.fila:20}") int fila,
+                               @Value("${newmusic.relatorios.jobs.por-usuario:2}") int limitePorUsuario,
+                               @Value("${newmusic.relatorios.jobs.retencao:PT2H}") Duration retencao) {
+        this.reportService = reportService;
+        this.reportExportService = reportExportService;
+        this.relatorioJobRepository = relatorioJobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.diretorio = diretorio;
+        this.limitePorUsuario = limitePorUsuario;
+        this.retencao = retencao;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila), new CustomizableThreadFactory("relatorio-job-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public record ArquivoRelatorio(Path caminho, String nome, MediaType mediaType) {
+    }
+
+    /**
+     * Remove arquivos órfãos além da retenção (deixados por uma instância que caiu). O diretório é compartilhado:
+     * arquivos recentes podem estar sendo escritos por outra instância e ficam.
+     */
+    @PostConstruct
+    void prepararDiretorio() throws IOException {
+        Files.createDirectories(diretorio);
+        apagarArquivosAntigos(LocalDateTime.now().minus(retencao));
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Grava o job e o põe na fila. O limite por usuário vale entre instâncias: a contagem e o insert rodam numa
+     * transação sob o advisory lock do usuário.
+     */
+    public RelatorioJobDTO enfileirar(RelatorioJobInput input, Long usuarioId) {
+        String relatorio = input.getRelatorio() != null ? input.getRelatorio().trim() : "";
+        ReportExportService.Formato formato = ReportExportService.Formato.of(
+                input.getFormato() != null && !input.getFormato().isBlank() ? input.getFormato() : "csv");
+        Supplier<Stream<Map<String, Object>>> fonte = fonte(relatorio, input.getFiltros() != null ? input.getFiltros() : Map.of());
+        RelatorioJob job = transactionTemplate.execute(status -> {
+            relatorioJobRepository.travarUsuario(usuarioId);
+            long ativos = relatorioJobRepository.countByUsuarioIdAndStatusIn(usuarioId, ATIVOS);
+            if (ativos >= limitePorUsuario) {
+                throw new IllegalArgumentException("Limite de " + limitePorUsuario + " relatório(s) em andamento por usuário atingido. Aguarde a conclusão.");
+            }
+            return relatorioJobRepository.save(RelatorioJob.builder()
+                    .id(UUID.randomUUID().toString())
+                    .usuarioId(usuarioId)
+                    .relatorio(relatorio)
+                    .formato(formato.getExtensao())
+                    .status(StatusRelatorioJob.PENDENTE)
+                    .no(CoordenacaoJobs.NO)
+                    .criadoEm(LocalDateTime.now())
+                    .build());
+        });
+        emAndamento.put(job.getId(), new AtomicLong());
+        RelatorioJob enfileirado = job;
+        try {
+            executor.execute(() -> executar(enfileirado, formato, fonte));
+        } catch (RejectedExecutionException e) {
+            emAndamento.remove(job.getId());
+            relatorioJobRepository.delete(job);
+            throw new IllegalArgumentException("Fila de relatórios cheia. Tente novamente em instantes.");
+        }
+        return toDTO(job);
+    }
+
+    public RelatorioJobDTO consultar(String id, Long usuarioId) {
+        return toDTO(buscar(id, usuarioId));
+    }
+
+    public List<RelatorioJobDTO> listar(Long usuarioId) {
+        return relatorioJobRepository.findByUsuarioIdOrderByCriadoEmDesc(usuarioId).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    public ArquivoRelatorio arquivo(String id, Long usuarioId) {
+        RelatorioJob job = buscar(id, usuarioId);
+        if (job.getStatus() != StatusRelatorioJob.CONCLUIDO || job.getArquivo() == null) {
+            throw new IllegalArgumentException("Relatório ainda não está disponível para download (status " + job.getStatus() + ").");
+        }
+        Path caminho = Path.of(job.getArquivo());
+        if (!Files.exists(caminho)) {
+            throw new IllegalArgumentException("Arquivo do relatório não está mais disponível. Gere o relatório novamente.");
+        }
+        ReportExportService.Formato formato = ReportExportService.Formato.of(job.getFormato());
+        String nome = PREFIXO_ARQUIVO + job.getRelatorio() + "." + formato.getExtensao();
+        return new ArquivoRelatorio(caminho, nome, formato.getMediaType());
+    }
+
+    /**
+     * Remove jobs finalizados há mais que o período de retenção, junto com seus arquivos. Jobs que passaram da
+     * retenção ainda pendentes ou executando em outra instância (que caiu no meio) são marcados com erro, e arquivos
+     * órfãos antigos no diretório são apagados.
+     */
+    public int limparExpirados() {
+        return limparExpirados(LocalDateTime.now());
+    }
+
+    int limparExpirados(LocalDateTime agora) {
+        LocalDateTime limite = agora.minus(retencao);
+        int removidos = 0;
+        for (RelatorioJob job : relatorioJobRepository.findByConcluidoEmBefore(limite)) {
+            apagar(job.getArquivo() != null ? Path.of(job.getArquivo()) : null);
+            relatorioJobRepository.delete(job);
+            removidos++;
+        }
+        for (RelatorioJob job : relatorioJobRepository.findByStatusInAndCriadoEmBefore(ATIVOS, limite)) {
+            if (emAndamento.containsKey(job.getId())) continue;
+            job.setStatus(StatusRelatorioJob.ERRO);
+            job.setMensagemErro("Geração interrompida: a instância " + job.getNo() + " não concluiu o relatório.");
+            job.setConcluidoEm(agora);
+            relatorioJobRepository.save(job);
+        }
+        apagarArquivosAntigos(limite);
+        return removidos;
+    }
+
+    private void executar(RelatorioJob job, ReportExportService.Formato formato, Supplier<Stream<Map<String, Object>>> fonte) {
+        AtomicLong linhas = emAndamento.get(job.getId());
+        Path arquivo = null;
+        try {
+            job.setStatus(StatusRelatorioJob.EXECUTANDO);
+            job.setIniciadoEm(LocalDateTime.now());
+            job = relatorioJobRepository.save(job);
+            arquivo = Files.createTempFile(diretorio, PREFIXO_ARQUIVO + job.getRelatorio() + "-", "." + formato.getExtensao());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(arquivo))) {
+                reportExportService.exportar(formato, () -> fonte.get().peek(l -> linhas.incrementAndGet()), out);
+            }
+            job.setArquivo(arquivo.toAbsolutePath().toString());
+            job.setStatus(StatusRelatorioJob.CONCLUIDO);
+        } catch (Exception e) {
+            log.error("RelatorioJob {}: erro ao gerar relatório {}.", job.getId(), job.getRelatorio(), e);
+            apagar(arquivo);
+            job.setMensagemErro(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            job.setStatus(StatusRelatorioJob.ERRO);
+        }
+        job.setLinhasProcessadas(linhas.get());
+        job.setConcluidoEm(LocalDateTime.now());
+        try {
+            relatorioJobRepository.save(job);
+        } finally {
+            emAndamento.remove(job.getId());
+        }
+    }
+
+    private RelatorioJob buscar(String id, Long usuarioId) {
+        RelatorioJob job = id != null ? relatorioJobRepository.findById(id).orElse(null) : null;
+        if (job == null || !job.getUsuarioId().equals(usuarioId)) {
+            throw new IllegalArgumentException("Relatório não encontrado.");
+        }
+        return job;
+    }
+
+    /** Apaga arquivos de relatório não modificados desde {@code limite}; os que ainda estão sendo escritos ficam. */
+    private void apagarArquivosAntigos(LocalDateTime limite) {
+        FileTime corte = FileTime.from(limite.atZone(ZoneId.systemDefault()).toInstant());
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, PREFIXO_ARQUIVO + "*")) {
+            for (Path p : arquivos) {
+                if (Files.getLastModifiedTime(p).compareTo(corte) < 0) apagar(p);
+            }
+        } catch (IOException e) {
+            log.warn("RelatorioJob: não foi possível listar {}.", diretorio, e);
+        }
+    }
+
+    /** Resolve nome + filtros para a consulta do relatório; filtros inválidos falham já no enfileiramento. */
+    Supplier<Stream<Map<String, Object>>> fonte(String relatorio, Map<String, String> f) {
+        return switch (relatorio) {
+            case "grupos" -> () -> reportService.relatorioGrupos().stream();
+            case "instrumentos" -> {
+                Long grupoId = longo(f, "grupoId");
+                yield () -> reportService.relatorioInstrumentos(grupoId).stream();
+            }
+            case "alunos" -> {
+                Boolean ativo = booleano(f, "ativo");
+                Long instrumentoId = longo(f, "instrumentoId");
+                yield () -> reportService.relatorioAlunosStream(ativo, instrumentoId);
+            }
+            case "professores" -> {
+                Boolean ativo = booleano(f, "ativo");
+                yield () -> reportService.relatorioProfessores(ativo).stream();
+            }
+            case "usuarios" -> {
+                String perfil = texto(f, "perfil");
+                yield () -> reportService.relatorioUsuarios(perfil).stream();
+            }
+            case "turmas" -> {
+                Boolean ativo = booleano(f, "ativo");
+                Long instrumentoId = longo(f, "instrumentoId");
+                Long professorId = longo(f, "professorId");
+                yield () -> reportService.relatorioTurmas(ativo, instrumentoId, professorId).stream();
+            }
+            case "matriculas" -> {
+                Boolean ativo = booleano(f, "ativo");
+                Long alunoId = longo(f, "alunoId");
+                LocalDate dataInicio = data(f, "dataInicio");
+                LocalDate dataFim = data(f, "dataFim");
+                yield () -> reportService.relatorioMatriculasStream(ativo, alunoId, dataInicio, dataFim);
+            }
+            case "mensalidades" -> {
+                Integer ano = inteiro(f, "ano");
+                Integer mes = inteiro(f, "mes");
+                String status = texto(f, "status");
+                Long alunoId = longo(f, "alunoId");
+                yield () -> reportService.relatorioMensalidadesStream(ano, mes, status, alunoId);
+            }
+            case "inadimplencia" -> {
+                Integer ano = inteiro(f, "ano");
+                Integer mes = inteiro(f, "mes");
+                yield () -> reportService.relatorioInadimplencia(ano, mes).stream();
+            }
+            case "inadimplencia-faixas" -> {
+                Integer ano = inteiro(f, "ano");
+                Integer mes = inteiro(f, "mes");
+                yield () -> reportService.relatorioInadimplenciaFaixasStream(ano, mes);
+            }
+            case "receita" -> {
+                LocalDate dataInicio = data(f, "dataInicio");
+                LocalDate dataFim = data(f, "dataFim");
+                String formaPagamento = texto(f, "formaPagamento");
+                yield () -> reportService.relatorioReceitaStream(dataInicio, dataFim, formaPagamento);
+            }
+            case "receita-serie" -> {
+                String granularidade = texto(f, "granularidade");
+                LocalDate dataInicio = data(f, "dataInicio");
+                LocalDate dataFim = data(f, "dataFim");
+                String formaPagamento = texto(f, "formaPagamento");
+                yield () -> reportService.relatorioReceitaSerie(granularidade, dataInicio, dataFim, formaPagamento).stream();
+            }
+            case "presenca-alunos" -> {
+                Long alunoId = longo(f, "alunoId");
+                LocalDate dataInicio = data(f, "dataInicio");
+                LocalDate dataFim = data(f, "dataFim");
+                yield () -> reportService.relatorioPresencaAlunosStream(alunoId, dataInicio, dataFim);
+            }
+            case "frequencia" -> {
+                String agrupamento = texto(f, "agrupamento");
+                Long alunoId = longo(f, "alunoId");
+                Long turmaId = longo(f, "turmaId");
+                LocalDate dataInicio = data(f, "dataInicio");
+                LocalDate dataFim = data(f, "dataFim");
+                yield () -> reportService.relatorioFrequencia(agrupamento, alunoId, turmaId, dataInicio, dataFim).stream();
+            }
+            case "presenca-professores" -> {
+                Long professorId = longo(f, "professorId");
+                LocalDate dataInicio = data(f, "dataInicio");
+                LocalDate dataFim = data(f, "dataFim");
+                yield () -> reportService.relatorioPresencaProfessoresStream(professorId, dataInicio, dataFim);
+            }
+            case "auditoria" -> {
+                Long usuarioId = longo(f, "usuarioId");
+                String tabela = texto(f, "tabela");
+                String acao = texto(f, "acao");
+                LocalDateTime dataInicio = dataHora(f, "dataInicio");
+                LocalDateTime dataFim = dataHora(f, "dataFim");
+                yield () -> reportService.relatorioAuditoriaStream(usuarioId, tabela, acao, dataInicio, dataFim);
+            }
+            case "erros" -> {
+                LocalDateTime dataInicio = dataHora(f, "dataInicio");
+                LocalDateTime dataFim = dataHora(f, "dataFim");
+                yield () -> reportService.relatorioErrosStream(dataInicio, dataFim);
+            }
+            case "aulas-hoje" -> () -> reportService.relatorioAulasHojeDetalhado().stream();
+            default -> throw new IllegalArgumentException("Relatório inválido: " + relatorio + ".");
+        };
+    }
+
+    private RelatorioJobDTO toDTO(RelatorioJob job) {
+        AtomicLong linhas = emAndamento.get(job.getId());
+        return RelatorioJobDTO.builder()
+                .id(job.getId())
+                .relatorio(job.getRelatorio())
+                .formato(job.getFormato())
+                .status(job.getStatus().name())
+                .linhasProcessadas(linhas != null && job.ativo() ? linhas.get() : job.getLinhasProcessadas())
+                .criadoEm(job.getCriadoEm())
+                .iniciadoEm(job.getIniciadoEm())
+                .concluidoEm(job.getConcluidoEm())
+                .mensagemErro(job.getMensagemErro())
+                .build();
+    }
+
+    private static void apagar(Path arquivo) {
+        if (arquivo == null) return;
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            log.warn("RelatorioJob: não foi possível remover {}.", arquivo, e);
+        }
+    }
+
+    private static String texto(Map<String, String> f, String nome) {
+        String v = f.get(nome);
+        return v != null && !v.isBlank() ? v.trim() : null;
+    }
+
+    private static Long longo(Map<String, String> f, String nome) {
+        String v = texto(f, nome);
+        try {
+            return v != null ? Long.valueOf(v) : null;
+        } catch (NumberFormatException e) {
+            throw filtroInvalido(nome, v);
+        }
+    }
+
+    private static Integer inteiro(Map<String, String> f, String nome) {
+        String v = texto(f, nome);
+        try {
+            return v != null ? Integer.valueOf(v) : null;
+        } catch (NumberFormatException e) {
+            throw filtroInvalido(nome, v);
+        }
+    }
+
+    private static Boolean booleano(Map<String, String> f, String nome) {
+        String v = texto(f, nome);
+        if (v == null) return null;
+        if (v.equalsIgnoreCase("true")) return true;
+        if (v.equalsIgnoreCase("false")) return false;
+        throw filtroInvalido(nome, v);
+    }
+
+    private static LocalDate data(Map<String, String> f, String nome) {
+        String v = texto(f, nome);
+        try {
+            return v != null ? LocalDate.parse(v) : null;
+        } catch (DateTimeParseException e) {
+            throw filtroInvalido(nome, v);
+        }
+    }
+
+    private static LocalDateTime dataHora(Map<String, String> f, String nome) {
+        String v = texto(f, nome);
+        try {
+            return v != null ? LocalDateTime.parse(v) : null;
+        } catch (DateTimeParseException e) {
+            throw filtroInvalido(nome, v);
+        }
+    }
+
+    private static IllegalArgumentException filtroInvalido(String nome, String valor) {
+        return new IllegalArgumentException("Filtro inválido: " + nome + "=" + valor + ".");
+    }
+}
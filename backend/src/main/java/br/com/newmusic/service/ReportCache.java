@@ -0,0 +1,216 @@
+package br.com.newmusic.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache dos resultados de relatórios, chaveado por nome do relatório + filtros normalizados.
+ * <p>
+ * Limitado por "peso" (quantidade de células: linhas × colunas) com despejo LRU e expiração por TTL.
+ * Cada entrada declara as entidades de que depende; qualquer escrita nessas entidades remove a entrada
+ * (ver {@code ReportCacheInvalidator}). O cache é local a cada instância: escritas feitas em outra instância são
+ * percebidas pelas gerações compartilhadas ({@link ReportCacheGeracoes}), conferidas a cada acerto.
+ */
+@Component
+public class ReportCache {
+
+    private final Duration ttl;
+    private final long pesoMaximo;
+    private final Clock clock;
+    /** Nulo nos testes: só a invalidação local. */
+    private final ReportCacheGeracoes geracoes;
+
+    /** Ordem de acesso: o primeiro elemento é o menos usado recentemente. Acesso sempre sob {@code this}. */
+    private final LinkedHashMap<Chave, Entrada> entradas = new LinkedHashMap<>(64, 0.75f, true);
+    private long pesoAtual;
+
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong faltas = new AtomicLong();
+    private final AtomicLong despejos = new AtomicLong();
+    private final AtomicLong invalidacoes = new AtomicLong();
+    /** Incrementado a cada invalidação; um resultado calculado antes de uma invalidação não entra no cache. */
+    private final AtomicLong geracao = new AtomicLong();
+
+    @Autowired
+    public ReportCache(@Value("${newmusic.relatorios.cache.ttl:PT10M}") Duration ttl,
+                       @Value("${newmusic.relatorios.cache.peso-maximo:2000000}") long pesoMaximo,
+                       ReportCacheGeracoes geracoes) {
+        this(ttl, pesoMaximo, Clock.systemUTC(), geracoes);
+    }
+
+    ReportCache(Duration ttl, long pesoMaximo, Clock clock) {
+        this(ttl, pesoMaximo, clock, null);
+    }
+
+    ReportCache(Duration ttl, long pesoMaximo, Clock clock, ReportCacheGeracoes geracoes) {
+        this.ttl = ttl;
+        this.pesoMaximo = pesoMaximo;
+        this.clock = clock;
+        this.geracoes = geracoes;
+    }
+
+    private record Chave(String relatorio, List<Object> filtros) {
+    }
+
+    private record Entrada(Object valor, Set<Class<?>> dependencias, Map<String, Long> geracoes, long peso, long expiraEm) {
+    }
+
+    public record Estatisticas(long acertos, long faltas, long despejos, long invalidacoes, int entradas, long peso, long pesoMaximo) {
+    }
+
+    /**
+     * Devolve o resultado em cache ou calcula com {@code carregar} e guarda. {@code dependencias} são as entidades
+     * lidas pelo relatório; {@code filtros} entram na chave (strings vazias equivalem a nulo).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obter(String relatorio, Set<Class<?>> dependencias, Supplier<T> carregar, Object... filtros) {
+        Chave chave = new Chave(relatorio, normalizar(filtros));
+        long agora = clock.millis();
+        Entrada e;
+        synchronized (this) {
+            e = entradas.get(chave);
+            if (e != null && e.expiraEm() <= agora) {
+                remover(chave);
+                e = null;
+            }
+        }
+        if (e != null) {
+            if (geracoes == null || geracoes.ler(e.dependencias()).equals(e.geracoes())) {
+                acertos.incrementAndGet();
+                return (T) e.valor();
+            }
+            synchronized (this) {
+                if (entradas.get(chave) == e) remover(chave);
+            }
+            invalidacoes.incrementAndGet();
+        }
+        faltas.incrementAndGet();
+        long geracaoInicial = geracao.get();
+        // lidas antes de calcular: uma escrita concorrente deixa a entrada com geração antiga e ela é refeita
+        Map<String, Long> geracoesIniciais = geracoes != null ? geracoes.ler(dependencias) : Map.of();
+        T valor = carregar.get();
+        long peso = peso(valor);
+        if (peso > pesoMaximo / 4) return valor;
+        synchronized (this) {
+            if (geracao.get() != geracaoInicial) return valor;
+            remover(chave);
+            entradas.put(chave, new Entrada(valor, dependencias, geracoesIniciais, peso, agora + ttl.toMillis()));
+            pesoAtual += peso;
+            despejarExcedente();
+        }
+        return valor;
+    }
+
+    /**
+     * Remove as entradas que dependem da entidade e incrementa sua geração compartilhada. Dentro de uma transação a
+     * remoção fica para depois do commit e o incremento vai junto com o commit (uma única sincronização por
+     * transação, com as entidades acumuladas).
+     */
+    @SuppressWarnings("unchecked")
+    public void invalidar(Class<?> entidade) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            invalidarAgora(entidade);
+            if (geracoes != null) geracoes.incrementarAoConcluir(Set.of(entidade));
+            return;
+        }
+        Set<Class<?>> pendentes = (Set<Class<?>>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            Set<Class<?>> novas = new HashSet<>();
+            pendentes = novas;
+            TransactionSynchronizationManager.bindResource(this, novas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ReportCache.this);
+                    if (status == STATUS_COMMITTED) novas.forEach(ReportCache.this::invalidarAgora);
+                }
+            });
+            if (geracoes != null) geracoes.incrementarAoConcluir(novas);
+        }
+        pendentes.add(entidade);
+    }
+
+    public void invalidarTudo() {
+        synchronized (this) {
+            geracao.incrementAndGet();
+            entradas.clear();
+            pesoAtual = 0;
+        }
+    }
+
+    public synchronized Estatisticas estatisticas() {
+        return new Estatisticas(acertos.get(), faltas.get(), despejos.get(), invalidacoes.get(), entradas.size(), pesoAtual, pesoMaximo);
+    }
+
+    void invalidarAgora(Class<?> entidade) {
+        synchronized (this) {
+            geracao.incrementAndGet();
+            Iterator<Map.Entry<Chave, Entrada>> it = entradas.entrySet().iterator();
+            while (it.hasNext()) {
+                Entrada e = it.next().getValue();
+                if (e.dependencias().contains(entidade)) {
+                    it.remove();
+                    pesoAtual -= e.peso();
+                    invalidacoes.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void remover(Chave chave) {
+        Entrada antiga = entradas.remove(chave);
+        if (antiga != null) pesoAtual -= antiga.peso();
+    }
+
+    private void despejarExcedente() {
+        Iterator<Entrada> it = entradas.values().iterator();
+        while (pesoAtual > pesoMaximo && it.hasNext()) {
+            Entrada e = it.next();
+            it.remove();
+            pesoAtual -= e.peso();
+            despejos.incrementAndGet();
+        }
+    }
+
+    private static List<Object> normalizar(Object[] filtros) {
+        List<Object> lista = new ArrayList<>(filtros.length);
+        for (Object f : filtros) {
+            if (f instanceof String s) {
+                lista.add(s.isBlank() ? null : s.trim());
+            } else {
+                lista.add(f);
+            }
+        }
+        return lista;
+    }
+
+    /** Peso aproximado do resultado em células (linhas × colunas); mapas isolados contam suas chaves. */
+    static long peso(Object valor) {
+        if (valor instanceof Page<?> page) return peso(page.getContent());
+        if (valor instanceof Collection<?> c) {
+            if (c.isEmpty()) return 1;
+            Object primeiro = c.iterator().next();
+            int colunas = primeiro instanceof Map<?, ?> m ? Math.max(1, m.size()) : 1;
+            return (long) c.size() * colunas;
+        }
+        if (valor instanceof Map<?, ?> m) return Math.max(1, m.size());
+        return 1;
+    }
+}
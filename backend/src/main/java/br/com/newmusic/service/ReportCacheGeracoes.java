@@ -0,0 +1,89 @@
+package br.com.newmusic.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Gerações do {@link ReportCache} compartilhadas entre as instâncias, na tabela {@code relatorio_cache_geracao}
+ * (uma linha por entidade).
+ * <p>
+ * Toda escrita incrementa a geração das entidades gravadas na mesma transação, logo antes do commit. Cada entrada
+ * do cache guarda as gerações lidas antes de calcular o relatório e as confere a cada acerto: se outra instância
+ * gravou nessas entidades, a entrada é descartada em vez de servir dados antigos até o TTL.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportCacheGeracoes {
+
+    private static final String INCREMENTAR = "INSERT INTO relatorio_cache_geracao (entidade, geracao) VALUES (?, 1) " +
+            "ON CONFLICT (entidade) DO UPDATE SET geracao = relatorio_cache_geracao.geracao + 1";
+
+    private final DataSource dataSource;
+    private final EntityManager entityManager;
+
+    /** Geração atual de cada entidade (por nome simples da classe); entidades nunca gravadas ficam com 0. */
+    public Map<String, Long> ler(Set<Class<?>> entidades) {
+        Map<String, Long> geracoes = new HashMap<>();
+        entidades.forEach(e -> geracoes.put(e.getSimpleName(), 0L));
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = conexao.prepareStatement("SELECT entidade, geracao FROM relatorio_cache_geracao");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String nome = rs.getString(1);
+                if (geracoes.containsKey(nome)) geracoes.put(nome, rs.getLong(2));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao ler as gerações do cache de relatórios", e);
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+        return geracoes;
+    }
+
+    /**
+     * Incrementa as gerações ao fim da transação atual, depois do último flush do Hibernate: o conjunto é lido só
+     * nesse momento, então entidades gravadas pelo flush do próprio commit também entram. Os incrementos vão na
+     * mesma transação da escrita (somem num rollback); as linhas ficam travadas só durante o commit. Sem transação,
+     * incrementa na hora.
+     */
+    public void incrementarAoConcluir(Set<Class<?>> entidades) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.unwrap(SessionImplementor.class).getActionQueue()
+                    .registerProcess(sessao -> sessao.doWork(conexao -> incrementar(conexao, entidades)));
+            return;
+        }
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(true);
+            incrementar(conexao, entidades);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao incrementar as gerações do cache de relatórios", e);
+        }
+    }
+
+    /** Em ordem de nome, para duas transações nunca travarem as mesmas linhas em ordens opostas. */
+    private static void incrementar(Connection conexao, Set<Class<?>> entidades) throws SQLException {
+        if (entidades.isEmpty()) return;
+        List<String> nomes = entidades.stream().map(Class::getSimpleName).distinct().sorted().toList();
+        try (PreparedStatement ps = conexao.prepareStatement(INCREMENTAR)) {
+            for (String nome : nomes) {
+                ps.setString(1, nome);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.web.dto.LinhaRelatorio;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Exportação de relatórios em streaming (CSV/NDJSON/XLSX): as linhas são escritas à medida que saem do cursor do banco,
+ * sem montar a lista inteira em memória.
+ */
+@Service
+public class ReportExportService {
+
+    /** Mesmo separador do CSV gerado pela tela de Relatórios. */
+    private static final char SEPARADOR_CSV = ';';
+    private static final String BOM_UTF8 = "\uFEFF";
+    /** Quantidade de linhas escritas entre cada flush para o cliente. */
+    private static final int LINHAS_POR_FLUSH = 500;
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReportExportService(ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public enum Formato {
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+        XLSX("xlsx", MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+
+        private final String extensao;
+        private final MediaType mediaType;
+
+        Formato(String extensao, MediaType mediaType) {
+            this.extensao = extensao;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public static Formato of(String valor) {
+            if (valor != null) {
+                for (Formato f : values()) {
+                    if (f.extensao.equalsIgnoreCase(valor.trim())) return f;
+                }
+            }
+            throw new IllegalArgumentException("Formato de exportação inválido: " + valor + ". Use csv, ndjson ou xlsx.");
+        }
+    }
+
+    /**
+     * Abre uma transação somente leitura (necessária para o cursor do PostgreSQL usar fetch size),
+     * consome o stream de linhas e escreve no formato pedido. O stream é sempre fechado ao final.
+     */
+    public void exportar(Formato formato, Supplier<Stream<Map<String, Object>>> linhas, OutputStream out) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Map<String, Object>> stream = linhas.get()) {
+                if (formato == Formato.XLSX) {
+                    escreverXlsx(stream.iterator(), out);
+                    return;
+                }
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                if (formato == Formato.CSV) {
+                    escreverCsv(stream.iterator(), writer);
+                } else {
+                    escreverNdjson(stream.iterator(), writer);
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void escreverCsv(Iterator<Map<String, Object>> it, Writer writer) throws IOException {
+        writer.write(BOM_UTF8);
+        if (!it.hasNext()) return;
+        Map<String, Object> primeira = it.next();
+        List<String> colunas = List.copyOf(primeira.keySet());
+        for (int i = 0; i < colunas.size(); i++) {
+            if (i > 0) writer.write(SEPARADOR_CSV);
+            writer.write(escaparCsv(colunas.get(i)));
+        }
+        writer.write('\n');
+        escreverLinhaCsv(primeira, colunas, writer);
+        int escritas = 1;
+        while (it.hasNext()) {
+            escreverLinhaCsv(it.next(), colunas, writer);
+            if (++escritas % LINHAS_POR_FLUSH == 0) writer.flush();
+        }
+    }
+
+    private static void escreverLinhaCsv(Map<String, Object> row, List<String> colunas, Writer writer) throws IOException {
+        // LinhaRelatorio: leitura por posição, sem lookup por nome de coluna
+        LinhaRelatorio linha = row instanceof LinhaRelatorio l && l.size() == colunas.size() ? l : null;
+        for (int i = 0; i < colunas.size(); i++) {
+            if (i > 0) writer.write(SEPARADOR_CSV);
+            Object valor = linha != null ? LinhaRelatorio.valorExibicao(linha.valor(i)) : row.get(colunas.get(i));
+            if (valor != null) writer.write(escaparCsv(valor.toString()));
+        }
+        writer.write('\n');
+    }
+
+    /** Planilha com células tipadas; valores de {@link LinhaRelatorio} são lidos crus (datas como data, não como texto). */
+    private static void escreverXlsx(Iterator<Map<String, Object>> it, OutputStream out) throws IOException {
+        try (XlsxStreamWriter xlsx = new XlsxStreamWriter(out, "Relatório")) {
+            if (!it.hasNext()) return;
+            Map<String, Object> primeira = it.next();
+            List<String> colunas = List.copyOf(primeira.keySet());
+            xlsx.cabecalho(colunas);
+            escreverLinhaXlsx(primeira, colunas, xlsx);
+            int escritas = 1;
+            while (it.hasNext()) {
+                escreverLinhaXlsx(it.next(), colunas, xlsx);
+                if (++escritas % LINHAS_POR_FLUSH == 0) xlsx.flush();
+            }
+        }
+    }
+
+    private static void escreverLinhaXlsx(Map<String, Object> row, List<String> colunas, XlsxStreamWriter xlsx) throws IOException {
+        LinhaRelatorio linha = row instanceof LinhaRelatorio l && l.size() == colunas.size() ? l : null;
+        xlsx.iniciarLinha();
+        for (int i = 0; i < colunas.size(); i++) {
+            xlsx.celula(linha != null ? linha.valor(i) : row.get(colunas.get(i)));
+        }
+        xlsx.terminarLinha();
+    }
+
+    private void escreverNdjson(Iterator<Map<String, Object>> it, Writer writer) throws IOException {
+        // Um único gerador para o arquivo todo, em vez de uma String intermediária por linha
+        JsonGenerator gen = objectMapper.getFactory().createGenerator(writer);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.setRootValueSeparator(null);
+        ObjectWriter linhaWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        int escritas = 0;
+        while (it.hasNext()) {
+            linhaWriter.writeValue(gen, it.next());
+            gen.writeRaw('\n');
+            if (++escritas % LINHAS_POR_FLUSH == 0) gen.flush();
+        }
+        gen.flush();
+    }
+
+    static String escaparCsv(String s) {
+        boolean precisaAspas = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == SEPARADOR_CSV || c == '"' || c == '\n' || c == '\r') {
+                precisaAspas = true;
+                break;
+            }
+        }
+        if (!precisaAspas) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+}
@@ -2,26 +2,109 @@ package br.com.newmusic.service;
 
 import br.com.newmusic.domain.*;
 import br.com.newmusic.repository.*;
+import br.com.newmusic.web.dto.LinhaRelatorio;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ReportService {
 
-    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ISO_LOCAL_DATE;
-    private static final DateTimeFormatter DATETIME_FMT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final int TAMANHO_PAGINA_PADRAO = 50;
+    private static final int TAMANHO_PAGINA_MAXIMO = 1000;
+    private static final int FETCH_SIZE_EXPORTACAO = 500;
+    /** Limite das rotas síncronas de auditoria e erros; o histórico completo sai pelos relatórios assíncronos. */
+    public static final int LIMITE_LINHAS_SINCRONO = 5000;
+
+    /** Colunas ordenáveis de cada relatório (nome da coluna na resposta → caminho na entidade). */
+    private static final Map<String, String> ORDENACAO_ALUNOS = Map.of(
+            "id", "id", "nome", "nome", "email", "email", "cpf", "cpf", "dataNascimento", "dataNascimento", "ativo", "ativo");
+    private static final Map<String, String> ORDENACAO_PROFESSORES = Map.of(
+            "id", "id", "nome", "nome", "email", "email", "cpf", "cpf", "ativo", "ativo");
+    private static final Map<String, String> ORDENACAO_USUARIOS = Map.of(
+            "id", "id", "nome", "nome", "email", "email", "perfil", "perfil", "ativo", "ativo");
+    private static final Map<String, String> ORDENACAO_MATRICULAS = Map.of(
+            "id", "id", "alunoNome", "aluno.nome", "instrumentoNome", "turma.instrumento.nome", "dataInicio", "dataInicio",
+            "dataFim", "dataFim", "valorCurso", "valorCurso", "ativo", "ativo");
+    private static final Map<String, String> ORDENACAO_MENSALIDADES = Map.of(
+            "id", "id", "alunoNome", "aluno.nome", "mes", "mes", "ano", "ano", "vencimento", "vencimento", "valor", "valor",
+            "status", "status", "dataPagamento", "dataPagamento", "formaPagamento", "formaPagamento");
+    private static final Map<String, String> ORDENACAO_RECEITA = Map.of(
+            "id", "id", "dataPagamento", "dataPagamento", "alunoNome", "aluno.nome", "valor", "valor", "formaPagamento", "formaPagamento");
+    /** Faixas de atraso: ordenadas pelo total da dívida (maior primeiro) quando {@code sort} não é informado. */
+    private static final Map<String, String> ORDENACAO_INADIMPLENCIA_FAIXAS = Map.of(
+            "alunoId", "id", "alunoNome", "alunoNome", "quantidadeParcelas", "quantidadeParcelas",
+            "vencimentoMaisAntigo", "vencimentoMaisAntigo", "ate30", "ate30", "de31a60", "de31a60", "de61a90", "de61a90",
+            "acima90", "acima90", "valorTotal", "valorTotal");
+
+    private static final String FONTE_INDICADORES = "indicadores";
+    private static final String FONTE_AULAS_HOJE = "aulasHoje";
+
+    /** Colunas de cada relatório, compartilhadas por todas as linhas (ver {@link LinhaRelatorio}). */
+    private static final LinhaRelatorio.Cabecalho COLUNAS_GRUPOS = LinhaRelatorio.Cabecalho.of("id", "nome", "quantidadeInstrumentos");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_INSTRUMENTOS = LinhaRelatorio.Cabecalho.of(
+            "id", "nome", "descricao", "grupoNome", "quantidadeTurmas", "ativo");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_ALUNOS = LinhaRelatorio.Cabecalho.of(
+            "id", "nome", "email", "telefone", "cpf", "dataNascimento", "endereco", "ativo", "responsavelNome", "responsavelCpf");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_ID_NOME = LinhaRelatorio.Cabecalho.of("id", "nome");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_PROFESSORES = LinhaRelatorio.Cabecalho.of(
+            "id", "nome", "cpf", "email", "telefone", "quantidadeTurmas", "instrumentos", "ativo");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_USUARIOS = LinhaRelatorio.Cabecalho.of("id", "nome", "email", "perfil", "ativo");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_TURMAS = LinhaRelatorio.Cabecalho.of(
+            "id", "professorNome", "instrumentoNome", "diaSemana", "horarioInicio", "horarioFim", "capacidade", "ativo");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_MATRICULAS = LinhaRelatorio.Cabecalho.of(
+            "id", "alunoNome", "instrumentoNome", "dataInicio", "dataFim", "valorCurso", "ativo");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_MENSALIDADES = LinhaRelatorio.Cabecalho.of(
+            "id", "alunoNome", "mes", "ano", "vencimento", "valor", "status", "dataPagamento", "formaPagamento");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_INADIMPLENCIA = LinhaRelatorio.Cabecalho.of(
+            "alunoId", "alunoNome", "quantidadeParcelas", "valorTotal");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_INADIMPLENCIA_FAIXAS = LinhaRelatorio.Cabecalho.of(
+            "alunoId", "alunoNome", "quantidadeParcelas", "vencimentoMaisAntigo", "ate30", "de31a60", "de61a90", "acima90", "valorTotal");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_RECEITA = LinhaRelatorio.Cabecalho.of(
+            "dataPagamento", "alunoNome", "valor", "formaPagamento", "mesAno");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_RECEITA_SERIE = LinhaRelatorio.Cabecalho.of(
+            "periodo", "formaPagamento", "valorTotal", "quantidade");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_PRESENCA_ALUNOS = LinhaRelatorio.Cabecalho.of(
+            "dataAula", "presente", "alunoNome", "turma", "conteudoAula");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_FREQUENCIA_ALUNOS = LinhaRelatorio.Cabecalho.of(
+            "alunoId", "alunoNome", "presencas", "faltas", "percentualFrequencia");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_FREQUENCIA_TURMAS = LinhaRelatorio.Cabecalho.of(
+            "turmaId", "turma", "presencas", "faltas", "percentualFrequencia");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_PRESENCA_PROFESSORES = LinhaRelatorio.Cabecalho.of(
+            "dataAula", "presente", "professorNome", "instrumento");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_AUDITORIA = LinhaRelatorio.Cabecalho.of(
+            "id", "dataHora", "acao", "descricao", "conteudoAlteracao", "usuarioId", "usuarioEmail", "tabela", "tabelaId");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_ERROS = LinhaRelatorio.Cabecalho.of(
+            "id", "dataHora", "acao", "mensagemErro", "tipoExcecao", "stackTrace");
+    private static final LinhaRelatorio.Cabecalho COLUNAS_AULAS_HOJE = LinhaRelatorio.Cabecalho.of(
+            "dia", "instrumento", "professor", "horarioInicio", "horarioFim");
 
     private final GrupoRepository grupoRepository;
     private final InstrumentoRepository instrumentoRepository;
@@ -33,132 +116,93 @@ public class ReportService {
     private final MensalidadeRepository mensalidadeRepository;
     private final PresencaRepository presencaRepository;
     private final PresencaProfessorRepository presencaProfessorRepository;
-    private final AuditLogRepository auditLogRepository;
-    private final ErrorLogRepository errorLogRepository;
+    private final EntityManager entityManager;
+    private final DashboardKpiService dashboardKpiService;
+    private final ReceitaDiariaRepository receitaDiariaRepository;
+    private final ConsultasParalelas consultasParalelas;
+    private final CalendarioUteis calendarioUteis;
+    private final GradeHorariaIndex gradeHorariaIndex;
+    private final FechamentoMensalRepository fechamentoMensalRepository;
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> relatorioGrupos() {
-        return grupoRepository.findAll().stream()
-                .sorted(Comparator.comparing(Grupo::getId))
-                .map(g -> {
-                    long qtdInstrumentos = instrumentoRepository.findByGrupoIdOrderByNomeAsc(g.getId()).size();
-                    Map<String, Object> row = new LinkedHashMap<>();
-                    row.put("id", g.getId());
-                    row.put("nome", g.getNome());
-                    row.put("quantidadeInstrumentos", qtdInstrumentos);
-                    return row;
-                })
+        return grupoRepository.findIdNomeEQuantidadeInstrumentos().stream()
+                .<Map<String, Object>>map(r -> COLUNAS_GRUPOS.linha(r[0], r[1], ((Number) r[2]).longValue()))
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> relatorioInstrumentos(Long grupoId) {
-        List<Instrumento> list = grupoId != null
-                ? instrumentoRepository.findByGrupoIdOrderByNomeAsc(grupoId)
-                : instrumentoRepository.findAll();
-        return list.stream()
-                .sorted(Comparator.comparing(Instrumento::getId))
-                .map(i -> {
-                    Map<String, Object> row = new LinkedHashMap<>();
-                    row.put("id", i.getId());
-                    row.put("nome", i.getNome());
-                    row.put("descricao", nullToEmpty(i.getDescricao()));
-                    row.put("grupoNome", i.getGrupo().getNome());
-                    row.put("quantidadeTurmas", turmaRepository.countByInstrumentoId(i.getId()));
-                    row.put("ativo", i.getAtivo());
-                    return row;
-                })
+        return instrumentoRepository.findResumoComQuantidadeTurmas(grupoId).stream()
+                .<Map<String, Object>>map(r -> COLUNAS_INSTRUMENTOS.linha(
+                        r[0], r[1], nullToEmpty(r[2]), r[3], ((Number) r[5]).longValue(), r[4]))
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> relatorioAlunos(Boolean ativo, Long instrumentoId) {
-        List<Aluno> alunos = ativo != null
-                ? (ativo ? alunoRepository.findAll().stream().filter(Aluno::getAtivo).toList() : alunoRepository.findAll().stream().filter(a -> !a.getAtivo()).toList())
-                : alunoRepository.findAll();
-        if (instrumentoId != null) {
-            List<Long> turmaIds = turmaRepository.findAll().stream()
-                    .filter(t -> t.getInstrumento().getId().equals(instrumentoId))
-                    .map(Turma::getId).toList();
-            Set<Long> alunoIds = new HashSet<>();
-            turmaIds.forEach(tid -> matriculaRepository.findByTurmaId(tid).forEach(m -> alunoIds.add(m.getAluno().getId())));
-            alunos = alunos.stream().filter(a -> alunoIds.contains(a.getId())).toList();
-        }
-        return alunos.stream()
-                .sorted(Comparator.comparing(Aluno::getId))
-                .map(a -> {
-                    Map<String, Object> m = new LinkedHashMap<>();
-                    m.put("id", a.getId());
-                    m.put("nome", a.getNome());
-                    m.put("email", a.getEmail());
-                    m.put("telefone", nullToEmpty(a.getTelefone()));
-                    m.put("cpf", nullToEmpty(a.getCpf()));
-                    m.put("dataNascimento", a.getDataNascimento() != null ? a.getDataNascimento().format(DATE_FMT) : "");
-                    m.put("endereco", nullToEmpty(a.getEndereco()));
-                    m.put("ativo", a.getAtivo());
-                    m.put("responsavelNome", nullToEmpty(a.getResponsavelNome()));
-                    m.put("responsavelCpf", nullToEmpty(a.getResponsavelCpf()));
-                    return m;
-                })
-                .collect(Collectors.toList());
+        return relatorioAlunos(ativo, instrumentoId, null, null, null).getContent();
+    }
+
+    /** Relatório de alunos com filtros, ordenação e paginação no banco; sem {@code page}/{@code size} retorna tudo. */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> relatorioAlunos(Boolean ativo, Long instrumentoId, Integer page, Integer size, String sort) {
+        return paginar(alunoRepository, ReportSpecifications.alunos(ativo, instrumentoId),
+                page, size, ordenacao(sort, ORDENACAO_ALUNOS), ReportService::linhaAluno);
+    }
+
+    /** Versão em stream de {@link #relatorioAlunos}; deve ser consumida dentro de uma transação (ver {@link ReportExportService}). */
+    public Stream<Map<String, Object>> relatorioAlunosStream(Boolean ativo, Long instrumentoId) {
+        return stream(Aluno.class, ReportSpecifications.alunos(ativo, instrumentoId), Sort.by("id"),
+                ReportService::linhaAluno);
+    }
+
+    private static Map<String, Object> linhaAluno(Aluno a) {
+        return COLUNAS_ALUNOS.linha(a.getId(), a.getNome(), a.getEmail(), nullToEmpty(a.getTelefone()), nullToEmpty(a.getCpf()),
+                dataOuVazio(a.getDataNascimento()), nullToEmpty(a.getEndereco()), a.getAtivo(),
+                nullToEmpty(a.getResponsavelNome()), nullToEmpty(a.getResponsavelCpf()));
     }
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> instrumentosDasTurmas() {
         return turmaRepository.findDistinctInstrumentosFromTurmas().stream()
                 .sorted(Comparator.comparing(Instrumento::getId))
-                .map(i -> {
-                    Map<String, Object> m = new LinkedHashMap<>();
-                    m.put("id", i.getId());
-                    m.put("nome", i.getNome());
-                    return m;
-                })
+                .<Map<String, Object>>map(i -> COLUNAS_ID_NOME.linha(i.getId(), i.getNome()))
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> relatorioProfessores(Boolean ativo) {
-        List<Professor> list = ativo != null
-                ? (ativo ? professorRepository.findByAtivoTrue() : professorRepository.findAll().stream().filter(p -> !p.getAtivo()).toList())
-                : professorRepository.findAll();
-        return list.stream()
-                .sorted(Comparator.comparing(Professor::getId))
-                .map(p -> {
-                    Map<String, Object> m = new LinkedHashMap<>();
-                    m.put("id", p.getId());
-                    m.put("nome", p.getNome());
-                    m.put("cpf", nullToEmpty(p.getCpf()));
-                    m.put("email", p.getEmail());
-                    m.put("telefone", nullToEmpty(p.getTelefone()));
-                    m.put("quantidadeTurmas", turmaRepository.findByProfessor_IdOrderById(p.getId()).size());
-                    m.put("instrumentos", nullToEmpty(p.getInstrumentos()));
-                    m.put("ativo", p.getAtivo());
-                    return m;
-                })
-                .collect(Collectors.toList());
+        return relatorioProfessores(ativo, null, null, null).getContent();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> relatorioProfessores(Boolean ativo, Integer page, Integer size, String sort) {
+        Page<Professor> professores = buscar(professorRepository, ReportSpecifications.professores(ativo),
+                page, size, ordenacao(sort, ORDENACAO_PROFESSORES));
+        List<Long> ids = professores.getContent().stream().map(Professor::getId).toList();
+        Map<Long, Long> turmasPorProfessor = ids.isEmpty() ? Map.of() : contagemPorId(turmaRepository.countByProfessorIdIn(ids));
+        return professores.<Map<String, Object>>map(p -> COLUNAS_PROFESSORES.linha(p.getId(), p.getNome(), nullToEmpty(p.getCpf()), p.getEmail(),
+                nullToEmpty(p.getTelefone()), turmasPorProfessor.getOrDefault(p.getId(), 0L).intValue(),
+                nullToEmpty(p.getInstrumentos()), p.getAtivo()));
     }
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> relatorioUsuarios(String perfil) {
-        List<Usuario> list = usuarioRepository.findAll();
+        return relatorioUsuarios(perfil, null, null, null).getContent();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> relatorioUsuarios(String perfil, Integer page, Integer size, String sort) {
+        Perfil p = null;
         if (perfil != null && !perfil.isBlank()) {
             try {
-                Perfil p = Perfil.valueOf(perfil.trim().toUpperCase());
-                list = list.stream().filter(u -> u.getPerfil() == p).toList();
-            } catch (Exception ignored) {}
+                p = Perfil.valueOf(perfil.trim().toUpperCase());
+            } catch (IllegalArgumentException ignored) {}
         }
-        return list.stream()
-                .sorted(Comparator.comparing(Usuario::getId))
-                .map(u -> {
-                    Map<String, Object> row = new LinkedHashMap<>();
-                    row.put("id", u.getId());
-                    row.put("nome", nullToEmpty(u.getNome()));
-                    row.put("email", u.getEmail());
-                    row.put("perfil", u.getPerfil().name());
-                    row.put("ativo", u.getAtivo());
-                    return row;
-                })
-                .collect(Collectors.toList());
+        return paginar(usuarioRepository, ReportSpecifications.usuarios(p),
+                page, size, ordenacao(sort, ORDENACAO_USUARIOS),
+                u -> COLUNAS_USUARIOS.linha(u.getId(), nullToEmpty(u.getNome()), u.getEmail(), u.getPerfil().name(), u.getAtivo()));
     }
 
     @Transactional(readOnly = true)
@@ -167,37 +211,25 @@ public class ReportService {
         if (ativo != null) list = list.stream().filter(t -> t.getAtivo().equals(ativo)).toList();
         if (instrumentoId != null) list = list.stream().filter(t -> t.getInstrumento().getId().equals(instrumentoId)).toList();
         if (professorId != null) list = list.stream().filter(t -> t.getProfessor().getId().equals(professorId)).toList();
+        Map<Long, Long> matriculadosPorTurma = contagemPorId(matriculaRepository.countAtivasGroupByTurmaId());
         return list.stream()
                 .sorted(Comparator.comparing(Turma::getId))
                 .flatMap(t -> {
                     int cap = t.getCapacidade() != null ? t.getCapacidade() : 0;
-                    int matriculados = (int) matriculaRepository.countByTurmaIdAndAtivoTrue(t.getId());
+                    int matriculados = matriculadosPorTurma.getOrDefault(t.getId(), 0L).intValue();
                     String capacidadeStr = cap > 0 ? matriculados + "/" + cap : "0/0";
                     var horarios = t.getHorarios();
                     if (horarios != null && !horarios.isEmpty()) {
-                        return horarios.stream().map(h -> {
-                            Map<String, Object> row = new LinkedHashMap<>();
-                            row.put("id", t.getId());
-                            row.put("professorNome", t.getProfessor().getNome());
-                            row.put("instrumentoNome", t.getInstrumento().getNome());
-                            row.put("diaSemana", formatDiaSemana(h.getDiaSemana()));
-                            row.put("horarioInicio", h.getHorarioInicio() != null ? h.getHorarioInicio().toString() : "");
-                            row.put("horarioFim", h.getHorarioFim() != null ? h.getHorarioFim().toString() : "");
-                            row.put("capacidade", capacidadeStr);
-                            row.put("ativo", t.getAtivo());
-                            return row;
-                        });
+                        return horarios.stream().<Map<String, Object>>map(h -> COLUNAS_TURMAS.linha(
+                                t.getId(), t.getProfessor().getNome(), t.getInstrumento().getNome(), formatDiaSemana(h.getDiaSemana()),
+                                h.getHorarioInicio() != null ? h.getHorarioInicio().toString() : "",
+                                h.getHorarioFim() != null ? h.getHorarioFim().toString() : "",
+                                capacidadeStr, t.getAtivo()));
                     }
-                    Map<String, Object> row = new LinkedHashMap<>();
-                    row.put("id", t.getId());
-                    row.put("professorNome", t.getProfessor().getNome());
-                    row.put("instrumentoNome", t.getInstrumento().getNome());
-                    row.put("diaSemana", formatDiaSemana(t.getDiaSemana()));
-                    row.put("horarioInicio", t.getHorarioInicio() != null ? t.getHorarioInicio().toString() : "");
-                    row.put("horarioFim", "");
-                    row.put("capacidade", capacidadeStr);
-                    row.put("ativo", t.getAtivo());
-                    return java.util.stream.Stream.of(row);
+                    return Stream.<Map<String, Object>>of(COLUNAS_TURMAS.linha(
+                            t.getId(), t.getProfessor().getNome(), t.getInstrumento().getNome(), formatDiaSemana(t.getDiaSemana()),
+                            t.getHorarioInicio() != null ? t.getHorarioInicio().toString() : "", "",
+                            capacidadeStr, t.getAtivo()));
                 })
                 .collect(Collectors.toList());
     }
@@ -218,148 +250,269 @@ public class ReportService {
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> relatorioMatriculas(Boolean ativo, Long alunoId, LocalDate dataInicio, LocalDate dataFim) {
-        List<Matricula> list = matriculaRepository.findAll();
-        if (ativo != null) list = list.stream().filter(m -> m.getAtivo().equals(ativo)).toList();
-        if (alunoId != null) list = list.stream().filter(m -> m.getAluno().getId().equals(alunoId)).toList();
-        if (dataInicio != null) list = list.stream().filter(m -> !m.getDataInicio().isBefore(dataInicio)).toList();
-        if (dataFim != null) list = list.stream().filter(m -> !m.getDataInicio().isAfter(dataFim)).toList();
+        return relatorioMatriculas(ativo, alunoId, dataInicio, dataFim, null, null, null).getContent();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> relatorioMatriculas(Boolean ativo, Long alunoId, LocalDate dataInicio, LocalDate dataFim,
+                                                         Integer page, Integer size, String sort) {
         NumberFormat currencyFmt = NumberFormat.getCurrencyInstance(Locale.forLanguageTag("pt-BR"));
-        return list.stream()
-                .sorted(Comparator.comparing(Matricula::getId))
-                .map(m -> {
-                    String valorFormatado = m.getValorCurso() != null ? currencyFmt.format(m.getValorCurso()) : "";
-                    Map<String, Object> row = new LinkedHashMap<>();
-                    row.put("id", m.getId());
-                    row.put("alunoNome", m.getAluno().getNome());
-                    row.put("instrumentoNome", m.getTurma().getInstrumento().getNome());
-                    row.put("dataInicio", m.getDataInicio().format(DATE_FMT));
-                    row.put("dataFim", m.getDataFim() != null ? m.getDataFim().format(DATE_FMT) : "");
-                    row.put("valorCurso", valorFormatado);
-                    row.put("ativo", m.getAtivo());
-                    return row;
-                })
-                .collect(Collectors.toList());
+        return paginar(matriculaRepository, ReportSpecifications.matriculas(ativo, alunoId, dataInicio, dataFim),
+                page, size, ordenacao(sort, ORDENACAO_MATRICULAS), m -> linhaMatricula(m, currencyFmt));
+    }
+
+    /** Versão em stream de {@link #relatorioMatriculas}; deve ser consumida dentro de uma transação. */
+    public Stream<Map<String, Object>> relatorioMatriculasStream(Boolean ativo, Long alunoId, LocalDate dataInicio, LocalDate dataFim) {
+        NumberFormat currencyFmt = NumberFormat.getCurrencyInstance(Locale.forLanguageTag("pt-BR"));
+        return stream(Matricula.class, ReportSpecifications.matriculas(ativo, alunoId, dataInicio, dataFim), Sort.by("id"),
+                m -> linhaMatricula(m, currencyFmt));
+    }
+
+    private static Map<String, Object> linhaMatricula(Matricula m, NumberFormat currencyFmt) {
+        String valorFormatado = m.getValorCurso() != null ? currencyFmt.format(m.getValorCurso()) : "";
+        return COLUNAS_MATRICULAS.linha(m.getId(), m.getAluno().getNome(), m.getTurma().getInstrumento().getNome(),
+                m.getDataInicio(), dataOuVazio(m.getDataFim()), valorFormatado, m.getAtivo());
     }
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> relatorioMensalidades(Integer ano, Integer mes, String status, Long alunoId) {
-        List<Mensalidade> list = mensalidadeRepository.findAll();
-        if (ano != null) list = list.stream().filter(m -> m.getAno().equals(ano)).toList();
-        if (mes != null) list = list.stream().filter(m -> m.getMes().equals(mes)).toList();
-        if (status != null && !status.isBlank()) {
-            try {
-                StatusMensalidade s = StatusMensalidade.valueOf(status.trim().toUpperCase());
-                list = list.stream().filter(m -> m.getStatus() == s).toList();
-            } catch (Exception ignored) {}
+        return relatorioMensalidades(ano, mes, status, alunoId, null, null, null).getContent();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> relatorioMensalidades(Integer ano, Integer mes, String status, Long alunoId,
+                                                           Integer page, Integer size, String sort) {
+        return paginar(mensalidadeRepository, ReportSpecifications.mensalidades(ano, mes, parseStatus(status), alunoId),
+                page, size, ordenacao(sort, ORDENACAO_MENSALIDADES), ReportService::linhaMensalidade);
+    }
+
+    /** Versão em stream de {@link #relatorioMensalidades}; deve ser consumida dentro de uma transação. */
+    public Stream<Map<String, Object>> relatorioMensalidadesStream(Integer ano, Integer mes, String status, Long alunoId) {
+        return stream(Mensalidade.class, ReportSpecifications.mensalidades(ano, mes, parseStatus(status), alunoId), Sort.by("id"),
+                ReportService::linhaMensalidade);
+    }
+
+    private static Map<String, Object> linhaMensalidade(Mensalidade m) {
+        return COLUNAS_MENSALIDADES.linha(m.getId(), m.getAluno().getNome(), m.getMes(), m.getAno(), m.getVencimento(),
+                m.getValor(), m.getStatus().name(), dataOuVazio(m.getDataPagamento()), nullToEmpty(m.getFormaPagamento()));
+    }
+
+    private static StatusMensalidade parseStatus(String status) {
+        if (status == null || status.isBlank()) return null;
+        try {
+            return StatusMensalidade.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
         }
-        if (alunoId != null) list = list.stream().filter(m -> m.getAluno().getId().equals(alunoId)).toList();
-        return list.stream()
-                .sorted(Comparator.comparing(Mensalidade::getId))
-                .map(m -> {
-                    Map<String, Object> row = new LinkedHashMap<>();
-                    row.put("id", m.getId());
-                    row.put("alunoNome", m.getAluno().getNome());
-                    row.put("mes", m.getMes());
-                    row.put("ano", m.getAno());
-                    row.put("vencimento", m.getVencimento().format(DATE_FMT));
-                    row.put("valor", m.getValor());
-                    row.put("status", m.getStatus().name());
-                    row.put("dataPagamento", m.getDataPagamento() != null ? m.getDataPagamento().format(DATE_FMT) : "");
-                    row.put("formaPagamento", nullToEmpty(m.getFormaPagamento()));
-                    return row;
-                })
-                .collect(Collectors.toList());
     }
 
+    /** Com ano e mês de um mês fechado, lê a inadimplência congelada no fechamento em vez das parcelas. */
     @Transactional(readOnly = true)
     public List<Map<String, Object>> relatorioInadimplencia(Integer ano, Integer mes) {
+        if (ano != null && mes != null) {
+            Optional<FechamentoMensal> fechamento = fechamentoMensalRepository.findByAnoAndMes(ano, mes);
+            if (fechamento.isPresent()) {
+                return fechamento.get().getInadimplencia().stream()
+                        .<Map<String, Object>>map(i -> COLUNAS_INADIMPLENCIA.linha(
+                                i.getAlunoId(), i.getAlunoNome(), i.getQuantidadeParcelas().intValue(), i.getValor()))
+                        .collect(Collectors.toList());
+            }
+        }
         List<Mensalidade> list = mensalidadeRepository.findByStatusOrderByAluno_NomeAsc(StatusMensalidade.ATRASADO);
         if (ano != null) list = list.stream().filter(m -> m.getAno().equals(ano)).toList();
         if (mes != null) list = list.stream().filter(m -> m.getMes().equals(mes)).toList();
         Map<Long, List<Mensalidade>> porAluno = list.stream().collect(Collectors.groupingBy(m -> m.getAluno().getId()));
         return porAluno.entrySet().stream()
-                .map(e -> {
+                .<Map<String, Object>>map(e -> {
                     List<Mensalidade> parcelas = e.getValue();
                     BigDecimal total = parcelas.stream().map(Mensalidade::getValor).reduce(BigDecimal.ZERO, BigDecimal::add);
-                    return Map.<String, Object>of(
-                            "alunoId", e.getKey(),
-                            "alunoNome", parcelas.get(0).getAluno().getNome(),
-                            "quantidadeParcelas", parcelas.size(),
-                            "valorTotal", total
-                    );
+                    return COLUNAS_INADIMPLENCIA.linha(
+                            e.getKey(), parcelas.get(0).getAluno().getNome(), parcelas.size(), total);
                 })
                 .sorted(Comparator.comparing(m -> (Long) m.get("alunoId")))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Inadimplência por aluno em faixas de atraso (0–30, 31–60, 61–90 e 90+ dias após o vencimento, contados até hoje),
+     * com valor + multa + juros. Agrupada e paginada no banco; sem {@code sort}, os maiores devedores vêm primeiro.
+     * Com ano e mês de um mês fechado, lê o fechamento (atraso contado até o último dia do mês).
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> relatorioInadimplenciaFaixas(Integer ano, Integer mes, Integer page, Integer size, String sort) {
+        Sort ordem = sort == null || sort.isBlank()
+                ? Sort.by(Sort.Direction.DESC, "valorTotal").and(Sort.by("id"))
+                : ordenacao(sort, ORDENACAO_INADIMPLENCIA_FAIXAS);
+        Page<Object[]> linhas;
+        if (ano != null && mes != null && fechamentoMensalRepository.existsByAnoAndMes(ano, mes)) {
+            linhas = fechamentoMensalRepository.findInadimplenciaPorFaixa(ano, mes, paginacao(page, size, ordem));
+        } else {
+            LocalDate hoje = LocalDate.now();
+            linhas = mensalidadeRepository.findInadimplenciaPorFaixa(StatusMensalidade.ATRASADO, ano, mes,
+                    hoje.minusDays(30), hoje.minusDays(60), hoje.minusDays(90), paginacao(page, size, ordem));
+        }
+        return linhas.map(r -> COLUNAS_INADIMPLENCIA_FAIXAS.linha(r[0], r[1], ((Number) r[2]).longValue(), r[3],
+                        decimal(r[4]), decimal(r[5]), decimal(r[6]), decimal(r[7]), decimal(r[8])));
+    }
+
+    /**
+     * Todas as linhas de {@link #relatorioInadimplenciaFaixas}, página a página (tamanho máximo) na ordem padrão;
+     * deve ser consumida dentro de uma transação.
+     */
+    public Stream<Map<String, Object>> relatorioInadimplenciaFaixasStream(Integer ano, Integer mes) {
+        return Stream.iterate(0, p -> p + 1)
+                .map(p -> relatorioInadimplenciaFaixas(ano, mes, p, TAMANHO_PAGINA_MAXIMO, null))
+                .takeWhile(pagina -> !pagina.isEmpty())
+                .flatMap(Page::stream);
+    }
+
+    private static BigDecimal decimal(Object valor) {
+        return valor instanceof BigDecimal d ? d : new BigDecimal(valor.toString());
+    }
+
     @Transactional(readOnly = true)
     public List<Map<String, Object>> relatorioReceita(LocalDate dataInicio, LocalDate dataFim, String formaPagamento) {
-        List<Mensalidade> list = mensalidadeRepository.findByStatusOrderByAluno_NomeAsc(StatusMensalidade.PAGO);
-        list = list.stream().filter(m -> m.getDataPagamento() != null).toList();
-        if (dataInicio != null) list = list.stream().filter(m -> !m.getDataPagamento().isBefore(dataInicio)).toList();
-        if (dataFim != null) list = list.stream().filter(m -> !m.getDataPagamento().isAfter(dataFim)).toList();
-        if (formaPagamento != null && !formaPagamento.isBlank())
-            list = list.stream().filter(m -> formaPagamento.equals(m.getFormaPagamento())).toList();
-        return list.stream()
-                .sorted(Comparator.comparing(Mensalidade::getId))
-                .map(m -> {
-                    Map<String, Object> row = new LinkedHashMap<>();
-                    row.put("dataPagamento", m.getDataPagamento().format(DATE_FMT));
-                    row.put("alunoNome", m.getAluno().getNome());
-                    row.put("valor", m.getValor());
-                    row.put("formaPagamento", nullToEmpty(m.getFormaPagamento()));
-                    row.put("mesAno", String.format("%02d/%d", m.getMes(), m.getAno()));
-                    return row;
-                })
-                .collect(Collectors.toList());
+        return relatorioReceita(dataInicio, dataFim, formaPagamento, null, null, null).getContent();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> relatorioReceita(LocalDate dataInicio, LocalDate dataFim, String formaPagamento,
+                                                      Integer page, Integer size, String sort) {
+        return paginar(mensalidadeRepository, ReportSpecifications.receita(dataInicio, dataFim, formaPagamento),
+                page, size, ordenacao(sort, ORDENACAO_RECEITA), ReportService::linhaReceita);
+    }
+
+    /** Versão em stream de {@link #relatorioReceita}; deve ser consumida dentro de uma transação. */
+    public Stream<Map<String, Object>> relatorioReceitaStream(LocalDate dataInicio, LocalDate dataFim, String formaPagamento) {
+        return stream(Mensalidade.class, ReportSpecifications.receita(dataInicio, dataFim, formaPagamento), Sort.by("id"),
+                ReportService::linhaReceita);
+    }
+
+    private static Map<String, Object> linhaReceita(Mensalidade m) {
+        int mes = m.getMes();
+        String mesAno = (mes < 10 ? "0" : "") + mes + "/" + m.getAno();
+        return COLUNAS_RECEITA.linha(m.getDataPagamento(), m.getAluno().getNome(), m.getValor(),
+                nullToEmpty(m.getFormaPagamento()), mesAno);
+    }
+
+    /**
+     * Série de receita por período (dia, semana ou mês) e forma de pagamento, somando valor + multa + juros.
+     * Agrupada no banco a partir de {@code receita_diaria}; semanas começam na segunda-feira. Por mês, os meses
+     * fechados inteiros no intervalo vêm do fechamento.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> relatorioReceitaSerie(String granularidade, LocalDate dataInicio, LocalDate dataFim, String formaPagamento) {
+        String forma = formaPagamento != null && !formaPagamento.isBlank() ? formaPagamento.trim() : null;
+        String campo = campoDateTrunc(granularidade);
+        List<Object[]> serie = receitaDiariaRepository.serie(campo, dataInicio, dataFim, forma);
+        if ("month".equals(campo)) serie = comMesesFechados(serie, dataInicio, dataFim, forma);
+        return serie.stream()
+                .<Map<String, Object>>map(r -> COLUNAS_RECEITA_SERIE.linha(
+                        comoLocalDate(r[0]), r[1], r[2], ((Number) r[3]).longValue()))
+                .toList();
+    }
+
+    /** Troca na série mensal as linhas dos meses fechados (inteiros no intervalo) pelo recebido congelado. */
+    private List<Object[]> comMesesFechados(List<Object[]> serie, LocalDate dataInicio, LocalDate dataFim, String forma) {
+        YearMonth primeiro = dataInicio == null ? YearMonth.of(1, 1)
+                : dataInicio.getDayOfMonth() == 1 ? YearMonth.from(dataInicio) : YearMonth.from(dataInicio).plusMonths(1);
+        YearMonth ultimo = dataFim == null ? YearMonth.of(9999, 12)
+                : dataFim.equals(YearMonth.from(dataFim).atEndOfMonth()) ? YearMonth.from(dataFim) : YearMonth.from(dataFim).minusMonths(1);
+        if (primeiro.isAfter(ultimo)) return serie;
+        int inicioYm = anoMes(primeiro);
+        int fimYm = anoMes(ultimo);
+        Set<LocalDate> fechados = fechamentoMensalRepository.findMesesFechados(inicioYm, fimYm).stream()
+                .map(ym -> LocalDate.of(ym / 100, ym % 100, 1))
+                .collect(Collectors.toSet());
+        if (fechados.isEmpty()) return serie;
+        List<Object[]> linhas = serie.stream()
+                .filter(r -> !fechados.contains(comoLocalDate(r[0])))
+                .collect(Collectors.toCollection(ArrayList::new));
+        for (Object[] r : fechamentoMensalRepository.findRecebimentos(inicioYm, fimYm, forma)) {
+            linhas.add(new Object[]{LocalDate.of((Integer) r[0], (Integer) r[1], 1), r[2], r[3], r[4]});
+        }
+        linhas.sort(Comparator.comparing((Object[] r) -> comoLocalDate(r[0])).thenComparing(r -> (String) r[1]));
+        return linhas;
+    }
+
+    private static int anoMes(YearMonth ym) {
+        return ym.getYear() * 100 + ym.getMonthValue();
+    }
+
+    private static String campoDateTrunc(String granularidade) {
+        String g = granularidade != null ? granularidade.trim().toLowerCase() : "mes";
+        return switch (g) {
+            case "dia" -> "day";
+            case "semana" -> "week";
+            case "mes", "" -> "month";
+            default -> throw new IllegalArgumentException("Granularidade inválida: " + granularidade + ". Use dia, semana ou mes.");
+        };
+    }
+
+    private static LocalDate comoLocalDate(Object valor) {
+        return valor instanceof java.sql.Date d ? d.toLocalDate() : (LocalDate) valor;
     }
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> relatorioPresencaAlunos(Long alunoId, LocalDate dataInicio, LocalDate dataFim) {
         LocalDate start = dataInicio != null ? dataInicio : LocalDate.of(2000, 1, 1);
         LocalDate end = dataFim != null ? dataFim : LocalDate.now().plusYears(1);
+        return presencaRepository.findByPeriodoWithAluno(alunoId, start, end).stream()
+                .map(ReportService::linhaPresencaAluno)
+                .collect(Collectors.toList());
+    }
 
-        if (alunoId != null) {
-            List<Matricula> matriculas = matriculaRepository.findByAlunoId(alunoId);
-            List<Presenca> all = new ArrayList<>();
-            for (Matricula mat : matriculas) {
-                all.addAll(presencaRepository.findByMatriculaIdAndDataAulaBetweenOrderByDataAulaAsc(mat.getId(), start, end));
-            }
-            return all.stream()
-                    .sorted(Comparator.comparing(Presenca::getDataAula))
-                    .map(p -> {
-                        var t = p.getTurma();
-                        String turmaDesc = (t.getInstrumento() != null ? t.getInstrumento().getNome() : "") + " - " + (t.getProfessor() != null ? t.getProfessor().getNome() : "");
-                        return Map.<String, Object>of(
-                                "dataAula", p.getDataAula().format(DATE_FMT),
-                                "presente", p.getPresente(),
-                                "alunoNome", p.getMatricula().getAluno().getNome(),
-                                "turma", turmaDesc,
-                                "conteudoAula", nullToEmpty(p.getConteudoAula())
-                        );
+    /**
+     * Presenças, faltas e percentual de frequência no período, por aluno ({@code agrupamento} "aluno", padrão)
+     * ou por turma ("turma"). As contagens são agrupadas no PostgreSQL.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> relatorioFrequencia(String agrupamento, Long alunoId, Long turmaId,
+                                                         LocalDate dataInicio, LocalDate dataFim) {
+        LocalDate start = dataInicio != null ? dataInicio : LocalDate.of(2000, 1, 1);
+        LocalDate end = dataFim != null ? dataFim : LocalDate.now().plusYears(1);
+        String g = agrupamento != null ? agrupamento.trim().toLowerCase() : "aluno";
+        return switch (g) {
+            case "aluno", "" -> presencaRepository.frequenciaPorAluno(alunoId, turmaId, start, end).stream()
+                    .<Map<String, Object>>map(r -> {
+                        long presencas = ((Number) r[2]).longValue();
+                        long faltas = ((Number) r[3]).longValue();
+                        return COLUNAS_FREQUENCIA_ALUNOS.linha(r[0], r[1], presencas, faltas, percentualFrequencia(presencas, faltas));
                     })
                     .collect(Collectors.toList());
-        }
-        List<Presenca> list = presencaRepository.findAllWithAlunoOrderByDataAulaAscAlunoNome();
-        if (dataInicio != null || dataFim != null) {
-            list = list.stream()
-                    .filter(p -> !p.getDataAula().isBefore(start) && !p.getDataAula().isAfter(end))
-                    .toList();
-        }
-        return list.stream()
-                .sorted(Comparator.comparing(Presenca::getDataAula))
-                .map(p -> {
-                    var t = p.getTurma();
-                    String turmaDesc = (t.getInstrumento() != null ? t.getInstrumento().getNome() : "") + " - " + (t.getProfessor() != null ? t.getProfessor().getNome() : "");
-                    return Map.<String, Object>of(
-                            "dataAula", p.getDataAula().format(DATE_FMT),
-                            "presente", p.getPresente(),
-                            "alunoNome", p.getMatricula().getAluno().getNome(),
-                            "turma", turmaDesc,
-                            "conteudoAula", nullToEmpty(p.getConteudoAula())
-                    );
-                })
-                .collect(Collectors.toList());
+            case "turma" -> presencaRepository.frequenciaPorTurma(alunoId, turmaId, start, end).stream()
+                    .<Map<String, Object>>map(r -> {
+                        long presencas = ((Number) r[3]).longValue();
+                        long faltas = ((Number) r[4]).longValue();
+                        return COLUNAS_FREQUENCIA_TURMAS.linha(r[0], nullToEmpty(r[1]) + " - " + nullToEmpty(r[2]),
+                                presencas, faltas, percentualFrequencia(presencas, faltas));
+                    })
+                    .collect(Collectors.toList());
+            default -> throw new IllegalArgumentException("Agrupamento inválido: " + agrupamento + ". Use aluno ou turma.");
+        };
+    }
+
+    private static BigDecimal percentualFrequencia(long presencas, long faltas) {
+        long total = presencas + faltas;
+        if (total == 0) return BigDecimal.ZERO;
+        return BigDecimal.valueOf(presencas * 100).divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP);
+    }
+
+    /** Versão em stream de {@link #relatorioPresencaAlunos}; deve ser consumida dentro de uma transação. */
+    public Stream<Map<String, Object>> relatorioPresencaAlunosStream(Long alunoId, LocalDate dataInicio, LocalDate dataFim) {
+        LocalDate start = dataInicio != null ? dataInicio : LocalDate.of(2000, 1, 1);
+        LocalDate end = dataFim != null ? dataFim : LocalDate.now().plusYears(1);
+        Stream<Presenca> stream = alunoId != null
+                ? presencaRepository.streamByAlunoIdAndDataAulaBetweenWithAluno(alunoId, start, end)
+                : presencaRepository.streamByDataAulaBetweenWithAluno(start, end);
+        return emLinhas(stream, ReportService::linhaPresencaAluno);
+    }
+
+    private static Map<String, Object> linhaPresencaAluno(Presenca p) {
+        var t = p.getTurma();
+        String turmaDesc = (t.getInstrumento() != null ? t.getInstrumento().getNome() : "") + " - " + (t.getProfessor() != null ? t.getProfessor().getNome() : "");
+        return COLUNAS_PRESENCA_ALUNOS.linha(p.getDataAula(), p.getPresente(), p.getMatricula().getAluno().getNome(),
+                turmaDesc, nullToEmpty(p.getConteudoAula()));
     }
 
     @Transactional(readOnly = true)
@@ -373,12 +526,7 @@ public class ReportService {
                     : presencaProfessorRepository.findByProfessorId(professorId).stream().toList();
             return list.stream()
                     .sorted(Comparator.comparing(PresencaProfessor::getDataAula))
-                    .map(p -> Map.<String, Object>of(
-                            "dataAula", p.getDataAula().format(DATE_FMT),
-                            "presente", p.getPresente(),
-                            "professorNome", p.getProfessor().getNome(),
-                            "instrumento", p.getTurma().getInstrumento() != null ? p.getTurma().getInstrumento().getNome() : ""
-                    ))
+                    .map(ReportService::linhaPresencaProfessor)
                     .collect(Collectors.toList());
         }
         List<PresencaProfessor> list = presencaProfessorRepository.findAll().stream().toList();
@@ -389,124 +537,228 @@ public class ReportService {
         }
         return list.stream()
                 .sorted(Comparator.comparing(PresencaProfessor::getDataAula))
-                .map(p -> Map.<String, Object>of(
-                        "dataAula", p.getDataAula().format(DATE_FMT),
-                        "presente", p.getPresente(),
-                        "professorNome", p.getProfessor().getNome(),
-                        "instrumento", p.getTurma().getInstrumento() != null ? p.getTurma().getInstrumento().getNome() : ""
-                ))
+                .map(ReportService::linhaPresencaProfessor)
                 .collect(Collectors.toList());
     }
 
+    /** Versão em stream de {@link #relatorioPresencaProfessores}; deve ser consumida dentro de uma transação. */
+    public Stream<Map<String, Object>> relatorioPresencaProfessoresStream(Long professorId, LocalDate dataInicio, LocalDate dataFim) {
+        LocalDate start = dataInicio != null ? dataInicio : LocalDate.of(2000, 1, 1);
+        LocalDate end = dataFim != null ? dataFim : LocalDate.now().plusYears(1);
+        Stream<PresencaProfessor> stream = professorId != null
+                ? presencaProfessorRepository.streamByProfessorIdAndDataAulaBetween(professorId, start, end)
+                : presencaProfessorRepository.streamByDataAulaBetween(start, end);
+        return emLinhas(stream, ReportService::linhaPresencaProfessor);
+    }
+
+    private static Map<String, Object> linhaPresencaProfessor(PresencaProfessor p) {
+        return COLUNAS_PRESENCA_PROFESSORES.linha(p.getDataAula(), p.getPresente(), p.getProfessor().getNome(),
+                p.getTurma().getInstrumento() != null ? p.getTurma().getInstrumento().getNome() : "");
+    }
+
+    /** Página de um relatório navegado por cursor: {@code proximoCursor} é o último id devolvido, ou null no fim. */
+    public record PaginaCursor(List<Map<String, Object>> linhas, Long proximoCursor) {
+    }
+
+    /**
+     * Auditoria paginada por cursor ({@code id > cursor}, em ordem de id), até {@value #LIMITE_LINHAS_SINCRONO} linhas
+     * por página. Só os filtros informados entram no SQL, para o PostgreSQL poder usar os índices de data_hora,
+     * (usuario_id, data_hora) e (tabela, data_hora); o custo de cada página não depende de quantas vieram antes.
+     */
     @Transactional(readOnly = true)
-    public List<Map<String, Object>> relatorioAuditoria(Long usuarioId, String tabela, String acao, LocalDateTime dataInicio, LocalDateTime dataFim) {
+    public PaginaCursor relatorioAuditoria(Long usuarioId, String tabela, String acao, LocalDateTime dataInicio,
+                                           LocalDateTime dataFim, Long cursor, Integer size) {
         String tabelaTrim = tabela != null && !tabela.isBlank() ? tabela.trim() : null;
         String acaoTrim = acao != null && !acao.isBlank() ? acao.trim() : null;
-        List<AuditLog> list = auditLogRepository.findWithFilters(usuarioId, tabelaTrim, acaoTrim, dataInicio, dataFim, PageRequest.of(0, 5000));
-        return list.stream()
-                .map(a -> {
-                    Map<String, Object> row = new LinkedHashMap<>();
-                    row.put("id", a.getId());
-                    row.put("dataHora", a.getDataHora().format(DATETIME_FMT));
-                    row.put("acao", a.getAcao());
-                    row.put("descricao", nullToEmpty(a.getDescricao()));
-                    row.put("conteudoAlteracao", nullToEmpty(a.getConteudoAlteracao()));
-                    row.put("usuarioId", a.getUsuarioId());
-                    row.put("usuarioEmail", nullToEmpty(a.getUsuarioEmail()));
-                    row.put("tabela", nullToEmpty(a.getTabela()));
-                    row.put("tabelaId", nullToEmpty(a.getTabelaId()));
-                    return row;
-                })
-                .collect(Collectors.toList());
+        return porCursor(AuditLog.class, ReportSpecifications.auditoria(usuarioId, tabelaTrim, acaoTrim, dataInicio, dataFim, cursor),
+                size, AuditLog::getId, ReportService::linhaAuditoria);
     }
 
-    @Transactional(readOnly = true)
-    public List<Map<String, Object>> relatorioErros(LocalDateTime dataInicio, LocalDateTime dataFim) {
-        List<ErrorLog> list;
-        if (dataInicio != null && dataFim != null) {
-            list = errorLogRepository.findByDataHoraBetweenOrderByIdAsc(dataInicio, dataFim, PageRequest.of(0, 5000));
-        } else {
-            list = errorLogRepository.findAllByOrderByIdAsc(PageRequest.of(0, 5000));
-        }
-        return list.stream()
-                .map(e -> {
-                    Map<String, Object> row = new LinkedHashMap<>();
-                    row.put("id", e.getId());
-                    row.put("dataHora", e.getDataHora().format(DATETIME_FMT));
-                    row.put("acao", e.getAcao());
-                    row.put("mensagemErro", nullToEmpty(e.getMensagemErro()));
-                    row.put("tipoExcecao", nullToEmpty(e.getTipoExcecao()));
-                    row.put("stackTrace", nullToEmpty(e.getStackTrace()));
-                    return row;
-                })
-                .collect(Collectors.toList());
+    /** Versão em stream de {@link #relatorioAuditoria}, sem o limite de {@link #LIMITE_LINHAS_SINCRONO} linhas; deve ser consumida dentro de uma transação. */
+    public Stream<Map<String, Object>> relatorioAuditoriaStream(Long usuarioId, String tabela, String acao, LocalDateTime dataInicio, LocalDateTime dataFim) {
+        String tabelaTrim = tabela != null && !tabela.isBlank() ? tabela.trim() : null;
+        String acaoTrim = acao != null && !acao.isBlank() ? acao.trim() : null;
+        return stream(AuditLog.class, ReportSpecifications.auditoria(usuarioId, tabelaTrim, acaoTrim, dataInicio, dataFim, null), Sort.by("id"),
+                ReportService::linhaAuditoria);
     }
 
+    private static Map<String, Object> linhaAuditoria(AuditLog a) {
+        return COLUNAS_AUDITORIA.linha(a.getId(), a.getDataHora(), a.getAcao(), nullToEmpty(a.getDescricao()),
+                nullToEmpty(a.getConteudoAlteracao()), a.getUsuarioId(), nullToEmpty(a.getUsuarioEmail()),
+                nullToEmpty(a.getTabela()), nullToEmpty(a.getTabelaId()));
+    }
+
+    /** Log de erros paginado por cursor, como {@link #relatorioAuditoria}. */
     @Transactional(readOnly = true)
+    public PaginaCursor relatorioErros(LocalDateTime dataInicio, LocalDateTime dataFim, Long cursor, Integer size) {
+        return porCursor(ErrorLog.class, ReportSpecifications.erros(dataInicio, dataFim, cursor),
+                size, ErrorLog::getId, ReportService::linhaErro);
+    }
+
+    /** Versão em stream de {@link #relatorioErros}, sem o limite de {@link #LIMITE_LINHAS_SINCRONO} linhas; deve ser consumida dentro de uma transação. */
+    public Stream<Map<String, Object>> relatorioErrosStream(LocalDateTime dataInicio, LocalDateTime dataFim) {
+        return stream(ErrorLog.class, ReportSpecifications.erros(dataInicio, dataFim, null), Sort.by("id"),
+                ReportService::linhaErro);
+    }
+
+    private static Map<String, Object> linhaErro(ErrorLog e) {
+        return COLUNAS_ERROS.linha(e.getId(), e.getDataHora(), e.getAcao(), nullToEmpty(e.getMensagemErro()),
+                nullToEmpty(e.getTipoExcecao()), nullToEmpty(e.getStackTrace()));
+    }
+
+    /**
+     * Indicadores do dashboard. As fontes (snapshot de KPIs e aulas de hoje) são consultadas em paralelo, cada uma
+     * com sua conexão; se alguma não responder no prazo, devolve as demais com {@code parcial = true}.
+     * Sem {@code @Transactional}: não segura uma conexão enquanto espera as consultas.
+     */
     public Map<String, Object> relatorioConsolidadoDashboard() {
-        long alunos = alunoRepository.count();
-        long professores = professorRepository.count();
-        long turmas = turmaRepository.count();
-        long alunosAtrasados = mensalidadeRepository.countDistinctAlunoByStatus(StatusMensalidade.ATRASADO);
-        int diaHoje = LocalDate.now().getDayOfWeek().getValue();
-        long aulasHoje = turmaRepository.findAllWithHorariosAndInstrumentoAndProfessor().stream()
-                .filter(Turma::getAtivo)
-                .filter(t -> {
-                    if (t.getHorarios() != null && !t.getHorarios().isEmpty()) {
-                        return t.getHorarios().stream().anyMatch(h -> h.getDiaSemana() != null && h.getDiaSemana() == diaHoje);
-                    }
-                    Integer d = t.getDiaSemana();
-                    return d != null && d == diaHoje;
-                })
-                .count();
-        long matriculasAtivas = matriculaRepository.findAll().stream().filter(Matricula::getAtivo).count();
-        return Map.<String, Object>of(
-                "alunos", alunos,
-                "professores", professores,
-                "turmas", turmas,
-                "matriculasAtivas", matriculasAtivas,
-                "alunosComPagamentoAtrasado", alunosAtrasados,
-                "aulasHoje", aulasHoje
-        );
+        Map<String, Supplier<?>> consultas = new LinkedHashMap<>();
+        consultas.put(FONTE_INDICADORES, dashboardKpiService::obter);
+        consultas.put(FONTE_AULAS_HOJE, this::contarAulasHoje);
+        ConsultasParalelas.Resultados r = consultasParalelas.executar(consultas);
+        DashboardKpi kpi = r.valor(FONTE_INDICADORES);
+        Map<String, Object> dashboard = new LinkedHashMap<>();
+        dashboard.put("alunos", kpi != null ? kpi.getAlunos() : null);
+        dashboard.put("professores", kpi != null ? kpi.getProfessores() : null);
+        dashboard.put("turmas", kpi != null ? kpi.getTurmas() : null);
+        dashboard.put("matriculasAtivas", kpi != null ? kpi.getMatriculasAtivas() : null);
+        dashboard.put("alunosComPagamentoAtrasado", kpi != null ? kpi.getAlunosComPagamentoAtrasado() : null);
+        dashboard.put("aulasHoje", r.valor(FONTE_AULAS_HOJE));
+        dashboard.put("parcial", r.parcial());
+        dashboard.put("fontesIndisponiveis", r.indisponiveis());
+        return dashboard;
+    }
+
+    /** Turmas ativas com aula no dia da semana de hoje (grade em memória), zero em feriado. */
+    private long contarAulasHoje() {
+        if (calendarioUteis.isFeriado(LocalDate.now())) return 0;
+        return gradeHorariaIndex.turmasAtivasNoDia(LocalDate.now().getDayOfWeek().getValue()).size();
     }
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> relatorioAulasHojeDetalhado() {
+        if (calendarioUteis.isFeriado(LocalDate.now())) return List.of();
         int diaHoje = LocalDate.now().getDayOfWeek().getValue();
-        return turmaRepository.findAllWithHorariosAndInstrumentoAndProfessor().stream()
-                .filter(Turma::getAtivo)
+        return gradeHorariaIndex.turmasAtivasNoDia(diaHoje).stream()
                 .flatMap(t -> {
-                    var horarios = t.getHorarios();
-                    if (horarios != null && !horarios.isEmpty()) {
-                        return horarios.stream()
-                                .filter(h -> h.getDiaSemana() != null && h.getDiaSemana() == diaHoje)
-                                .map(h -> {
-                                    Map<String, Object> row = new LinkedHashMap<>();
-                                    row.put("dia", formatDiaSemana(h.getDiaSemana()));
-                                    row.put("instrumento", t.getInstrumento() != null ? t.getInstrumento().getNome() : "");
-                                    row.put("professor", t.getProfessor() != null ? t.getProfessor().getNome() : "");
-                                    row.put("horarioInicio", h.getHorarioInicio() != null ? h.getHorarioInicio().toString() : "");
-                                    row.put("horarioFim", h.getHorarioFim() != null ? h.getHorarioFim().toString() : "");
-                                    return row;
-                                });
+                    if (!t.grade().isVazia()) {
+                        return t.grade().doDia(diaHoje).stream()
+                                .<Map<String, Object>>map(h -> COLUNAS_AULAS_HOJE.linha(formatDiaSemana(h.diaSemana()),
+                                        t.instrumentoNome(), t.professorNome(), h.inicio().toString(), h.fim().toString()));
                     }
-                    Integer d = t.getDiaSemana();
-                    if (d != null && d == diaHoje) {
-                        Map<String, Object> row = new LinkedHashMap<>();
-                        row.put("dia", formatDiaSemana(d));
-                        row.put("instrumento", t.getInstrumento() != null ? t.getInstrumento().getNome() : "");
-                        row.put("professor", t.getProfessor() != null ? t.getProfessor().getNome() : "");
-                        row.put("horarioInicio", t.getHorarioInicio() != null ? t.getHorarioInicio().toString() : "");
-                        row.put("horarioFim", "");
-                        return java.util.stream.Stream.of(row);
-                    }
-                    return java.util.stream.Stream.<Map<String, Object>>empty();
+                    return Stream.<Map<String, Object>>of(COLUNAS_AULAS_HOJE.linha(formatDiaSemana(t.diaLegado()),
+                            t.instrumentoNome(), t.professorNome(),
+                            t.inicioLegado() != null ? t.inicioLegado().toString() : "", ""));
                 })
                 .sorted(Comparator.comparing(m -> (String) m.get("instrumento")))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Executa a especificação no banco: sem {@code page} e {@code size} devolve todas as linhas numa única página,
+     * senão aplica LIMIT/OFFSET (tamanho padrão {@value #TAMANHO_PAGINA_PADRAO}, máximo {@value #TAMANHO_PAGINA_MAXIMO}).
+     */
+    private static <T> Page<Map<String, Object>> paginar(JpaSpecificationExecutor<T> repository, Specification<T> spec,
+                                                         Integer page, Integer size, Sort sort,
+                                                         Function<T, Map<String, Object>> linha) {
+        return buscar(repository, spec, page, size, sort).map(linha);
+    }
+
+    private static <T> Page<T> buscar(JpaSpecificationExecutor<T> repository, Specification<T> spec,
+                                      Integer page, Integer size, Sort sort) {
+        if (page == null && size == null) {
+            return new PageImpl<>(repository.findAll(spec, sort));
+        }
+        return repository.findAll(spec, paginacao(page, size, sort));
+    }
+
+    /** Página pedida, com tamanho padrão {@value #TAMANHO_PAGINA_PADRAO} e máximo {@value #TAMANHO_PAGINA_MAXIMO}. */
+    private static Pageable paginacao(Integer page, Integer size, Sort sort) {
+        int pagina = page != null ? page : 0;
+        int tamanho = size != null ? size : TAMANHO_PAGINA_PADRAO;
+        if (pagina < 0) throw new IllegalArgumentException("Página não pode ser negativa.");
+        if (tamanho < 1 || tamanho > TAMANHO_PAGINA_MAXIMO)
+            throw new IllegalArgumentException("Tamanho da página deve estar entre 1 e " + TAMANHO_PAGINA_MAXIMO + ".");
+        return PageRequest.of(pagina, tamanho, sort);
+    }
+
+    /** Converte o resultado de uma consulta {@code SELECT id, COUNT(...) ... GROUP BY id} em mapa id → quantidade. */
+    private static Map<Long, Long> contagemPorId(List<Object[]> linhas) {
+        Map<Long, Long> contagem = new HashMap<>();
+        for (Object[] r : linhas) {
+            contagem.put((Long) r[0], ((Number) r[1]).longValue());
+        }
+        return contagem;
+    }
+
+    /**
+     * Converte {@code sort} no formato {@code coluna[,asc|desc]} usando apenas as colunas permitidas do relatório.
+     * O id entra sempre como desempate para a paginação ser estável.
+     */
+    static Sort ordenacao(String sort, Map<String, String> colunas) {
+        Sort porId = Sort.by("id");
+        if (sort == null || sort.isBlank()) return porId;
+        String[] partes = sort.split(",");
+        String coluna = partes[0].trim();
+        String caminho = colunas.get(coluna);
+        if (caminho == null) throw new IllegalArgumentException("Ordenação inválida: " + coluna + ".");
+        Sort.Direction direcao = partes.length > 1 && "desc".equalsIgnoreCase(partes[1].trim())
+                ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return "id".equals(caminho) ? Sort.by(direcao, "id") : Sort.by(direcao, caminho).and(porId);
+    }
+
+    /** Cursor somente-avanço com fetch size para as exportações, já convertido em linhas (ver {@link #emLinhas}). */
+    private <T> Stream<Map<String, Object>> stream(Class<T> tipo, Specification<T> spec, Sort sort,
+                                                   Function<T, Map<String, Object>> linha) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(tipo);
+        Root<T> root = query.from(tipo);
+        query.select(root).where(spec.toPredicate(root, query, cb)).orderBy(QueryUtils.toOrders(sort, root, cb));
+        return emLinhas(entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE_EXPORTACAO)
+                .getResultStream(), linha);
+    }
+
+    /**
+     * Busca {@code size} + 1 linhas em ordem de id (sem OFFSET nem COUNT): a linha extra só indica que há próxima página.
+     */
+    private <T> PaginaCursor porCursor(Class<T> tipo, Specification<T> spec, Integer size,
+                                       Function<T, Long> id, Function<T, Map<String, Object>> linha) {
+        int tamanho = size != null ? size : LIMITE_LINHAS_SINCRONO;
+        if (tamanho < 1 || tamanho > LIMITE_LINHAS_SINCRONO)
+            throw new IllegalArgumentException("Tamanho da página deve estar entre 1 e " + LIMITE_LINHAS_SINCRONO + ".");
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(tipo);
+        Root<T> root = query.from(tipo);
+        query.select(root).where(spec.toPredicate(root, query, cb)).orderBy(cb.asc(root.get("id")));
+        List<T> encontrados = entityManager.createQuery(query).setMaxResults(tamanho + 1).getResultList();
+        boolean haMais = encontrados.size() > tamanho;
+        List<T> pagina = haMais ? encontrados.subList(0, tamanho) : encontrados;
+        Long proximo = haMais ? id.apply(pagina.get(pagina.size() - 1)) : null;
+        return new PaginaCursor(pagina.stream().map(linha).collect(Collectors.toList()), proximo);
+    }
+
+    /**
+     * Converte cada entidade do cursor em linha e limpa o contexto de persistência a cada {@link #FETCH_SIZE_EXPORTACAO}
+     * linhas, para o streaming não acumular objetos em memória. Desanexar só a entidade lida não bastaria: as
+     * associações buscadas junto (aluno, turma, instrumento...) continuariam gerenciadas. As exportações rodam numa
+     * transação só de leitura, então não há alteração pendente a perder.
+     */
+    private <T> Stream<Map<String, Object>> emLinhas(Stream<T> entidades, Function<T, Map<String, Object>> linha) {
+        long[] lidas = {0};
+        return entidades.map(e -> {
+            Map<String, Object> l = linha.apply(e);
+            if (++lidas[0] % FETCH_SIZE_EXPORTACAO == 0) entityManager.clear();
+            return l;
+        });
+    }
+
     private static String nullToEmpty(Object o) {
         return o == null ? "" : o.toString();
     }
+
+    /** Data sem formatar (vira ISO na serialização da {@link LinhaRelatorio}); vazio quando nula, como antes. */
+    private static Object dataOuVazio(LocalDate data) {
+        return data != null ? data : "";
+    }
 }
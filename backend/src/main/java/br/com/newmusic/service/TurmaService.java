@@ -14,6 +14,7 @@ import br.com.newmusic.repository.ProfessorRepository;
 import br.com.newmusic.repository.TurmaRepository;
 import br.com.newmusic.web.dto.TurmaDTO;
 import br.com.newmusic.web.dto.TurmaInput;
+import br.com.newmusic.util.StringUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -40,17 +41,20 @@ public class TurmaService {
     private final PresencaRepository presencaRepository;
     private final PresencaProfessorRepository presencaProfessorRepository;
     private final AuditService auditService;
+    private final DashboardKpiService dashboardKpiService;
+    private final GradeHorariaIndex gradeHorariaIndex;
+    private final MatriculaService matriculaService;
 
     @Transactional(readOnly = true)
     public Page<TurmaDTO> listar(Pageable pageable, String busca, Long professorIdFiltro) {
-        String termo = busca != null ? busca.trim() : "";
+        String padrao = StringUtil.padraoBusca(busca);
         if (professorIdFiltro != null) {
-            return turmaRepository.findByProfessor_IdAndInstrumentoNomeContainingIgnoreCase(professorIdFiltro, termo, pageable).map(this::toDTO);
+            return turmaRepository.findByProfessorIdAndInstrumento(professorIdFiltro, padrao, pageable).map(this::toDTO);
         }
-        if (termo.isEmpty()) {
+        if (padrao == null) {
             return turmaRepository.findAll(pageable).map(this::toDTO);
         }
-        return turmaRepository.findByInstrumentoOuProfessor(termo, pageable).map(this::toDTO);
+        return turmaRepository.findByInstrumentoOuProfessor(padrao, pageable).map(this::toDTO);
     }
 
     @Transactional(readOnly = true)
@@ -90,6 +94,7 @@ public class TurmaService {
                 .professor(professor)
                 .build();
         turma = turmaRepository.save(turma);
+        dashboardKpiService.turmasAlteradas(1);
         Set<String> vistos = new HashSet<>();
         for (TurmaInput.HorarioSlotInput slot : input.getHorarios()) {
             String chave = slot.getDiaSemana() + "|" + slot.getHorarioInicio();
@@ -104,6 +109,7 @@ public class TurmaService {
             turma.getHorarios().add(h);
         }
         turma = turmaRepository.save(turma);
+        gradeHorariaIndex.turmaSalva(turma);
         String desc = instrumento.getNome() + " - " + professor.getNome();
         String conteudo = "Instrumento: " + instrumento.getNome() + ", Professor: " + professor.getNome() + ", Capacidade: " + turma.getCapacidade() + ", Horários: " + input.getHorarios().size();
         auditService.registrar("CRIAR", "turmas", String.valueOf(turma.getId()), "Criou a turma " + desc + " (id " + turma.getId() + ")", conteudo);
@@ -130,6 +136,10 @@ public class TurmaService {
                 throw new IllegalArgumentException("Turma não pode ser inativada pois possui registro(s) de presença.");
             }
         }
+        if (input.getCapacidade() != null && turmaRepository.alterarCapacidade(id, input.getCapacidade()) == 0) {
+            throw new IllegalArgumentException("Capacidade não pode ser menor que o número de alunos matriculados (" + turmaRepository.findVagasOcupadas(id) + ").");
+        }
+        boolean ampliouVagas = turma.getCapacidade() != null && (input.getCapacidade() == null || input.getCapacidade() > turma.getCapacidade());
         turma.setCapacidade(input.getCapacidade());
         if (input.getAtivo() != null) turma.setAtivo(input.getAtivo());
         turma.setInstrumento(instrumento);
@@ -159,6 +169,8 @@ public class TurmaService {
         }
         turma.getHorarios().removeIf(h -> !chavesNovas.contains(h.getDiaSemana() + "|" + h.getHorarioInicio().toString()));
         turma = turmaRepository.save(turma);
+        gradeHorariaIndex.turmaSalva(turma);
+        if (ampliouVagas) matriculaService.promoverListaEspera(id);
         String desc = instrumento.getNome() + " - " + professor.getNome();
         auditService.registrar("ATUALIZAR", "turmas", String.valueOf(id), "Editou a turma " + desc + " (id " + id + ")", "Instrumento: " + instrumento.getNome() + ", Professor: " + professor.getNome() + ", Capacidade: " + input.getCapacidade());
         return toDTO(turma);
@@ -176,6 +188,8 @@ public class TurmaService {
         String desc = (turma.getInstrumento() != null ? turma.getInstrumento().getNome() : "") + (turma.getProfessor() != null ? " - " + turma.getProfessor().getNome() : "");
         Long idTurma = turma.getId();
         turmaRepository.delete(turma);
+        dashboardKpiService.turmasAlteradas(-1);
+        gradeHorariaIndex.turmaExcluida(idTurma);
         auditService.registrar("EXCLUIR", "turmas", String.valueOf(idTurma), "Excluiu a turma " + desc + " (id " + idTurma + ")", "Turma: " + desc);
     }
 
@@ -201,7 +215,7 @@ public class TurmaService {
         }
         Integer primeiroDia = horariosDto.isEmpty() ? null : horariosDto.get(0).getDiaSemana();
         var primeiroHorario = horariosDto.isEmpty() ? null : horariosDto.get(0).getHorarioInicio();
-        long capacidadePreenchida = matriculaRepository.countByTurmaIdAndAtivoTrue(turma.getId());
+        int capacidadePreenchida = turma.getVagasOcupadas() != null ? turma.getVagasOcupadas() : 0;
         int aulasPorSemana = turma.getHorarios() != null ? turma.getHorarios().size() : (turma.getDiaSemana() != null ? 1 : 0);
         List<String> alunos = matriculaRepository.findByTurmaId(turma.getId()).stream()
                 .filter(m -> Boolean.TRUE.equals(m.getAtivo()))
@@ -219,7 +233,7 @@ public class TurmaService {
                 .diaSemana(primeiroDia)
                 .horarioInicio(primeiroHorario)
                 .capacidade(turma.getCapacidade())
-                .capacidadePreenchida((int) capacidadePreenchida)
+                .capacidadePreenchida(capacidadePreenchida)
                 .aulasPorSemana(aulasPorSemana)
                 .alunos(alunos)
                 .instrumentoId(inst.getId())
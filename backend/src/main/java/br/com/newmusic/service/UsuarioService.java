@@ -5,6 +5,7 @@ import br.com.newmusic.domain.Usuario;
 import br.com.newmusic.repository.UsuarioRepository;
 import br.com.newmusic.web.dto.UsuarioDTO;
 import br.com.newmusic.web.dto.UsuarioInput;
+import br.com.newmusic.util.StringUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -27,8 +28,7 @@ public class UsuarioService {
         if (busca == null || busca.isBlank()) {
             return usuarioRepository.findAll(pageable).map(this::toDTO);
         }
-        String b = busca.trim();
-        return usuarioRepository.findByEmailContainingIgnoreCaseOrNomeContainingIgnoreCase(b, b, pageable).map(this::toDTO);
+        return usuarioRepository.buscar(StringUtil.padraoBusca(busca), pageable).map(this::toDTO);
     }
 
     @Transactional(readOnly = true)
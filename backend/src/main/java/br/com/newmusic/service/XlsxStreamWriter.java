@@ -0,0 +1,342 @@
+package br.com.newmusic.service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Escreve uma planilha .xlsx (SpreadsheetML) em streaming: cada linha vai direto para a entrada ZIP da planilha,
+ * com strings inline (sem tabela de strings compartilhadas), então a memória usada não cresce com o número de linhas.
+ * <p>
+ * Células tipadas: números, booleanos, datas/horas (número serial do Excel com formato dd/mm/aaaa) e moeda
+ * ({@code "R$" #,##0.00}) nas colunas cujo nome começa com "valor" — inclusive quando o valor já vem formatado
+ * como texto pt-BR, como o {@code valorCurso} do relatório de matrículas. Acima do limite de linhas do Excel
+ * uma nova planilha é aberta, repetindo o cabeçalho.
+ * <p>
+ * Não é thread-safe; o {@link OutputStream} recebido não é fechado.
+ */
+public final class XlsxStreamWriter implements Closeable {
+
+    /** Limite de linhas por planilha do Excel (cabeçalho incluído). */
+    static final int MAX_LINHAS_POR_PLANILHA = 1_048_576;
+    /** Limite de caracteres por célula do Excel. */
+    private static final int MAX_CARACTERES_CELULA = 32_767;
+    /** Dias entre 30/12/1899 (dia zero do Excel) e 01/01/1970. */
+    private static final long DIAS_ATE_EPOCH = 25_569;
+    private static final double SEGUNDOS_POR_DIA = 86_400d;
+
+    private static final int ESTILO_CABECALHO = 1;
+    private static final int ESTILO_DATA = 2;
+    private static final int ESTILO_DATA_HORA = 3;
+    private static final int ESTILO_MOEDA = 4;
+    private static final int ESTILO_HORA = 5;
+
+    private static final String XML_DECL = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String NS_REL = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String NS_PKG_REL = "http://schemas.openxmlformats.org/package/2006/relationships";
+
+    private static final String STYLES = XML_DECL +
+            "<styleSheet xmlns=\"" + NS_MAIN + "\">" +
+            "<numFmts count=\"3\">" +
+            "<numFmt numFmtId=\"164\" formatCode=\"dd/mm/yyyy hh:mm:ss\"/>" +
+            "<numFmt numFmtId=\"165\" formatCode=\"&quot;R$&quot; #,##0.00\"/>" +
+            "<numFmt numFmtId=\"166\" formatCode=\"hh:mm\"/>" +
+            "</numFmts>" +
+            "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font><font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>" +
+            "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill></fills>" +
+            "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>" +
+            "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>" +
+            "<cellXfs count=\"6\">" +
+            "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>" +
+            "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>" +
+            "<xf numFmtId=\"14\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" +
+            "<xf numFmtId=\"164\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" +
+            "<xf numFmtId=\"165\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" +
+            "<xf numFmtId=\"166\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" +
+            "</cellXfs>" +
+            "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>" +
+            "</styleSheet>";
+
+    private final ZipOutputStream zip;
+    private final Writer writer;
+    private final String nomePlanilha;
+    /** Mesmo formato de moeda pt-BR usado nos relatórios, para reconhecer valores que já chegam como texto. */
+    private final NumberFormat moedaPtBr = NumberFormat.getCurrencyInstance(Locale.forLanguageTag("pt-BR"));
+
+    private List<String> colunas = List.of();
+    private String[] letras = new String[0];
+    private boolean[] moeda = new boolean[0];
+    private int planilhas;
+    private int linhaAtual;
+    private int colunaAtual;
+    private boolean linhaAberta;
+
+    public XlsxStreamWriter(OutputStream out, String nomePlanilha) throws IOException {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 16 * 1024);
+        this.nomePlanilha = nomePlanilha(nomePlanilha);
+        abrirPlanilha();
+    }
+
+    /** Escreve a linha de cabeçalho (em negrito, congelada) e define as colunas de moeda. */
+    public void cabecalho(List<String> colunas) throws IOException {
+        this.colunas = List.copyOf(colunas);
+        this.letras = new String[colunas.size()];
+        this.moeda = new boolean[colunas.size()];
+        for (int i = 0; i < colunas.size(); i++) {
+            letras[i] = letraColuna(i);
+            moeda[i] = colunas.get(i).startsWith("valor");
+        }
+        escreverCabecalho();
+    }
+
+    public void iniciarLinha() throws IOException {
+        if (linhaAtual >= MAX_LINHAS_POR_PLANILHA) {
+            fecharPlanilha();
+            abrirPlanilha();
+            escreverCabecalho();
+        }
+        linhaAtual++;
+        colunaAtual = 0;
+        linhaAberta = true;
+        writer.write("<row r=\"");
+        writer.write(Integer.toString(linhaAtual));
+        writer.write("\">");
+    }
+
+    /** Escreve o valor na próxima coluna da linha; {@code null} e texto vazio deixam a célula em branco. */
+    public void celula(Object valor) throws IOException {
+        int coluna = colunaAtual++;
+        if (valor == null) return;
+        boolean colunaMoeda = coluna < moeda.length && moeda[coluna];
+        if (valor instanceof String s) {
+            if (s.isEmpty()) return;
+            if (colunaMoeda) {
+                ParsePosition pos = new ParsePosition(0);
+                Number n = moedaPtBr.parse(s, pos);
+                if (n != null && pos.getIndex() == s.length()) {
+                    numero(coluna, n.toString(), ESTILO_MOEDA);
+                    return;
+                }
+            }
+            texto(coluna, s);
+        } else if (valor instanceof BigDecimal d) {
+            numero(coluna, d.toPlainString(), colunaMoeda ? ESTILO_MOEDA : 0);
+        } else if (valor instanceof Number n) {
+            numero(coluna, n.toString(), colunaMoeda ? ESTILO_MOEDA : 0);
+        } else if (valor instanceof Boolean b) {
+            abrirCelula(coluna, 0, "b");
+            writer.write(b ? "1" : "0");
+            writer.write("</v></c>");
+        } else if (valor instanceof LocalDate d) {
+            numero(coluna, Long.toString(d.toEpochDay() + DIAS_ATE_EPOCH), ESTILO_DATA);
+        } else if (valor instanceof LocalDateTime dt) {
+            double serial = dt.toLocalDate().toEpochDay() + DIAS_ATE_EPOCH + dt.toLocalTime().toSecondOfDay() / SEGUNDOS_POR_DIA;
+            numero(coluna, Double.toString(serial), ESTILO_DATA_HORA);
+        } else if (valor instanceof LocalTime t) {
+            numero(coluna, Double.toString(t.toSecondOfDay() / SEGUNDOS_POR_DIA), ESTILO_HORA);
+        } else {
+            texto(coluna, valor.toString());
+        }
+    }
+
+    public void terminarLinha() throws IOException {
+        writer.write("</row>\n");
+        linhaAberta = false;
+    }
+
+    /** Envia ao ZIP o que está no buffer de texto (a compressão continua com sua própria janela fixa). */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /** Fecha a planilha, escreve workbook, estilos e relacionamentos e finaliza o ZIP (sem fechar o stream de saída). */
+    @Override
+    public void close() throws IOException {
+        if (linhaAberta) terminarLinha();
+        fecharPlanilha();
+        entrada("[Content_Types].xml", tiposDeConteudo());
+        entrada("_rels/.rels", XML_DECL +
+                "<Relationships xmlns=\"" + NS_PKG_REL + "\">" +
+                "<Relationship Id=\"rId1\" Type=\"" + NS_REL + "/officeDocument\" Target=\"xl/workbook.xml\"/>" +
+                "</Relationships>");
+        entrada("xl/workbook.xml", workbook());
+        entrada("xl/_rels/workbook.xml.rels", relacionamentosWorkbook());
+        entrada("xl/styles.xml", STYLES);
+        writer.flush();
+        zip.finish();
+    }
+
+    private void abrirPlanilha() throws IOException {
+        planilhas++;
+        linhaAtual = 0;
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + planilhas + ".xml"));
+        writer.write(XML_DECL);
+        writer.write("<worksheet xmlns=\"" + NS_MAIN + "\">" +
+                "<sheetViews><sheetView workbookViewId=\"0\">" +
+                "<pane ySplit=\"1\" topLeftCell=\"A2\" activePane=\"bottomLeft\" state=\"frozen\"/>" +
+                "</sheetView></sheetViews><sheetData>\n");
+    }
+
+    private void fecharPlanilha() throws IOException {
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private void escreverCabecalho() throws IOException {
+        iniciarLinha();
+        for (int i = 0; i < colunas.size(); i++) {
+            abrirCelula(i, ESTILO_CABECALHO, "inlineStr");
+            escreverTexto(colunas.get(i));
+        }
+        terminarLinha();
+    }
+
+    private void numero(int coluna, String valor, int estilo) throws IOException {
+        abrirCelula(coluna, estilo, null);
+        writer.write(valor);
+        writer.write("</v></c>");
+    }
+
+    private void texto(int coluna, String valor) throws IOException {
+        abrirCelula(coluna, 0, "inlineStr");
+        escreverTexto(valor);
+    }
+
+    /** Abre {@code <c>} e já deixa aberto {@code <v>} (números/booleanos) ou {@code <is>} (texto inline). */
+    private void abrirCelula(int coluna, int estilo, String tipo) throws IOException {
+        writer.write("<c r=\"");
+        writer.write(coluna < letras.length ? letras[coluna] : letraColuna(coluna));
+        writer.write(Integer.toString(linhaAtual));
+        writer.write('"');
+        if (estilo != 0) {
+            writer.write(" s=\"");
+            writer.write(Integer.toString(estilo));
+            writer.write('"');
+        }
+        if (tipo != null) {
+            writer.write(" t=\"");
+            writer.write(tipo);
+            writer.write('"');
+        }
+        writer.write("inlineStr".equals(tipo) ? ">" : "><v>");
+    }
+
+    private void escreverTexto(String valor) throws IOException {
+        writer.write("<is><t xml:space=\"preserve\">");
+        if (valor.length() > MAX_CARACTERES_CELULA) {
+            // não corta no meio de um par substituto (emoji etc.)
+            int corte = Character.isHighSurrogate(valor.charAt(MAX_CARACTERES_CELULA - 1)) ? MAX_CARACTERES_CELULA - 1 : MAX_CARACTERES_CELULA;
+            valor = valor.substring(0, corte);
+        }
+        escaparXml(valor, writer);
+        writer.write("</t></is></c>");
+    }
+
+    /**
+     * Escapa os caracteres especiais e descarta os que o XML 1.0 não aceita (controles, exceto tab e quebras, e
+     * substitutos sem par): o Excel trata a planilha como corrompida.
+     */
+    static void escaparXml(String s, Writer out) throws IOException {
+        int inicio = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String troca;
+            if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                i++;
+                continue;
+            }
+            switch (c) {
+                case '<' -> troca = "&lt;";
+                case '>' -> troca = "&gt;";
+                case '&' -> troca = "&amp;";
+                case '"' -> troca = "&quot;";
+                default -> troca = (c < 0x20 && c != '\t' && c != '\n' && c != '\r') || c == 0xFFFE || c == 0xFFFF
+                        || Character.isSurrogate(c) ? "" : null;
+            }
+            if (troca != null) {
+                out.write(s, inicio, i - inicio);
+                out.write(troca);
+                inicio = i + 1;
+            }
+        }
+        out.write(s, inicio, s.length() - inicio);
+    }
+
+    /** O Excel limita o nome a 31 caracteres e não aceita : \\ / ? * [ ] (reserva espaço para o sufixo " 2", " 3"...). */
+    private static String nomePlanilha(String nome) {
+        String limpo = nome == null || nome.isBlank() ? "Relatório" : nome.replaceAll("[:\\\\/?*\\[\\]]", "-");
+        return limpo.length() > 27 ? limpo.substring(0, 27) : limpo;
+    }
+
+    /** 0 → A, 25 → Z, 26 → AA. */
+    static String letraColuna(int indice) {
+        StringBuilder sb = new StringBuilder();
+        for (int n = indice + 1; n > 0; n = (n - 1) / 26) {
+            sb.insert(0, (char) ('A' + (n - 1) % 26));
+        }
+        return sb.toString();
+    }
+
+    private void entrada(String nome, String conteudo) throws IOException {
+        zip.putNextEntry(new ZipEntry(nome));
+        writer.write(conteudo);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private String tiposDeConteudo() {
+        StringBuilder sb = new StringBuilder(XML_DECL)
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>")
+                .append("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+        for (int i = 1; i <= planilhas; i++) {
+            sb.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        return sb.append("</Types>").toString();
+    }
+
+    private String workbook() throws IOException {
+        StringBuilder sb = new StringBuilder(XML_DECL)
+                .append("<workbook xmlns=\"").append(NS_MAIN).append("\" xmlns:r=\"").append(NS_REL).append("\"><sheets>");
+        for (int i = 1; i <= planilhas; i++) {
+            String nome = i == 1 ? nomePlanilha : nomePlanilha + " " + i;
+            StringWriter escapado = new StringWriter();
+            escaparXml(nome, escapado);
+            sb.append("<sheet name=\"").append(escapado).append("\" sheetId=\"").append(i)
+                    .append("\" r:id=\"rId").append(i).append("\"/>");
+        }
+        return sb.append("</sheets></workbook>").toString();
+    }
+
+    private String relacionamentosWorkbook() {
+        StringBuilder sb = new StringBuilder(XML_DECL).append("<Relationships xmlns=\"").append(NS_PKG_REL).append("\">");
+        for (int i = 1; i <= planilhas; i++) {
+            sb.append("<Relationship Id=\"rId").append(i).append("\" Type=\"").append(NS_REL)
+                    .append("/worksheet\" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+        }
+        sb.append("<Relationship Id=\"rId").append(planilhas + 1).append("\" Type=\"").append(NS_REL)
+                .append("/styles\" Target=\"styles.xml\"/>");
+        return sb.append("</Relationships>").toString();
+    }
+}
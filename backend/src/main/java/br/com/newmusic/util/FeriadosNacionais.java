@@ -9,12 +9,8 @@ public final class FeriadosNacionais {
 
     private FeriadosNacionais() {}
 
-    public static boolean isFeriadoNacional(LocalDate data) {
-        Set<LocalDate> feriados = feriadosDoAno(data.getYear());
-        return feriados.contains(data);
-    }
-
-    private static Set<LocalDate> feriadosDoAno(int ano) {
+    /** Feriados nacionais do ano (fixos e os móveis derivados da Páscoa). Consultas por dia: {@code CalendarioUteis}. */
+    public static Set<LocalDate> feriadosDoAno(int ano) {
         Set<LocalDate> set = new HashSet<>();
         set.add(LocalDate.of(ano, Month.JANUARY, 1));
         set.add(LocalDate.of(ano, Month.APRIL, 21));
@@ -1,9 +1,16 @@
 package br.com.newmusic.util;
 
+import java.text.Normalizer;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
 public final class StringUtil {
 
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    /** Termo com jeito de CPF: só dígitos e pontuação de CPF, com pelo menos um dígito. */
+    private static final Pattern TERMO_CPF = Pattern.compile("[\\d.\\-/\\s]*\\d[\\d.\\-/\\s]*");
+
     private StringUtil() {}
 
     public static String nvl(Object o) {
@@ -16,4 +23,37 @@ public final class StringUtil {
             sb.append(campo).append(": ").append(nvl(antigo)).append(" -> ").append(nvl(novo));
         }
     }
+
+    /** Minúsculas e sem acentos, como {@code f_normalizar} no banco ("João" → "joao"). */
+    public static String normalizar(String texto) {
+        if (texto == null) return "";
+        return MARCAS.matcher(Normalizer.normalize(texto.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    /**
+     * Padrão LIKE "contém" para colunas normalizadas com {@code f_normalizar} (índices trigram); nulo se a busca
+     * está vazia.
+     */
+    public static String padraoBusca(String busca) {
+        if (busca == null || busca.isBlank()) return null;
+        return contem(normalizar(busca.trim()));
+    }
+
+    /**
+     * Padrão LIKE para {@code f_busca_pessoa(nome, cpf)}: termo com jeito de CPF vira só dígitos ("123.456" →
+     * "%123456%"); os demais são normalizados como nome. Nulo se a busca está vazia.
+     */
+    public static String padraoBuscaPessoa(String busca) {
+        if (busca == null || busca.isBlank()) return null;
+        String termo = busca.trim();
+        if (TERMO_CPF.matcher(termo).matches()) {
+            return contem(CpfValidator.normalize(termo));
+        }
+        return contem(normalizar(termo));
+    }
+
+    /** Escapa os curingas do LIKE (o PostgreSQL usa {@code \} como escape padrão). */
+    private static String contem(String termo) {
+        return "%" + termo.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
 }
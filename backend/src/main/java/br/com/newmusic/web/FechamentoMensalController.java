@@ -0,0 +1,45 @@
+package br.com.newmusic.web;
+
+import br.com.newmusic.security.UsuarioPrincipal;
+import br.com.newmusic.service.FechamentoMensalService;
+import br.com.newmusic.web.dto.FechamentoMensalDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(name = "Fechamento mensal", description = "Totais financeiros congelados por mês e resumo mensal")
+@RestController
+@RequestMapping("/api/fechamentos")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMINISTRADOR')")
+public class FechamentoMensalController {
+
+    private final FechamentoMensalService fechamentoMensalService;
+
+    @Operation(summary = "Resumo mensal do ano (meses fechados vêm do fechamento)")
+    @GetMapping
+    public ResponseEntity<List<FechamentoMensalDTO>> resumo(@RequestParam int ano) {
+        return ResponseEntity.ok(fechamentoMensalService.resumo(ano));
+    }
+
+    @Operation(summary = "Fechar mês (congela totais e bloqueia alterações nas parcelas da competência)")
+    @PostMapping("/{ano}/{mes}")
+    public ResponseEntity<FechamentoMensalDTO> fechar(@PathVariable int ano, @PathVariable int mes,
+                                                      @AuthenticationPrincipal UsuarioPrincipal principal) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(fechamentoMensalService.fechar(ano, mes, principal.getEmail()));
+    }
+
+    @Operation(summary = "Reabrir mês fechado")
+    @DeleteMapping("/{ano}/{mes}")
+    public ResponseEntity<Void> reabrir(@PathVariable int ano, @PathVariable int mes) {
+        fechamentoMensalService.reabrir(ano, mes);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.newmusic.web;
+
+import br.com.newmusic.service.ImportacaoService;
+import br.com.newmusic.web.dto.ImportacaoResultadoDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Tag(name = "Importação", description = "Carga em massa de alunos, professores e matrículas por planilha")
+@RestController
+@RequestMapping("/api/importacoes")
+@RequiredArgsConstructor
+public class ImportacaoController {
+
+    private final ImportacaoService importacaoService;
+
+    @Operation(summary = "Importar planilha (.csv ou .xlsx) de alunos, professores ou matriculas; devolve as linhas recusadas")
+    @PostMapping(value = "/{tipo}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<ImportacaoResultadoDTO> importar(@PathVariable String tipo, @RequestParam("arquivo") MultipartFile arquivo) throws IOException {
+        if (arquivo.isEmpty()) {
+            throw new IllegalArgumentException("Arquivo vazio");
+        }
+        ImportacaoService.Tipo tipoImportacao = ImportacaoService.Tipo.of(tipo);
+        try (InputStream conteudo = arquivo.getInputStream()) {
+            return ResponseEntity.ok(importacaoService.importar(tipoImportacao, arquivo.getOriginalFilename(), conteudo));
+        }
+    }
+}
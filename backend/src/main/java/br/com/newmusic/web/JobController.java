@@ -0,0 +1,43 @@
+package br.com.newmusic.web;
+
+import br.com.newmusic.config.MensalidadeStatusJob;
+import br.com.newmusic.service.JobExecucaoService;
+import br.com.newmusic.web.dto.JobExecucaoDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(name = "Jobs agendados", description = "Histórico de execuções e reexecução manual")
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMINISTRADOR')")
+public class JobController {
+
+    private final JobExecucaoService jobExecucaoService;
+    private final MensalidadeStatusJob mensalidadeStatusJob;
+
+    @Operation(summary = "Execuções recentes (mais novas primeiro), opcionalmente de um job")
+    @GetMapping("/execucoes")
+    public ResponseEntity<List<JobExecucaoDTO>> listar(@RequestParam(required = false) String job,
+                                                       @RequestParam(defaultValue = "50") int limite) {
+        return ResponseEntity.ok(jobExecucaoService.listar(job, limite));
+    }
+
+    @Operation(summary = "Reexecutar o job agora (409 se outra instância estiver rodando)")
+    @PostMapping("/{job}/executar")
+    public ResponseEntity<JobExecucaoDTO> executar(@PathVariable String job) {
+        if (!MensalidadeStatusJob.JOB.equals(job)) {
+            throw new IllegalArgumentException("Job sem execução manual: " + job);
+        }
+        return mensalidadeStatusJob.executarManualmente()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.newmusic.web;
+
+import br.com.newmusic.service.ListaEsperaService;
+import br.com.newmusic.web.dto.ListaEsperaDTO;
+import br.com.newmusic.web.dto.MatriculaInput;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(name = "Lista de espera", description = "Alunos aguardando vaga em turmas lotadas")
+@RestController
+@RequestMapping("/api/lista-espera")
+@RequiredArgsConstructor
+public class ListaEsperaController {
+
+    private final ListaEsperaService listaEsperaService;
+
+    @Operation(summary = "Listar a fila da turma, em ordem de chegada")
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'PROFESSOR', 'FUNCIONARIO')")
+    public ResponseEntity<List<ListaEsperaDTO>> listar(@RequestParam Long turmaId) {
+        return ResponseEntity.ok(listaEsperaService.listarPorTurma(turmaId));
+    }
+
+    @Operation(summary = "Incluir aluno na lista de espera (matriculado automaticamente quando houver vaga)")
+    @PostMapping
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<ListaEsperaDTO> inscrever(@Valid @RequestBody MatriculaInput input) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(listaEsperaService.inscrever(input));
+    }
+
+    @Operation(summary = "Retirar aluno da lista de espera")
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Void> cancelar(@PathVariable Long id) {
+        listaEsperaService.cancelar(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,10 +2,13 @@ package br.com.newmusic.web;
 
 import br.com.newmusic.security.UsuarioPrincipal;
 import br.com.newmusic.service.MensalidadeService;
+import br.com.newmusic.service.PrevisaoRecebimentosService;
 import br.com.newmusic.web.dto.AlunoMensalidadeResumoDTO;
 import br.com.newmusic.web.dto.BaixaPagamentoInput;
+import br.com.newmusic.web.dto.GeracaoParcelasLoteInput;
 import br.com.newmusic.web.dto.MensalidadeDTO;
 import br.com.newmusic.web.dto.MensalidadeInput;
+import br.com.newmusic.web.dto.PrevisaoRecebimentosDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -28,6 +31,7 @@ import java.util.List;
 public class MensalidadeController {
 
     private final MensalidadeService mensalidadeService;
+    private final PrevisaoRecebimentosService previsaoRecebimentosService;
 
     @Operation(summary = "Listar mensalidades")
     @GetMapping
@@ -62,6 +66,13 @@ public class MensalidadeController {
         return ResponseEntity.ok(mensalidadeService.contagemAlunosComPagamentoAtrasado());
     }
 
+    @Operation(summary = "Previsão de recebimentos dos próximos 12 meses (em aberto, contratos sem parcela e inadimplência histórica)")
+    @GetMapping("/previsao")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<PrevisaoRecebimentosDTO> previsao() {
+        return ResponseEntity.ok(previsaoRecebimentosService.previsao());
+    }
+
     @Operation(summary = "Listar mensalidades por mês/ano")
     @GetMapping("/por-mes")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
@@ -132,6 +143,13 @@ public class MensalidadeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(mensalidadeService.criar(input));
     }
 
+    @Operation(summary = "Gerar parcelas de várias matrículas (rematrícula em lote); retorna quantas foram criadas")
+    @PostMapping("/gerar-lote")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Integer> gerarLote(@Valid @RequestBody GeracaoParcelasLoteInput input) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(mensalidadeService.criarMensalidadesParaMatriculas(input.getMatriculaIds()));
+    }
+
     @Operation(summary = "Dar baixa no pagamento da parcela")
     @PatchMapping("/{id}/baixa")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
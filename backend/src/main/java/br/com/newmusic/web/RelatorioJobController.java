@@ -0,0 +1,60 @@
+package br.com.newmusic.web;
+
+import br.com.newmusic.security.UsuarioPrincipal;
+import br.com.newmusic.service.RelatorioJobService;
+import br.com.newmusic.web.dto.RelatorioJobDTO;
+import br.com.newmusic.web.dto.RelatorioJobInput;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(name = "Relatórios (assíncronos)", description = "Geração de relatórios completos em segundo plano, com acompanhamento e download")
+@RestController
+@RequestMapping("/api/relatorios/jobs")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ROLE_ADMINISTRADOR') or hasAuthority('ROLE_FUNCIONARIO')")
+public class RelatorioJobController {
+
+    private final RelatorioJobService relatorioJobService;
+
+    @Operation(summary = "Enfileirar geração de relatório (csv/ndjson)")
+    @PostMapping
+    public ResponseEntity<RelatorioJobDTO> enfileirar(@Valid @RequestBody RelatorioJobInput input,
+                                                      @AuthenticationPrincipal UsuarioPrincipal principal) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(relatorioJobService.enfileirar(input, principal.getId()));
+    }
+
+    @Operation(summary = "Listar relatórios do usuário")
+    @GetMapping
+    public ResponseEntity<List<RelatorioJobDTO>> listar(@AuthenticationPrincipal UsuarioPrincipal principal) {
+        return ResponseEntity.ok(relatorioJobService.listar(principal.getId()));
+    }
+
+    @Operation(summary = "Status e progresso do relatório")
+    @GetMapping("/{id}")
+    public ResponseEntity<RelatorioJobDTO> consultar(@PathVariable String id, @AuthenticationPrincipal UsuarioPrincipal principal) {
+        return ResponseEntity.ok(relatorioJobService.consultar(id, principal.getId()));
+    }
+
+    @Operation(summary = "Baixar relatório concluído")
+    @GetMapping("/{id}/arquivo")
+    public ResponseEntity<Resource> baixar(@PathVariable String id, @AuthenticationPrincipal UsuarioPrincipal principal) {
+        RelatorioJobService.ArquivoRelatorio arquivo = relatorioJobService.arquivo(id, principal.getId());
+        return ResponseEntity.ok()
+                .contentType(arquivo.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(arquivo.nome()).build().toString())
+                .body(new FileSystemResource(arquivo.caminho()));
+    }
+}
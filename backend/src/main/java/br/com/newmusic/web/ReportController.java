@@ -1,18 +1,40 @@
 package br.com.newmusic.web;
 
+import br.com.newmusic.domain.Aluno;
+import br.com.newmusic.domain.FechamentoMensal;
+import br.com.newmusic.domain.Grupo;
+import br.com.newmusic.domain.Instrumento;
+import br.com.newmusic.domain.Matricula;
+import br.com.newmusic.domain.Mensalidade;
+import br.com.newmusic.domain.Presenca;
+import br.com.newmusic.domain.PresencaProfessor;
+import br.com.newmusic.domain.Professor;
+import br.com.newmusic.domain.Turma;
+import br.com.newmusic.domain.TurmaHorario;
+import br.com.newmusic.domain.Usuario;
+import br.com.newmusic.service.ReportCache;
+import br.com.newmusic.service.ReportExportService;
 import br.com.newmusic.service.ReportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Tag(name = "Relatórios", description = "Relatórios cadastrais, financeiros e de presença")
 @RestController
@@ -21,44 +43,82 @@ import java.util.Map;
 @PreAuthorize("hasAuthority('ROLE_ADMINISTRADOR') or hasAuthority('ROLE_FUNCIONARIO')")
 public class ReportController {
 
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    /** Sinaliza que há mais linhas além da página devolvida (próxima página via X-Next-Cursor ou /api/relatorios/jobs). */
+    static final String TRUNCADO_HEADER = "X-Truncado";
+    /** Último id da página de auditoria/erros; enviar como {@code cursor} para buscar a próxima. */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /** Entidades lidas por cada relatório em cache: escrita em qualquer uma delas invalida o resultado. */
+    private static final Set<Class<?>> DEP_GRUPOS = Set.of(Grupo.class, Instrumento.class);
+    private static final Set<Class<?>> DEP_INSTRUMENTOS = Set.of(Instrumento.class, Grupo.class, Turma.class);
+    private static final Set<Class<?>> DEP_INSTRUMENTOS_TURMAS = Set.of(Turma.class, Instrumento.class);
+    private static final Set<Class<?>> DEP_ALUNOS = Set.of(Aluno.class, Matricula.class, Turma.class);
+    private static final Set<Class<?>> DEP_PROFESSORES = Set.of(Professor.class, Turma.class);
+    private static final Set<Class<?>> DEP_USUARIOS = Set.of(Usuario.class);
+    private static final Set<Class<?>> DEP_TURMAS = Set.of(Turma.class, TurmaHorario.class, Instrumento.class, Professor.class, Matricula.class);
+    private static final Set<Class<?>> DEP_MATRICULAS = Set.of(Matricula.class, Aluno.class, Turma.class, Instrumento.class);
+    private static final Set<Class<?>> DEP_FINANCEIRO = Set.of(Mensalidade.class, Aluno.class);
+    /** Relatórios que leem o fechamento congelado dos meses fechados: fechar ou reabrir também invalida. */
+    private static final Set<Class<?>> DEP_FINANCEIRO_FECHAMENTO = Set.of(Mensalidade.class, Aluno.class, FechamentoMensal.class);
+    private static final Set<Class<?>> DEP_PRESENCA_ALUNOS = Set.of(Presenca.class, Matricula.class, Aluno.class, Turma.class);
+    private static final Set<Class<?>> DEP_FREQUENCIA = Set.of(Presenca.class, Matricula.class, Aluno.class, Turma.class, Instrumento.class, Professor.class);
+    private static final Set<Class<?>> DEP_PRESENCA_PROFESSORES = Set.of(PresencaProfessor.class, Professor.class, Turma.class);
+
     private final ReportService reportService;
+    private final ReportExportService reportExportService;
+    private final ReportCache reportCache;
 
     @Operation(summary = "Relatório de grupos")
     @GetMapping("/cadastrais/grupos")
     public ResponseEntity<List<Map<String, Object>>> grupos() {
-        return ResponseEntity.ok(reportService.relatorioGrupos());
+        return ResponseEntity.ok(lista("grupos", DEP_GRUPOS, reportService::relatorioGrupos));
     }
 
     @Operation(summary = "Relatório de instrumentos")
     @GetMapping("/cadastrais/instrumentos")
     public ResponseEntity<List<Map<String, Object>>> instrumentos(@RequestParam(required = false) Long grupoId) {
-        return ResponseEntity.ok(reportService.relatorioInstrumentos(grupoId));
+        return ResponseEntity.ok(lista("instrumentos", DEP_INSTRUMENTOS, () -> reportService.relatorioInstrumentos(grupoId), grupoId));
     }
 
     @Operation(summary = "Instrumentos usados em turmas (para filtros)")
     @GetMapping("/cadastrais/instrumentos-turmas")
     public ResponseEntity<List<Map<String, Object>>> instrumentosTurmas() {
-        return ResponseEntity.ok(reportService.instrumentosDasTurmas());
+        return ResponseEntity.ok(lista("instrumentos-turmas", DEP_INSTRUMENTOS_TURMAS, reportService::instrumentosDasTurmas));
     }
 
     @Operation(summary = "Relatório de alunos")
     @GetMapping("/cadastrais/alunos")
     public ResponseEntity<List<Map<String, Object>>> alunos(
             @RequestParam(required = false) Boolean ativo,
-            @RequestParam(required = false) Long instrumentoId) {
-        return ResponseEntity.ok(reportService.relatorioAlunos(ativo, instrumentoId));
+            @RequestParam(required = false) Long instrumentoId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        return pagina(reportCache.obter("alunos", DEP_ALUNOS,
+                () -> reportService.relatorioAlunos(ativo, instrumentoId, page, size, sort), ativo, instrumentoId, page, size, sort));
     }
 
     @Operation(summary = "Relatório de professores")
     @GetMapping("/cadastrais/professores")
-    public ResponseEntity<List<Map<String, Object>>> professores(@RequestParam(required = false) Boolean ativo) {
-        return ResponseEntity.ok(reportService.relatorioProfessores(ativo));
+    public ResponseEntity<List<Map<String, Object>>> professores(
+            @RequestParam(required = false) Boolean ativo,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        return pagina(reportCache.obter("professores", DEP_PROFESSORES,
+                () -> reportService.relatorioProfessores(ativo, page, size, sort), ativo, page, size, sort));
     }
 
     @Operation(summary = "Relatório de usuários")
     @GetMapping("/cadastrais/usuarios")
-    public ResponseEntity<List<Map<String, Object>>> usuarios(@RequestParam(required = false) String perfil) {
-        return ResponseEntity.ok(reportService.relatorioUsuarios(perfil));
+    public ResponseEntity<List<Map<String, Object>>> usuarios(
+            @RequestParam(required = false) String perfil,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        return pagina(reportCache.obter("usuarios", DEP_USUARIOS,
+                () -> reportService.relatorioUsuarios(perfil, page, size, sort), perfil, page, size, sort));
     }
 
     @Operation(summary = "Relatório de turmas")
@@ -67,7 +127,8 @@ public class ReportController {
             @RequestParam(required = false) Boolean ativo,
             @RequestParam(required = false) Long instrumentoId,
             @RequestParam(required = false) Long professorId) {
-        return ResponseEntity.ok(reportService.relatorioTurmas(ativo, instrumentoId, professorId));
+        return ResponseEntity.ok(lista("turmas", DEP_TURMAS,
+                () -> reportService.relatorioTurmas(ativo, instrumentoId, professorId), ativo, instrumentoId, professorId));
     }
 
     @Operation(summary = "Relatório de matrículas")
@@ -76,8 +137,13 @@ public class ReportController {
             @RequestParam(required = false) Boolean ativo,
             @RequestParam(required = false) Long alunoId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
-        return ResponseEntity.ok(reportService.relatorioMatriculas(ativo, alunoId, dataInicio, dataFim));
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        return pagina(reportCache.obter("matriculas", DEP_MATRICULAS,
+                () -> reportService.relatorioMatriculas(ativo, alunoId, dataInicio, dataFim, page, size, sort),
+                ativo, alunoId, dataInicio, dataFim, page, size, sort));
     }
 
     @Operation(summary = "Relatório de mensalidades")
@@ -86,8 +152,13 @@ public class ReportController {
             @RequestParam(required = false) Integer ano,
             @RequestParam(required = false) Integer mes,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) Long alunoId) {
-        return ResponseEntity.ok(reportService.relatorioMensalidades(ano, mes, status, alunoId));
+            @RequestParam(required = false) Long alunoId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        return pagina(reportCache.obter("mensalidades", DEP_FINANCEIRO,
+                () -> reportService.relatorioMensalidades(ano, mes, status, alunoId, page, size, sort),
+                ano, mes, status, alunoId, page, size, sort));
     }
 
     @Operation(summary = "Relatório de inadimplência")
@@ -95,16 +166,48 @@ public class ReportController {
     public ResponseEntity<List<Map<String, Object>>> inadimplencia(
             @RequestParam(required = false) Integer ano,
             @RequestParam(required = false) Integer mes) {
-        return ResponseEntity.ok(reportService.relatorioInadimplencia(ano, mes));
+        return ResponseEntity.ok(lista("inadimplencia", DEP_FINANCEIRO_FECHAMENTO, () -> reportService.relatorioInadimplencia(ano, mes), ano, mes));
+    }
+
+    /** A data de hoje entra na chave: as faixas de atraso mudam com a virada do dia. */
+    @Operation(summary = "Inadimplência por faixa de atraso (0–30, 31–60, 61–90, 90+ dias), maiores devedores primeiro")
+    @GetMapping("/inadimplencia/faixas")
+    public ResponseEntity<List<Map<String, Object>>> inadimplenciaFaixas(
+            @RequestParam(required = false) Integer ano,
+            @RequestParam(required = false) Integer mes,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        return pagina(reportCache.obter("inadimplencia-faixas", DEP_FINANCEIRO_FECHAMENTO,
+                () -> reportService.relatorioInadimplenciaFaixas(ano, mes, page, size, sort),
+                LocalDate.now(), ano, mes, page, size, sort));
     }
 
     @Operation(summary = "Relatório de receita")
     @GetMapping("/receita")
     public ResponseEntity<List<Map<String, Object>>> receita(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) String formaPagamento,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        return pagina(reportCache.obter("receita", DEP_FINANCEIRO,
+                () -> reportService.relatorioReceita(dataInicio, dataFim, formaPagamento, page, size, sort),
+                dataInicio, dataFim, formaPagamento, page, size, sort));
+    }
+
+    /** Série temporal da receita (tabela receita_diaria, mantida na baixa de mensalidades). */
+    @Operation(summary = "Série de receita por dia, semana ou mês")
+    @GetMapping("/receita/serie")
+    public ResponseEntity<List<Map<String, Object>>> receitaSerie(
+            @RequestParam(required = false) String granularidade,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
             @RequestParam(required = false) String formaPagamento) {
-        return ResponseEntity.ok(reportService.relatorioReceita(dataInicio, dataFim, formaPagamento));
+        return ResponseEntity.ok(lista("receita-serie", DEP_FINANCEIRO_FECHAMENTO,
+                () -> reportService.relatorioReceitaSerie(granularidade, dataInicio, dataFim, formaPagamento),
+                granularidade, dataInicio, dataFim, formaPagamento));
     }
 
     @Operation(summary = "Relatório de presença de alunos")
@@ -113,7 +216,21 @@ public class ReportController {
             @RequestParam(required = false) Long alunoId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
-        return ResponseEntity.ok(reportService.relatorioPresencaAlunos(alunoId, dataInicio, dataFim));
+        return ResponseEntity.ok(lista("presenca-alunos", DEP_PRESENCA_ALUNOS,
+                () -> reportService.relatorioPresencaAlunos(alunoId, dataInicio, dataFim), alunoId, dataInicio, dataFim));
+    }
+
+    @Operation(summary = "Frequência (presenças, faltas e percentual) por aluno ou por turma")
+    @GetMapping("/frequencia")
+    public ResponseEntity<List<Map<String, Object>>> frequencia(
+            @RequestParam(required = false) String agrupamento,
+            @RequestParam(required = false) Long alunoId,
+            @RequestParam(required = false) Long turmaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        return ResponseEntity.ok(lista("frequencia", DEP_FREQUENCIA,
+                () -> reportService.relatorioFrequencia(agrupamento, alunoId, turmaId, dataInicio, dataFim),
+                agrupamento, alunoId, turmaId, dataInicio, dataFim));
     }
 
     @Operation(summary = "Relatório de presença de professores")
@@ -122,26 +239,31 @@ public class ReportController {
             @RequestParam(required = false) Long professorId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
-        return ResponseEntity.ok(reportService.relatorioPresencaProfessores(professorId, dataInicio, dataFim));
+        return ResponseEntity.ok(lista("presenca-professores", DEP_PRESENCA_PROFESSORES,
+                () -> reportService.relatorioPresencaProfessores(professorId, dataInicio, dataFim), professorId, dataInicio, dataFim));
     }
 
-    @Operation(summary = "Relatório de auditoria")
+    @Operation(summary = "Relatório de auditoria (paginado por cursor: use o X-Next-Cursor como cursor da próxima página)")
     @GetMapping("/auditoria")
     public ResponseEntity<List<Map<String, Object>>> auditoria(
             @RequestParam(required = false) Long usuarioId,
             @RequestParam(required = false) String tabela,
             @RequestParam(required = false) String acao,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataInicio,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataFim) {
-        return ResponseEntity.ok(reportService.relatorioAuditoria(usuarioId, tabela, acao, dataInicio, dataFim));
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataFim,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size) {
+        return porCursor(reportService.relatorioAuditoria(usuarioId, tabela, acao, dataInicio, dataFim, cursor, size));
     }
 
-    @Operation(summary = "Relatório de erros")
+    @Operation(summary = "Relatório de erros (paginado por cursor: use o X-Next-Cursor como cursor da próxima página)")
     @GetMapping("/erros")
     public ResponseEntity<List<Map<String, Object>>> erros(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataInicio,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataFim) {
-        return ResponseEntity.ok(reportService.relatorioErros(dataInicio, dataFim));
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataFim,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size) {
+        return porCursor(reportService.relatorioErros(dataInicio, dataFim, cursor, size));
     }
 
     @Operation(summary = "Dados consolidados para dashboard")
@@ -155,4 +277,214 @@ public class ReportController {
     public ResponseEntity<List<Map<String, Object>>> aulasHojeDashboard() {
         return ResponseEntity.ok(reportService.relatorioAulasHojeDetalhado());
     }
+
+    @Operation(summary = "Estatísticas do cache de relatórios")
+    @GetMapping("/cache/estatisticas")
+    @PreAuthorize("hasAuthority('ROLE_ADMINISTRADOR')")
+    public ResponseEntity<ReportCache.Estatisticas> estatisticasCache() {
+        return ResponseEntity.ok(reportCache.estatisticas());
+    }
+
+    // Exportação em streaming: mesmas rotas acima com ?format=csv|ndjson|xlsx
+
+    @Operation(summary = "Exportar relatório de grupos (csv/ndjson/xlsx)")
+    @GetMapping(value = "/cadastrais/grupos", params = "format")
+    public ResponseEntity<StreamingResponseBody> gruposExport(@RequestParam String format) {
+        return exportar(format, "grupos", () -> reportService.relatorioGrupos().stream());
+    }
+
+    @Operation(summary = "Exportar relatório de instrumentos (csv/ndjson/xlsx)")
+    @GetMapping(value = "/cadastrais/instrumentos", params = "format")
+    public ResponseEntity<StreamingResponseBody> instrumentosExport(
+            @RequestParam String format,
+            @RequestParam(required = false) Long grupoId) {
+        return exportar(format, "instrumentos", () -> reportService.relatorioInstrumentos(grupoId).stream());
+    }
+
+    @Operation(summary = "Exportar relatório de alunos (csv/ndjson/xlsx)")
+    @GetMapping(value = "/cadastrais/alunos", params = "format")
+    public ResponseEntity<StreamingResponseBody> alunosExport(
+            @RequestParam String format,
+            @RequestParam(required = false) Boolean ativo,
+            @RequestParam(required = false) Long instrumentoId) {
+        return exportar(format, "alunos", () -> reportService.relatorioAlunosStream(ativo, instrumentoId));
+    }
+
+    @Operation(summary = "Exportar relatório de professores (csv/ndjson/xlsx)")
+    @GetMapping(value = "/cadastrais/professores", params = "format")
+    public ResponseEntity<StreamingResponseBody> professoresExport(
+            @RequestParam String format,
+            @RequestParam(required = false) Boolean ativo) {
+        return exportar(format, "professores", () -> reportService.relatorioProfessores(ativo).stream());
+    }
+
+    @Operation(summary = "Exportar relatório de usuários (csv/ndjson/xlsx)")
+    @GetMapping(value = "/cadastrais/usuarios", params = "format")
+    public ResponseEntity<StreamingResponseBody> usuariosExport(
+            @RequestParam String format,
+            @RequestParam(required = false) String perfil) {
+        return exportar(format, "usuarios", () -> reportService.relatorioUsuarios(perfil).stream());
+    }
+
+    @Operation(summary = "Exportar relatório de turmas (csv/ndjson/xlsx)")
+    @GetMapping(value = "/cadastrais/turmas", params = "format")
+    public ResponseEntity<StreamingResponseBody> turmasExport(
+            @RequestParam String format,
+            @RequestParam(required = false) Boolean ativo,
+            @RequestParam(required = false) Long instrumentoId,
+            @RequestParam(required = false) Long professorId) {
+        return exportar(format, "turmas", () -> reportService.relatorioTurmas(ativo, instrumentoId, professorId).stream());
+    }
+
+    @Operation(summary = "Exportar relatório de matrículas (csv/ndjson/xlsx)")
+    @GetMapping(value = "/matriculas", params = "format")
+    public ResponseEntity<StreamingResponseBody> matriculasExport(
+            @RequestParam String format,
+            @RequestParam(required = false) Boolean ativo,
+            @RequestParam(required = false) Long alunoId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        return exportar(format, "matriculas", () -> reportService.relatorioMatriculasStream(ativo, alunoId, dataInicio, dataFim));
+    }
+
+    @Operation(summary = "Exportar relatório de mensalidades (csv/ndjson/xlsx)")
+    @GetMapping(value = "/mensalidades", params = "format")
+    public ResponseEntity<StreamingResponseBody> mensalidadesExport(
+            @RequestParam String format,
+            @RequestParam(required = false) Integer ano,
+            @RequestParam(required = false) Integer mes,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long alunoId) {
+        return exportar(format, "mensalidades", () -> reportService.relatorioMensalidadesStream(ano, mes, status, alunoId));
+    }
+
+    @Operation(summary = "Exportar relatório de inadimplência (csv/ndjson/xlsx)")
+    @GetMapping(value = "/inadimplencia", params = "format")
+    public ResponseEntity<StreamingResponseBody> inadimplenciaExport(
+            @RequestParam String format,
+            @RequestParam(required = false) Integer ano,
+            @RequestParam(required = false) Integer mes) {
+        return exportar(format, "inadimplencia", () -> reportService.relatorioInadimplencia(ano, mes).stream());
+    }
+
+    @Operation(summary = "Exportar inadimplência por faixa de atraso (csv/ndjson/xlsx)")
+    @GetMapping(value = "/inadimplencia/faixas", params = "format")
+    public ResponseEntity<StreamingResponseBody> inadimplenciaFaixasExport(
+            @RequestParam String format,
+            @RequestParam(required = false) Integer ano,
+            @RequestParam(required = false) Integer mes) {
+        return exportar(format, "inadimplencia-faixas", () -> reportService.relatorioInadimplenciaFaixasStream(ano, mes));
+    }
+
+    @Operation(summary = "Exportar relatório de receita (csv/ndjson/xlsx)")
+    @GetMapping(value = "/receita", params = "format")
+    public ResponseEntity<StreamingResponseBody> receitaExport(
+            @RequestParam String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) String formaPagamento) {
+        return exportar(format, "receita", () -> reportService.relatorioReceitaStream(dataInicio, dataFim, formaPagamento));
+    }
+
+    @Operation(summary = "Exportar série de receita (csv/ndjson/xlsx)")
+    @GetMapping(value = "/receita/serie", params = "format")
+    public ResponseEntity<StreamingResponseBody> receitaSerieExport(
+            @RequestParam String format,
+            @RequestParam(required = false) String granularidade,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) String formaPagamento) {
+        return exportar(format, "receita-serie", () -> reportService.relatorioReceitaSerie(granularidade, dataInicio, dataFim, formaPagamento).stream());
+    }
+
+    @Operation(summary = "Exportar relatório de presença de alunos (csv/ndjson/xlsx)")
+    @GetMapping(value = "/presenca-alunos", params = "format")
+    public ResponseEntity<StreamingResponseBody> presencaAlunosExport(
+            @RequestParam String format,
+            @RequestParam(required = false) Long alunoId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        return exportar(format, "presenca-alunos", () -> reportService.relatorioPresencaAlunosStream(alunoId, dataInicio, dataFim));
+    }
+
+    @Operation(summary = "Exportar frequência por aluno ou por turma (csv/ndjson/xlsx)")
+    @GetMapping(value = "/frequencia", params = "format")
+    public ResponseEntity<StreamingResponseBody> frequenciaExport(
+            @RequestParam String format,
+            @RequestParam(required = false) String agrupamento,
+            @RequestParam(required = false) Long alunoId,
+            @RequestParam(required = false) Long turmaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        return exportar(format, "frequencia", () -> reportService.relatorioFrequencia(agrupamento, alunoId, turmaId, dataInicio, dataFim).stream());
+    }
+
+    @Operation(summary = "Exportar relatório de presença de professores (csv/ndjson/xlsx)")
+    @GetMapping(value = "/presenca-professores", params = "format")
+    public ResponseEntity<StreamingResponseBody> presencaProfessoresExport(
+            @RequestParam String format,
+            @RequestParam(required = false) Long professorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        return exportar(format, "presenca-professores", () -> reportService.relatorioPresencaProfessoresStream(professorId, dataInicio, dataFim));
+    }
+
+    @Operation(summary = "Exportar relatório de auditoria (csv/ndjson/xlsx)")
+    @GetMapping(value = "/auditoria", params = "format")
+    public ResponseEntity<StreamingResponseBody> auditoriaExport(
+            @RequestParam String format,
+            @RequestParam(required = false) Long usuarioId,
+            @RequestParam(required = false) String tabela,
+            @RequestParam(required = false) String acao,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataFim) {
+        return exportar(format, "auditoria", () -> reportService.relatorioAuditoriaStream(usuarioId, tabela, acao, dataInicio, dataFim));
+    }
+
+    @Operation(summary = "Exportar relatório de erros (csv/ndjson/xlsx)")
+    @GetMapping(value = "/erros", params = "format")
+    public ResponseEntity<StreamingResponseBody> errosExport(
+            @RequestParam String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataFim) {
+        return exportar(format, "erros", () -> reportService.relatorioErrosStream(dataInicio, dataFim));
+    }
+
+    @Operation(summary = "Exportar aulas de hoje (csv/ndjson/xlsx)")
+    @GetMapping(value = "/consolidado/aulas-hoje", params = "format")
+    public ResponseEntity<StreamingResponseBody> aulasHojeExport(@RequestParam String format) {
+        return exportar(format, "aulas-hoje", () -> reportService.relatorioAulasHojeDetalhado().stream());
+    }
+
+    /** Mantém o corpo como lista (contrato da tela de Relatórios) e informa o total no cabeçalho X-Total-Count. */
+    private static ResponseEntity<List<Map<String, Object>>> pagina(Page<Map<String, Object>> pagina) {
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(pagina.getTotalElements()))
+                .body(pagina.getContent());
+    }
+
+    /** Corpo continua sendo a lista; X-Next-Cursor (ausente na última página) e X-Truncado indicam se há mais linhas. */
+    private static ResponseEntity<List<Map<String, Object>>> porCursor(ReportService.PaginaCursor pagina) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .header(TRUNCADO_HEADER, String.valueOf(pagina.proximoCursor() != null));
+        if (pagina.proximoCursor() != null) {
+            resposta.header(NEXT_CURSOR_HEADER, String.valueOf(pagina.proximoCursor()));
+        }
+        return resposta.body(pagina.linhas());
+    }
+
+    /** Resultado em cache compartilhado entre requisições: a lista é imutável. */
+    private List<Map<String, Object>> lista(String relatorio, Set<Class<?>> dependencias,
+                                            Supplier<List<Map<String, Object>>> carregar, Object... filtros) {
+        return reportCache.obter(relatorio, dependencias, () -> Collections.unmodifiableList(carregar.get()), filtros);
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportar(String format, String nome, Supplier<Stream<Map<String, Object>>> linhas) {
+        ReportExportService.Formato formato = ReportExportService.Formato.of(format);
+        String arquivo = "relatorio-" + nome + "." + formato.getExtensao();
+        return ResponseEntity.ok()
+                .contentType(formato.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(arquivo).build().toString())
+                .body(out -> reportExportService.exportar(formato, linhas, out));
+    }
 }
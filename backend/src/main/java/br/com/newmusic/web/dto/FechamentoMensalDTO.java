@@ -0,0 +1,36 @@
+package br.com.newmusic.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FechamentoMensalDTO {
+
+    private int ano;
+    private int mes;
+    /** true: valores do fechamento congelado; false: calculados agora a partir das parcelas. */
+    private boolean fechado;
+    private LocalDateTime fechadoEm;
+    private String fechadoPor;
+    /** Parcelas da competência. */
+    private long quantidadeParcelas;
+    private BigDecimal valorFaturado;
+    /** Pagamentos com data no mês (valor + multa + juros). */
+    private long quantidadeRecebidas;
+    private BigDecimal valorRecebido;
+    private BigDecimal valorMulta;
+    private BigDecimal valorJuros;
+    private List<RecebimentoFormaPagamentoDTO> recebimentos;
+    /** Vencidas até o último dia do mês e não pagas até ele. */
+    private long quantidadeAtrasadas;
+    private BigDecimal valorAtrasado;
+}
@@ -0,0 +1,13 @@
+package br.com.newmusic.web.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class GeracaoParcelasLoteInput {
+
+    @NotEmpty(message = "Informe ao menos uma matrícula")
+    private List<Long> matriculaIds;
+}
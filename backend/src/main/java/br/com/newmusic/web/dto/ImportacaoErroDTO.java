@@ -0,0 +1,18 @@
+package br.com.newmusic.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacaoErroDTO {
+
+    /** Número da linha na planilha (o cabeçalho é a linha 1). */
+    private int linha;
+    /** Problemas encontrados na linha, separados por "; ". */
+    private String mensagem;
+}
@@ -0,0 +1,24 @@
+package br.com.newmusic.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacaoResultadoDTO {
+
+    private String tipo;
+    /** Linhas de dados lidas (sem cabeçalho e linhas em branco). */
+    private int linhasLidas;
+    private int importadas;
+    /** Parcelas geradas para as matrículas importadas. */
+    private int parcelasGeradas;
+    /** Linhas recusadas; as demais foram gravadas. */
+    private List<ImportacaoErroDTO> erros;
+}
@@ -0,0 +1,33 @@
+package br.com.newmusic.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobExecucaoDTO {
+
+    private Long id;
+    private String job;
+    private String rodada;
+    /** AGENDADA, RECUPERACAO ou MANUAL. */
+    private String tipo;
+    /** EXECUTANDO, SUCESSO ou FALHA. */
+    private String status;
+    private String no;
+    private LocalDateTime inicio;
+    private LocalDateTime fim;
+    private Long duracaoMs;
+    private long linhasProcessadas;
+    /** Lotes gravados (cada um na sua transação) e lotes que falharam. */
+    private int lotes;
+    private int erros;
+    private String mensagemErro;
+    private String observacao;
+}
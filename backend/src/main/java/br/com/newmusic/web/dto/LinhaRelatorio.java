@@ -0,0 +1,181 @@
+package br.com.newmusic.web.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Linha de relatório em formato colunar: os valores ficam num {@code Object[]} e os nomes das colunas num
+ * {@link Cabecalho} compartilhado por todas as linhas do relatório (em vez de um {@code LinkedHashMap} por linha).
+ * <p>
+ * Continua sendo um {@link Map} somente leitura, então o contrato JSON da tela de Relatórios, a exportação e o cache
+ * não mudam. Datas são guardadas como {@link LocalDate}/{@link LocalDateTime} e só viram texto ISO na serialização
+ * (ou ao serem lidas pelo mapa).
+ */
+@JsonSerialize(using = LinhaRelatorio.Serializador.class)
+public final class LinhaRelatorio extends AbstractMap<String, Object> {
+
+    private static final DateTimeFormatter DATETIME_FMT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final Cabecalho cabecalho;
+    private final Object[] valores;
+
+    private LinhaRelatorio(Cabecalho cabecalho, Object[] valores) {
+        this.cabecalho = cabecalho;
+        this.valores = valores;
+    }
+
+    /** Nomes das colunas de um relatório, na ordem em que aparecem no JSON/CSV. Criado uma vez por relatório. */
+    public static final class Cabecalho {
+
+        private final String[] colunas;
+        private final SerializedString[] nomesJson;
+        private final Map<String, Integer> indice;
+
+        private Cabecalho(String[] colunas) {
+            this.colunas = colunas;
+            this.nomesJson = new SerializedString[colunas.length];
+            this.indice = new HashMap<>(colunas.length * 2);
+            for (int i = 0; i < colunas.length; i++) {
+                nomesJson[i] = new SerializedString(colunas[i]);
+                if (indice.put(colunas[i], i) != null) {
+                    throw new IllegalArgumentException("Coluna duplicada no relatório: " + colunas[i]);
+                }
+            }
+        }
+
+        public static Cabecalho of(String... colunas) {
+            return new Cabecalho(colunas.clone());
+        }
+
+        public int tamanho() {
+            return colunas.length;
+        }
+
+        public String coluna(int i) {
+            return colunas[i];
+        }
+
+        /** Cria uma linha com os valores na ordem das colunas. */
+        public LinhaRelatorio linha(Object... valores) {
+            if (valores.length != colunas.length) {
+                throw new IllegalArgumentException("Esperados " + colunas.length + " valores, recebidos " + valores.length + ".");
+            }
+            return new LinhaRelatorio(this, valores);
+        }
+    }
+
+    public Cabecalho getCabecalho() {
+        return cabecalho;
+    }
+
+    /** Valor da coluna {@code i} como foi gravado (datas sem formatar). */
+    public Object valor(int i) {
+        return valores[i];
+    }
+
+    /** Representação textual usada no JSON e no CSV: datas em ISO, demais valores como estão. */
+    public static Object valorExibicao(Object valor) {
+        if (valor instanceof LocalDate d) return d.toString();
+        if (valor instanceof LocalDateTime dt) return dt.format(DATETIME_FMT);
+        return valor;
+    }
+
+    @Override
+    public Object get(Object chave) {
+        Integer i = cabecalho.indice.get(chave);
+        return i != null ? valorExibicao(valores[i]) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object chave) {
+        return cabecalho.indice.containsKey(chave);
+    }
+
+    @Override
+    public int size() {
+        return valores.length;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int i;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < valores.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (i >= valores.length) throw new NoSuchElementException();
+                        Entry<String, Object> e = new SimpleImmutableEntry<>(cabecalho.colunas[i], valorExibicao(valores[i]));
+                        i++;
+                        return e;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return valores.length;
+            }
+        };
+    }
+
+    /** Escreve a linha direto no gerador, sem passar pelo {@code MapSerializer} (nomes de campo pré-codificados). */
+    public static final class Serializador extends StdSerializer<LinhaRelatorio> {
+
+        public Serializador() {
+            super(LinhaRelatorio.class);
+        }
+
+        @Override
+        public void serialize(LinhaRelatorio linha, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            Object[] valores = linha.valores;
+            SerializedString[] nomes = linha.cabecalho.nomesJson;
+            gen.writeStartObject(linha, valores.length);
+            for (int i = 0; i < valores.length; i++) {
+                gen.writeFieldName(nomes[i]);
+                Object v = valores[i];
+                if (v == null) {
+                    gen.writeNull();
+                } else if (v instanceof String s) {
+                    gen.writeString(s);
+                } else if (v instanceof Long l) {
+                    gen.writeNumber(l);
+                } else if (v instanceof Integer n) {
+                    gen.writeNumber(n);
+                } else if (v instanceof Boolean b) {
+                    gen.writeBoolean(b);
+                } else if (v instanceof BigDecimal d) {
+                    gen.writeNumber(d);
+                } else if (v instanceof LocalDate || v instanceof LocalDateTime) {
+                    gen.writeString((String) valorExibicao(v));
+                } else {
+                    provider.defaultSerializeValue(v, gen);
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+}
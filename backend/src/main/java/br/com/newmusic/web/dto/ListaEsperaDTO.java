@@ -0,0 +1,31 @@
+package br.com.newmusic.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListaEsperaDTO {
+
+    private Long id;
+    private Long turmaId;
+    private Long alunoId;
+    private String alunoNome;
+    /** 1 = próximo a ser matriculado; nulo se já foi promovido. */
+    private Integer posicao;
+    /** Preenchido quando havia vaga e o aluno foi matriculado na hora. */
+    private Long matriculaId;
+    private LocalDate dataInicio;
+    private BigDecimal valorCurso;
+    private LocalDate dataVencimento;
+    private Integer aulasPorSemana;
+    private LocalDateTime criadoEm;
+}
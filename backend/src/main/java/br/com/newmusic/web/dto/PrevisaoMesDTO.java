@@ -0,0 +1,29 @@
+package br.com.newmusic.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrevisaoMesDTO {
+
+    private int ano;
+    private int mes;
+    /** Parcelas pendentes/atrasadas com vencimento no mês (valor + multa + juros). */
+    private long parcelasEmAberto;
+    private BigDecimal valorEmAberto;
+    /** Meses de contrato de matrículas ativas ainda sem parcela gerada (valor do curso). */
+    private long parcelasProgramadas;
+    private BigDecimal valorProgramado;
+    /** Fração histórica não recebida até 30 dias após o vencimento, para este mês do ano. */
+    private BigDecimal taxaInadimplencia;
+    /** Só no primeiro mês: parte esperada das parcelas já vencidas antes do período. */
+    private BigDecimal valorAtrasadoRecuperavel;
+    private BigDecimal valorPrevisto;
+}
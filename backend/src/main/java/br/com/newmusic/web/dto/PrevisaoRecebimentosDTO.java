@@ -0,0 +1,26 @@
+package br.com.newmusic.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrevisaoRecebimentosDTO {
+
+    private LocalDateTime calculadoEm;
+    /** Parcelas em aberto vencidas antes do primeiro mês da previsão. */
+    private long parcelasAtrasadasAnteriores;
+    private BigDecimal valorAtrasadoAnterior;
+    /** Fração histórica do valor que atrasou e acabou sendo pago. */
+    private BigDecimal taxaRecuperacaoAtrasados;
+    private BigDecimal totalPrevisto;
+    private List<PrevisaoMesDTO> meses;
+}
@@ -0,0 +1,20 @@
+package br.com.newmusic.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecebimentoFormaPagamentoDTO {
+
+    /** Vazio quando a baixa foi feita sem forma de pagamento. */
+    private String formaPagamento;
+    private long quantidade;
+    private BigDecimal valor;
+}
@@ -0,0 +1,27 @@
+package br.com.newmusic.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioJobDTO {
+
+    private String id;
+    private String relatorio;
+    private String formato;
+    /** PENDENTE, EXECUTANDO, CONCLUIDO ou ERRO. */
+    private String status;
+    /** Linhas escritas até o momento (progresso). */
+    private long linhasProcessadas;
+    private LocalDateTime criadoEm;
+    private LocalDateTime iniciadoEm;
+    private LocalDateTime concluidoEm;
+    private String mensagemErro;
+}
@@ -0,0 +1,19 @@
+package br.com.newmusic.web.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+public class RelatorioJobInput {
+
+    /** Nome do relatório, igual ao final da rota síncrona (ex.: auditoria, mensalidades, presenca-alunos). */
+    @NotBlank
+    private String relatorio;
+    /** csv (padrão), ndjson ou xlsx. */
+    private String formato;
+    /** Mesmos parâmetros aceitos pela rota síncrona do relatório. */
+    private Map<String, String> filtros = new HashMap<>();
+}
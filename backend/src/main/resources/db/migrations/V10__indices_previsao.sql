@@ -0,0 +1,3 @@
+-- Agregações da previsão de recebimentos: parcelas em aberto por vencimento e parcelas já geradas por matrícula/mês
+CREATE INDEX IF NOT EXISTS idx_mensalidade_status_vencimento ON mensalidade (status, vencimento);
+CREATE INDEX IF NOT EXISTS idx_mensalidade_matricula_ano_mes ON mensalidade (matricula_id, ano, mes);
@@ -0,0 +1,29 @@
+-- Busca por "contém" sem diferenciar acentos/maiúsculas, atendida por índices GIN trigram (pg_trgm)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() é STABLE; com o dicionário fixo pode ser declarada IMMUTABLE e usada em índices
+CREATE OR REPLACE FUNCTION f_unaccent(texto text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, texto) $$;
+
+-- Mesma normalização de StringUtil.normalizar: minúsculas e sem acentos
+CREATE OR REPLACE FUNCTION f_normalizar(texto text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+AS $$ SELECT public.f_unaccent(lower(coalesce(texto, ''))) $$;
+
+-- Nome normalizado + dígitos do CPF numa só expressão: a busca por nome ou CPF vira um único LIKE indexado
+CREATE OR REPLACE FUNCTION f_busca_pessoa(nome text, cpf text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+AS $$ SELECT public.f_normalizar(nome) || ' ' || regexp_replace(coalesce(cpf, ''), '[^0-9]', '', 'g') $$;
+
+CREATE INDEX IF NOT EXISTS idx_aluno_busca_trgm ON aluno USING gin (f_busca_pessoa(nome, cpf) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_professor_busca_trgm ON professor USING gin (f_busca_pessoa(nome, cpf) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_professor_instrumentos_trgm ON professor USING gin (f_normalizar(instrumentos) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_instrumento_nome_trgm ON instrumento USING gin (f_normalizar(nome) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_usuario_nome_trgm ON usuario USING gin (f_normalizar(nome) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_usuario_email_trgm ON usuario USING gin (f_normalizar(email) gin_trgm_ops);
+
+-- Das pessoas encontradas para as parcelas/matrículas (chaves estrangeiras não são indexadas automaticamente)
+CREATE INDEX IF NOT EXISTS idx_mensalidade_aluno ON mensalidade (aluno_id);
+CREATE INDEX IF NOT EXISTS idx_matricula_aluno ON matricula (aluno_id);
@@ -0,0 +1,28 @@
+-- Fechamento mensal: totais congelados por competência (ver FechamentoMensal)
+CREATE TABLE IF NOT EXISTS fechamento_mensal (
+    id BIGSERIAL PRIMARY KEY,
+    ano INTEGER NOT NULL,
+    mes INTEGER NOT NULL,
+    quantidade_parcelas BIGINT NOT NULL,
+    valor_faturado NUMERIC(12, 2) NOT NULL,
+    quantidade_recebidas BIGINT NOT NULL,
+    valor_recebido NUMERIC(12, 2) NOT NULL,
+    valor_multa NUMERIC(12, 2) NOT NULL,
+    valor_juros NUMERIC(12, 2) NOT NULL,
+    quantidade_atrasadas BIGINT NOT NULL,
+    valor_atrasado NUMERIC(12, 2) NOT NULL,
+    fechado_em TIMESTAMP NOT NULL,
+    fechado_por VARCHAR(255),
+    CONSTRAINT uk_fechamento_mensal_ano_mes UNIQUE (ano, mes)
+);
+
+CREATE TABLE IF NOT EXISTS fechamento_mensal_recebimento (
+    fechamento_id BIGINT NOT NULL REFERENCES fechamento_mensal (id) ON DELETE CASCADE,
+    forma_pagamento VARCHAR(100) NOT NULL,
+    quantidade BIGINT NOT NULL,
+    valor NUMERIC(12, 2) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_fechamento_mensal_recebimento_fechamento ON fechamento_mensal_recebimento (fechamento_id);
+-- Recebido no mês (data de pagamento) ao fechar e no resumo dos meses abertos
+CREATE INDEX IF NOT EXISTS idx_mensalidade_data_pagamento ON mensalidade (data_pagamento);
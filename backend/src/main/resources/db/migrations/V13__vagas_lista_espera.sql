@@ -0,0 +1,21 @@
+-- Contador atômico de vagas por turma (reservado com UPDATE ... WHERE vagas_ocupadas < capacidade RETURNING)
+ALTER TABLE turma ADD COLUMN IF NOT EXISTS vagas_ocupadas INTEGER;
+UPDATE turma t SET vagas_ocupadas = (SELECT COUNT(*) FROM matricula m WHERE m.turma_id = t.id AND m.ativo = true);
+ALTER TABLE turma ALTER COLUMN vagas_ocupadas SET DEFAULT 0;
+ALTER TABLE turma ALTER COLUMN vagas_ocupadas SET NOT NULL;
+
+-- Lista de espera por turma, promovida em ordem de chegada quando uma vaga é liberada
+CREATE TABLE IF NOT EXISTS lista_espera (
+    id BIGSERIAL PRIMARY KEY,
+    turma_id BIGINT NOT NULL REFERENCES turma (id) ON DELETE CASCADE,
+    aluno_id BIGINT NOT NULL REFERENCES aluno (id) ON DELETE CASCADE,
+    data_inicio DATE NOT NULL,
+    valor_curso NUMERIC(10, 2),
+    data_vencimento DATE,
+    aulas_por_semana INTEGER,
+    criado_em TIMESTAMP NOT NULL,
+    CONSTRAINT uk_lista_espera_turma_aluno UNIQUE (turma_id, aluno_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_lista_espera_turma_ordem ON lista_espera (turma_id, criado_em, id);
+CREATE INDEX IF NOT EXISTS idx_lista_espera_aluno ON lista_espera (aluno_id);
@@ -0,0 +1,20 @@
+-- Ids de aluno, professor e matricula passam a vir de sequências com incremento 50 (mesmo esquema do V6), para a
+-- importação em massa inserir em lotes JDBC. Reposiciona acima do maior id existente e mantém a sequência como
+-- default da coluna para INSERTs feitos fora do Hibernate.
+CREATE SEQUENCE IF NOT EXISTS aluno_seq INCREMENT BY 50;
+ALTER SEQUENCE aluno_seq INCREMENT BY 50;
+SELECT setval('aluno_seq', (SELECT COALESCE(MAX(id), 0) FROM aluno) + 50);
+ALTER TABLE aluno ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE aluno ALTER COLUMN id SET DEFAULT nextval('aluno_seq');
+
+CREATE SEQUENCE IF NOT EXISTS professor_seq INCREMENT BY 50;
+ALTER SEQUENCE professor_seq INCREMENT BY 50;
+SELECT setval('professor_seq', (SELECT COALESCE(MAX(id), 0) FROM professor) + 50);
+ALTER TABLE professor ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE professor ALTER COLUMN id SET DEFAULT nextval('professor_seq');
+
+CREATE SEQUENCE IF NOT EXISTS matricula_seq INCREMENT BY 50;
+ALTER SEQUENCE matricula_seq INCREMENT BY 50;
+SELECT setval('matricula_seq', (SELECT COALESCE(MAX(id), 0) FROM matricula) + 50);
+ALTER TABLE matricula ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE matricula ALTER COLUMN id SET DEFAULT nextval('matricula_seq');
@@ -0,0 +1,6 @@
+-- Geração por entidade do cache de relatórios, incrementada a cada escrita; cada instância confere as gerações
+-- das entradas em cache para descartar as que outra instância tornou obsoletas
+CREATE TABLE IF NOT EXISTS relatorio_cache_geracao (
+    entidade VARCHAR(100) PRIMARY KEY,
+    geracao BIGINT NOT NULL
+);
@@ -0,0 +1,18 @@
+-- Relatórios assíncronos: o status fica no banco para qualquer instância atender consulta e download
+CREATE TABLE IF NOT EXISTS relatorio_job (
+    id VARCHAR(36) PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    relatorio VARCHAR(50) NOT NULL,
+    formato VARCHAR(10) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    linhas_processadas BIGINT NOT NULL DEFAULT 0,
+    no VARCHAR(255) NOT NULL,
+    criado_em TIMESTAMP NOT NULL,
+    iniciado_em TIMESTAMP,
+    concluido_em TIMESTAMP,
+    mensagem_erro VARCHAR(2000),
+    arquivo VARCHAR(1000)
+);
+
+CREATE INDEX IF NOT EXISTS idx_relatorio_job_usuario ON relatorio_job (usuario_id, criado_em DESC);
+CREATE INDEX IF NOT EXISTS idx_relatorio_job_concluido_em ON relatorio_job (concluido_em);
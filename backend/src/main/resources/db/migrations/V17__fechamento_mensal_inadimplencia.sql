@@ -0,0 +1,31 @@
+-- Fechamento mensal: inadimplência por aluno congelada junto com os totais (ver InadimplenciaFechamento)
+CREATE TABLE IF NOT EXISTS fechamento_mensal_inadimplencia (
+    fechamento_id BIGINT NOT NULL REFERENCES fechamento_mensal (id) ON DELETE CASCADE,
+    aluno_id BIGINT NOT NULL,
+    aluno_nome VARCHAR(255) NOT NULL,
+    quantidade_parcelas BIGINT NOT NULL,
+    vencimento_mais_antigo DATE NOT NULL,
+    valor NUMERIC(12, 2) NOT NULL,
+    ate30 NUMERIC(12, 2) NOT NULL,
+    de31a60 NUMERIC(12, 2) NOT NULL,
+    de61a90 NUMERIC(12, 2) NOT NULL,
+    acima90 NUMERIC(12, 2) NOT NULL,
+    valor_total NUMERIC(12, 2) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_fechamento_mensal_inadimplencia_fechamento ON fechamento_mensal_inadimplencia (fechamento_id);
+
+-- Meses fechados antes desta versão: preenche com a posição atual das parcelas (faixas contadas até o fim do mês)
+INSERT INTO fechamento_mensal_inadimplencia (fechamento_id, aluno_id, aluno_nome, quantidade_parcelas, vencimento_mais_antigo,
+                                             valor, ate30, de31a60, de61a90, acima90, valor_total)
+SELECT f.id, a.id, a.nome, COUNT(*), MIN(m.vencimento), SUM(m.valor),
+       COALESCE(SUM(m.valor + COALESCE(m.valor_multa, 0) + COALESCE(m.valor_juros, 0)) FILTER (WHERE m.vencimento >= f.fim - 30), 0),
+       COALESCE(SUM(m.valor + COALESCE(m.valor_multa, 0) + COALESCE(m.valor_juros, 0)) FILTER (WHERE m.vencimento < f.fim - 30 AND m.vencimento >= f.fim - 60), 0),
+       COALESCE(SUM(m.valor + COALESCE(m.valor_multa, 0) + COALESCE(m.valor_juros, 0)) FILTER (WHERE m.vencimento < f.fim - 60 AND m.vencimento >= f.fim - 90), 0),
+       COALESCE(SUM(m.valor + COALESCE(m.valor_multa, 0) + COALESCE(m.valor_juros, 0)) FILTER (WHERE m.vencimento < f.fim - 90), 0),
+       SUM(m.valor + COALESCE(m.valor_multa, 0) + COALESCE(m.valor_juros, 0))
+FROM (SELECT id, ano, mes, CAST(make_date(ano, mes, 1) + INTERVAL '1 month - 1 day' AS date) AS fim FROM fechamento_mensal) f
+JOIN mensalidade m ON m.ano = f.ano AND m.mes = f.mes AND m.status = 'ATRASADO'
+JOIN aluno a ON a.id = m.aluno_id
+WHERE NOT EXISTS (SELECT 1 FROM fechamento_mensal_inadimplencia i WHERE i.fechamento_id = f.id)
+GROUP BY f.id, a.id, a.nome;
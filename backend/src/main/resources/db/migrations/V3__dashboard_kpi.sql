@@ -0,0 +1,25 @@
+-- Snapshot dos indicadores do dashboard (linha única, id = 1), mantido pela aplicação a cada escrita
+CREATE TABLE IF NOT EXISTS dashboard_kpi (
+    id BIGINT PRIMARY KEY,
+    alunos BIGINT NOT NULL,
+    professores BIGINT NOT NULL,
+    turmas BIGINT NOT NULL,
+    matriculas_ativas BIGINT NOT NULL,
+    alunos_com_pagamento_atrasado BIGINT NOT NULL,
+    alunos_com_mensalidade BIGINT NOT NULL,
+    pendentes BIGINT NOT NULL,
+    atualizado_em TIMESTAMP NOT NULL
+);
+
+INSERT INTO dashboard_kpi (id, alunos, professores, turmas, matriculas_ativas,
+                           alunos_com_pagamento_atrasado, alunos_com_mensalidade, pendentes, atualizado_em)
+VALUES (1,
+        (SELECT COUNT(*) FROM aluno),
+        (SELECT COUNT(*) FROM professor),
+        (SELECT COUNT(*) FROM turma),
+        (SELECT COUNT(*) FROM matricula WHERE ativo = true),
+        (SELECT COUNT(DISTINCT aluno_id) FROM mensalidade WHERE status = 'ATRASADO'),
+        (SELECT COUNT(DISTINCT aluno_id) FROM mensalidade),
+        (SELECT COUNT(*) FROM mensalidade WHERE status IN ('PENDENTE', 'ATRASADO')),
+        CURRENT_TIMESTAMP)
+ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,19 @@
+-- Receita agregada por dia de pagamento e forma de pagamento, mantida pela baixa de mensalidades
+CREATE TABLE IF NOT EXISTS receita_diaria (
+    data DATE NOT NULL,
+    forma_pagamento VARCHAR(255) NOT NULL,
+    valor_total NUMERIC(14, 2) NOT NULL,
+    quantidade BIGINT NOT NULL,
+    PRIMARY KEY (data, forma_pagamento)
+);
+
+-- Refaz o dia inteiro a partir de mensalidade: uma linha criada antes pela baixa não fica só com o valor dela
+INSERT INTO receita_diaria (data, forma_pagamento, valor_total, quantidade)
+SELECT data_pagamento,
+       COALESCE(forma_pagamento, ''),
+       SUM(valor + COALESCE(valor_multa, 0) + COALESCE(valor_juros, 0)),
+       COUNT(*)
+FROM mensalidade
+WHERE status = 'PAGO' AND data_pagamento IS NOT NULL
+GROUP BY data_pagamento, COALESCE(forma_pagamento, '')
+ON CONFLICT (data, forma_pagamento) DO UPDATE SET valor_total = EXCLUDED.valor_total, quantidade = EXCLUDED.quantidade;
@@ -0,0 +1,6 @@
+-- Índices para a paginação por cursor dos relatórios de auditoria e erros (cada filtro informado vira um predicado simples)
+CREATE INDEX IF NOT EXISTS idx_audit_log_data_hora ON audit_log (data_hora);
+CREATE INDEX IF NOT EXISTS idx_audit_log_usuario_data_hora ON audit_log (usuario_id, data_hora);
+-- varchar_pattern_ops: o filtro de tabela é por prefixo (LIKE 'x%')
+CREATE INDEX IF NOT EXISTS idx_audit_log_tabela_data_hora ON audit_log (tabela varchar_pattern_ops, data_hora);
+CREATE INDEX IF NOT EXISTS idx_error_log_data_hora ON error_log (data_hora);
@@ -0,0 +1,21 @@
+-- Ids de mensalidade, presenca e audit_log passam a vir de sequências com incremento 50 (otimizador pooled do Hibernate),
+-- o que permite inserir em lote via JDBC. A sequência pode já ter sido criada pelo ddl-auto começando em 1: reposiciona
+-- acima do maior id existente (+50, pois o Hibernate usa a faixa [valor - 49, valor]).
+-- A coluna deixa de ser IDENTITY e passa a usar a sequência como default, para INSERTs feitos fora do Hibernate.
+CREATE SEQUENCE IF NOT EXISTS mensalidade_seq INCREMENT BY 50;
+ALTER SEQUENCE mensalidade_seq INCREMENT BY 50;
+SELECT setval('mensalidade_seq', (SELECT COALESCE(MAX(id), 0) FROM mensalidade) + 50);
+ALTER TABLE mensalidade ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE mensalidade ALTER COLUMN id SET DEFAULT nextval('mensalidade_seq');
+
+CREATE SEQUENCE IF NOT EXISTS presenca_seq INCREMENT BY 50;
+ALTER SEQUENCE presenca_seq INCREMENT BY 50;
+SELECT setval('presenca_seq', (SELECT COALESCE(MAX(id), 0) FROM presenca) + 50);
+ALTER TABLE presenca ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE presenca ALTER COLUMN id SET DEFAULT nextval('presenca_seq');
+
+CREATE SEQUENCE IF NOT EXISTS audit_log_seq INCREMENT BY 50;
+ALTER SEQUENCE audit_log_seq INCREMENT BY 50;
+SELECT setval('audit_log_seq', (SELECT COALESCE(MAX(id), 0) FROM audit_log) + 50);
+ALTER TABLE audit_log ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE audit_log ALTER COLUMN id SET DEFAULT nextval('audit_log_seq');
@@ -0,0 +1,16 @@
+-- Feriados estaduais e municipais; recorrente = repete todo ano no mesmo dia/mês (o ano de data é ignorado)
+CREATE TABLE IF NOT EXISTS feriado (
+    id BIGSERIAL PRIMARY KEY,
+    data DATE NOT NULL,
+    descricao VARCHAR(255) NOT NULL,
+    abrangencia VARCHAR(20) NOT NULL,
+    recorrente BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+INSERT INTO feriado (data, descricao, abrangencia, recorrente)
+SELECT v.data, v.descricao, v.abrangencia, TRUE
+FROM (VALUES (DATE '2000-03-06', 'Revolução Pernambucana (Data Magna de Pernambuco)', 'ESTADUAL'),
+             (DATE '2000-06-24', 'São João', 'MUNICIPAL'),
+             (DATE '2000-07-16', 'Nossa Senhora do Carmo (padroeira do Recife)', 'MUNICIPAL'),
+             (DATE '2000-12-08', 'Nossa Senhora da Conceição', 'MUNICIPAL')) AS v(data, descricao, abrangencia)
+WHERE NOT EXISTS (SELECT 1 FROM feriado f WHERE f.data = v.data AND f.recorrente);
@@ -0,0 +1,9 @@
+-- Fatias de jobs agendados já concluídas por rodada (coordenação entre instâncias; o lock em si é advisory lock)
+CREATE TABLE IF NOT EXISTS job_lock (
+    nome VARCHAR(100) NOT NULL,
+    rodada VARCHAR(40) NOT NULL,
+    fatia INTEGER NOT NULL,
+    no VARCHAR(255) NOT NULL,
+    concluida_em TIMESTAMP NOT NULL,
+    PRIMARY KEY (nome, rodada, fatia)
+);
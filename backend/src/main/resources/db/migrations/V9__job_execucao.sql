@@ -0,0 +1,19 @@
+-- Histórico de execuções dos jobs agendados (uma linha por execução em cada instância)
+CREATE TABLE IF NOT EXISTS job_execucao (
+    id BIGSERIAL PRIMARY KEY,
+    job VARCHAR(100) NOT NULL,
+    rodada VARCHAR(40) NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    no VARCHAR(255) NOT NULL,
+    inicio TIMESTAMP NOT NULL,
+    fim TIMESTAMP,
+    duracao_ms BIGINT,
+    linhas_processadas BIGINT NOT NULL DEFAULT 0,
+    lotes INTEGER NOT NULL DEFAULT 0,
+    erros INTEGER NOT NULL DEFAULT 0,
+    mensagem_erro VARCHAR(2000),
+    observacao VARCHAR(500)
+);
+
+CREATE INDEX IF NOT EXISTS idx_job_execucao_job_inicio ON job_execucao (job, inicio DESC);
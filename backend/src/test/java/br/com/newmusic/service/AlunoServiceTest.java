@@ -37,6 +37,8 @@ class AlunoServiceTest {
     private MensalidadeRepository mensalidadeRepository;
     @Mock
     private AuditService auditService;
+    @Mock
+    private DashboardKpiService dashboardKpiService;
 
     @InjectMocks
     private AlunoService alunoService;
@@ -0,0 +1,71 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.AbrangenciaFeriado;
+import br.com.newmusic.domain.Feriado;
+import br.com.newmusic.repository.FeriadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CalendarioUteisTest {
+
+    @Mock
+    private FeriadoRepository feriadoRepository;
+
+    private CalendarioUteis calendarioUteis;
+
+    @BeforeEach
+    void setUp() {
+        when(feriadoRepository.findAll()).thenReturn(List.of(
+                Feriado.builder().data(LocalDate.of(2000, 7, 16)).descricao("Nossa Senhora do Carmo")
+                        .abrangencia(AbrangenciaFeriado.MUNICIPAL).recorrente(true).build(),
+                Feriado.builder().data(LocalDate.of(2026, 8, 3)).descricao("Ponto facultativo")
+                        .abrangencia(AbrangenciaFeriado.MUNICIPAL).recorrente(false).build()));
+        calendarioUteis = new CalendarioUteis(feriadoRepository, Duration.ofHours(1));
+    }
+
+    @Test
+    void isDiaUtil_consideraFimDeSemanaFeriadosNacionaisMoveisELocais() {
+        assertThat(calendarioUteis.isDiaUtil(LocalDate.of(2026, 4, 1))).isTrue();   // quarta
+        assertThat(calendarioUteis.isDiaUtil(LocalDate.of(2026, 4, 4))).isFalse();  // sábado
+        assertThat(calendarioUteis.isDiaUtil(LocalDate.of(2026, 4, 3))).isFalse();  // Sexta-feira Santa (Páscoa 05/04)
+        assertThat(calendarioUteis.isDiaUtil(LocalDate.of(2026, 2, 17))).isFalse(); // Carnaval
+        assertThat(calendarioUteis.isDiaUtil(LocalDate.of(2026, 7, 16))).isFalse(); // municipal recorrente
+        assertThat(calendarioUteis.isDiaUtil(LocalDate.of(2026, 8, 3))).isFalse();  // municipal do ano
+        assertThat(calendarioUteis.isDiaUtil(LocalDate.of(2027, 8, 3))).isTrue();
+    }
+
+    @Test
+    void isFeriado_independeDoDiaDaSemana() {
+        assertThat(calendarioUteis.isFeriado(LocalDate.of(2026, 11, 15))).isTrue(); // domingo
+        assertThat(calendarioUteis.isFeriado(LocalDate.of(2026, 11, 14))).isFalse(); // sábado comum
+    }
+
+    @Test
+    void proximoDiaUtil_pulaFeriadoEFimDeSemana() {
+        LocalDate quarta = LocalDate.of(2026, 4, 1);
+        assertThat(calendarioUteis.proximoDiaUtil(quarta)).isSameAs(quarta);
+        assertThat(calendarioUteis.proximoDiaUtil(LocalDate.of(2026, 4, 3))).isEqualTo(LocalDate.of(2026, 4, 6));
+        assertThat(calendarioUteis.proximoDiaUtil(LocalDate.of(2026, 12, 25))).isEqualTo(LocalDate.of(2026, 12, 28));
+    }
+
+    @Test
+    void proximoDiaUtil_dataForaDaJanela_ampliaAJanelaAteOAno() {
+        assertThat(calendarioUteis.proximoDiaUtil(LocalDate.of(2060, 1, 1))).isEqualTo(LocalDate.of(2060, 1, 2));
+        assertThat(calendarioUteis.isFeriado(LocalDate.of(2045, 7, 16))).isTrue();
+
+        verify(feriadoRepository, times(1)).findAll();
+    }
+}
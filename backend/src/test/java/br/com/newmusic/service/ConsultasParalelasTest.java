@@ -0,0 +1,120 @@
+package br.com.newmusic.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.QueryTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConsultasParalelasTest {
+
+    private final ConsultasParalelas consultasParalelas = new ConsultasParalelas(4, 10, Duration.ofMillis(300));
+    private final CountDownLatch liberar = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        liberar.countDown();
+        consultasParalelas.encerrar();
+    }
+
+    @Test
+    void executar_consultasIndependentes_rodamEmParalelo() {
+        CountDownLatch ambasIniciadas = new CountDownLatch(2);
+        Map<String, Supplier<?>> consultas = new LinkedHashMap<>();
+        consultas.put("a", () -> aguardarOutra(ambasIniciadas, 1L));
+        consultas.put("b", () -> aguardarOutra(ambasIniciadas, 2L));
+
+        ConsultasParalelas.Resultados r = consultasParalelas.executar(consultas);
+
+        assertThat(r.parcial()).isFalse();
+        assertThat(r.valores()).containsEntry("a", 1L).containsEntry("b", 2L);
+    }
+
+    @Test
+    void executar_consultaLenta_retornaParcialDentroDoPrazo() {
+        Map<String, Supplier<?>> consultas = new LinkedHashMap<>();
+        consultas.put("rapida", () -> 7L);
+        consultas.put("lenta", () -> {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0L;
+        });
+
+        long inicio = System.nanoTime();
+        ConsultasParalelas.Resultados r = consultasParalelas.executar(consultas);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofSeconds(2));
+        assertThat(r.parcial()).isTrue();
+        assertThat(r.indisponiveis()).containsExactly("lenta");
+        assertThat(r.<Long>valor("rapida")).isEqualTo(7L);
+    }
+
+    @Test
+    void executar_consultaAindaRodandoAposOPrazo_bancoCancelaELiberaAThread() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        EntityManager entityManager = mock(EntityManager.class);
+        Query setConfig = mock(Query.class);
+        AtomicLong statementTimeout = new AtomicLong();
+        when(entityManager.createNativeQuery(anyString())).thenReturn(setConfig);
+        when(setConfig.setParameter(eq("ms"), any())).thenAnswer(inv -> {
+            statementTimeout.set(Long.parseLong(inv.getArgument(1)));
+            return setConfig;
+        });
+        ConsultasParalelas umaThread = new ConsultasParalelas(1, 10, Duration.ofMillis(300), transactionManager, entityManager);
+        // "banco" que respeita o statement_timeout: a consulta lenta é cancelada quando ele acaba
+        Map<String, Supplier<?>> consultas = new LinkedHashMap<>();
+        consultas.put("lenta", () -> {
+            try {
+                Thread.sleep(statementTimeout.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new QueryTimeoutException("canceling statement due to statement timeout");
+        });
+        try {
+            ConsultasParalelas.Resultados r = umaThread.executar(consultas);
+
+            assertThat(r.indisponiveis()).containsExactly("lenta");
+            assertThat(statementTimeout.get()).isBetween(1L, 300L);
+            verify(transactionManager, timeout(1000)).rollback(any());
+            // a única thread do pool voltou: a próxima chamada responde dentro do prazo
+            ConsultasParalelas.Resultados depois = umaThread.executar(Map.of("rapida", () -> 7L));
+            assertThat(depois.<Long>valor("rapida")).isEqualTo(7L);
+        } finally {
+            umaThread.encerrar();
+        }
+    }
+
+    /** Só retorna quando as duas consultas estiverem rodando ao mesmo tempo (em série, estouraria o prazo). */
+    private static Long aguardarOutra(CountDownLatch ambasIniciadas, Long valor) {
+        ambasIniciadas.countDown();
+        try {
+            ambasIniciadas.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,129 @@
+package br.com.newmusic.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CoordenacaoJobsTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection conexao;
+
+    /** Fatias com lock de outro nó e fatias já concluídas na rodada. */
+    private final Set<Integer> bloqueadasPorOutroNo = new HashSet<>();
+    private final Set<Integer> concluidas = new HashSet<>();
+    private final List<long[]> processadas = new ArrayList<>();
+
+    private CoordenacaoJobs coordenacaoJobs;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(conexao);
+        when(conexao.prepareStatement(anyString())).thenAnswer(inv -> statement(inv.getArgument(0)));
+        coordenacaoJobs = new CoordenacaoJobs(dataSource);
+    }
+
+    /** Simula o PostgreSQL: a fatia é o 2º parâmetro do lock e o 3º das consultas em job_lock. */
+    private PreparedStatement statement(String sql) throws Exception {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        int[] fatia = new int[1];
+        doAnswer(inv -> {
+            int indice = inv.getArgument(0);
+            if ((sql.contains("advisory") && indice == 2) || (sql.contains("job_lock") && indice == 3)) fatia[0] = inv.getArgument(1);
+            return null;
+        }).when(ps).setInt(anyInt(), anyInt());
+        when(ps.executeQuery()).thenAnswer(inv -> {
+            ResultSet rs = mock(ResultSet.class);
+            boolean resposta = sql.contains("pg_try_advisory_lock") ? !bloqueadasPorOutroNo.contains(fatia[0]) : concluidas.contains(fatia[0]);
+            when(rs.next()).thenReturn(sql.contains("pg_try_advisory_lock") || resposta);
+            when(rs.getBoolean(1)).thenReturn(resposta);
+            return rs;
+        });
+        when(ps.executeUpdate()).thenAnswer(inv -> {
+            if (sql.startsWith("INSERT")) concluidas.add(fatia[0]);
+            return 1;
+        });
+        return ps;
+    }
+
+    @Test
+    void executarEmFatias_pulaFatiasDeOutroNoEJaConcluidas() {
+        bloqueadasPorOutroNo.add(1);
+        concluidas.add(2);
+
+        int feitas = coordenacaoJobs.executarEmFatias("mensalidade-status", "2026-03-10", 350, 100,
+                (inicio, fim) -> processadas.add(new long[]{inicio, fim}));
+
+        assertThat(feitas).isEqualTo(2);
+        assertThat(processadas).containsExactly(new long[]{0, 99}, new long[]{300, Long.MAX_VALUE});
+        assertThat(concluidas).containsExactlyInAnyOrder(0, 2, 3);
+    }
+
+    @Test
+    void executar_rodadaJaConcluida_naoRodaDeNovo() {
+        List<String> execucoes = new ArrayList<>();
+
+        boolean primeira = coordenacaoJobs.executar("mensalidade-status", "2026-03-10", () -> execucoes.add("rodou"));
+        boolean segunda = coordenacaoJobs.executar("mensalidade-status", "2026-03-10", () -> execucoes.add("rodou"));
+
+        assertThat(primeira).isTrue();
+        assertThat(segunda).isFalse();
+        assertThat(execucoes).hasSize(1);
+    }
+
+    @Test
+    void executar_jobSemChaveRegistrada_recusaSemPegarConexao() throws Exception {
+        assertThatThrownBy(() -> coordenacaoJobs.executar("job-novo", "2026-03-10", () -> execucoesNaoEsperadas()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("job-novo");
+        verify(dataSource, never()).getConnection();
+    }
+
+    @Test
+    void chaves_saoDistintasPorJob() {
+        assertThat(new HashSet<>(CoordenacaoJobs.CHAVES.values())).hasSameSizeAs(CoordenacaoJobs.CHAVES.keySet());
+    }
+
+    private static void execucoesNaoEsperadas() {
+        throw new AssertionError("não deveria rodar");
+    }
+
+    @Test
+    void executarEmFatias_fatiaComErro_naoERegistradaEAsDemaisSeguem() {
+        assertThatThrownBy(() -> coordenacaoJobs.executarEmFatias("mensalidade-status", "2026-03-10", 250, 100, (inicio, fim) -> {
+            if (inicio == 100) throw new IllegalStateException("lote com erro");
+            processadas.add(new long[]{inicio, fim});
+        })).isInstanceOf(IllegalStateException.class).hasMessage("lote com erro");
+
+        assertThat(processadas).containsExactly(new long[]{0, 99}, new long[]{200, Long.MAX_VALUE});
+        assertThat(concluidas).containsExactlyInAnyOrder(0, 2);
+    }
+}
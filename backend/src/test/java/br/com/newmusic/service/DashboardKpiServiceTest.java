@@ -0,0 +1,76 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.DashboardKpi;
+import br.com.newmusic.domain.StatusMensalidade;
+import br.com.newmusic.repository.DashboardKpiRepository;
+import br.com.newmusic.repository.MensalidadeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardKpiServiceTest {
+
+    @Mock
+    private DashboardKpiRepository dashboardKpiRepository;
+
+    @Mock
+    private MensalidadeRepository mensalidadeRepository;
+
+    @InjectMocks
+    private DashboardKpiService dashboardKpiService;
+
+    @Test
+    void mensalidadesAlteradas_primeiraParcelaAtrasadaDoAluno_incrementaContagensDistintas() {
+        when(mensalidadeRepository.existsByAlunoId(1L)).thenReturn(true);
+        when(mensalidadeRepository.existsByAlunoIdAndStatus(1L, StatusMensalidade.ATRASADO)).thenReturn(true);
+
+        dashboardKpiService.mensalidadesAlteradas(1L, new DashboardKpiService.SituacaoFinanceira(false, false), 1);
+
+        verify(dashboardKpiRepository).somarFinanceiro(1, 1, 1);
+    }
+
+    @Test
+    void mensalidadesAlteradas_baixaDaUltimaAtrasada_decrementaAtrasadosEPendentes() {
+        when(mensalidadeRepository.existsByAlunoId(1L)).thenReturn(true);
+        when(mensalidadeRepository.existsByAlunoIdAndStatus(1L, StatusMensalidade.ATRASADO)).thenReturn(false);
+
+        dashboardKpiService.mensalidadesAlteradas(1L, new DashboardKpiService.SituacaoFinanceira(true, true), -1);
+
+        verify(dashboardKpiRepository).somarFinanceiro(-1, -1, 0);
+    }
+
+    @Test
+    void matriculasAtivasAlteradas_semVariacao_naoAtualiza() {
+        dashboardKpiService.matriculasAtivasAlteradas(0);
+
+        verify(dashboardKpiRepository, never()).somarMatriculasAtivas(anyLong());
+    }
+
+    @Test
+    void obter_retornaSnapshotPorChavePrimaria() {
+        DashboardKpi kpi = DashboardKpi.builder().id(DashboardKpi.ID).alunos(4L).build();
+        when(dashboardKpiRepository.findById(DashboardKpi.ID)).thenReturn(Optional.of(kpi));
+
+        assertThat(dashboardKpiService.obter().getAlunos()).isEqualTo(4L);
+    }
+
+    @Test
+    void obter_semSnapshot_lancaExcecao() {
+        when(dashboardKpiRepository.findById(DashboardKpi.ID)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> dashboardKpiService.obter())
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
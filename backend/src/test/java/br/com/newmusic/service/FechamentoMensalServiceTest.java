@@ -0,0 +1,169 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.FechamentoMensal;
+import br.com.newmusic.domain.InadimplenciaFechamento;
+import br.com.newmusic.domain.RecebimentoFechamento;
+import br.com.newmusic.domain.StatusMensalidade;
+import br.com.newmusic.repository.FechamentoMensalRepository;
+import br.com.newmusic.repository.MensalidadeRepository;
+import br.com.newmusic.web.dto.FechamentoMensalDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FechamentoMensalServiceTest {
+
+    @Mock
+    private FechamentoMensalRepository fechamentoMensalRepository;
+
+    @Mock
+    private MensalidadeRepository mensalidadeRepository;
+
+    @Mock
+    private AuditService auditService;
+
+    @InjectMocks
+    private FechamentoMensalService fechamentoMensalService;
+
+    @Test
+    void fechar_congelaTotaisDoMesPorFormaDePagamento() {
+        when(mensalidadeRepository.somarFaturado(2025, 3)).thenReturn(rows(new Object[]{10L, new BigDecimal("1800.00")}));
+        when(mensalidadeRepository.somarRecebidoPorForma(StatusMensalidade.PAGO, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31)))
+                .thenReturn(rows(
+                        new Object[]{"PIX", 6L, new BigDecimal("1090.00"), new BigDecimal("3.60"), new BigDecimal("1.20")},
+                        new Object[]{"", 1L, new BigDecimal("180.00"), BigDecimal.ZERO, BigDecimal.ZERO}));
+        when(mensalidadeRepository.somarEmAtrasoEm(any(), eq(LocalDate.of(2025, 3, 31))))
+                .thenReturn(rows(new Object[]{2L, new BigDecimal("360.00")}));
+        when(fechamentoMensalRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        FechamentoMensalDTO dto = fechamentoMensalService.fechar(2025, 3, "admin@newmusic.com.br");
+
+        ArgumentCaptor<FechamentoMensal> salvo = ArgumentCaptor.forClass(FechamentoMensal.class);
+        verify(fechamentoMensalRepository).save(salvo.capture());
+        assertThat(salvo.getValue().getFechadoPor()).isEqualTo("admin@newmusic.com.br");
+        assertThat(dto.isFechado()).isTrue();
+        assertThat(dto.getQuantidadeParcelas()).isEqualTo(10L);
+        assertThat(dto.getValorFaturado()).isEqualByComparingTo("1800.00");
+        assertThat(dto.getQuantidadeRecebidas()).isEqualTo(7L);
+        assertThat(dto.getValorRecebido()).isEqualByComparingTo("1270.00");
+        assertThat(dto.getValorMulta()).isEqualByComparingTo("3.60");
+        assertThat(dto.getValorJuros()).isEqualByComparingTo("1.20");
+        assertThat(dto.getRecebimentos()).extracting("formaPagamento").containsExactly("", "PIX");
+        assertThat(dto.getValorAtrasado()).isEqualByComparingTo("360.00");
+    }
+
+    @Test
+    void fechar_travaAntesDeAgregarECongelaInadimplenciaPorAluno() {
+        when(mensalidadeRepository.somarFaturado(2025, 3)).thenReturn(rows(new Object[]{1L, new BigDecimal("180.00")}));
+        when(mensalidadeRepository.somarEmAtrasoEm(any(), eq(LocalDate.of(2025, 3, 31))))
+                .thenReturn(rows(new Object[]{1L, new BigDecimal("180.00")}));
+        when(mensalidadeRepository.somarInadimplenciaPorAluno(StatusMensalidade.ATRASADO, 2025, 3,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 1, 30), LocalDate.of(2024, 12, 31)))
+                .thenReturn(rows(new Object[]{7L, "Ana", 1L, LocalDate.of(2025, 3, 10), new BigDecimal("180.00"),
+                        new BigDecimal("185.40"), BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("185.40")}));
+        when(fechamentoMensalRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        fechamentoMensalService.fechar(2025, 3, "admin");
+
+        InOrder ordem = inOrder(fechamentoMensalRepository, mensalidadeRepository);
+        ordem.verify(fechamentoMensalRepository).travarExclusivo();
+        ordem.verify(fechamentoMensalRepository).existsByAnoAndMes(2025, 3);
+        ordem.verify(mensalidadeRepository).somarFaturado(2025, 3);
+        ArgumentCaptor<FechamentoMensal> salvo = ArgumentCaptor.forClass(FechamentoMensal.class);
+        verify(fechamentoMensalRepository).save(salvo.capture());
+        assertThat(salvo.getValue().getInadimplencia()).singleElement()
+                .extracting(InadimplenciaFechamento::getAlunoId, InadimplenciaFechamento::getValor, InadimplenciaFechamento::getAte30)
+                .containsExactly(7L, new BigDecimal("180.00"), new BigDecimal("185.40"));
+    }
+
+    @Test
+    void exigir_tomaATravaCompartilhadaAntesDeConsultar() {
+        fechamentoMensalService.exigirAberto(2025, 3);
+        fechamentoMensalService.exigirPagamentoEmMesAberto(LocalDate.of(2025, 3, 5));
+
+        InOrder ordem = inOrder(fechamentoMensalRepository);
+        ordem.verify(fechamentoMensalRepository).travarCompartilhado();
+        ordem.verify(fechamentoMensalRepository).existsByAnoAndMes(2025, 3);
+        ordem.verify(fechamentoMensalRepository).travarCompartilhado();
+        ordem.verify(fechamentoMensalRepository).existsByAnoAndMes(2025, 3);
+        verify(fechamentoMensalRepository, never()).travarExclusivo();
+    }
+
+    @Test
+    void fechar_mesCorrenteOuJaFechado_lancaExcecao() {
+        YearMonth atual = YearMonth.now();
+        assertThatThrownBy(() -> fechamentoMensalService.fechar(atual.getYear(), atual.getMonthValue(), "admin"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        when(fechamentoMensalRepository.existsByAnoAndMes(2025, 3)).thenReturn(true);
+        assertThatThrownBy(() -> fechamentoMensalService.fechar(2025, 3, "admin"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("03/2025");
+        verify(fechamentoMensalRepository, never()).save(any());
+    }
+
+    @Test
+    void resumo_mesFechadoLeDoFechamentoSemAgregarParcelas() {
+        List<FechamentoMensal> fechados = new ArrayList<>();
+        for (int mes = 1; mes <= 12; mes++) {
+            fechados.add(FechamentoMensal.builder().id((long) mes).ano(2025).mes(mes)
+                    .quantidadeParcelas(1L).valorFaturado(new BigDecimal("180.00"))
+                    .quantidadeRecebidas(1L).valorRecebido(new BigDecimal("180.00"))
+                    .valorMulta(BigDecimal.ZERO).valorJuros(BigDecimal.ZERO)
+                    .recebimentos(List.of(RecebimentoFechamento.builder().formaPagamento("PIX").quantidade(1L).valor(new BigDecimal("180.00")).build()))
+                    .quantidadeAtrasadas(0L).valorAtrasado(BigDecimal.ZERO)
+                    .fechadoEm(LocalDateTime.of(2026, 1, 5, 10, 0)).build());
+        }
+        when(fechamentoMensalRepository.findByAnoOrderByMes(2025)).thenReturn(fechados);
+
+        List<FechamentoMensalDTO> resumo = fechamentoMensalService.resumo(2025);
+
+        assertThat(resumo).hasSize(12).allMatch(FechamentoMensalDTO::isFechado);
+        verify(mensalidadeRepository, never()).somarFaturado(anyInt(), anyInt());
+    }
+
+    @Test
+    void exigirAbertos_consultaOsMesesFechadosNumaUnicaConsulta() {
+        when(fechamentoMensalRepository.findMesesFechados(202501, 202512)).thenReturn(List.of(202506));
+
+        fechamentoMensalService.exigirAbertos(List.of(YearMonth.of(2025, 1), YearMonth.of(2025, 12)));
+        assertThatThrownBy(() -> fechamentoMensalService.exigirAbertos(
+                List.of(YearMonth.of(2025, 1), YearMonth.of(2025, 6), YearMonth.of(2025, 12))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("06/2025");
+    }
+
+    @Test
+    void reabrir_mesNaoFechado_lancaExcecao() {
+        when(fechamentoMensalRepository.findByAnoAndMes(2025, 4)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> fechamentoMensalService.reabrir(2025, 4)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return List.of(rows);
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.Instrumento;
+import br.com.newmusic.domain.Professor;
+import br.com.newmusic.domain.Turma;
+import br.com.newmusic.domain.TurmaHorario;
+import br.com.newmusic.repository.TurmaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GradeHorariaIndexTest {
+
+    @Mock
+    private TurmaRepository turmaRepository;
+
+    private GradeHorariaIndex gradeHorariaIndex;
+
+    @BeforeEach
+    void setUp() {
+        Professor prof = Professor.builder().id(7L).nome("Ana").build();
+        Instrumento violao = Instrumento.builder().id(1L).nome("Violão").build();
+        Turma segundaQuarta = turma(1L, prof, violao, horario(1, "14:00", "15:00"), horario(3, "14:00", "15:00"));
+        Turma legado = Turma.builder().id(2L).ativo(true).professor(prof).instrumento(violao)
+                .diaSemana(2).horarioInicio(LocalTime.of(9, 0)).build();
+        Turma inativa = turma(3L, prof, violao, horario(1, "10:00", "11:00"));
+        inativa.setAtivo(false);
+        when(turmaRepository.findAllWithHorariosAndInstrumentoAndProfessor()).thenReturn(List.of(segundaQuarta, legado, inativa));
+        gradeHorariaIndex = new GradeHorariaIndex(turmaRepository, Duration.ofHours(1));
+    }
+
+    @Test
+    void turmasAtivasNoDia_consideraHorariosEDiaLegadoEIgnoraInativas() {
+        assertThat(gradeHorariaIndex.turmasAtivasNoDia(1)).extracting(GradeHorariaIndex.TurmaGrade::id).containsExactly(1L);
+        assertThat(gradeHorariaIndex.turmasAtivasNoDia(2)).extracting(GradeHorariaIndex.TurmaGrade::id).containsExactly(2L);
+        assertThat(gradeHorariaIndex.turmasAtivasNoDia(5)).isEmpty();
+        assertThat(gradeHorariaIndex.temAulaNoDia(1L, 3)).isTrue();
+        assertThat(gradeHorariaIndex.temAulaNoDia(1L, 2)).isFalse();
+
+        verify(turmaRepository, times(1)).findAllWithHorariosAndInstrumentoAndProfessor();
+    }
+
+    @Test
+    void turmasDoProfessorNoDia_usaSoHorariosCadastrados() {
+        assertThat(gradeHorariaIndex.turmasDoProfessorNoDia(7L, 1)).extracting(GradeHorariaIndex.TurmaGrade::id).containsExactly(1L, 3L);
+        assertThat(gradeHorariaIndex.turmasDoProfessorNoDia(7L, 2)).isEmpty();
+    }
+
+    @Test
+    void grade_sobrepoe_detectaHorarioCoincidenteNoMesmoDia() {
+        GradeHorariaIndex.Grade aluno = GradeHorariaIndex.Grade.de(List.of(horario(1, "14:00", "15:00"), horario(3, "14:00", "15:00")));
+        GradeHorariaIndex.Grade coincide = GradeHorariaIndex.Grade.de(List.of(horario(3, "14:30", "15:30")));
+        GradeHorariaIndex.Grade encosta = GradeHorariaIndex.Grade.de(List.of(horario(1, "15:00", "16:00"), horario(3, "13:00", "14:00")));
+
+        assertThat(aluno.sobrepoe(coincide)).isTrue();
+        assertThat(aluno.sobrepoe(encosta)).isFalse();
+        assertThat(GradeHorariaIndex.Grade.de(List.of()).isVazia()).isTrue();
+    }
+
+    @Test
+    void professorRenomeadoETurmaExcluida_semTransacao_atualizamNaHoraSemRecarregar() {
+        gradeHorariaIndex.recarregar();
+
+        gradeHorariaIndex.professorRenomeado(7L, "Ana Paula");
+        gradeHorariaIndex.instrumentoRenomeado(1L, "Violão popular");
+        assertThat(gradeHorariaIndex.turmasAtivasNoDia(1)).singleElement()
+                .extracting(GradeHorariaIndex.TurmaGrade::professorNome, GradeHorariaIndex.TurmaGrade::instrumentoNome)
+                .containsExactly("Ana Paula", "Violão popular");
+
+        gradeHorariaIndex.turmaExcluida(1L);
+        assertThat(gradeHorariaIndex.turmasAtivasNoDia(1)).isEmpty();
+        assertThat(gradeHorariaIndex.turmasDoProfessorNoDia(7L, 1)).extracting(GradeHorariaIndex.TurmaGrade::id).containsExactly(3L);
+
+        verify(turmaRepository, times(1)).findAllWithHorariosAndInstrumentoAndProfessor();
+    }
+
+    private static Turma turma(Long id, Professor professor, Instrumento instrumento, TurmaHorario... horarios) {
+        Turma t = Turma.builder().id(id).ativo(true).professor(professor).instrumento(instrumento)
+                .horarios(new ArrayList<>(List.of(horarios))).build();
+        for (TurmaHorario h : horarios) h.setTurma(t);
+        return t;
+    }
+
+    private static TurmaHorario horario(int dia, String inicio, String fim) {
+        return TurmaHorario.builder().diaSemana(dia).horarioInicio(LocalTime.parse(inicio)).horarioFim(LocalTime.parse(fim)).build();
+    }
+}
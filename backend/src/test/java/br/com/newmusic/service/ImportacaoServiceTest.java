@@ -0,0 +1,229 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.Aluno;
+import br.com.newmusic.domain.Matricula;
+import br.com.newmusic.domain.Turma;
+import br.com.newmusic.domain.TurmaHorario;
+import br.com.newmusic.repository.AlunoRepository;
+import br.com.newmusic.repository.FechamentoMensalRepository;
+import br.com.newmusic.repository.MatriculaRepository;
+import br.com.newmusic.repository.ProfessorRepository;
+import br.com.newmusic.repository.TurmaRepository;
+import br.com.newmusic.repository.UsuarioRepository;
+import br.com.newmusic.web.dto.ImportacaoResultadoDTO;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImportacaoServiceTest {
+
+    @Mock
+    private AlunoRepository alunoRepository;
+    @Mock
+    private ProfessorRepository professorRepository;
+    @Mock
+    private UsuarioRepository usuarioRepository;
+    @Mock
+    private MatriculaRepository matriculaRepository;
+    @Mock
+    private TurmaRepository turmaRepository;
+    @Mock
+    private FechamentoMensalRepository fechamentoMensalRepository;
+    @Mock
+    private MatriculaService matriculaService;
+    @Mock
+    private DashboardKpiService dashboardKpiService;
+    @Mock
+    private AuditService auditService;
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ImportacaoService importacaoService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importarAlunos_validaEmMemoriaGravaEmLoteEDevolveErrosPorLinha() {
+        when(alunoRepository.findDadosImportacao()).thenReturn(List.<Object[]>of(
+                new Object[]{1L, "Maria Souza", "maria@escola.com", "529.982.247-25", true}));
+        when(usuarioRepository.findAllEmails()).thenReturn(List.of("admin@escola.com"));
+        String csv = "Nome;E-mail;CPF;Data Nascimento;Ativo\n"
+                + "Ana Lima;ana@escola.com;;10/05/2010;sim\n"
+                + "Bruno;MARIA@escola.com;;;\n"
+                + "Carla;admin@escola.com;111.111.111-11;;\n"
+                + "\n"
+                + "Ana Lima;ana@ESCOLA.com;;;talvez\n"
+                + "Davi;davi@escola.com;1234567891;31/02/2010;\n"
+                + "Maria Souza;outra@escola.com;52998224725;;\n"
+                + "Eva;eva@escola.com;4616154872;2011-01-20;não\n";
+
+        ImportacaoResultadoDTO resultado = importacaoService.importar(ImportacaoService.Tipo.ALUNOS, "alunos.csv", csv(csv));
+
+        assertThat(resultado.getLinhasLidas()).isEqualTo(7);
+        assertThat(resultado.getImportadas()).isEqualTo(2);
+        assertThat(resultado.getErros()).extracting(e -> e.getLinha() + ": " + e.getMensagem()).containsExactly(
+                "3: Já existe aluno com este e-mail",
+                "4: CPF inválido: 111.111.111-11; Já existe aluno com este e-mail",
+                "6: Valor inválido para ativo: talvez (use sim ou não); E-mail repetido na planilha (linha 2); Nome e CPF repetido na planilha (linha 2)",
+                "7: CPF inválido: 01234567891; Data de nascimento inválida: 31/02/2010 (use dd/mm/aaaa)",
+                "8: Já existe um aluno com o mesmo nome e CPF.");
+        ArgumentCaptor<List<Aluno>> lote = ArgumentCaptor.forClass(List.class);
+        verify(alunoRepository, times(1)).saveAll(lote.capture());
+        assertThat(lote.getValue()).extracting(Aluno::getEmail).containsExactly("ana@escola.com", "eva@escola.com");
+        assertThat(lote.getValue().get(0).getDataNascimento()).isEqualTo(LocalDate.of(2010, 5, 10));
+        assertThat(lote.getValue().get(1).getCpf()).isEqualTo("04616154872");
+        assertThat(lote.getValue().get(1).getAtivo()).isFalse();
+        verify(entityManager).flush();
+        verify(dashboardKpiService).alunosAlterados(2);
+        verify(auditService, times(1)).registrar(eq("IMPORTAR"), eq("alunos"), isNull(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importarMatriculas_respeitaVagasEHorarioEReservaPorTurma() {
+        when(alunoRepository.findDadosImportacao()).thenReturn(List.<Object[]>of(
+                new Object[]{10L, "Ana", "ana@escola.com", "529.982.247-25", true},
+                new Object[]{11L, "Bia", "bia@escola.com", null, true},
+                new Object[]{12L, "Caio", "caio@escola.com", null, false}));
+        Turma violao = turma(1L, 2, 1, horario(1, "14:00", "15:00"));
+        Turma piano = turma(2L, null, 0, horario(1, "14:30", "15:30"));
+        when(turmaRepository.findAllWithHorariosAndInstrumentoGrupo()).thenReturn(List.of(violao, piano));
+        when(matriculaRepository.findAtivasAlunoETurma()).thenReturn(new ArrayList<>());
+        when(alunoRepository.getReferenceById(10L)).thenReturn(Aluno.builder().id(10L).build());
+        when(turmaRepository.reservarVagas(1L, 1)).thenReturn(List.of(2));
+        when(matriculaService.matricularEmLote(any())).thenReturn(12);
+        String csv = "aluno,turma_id,data_inicio,valor_curso,data_vencimento\n"
+                + "52998224725,1,02/03/2026,\"1.200,50\",10/03/2026\n"
+                + "bia@escola.com,1,02/03/2026,,\n"
+                + "ana@escola.com,2,02/03/2026,,\n"
+                + "caio@escola.com,2,02/03/2026,,\n"
+                + "ze@escola.com,9,,,\n";
+
+        ImportacaoResultadoDTO resultado = importacaoService.importar(ImportacaoService.Tipo.MATRICULAS, "matriculas.csv", csv(csv));
+
+        assertThat(resultado.getImportadas()).isEqualTo(1);
+        assertThat(resultado.getParcelasGeradas()).isEqualTo(12);
+        assertThat(resultado.getErros()).extracting(e -> e.getLinha() + ": " + e.getMensagem()).containsExactly(
+                "3: Turma lotada: inclua o aluno na lista de espera",
+                "4: Horário da turma coincide com outra matrícula ativa do aluno",
+                "5: Só é possível matricular alunos ativos",
+                "6: Aluno não encontrado: ze@escola.com; Turma não encontrada: 9; Data de início é obrigatória");
+        ArgumentCaptor<List<Matricula>> lote = ArgumentCaptor.forClass(List.class);
+        verify(matriculaService).matricularEmLote(lote.capture());
+        Matricula m = lote.getValue().get(0);
+        assertThat(m.getTurma()).isSameAs(violao);
+        assertThat(m.getValorCurso()).isEqualByComparingTo("1200.50");
+        assertThat(m.getAtivo()).isTrue();
+        verify(turmaRepository).reservarVagas(1L, 1);
+        verify(dashboardKpiService, times(1)).recalcularFinanceiro();
+    }
+
+    @Test
+    void importarMatriculas_horarioCoincideComMatriculaAtivaDoBanco_recusaALinha() {
+        when(alunoRepository.findDadosImportacao()).thenReturn(List.<Object[]>of(
+                new Object[]{10L, "Ana", "ana@escola.com", null, true}));
+        Turma violao = turma(1L, null, 0, horario(1, "14:00", "15:00"));
+        Turma piano = turma(2L, null, 0, horario(1, "14:30", "15:30"));
+        when(turmaRepository.findAllWithHorariosAndInstrumentoGrupo()).thenReturn(List.of(violao, piano));
+        when(matriculaRepository.findAtivasAlunoETurma()).thenReturn(List.<Object[]>of(new Object[]{50L, 10L, 2L}));
+        String csv = "aluno,turma_id,data_inicio\n"
+                + "ana@escola.com,1,02/03/2026\n";
+
+        ImportacaoResultadoDTO resultado = importacaoService.importar(ImportacaoService.Tipo.MATRICULAS, "matriculas.csv", csv(csv));
+
+        assertThat(resultado.getImportadas()).isZero();
+        assertThat(resultado.getErros()).extracting(e -> e.getLinha() + ": " + e.getMensagem())
+                .containsExactly("2: Horário da turma coincide com outra matrícula ativa do aluno");
+        verify(matriculaService, never()).matricularEmLote(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importarMatriculas_parcelaEmMesFechado_recusaALinhaEGravaAsDemais() {
+        when(alunoRepository.findDadosImportacao()).thenReturn(List.<Object[]>of(
+                new Object[]{10L, "Ana", "ana@escola.com", null, true},
+                new Object[]{11L, "Bia", "bia@escola.com", null, true}));
+        Turma violao = turma(1L, null, 0, horario(1, "14:00", "15:00"));
+        when(turmaRepository.findAllWithHorariosAndInstrumentoGrupo()).thenReturn(List.of(violao));
+        when(matriculaRepository.findAtivasAlunoETurma()).thenReturn(new ArrayList<>());
+        when(fechamentoMensalRepository.findMesesFechados(0, Integer.MAX_VALUE)).thenReturn(List.of(202604));
+        when(alunoRepository.getReferenceById(11L)).thenReturn(Aluno.builder().id(11L).build());
+        when(matriculaService.matricularEmLote(any())).thenReturn(24);
+        String csv = "aluno,turma_id,data_inicio,valor_curso,data_vencimento\n"
+                + "ana@escola.com,1,02/03/2026,150,10/03/2026\n"
+                + "bia@escola.com,1,02/03/2026,,\n";
+
+        ImportacaoResultadoDTO resultado = importacaoService.importar(ImportacaoService.Tipo.MATRICULAS, "matriculas.csv", csv(csv));
+
+        assertThat(resultado.getImportadas()).isEqualTo(1);
+        assertThat(resultado.getErros()).extracting(e -> e.getLinha() + ": " + e.getMensagem())
+                .containsExactly("2: Competência 04/2026 está fechada");
+        ArgumentCaptor<List<Matricula>> lote = ArgumentCaptor.forClass(List.class);
+        verify(matriculaService).matricularEmLote(lote.capture());
+        assertThat(lote.getValue()).extracting(m -> m.getAluno().getId()).containsExactly(11L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importarAlunos_dataSerialForaDoIntervalo_recusaALinha() {
+        String csv = "nome;email;data_nascimento\n"
+                + "Ana;ana@escola.com;20240115\n"
+                + "Bia;bia@escola.com;45292\n";
+
+        ImportacaoResultadoDTO resultado = importacaoService.importar(ImportacaoService.Tipo.ALUNOS, "alunos.csv", csv(csv));
+
+        assertThat(resultado.getErros()).extracting(e -> e.getLinha() + ": " + e.getMensagem())
+                .containsExactly("2: Data de nascimento inválida: 20240115 (use dd/mm/aaaa)");
+        ArgumentCaptor<List<Aluno>> lote = ArgumentCaptor.forClass(List.class);
+        verify(alunoRepository).saveAll(lote.capture());
+        assertThat(lote.getValue()).singleElement().extracting(Aluno::getDataNascimento).isEqualTo(LocalDate.of(2024, 1, 1));
+    }
+
+    @Test
+    void importar_semColunaObrigatoria_recusaOArquivo() {
+        assertThatThrownBy(() -> importacaoService.importar(ImportacaoService.Tipo.PROFESSORES, "professores.csv", csv("nome;telefone\nAna;123\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("email");
+        assertThatThrownBy(() -> importacaoService.importar(ImportacaoService.Tipo.PROFESSORES, "professores.pdf", csv("x")))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(professorRepository, never()).saveAll(any());
+    }
+
+    private static InputStream csv(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Turma turma(Long id, Integer capacidade, int ocupadas, TurmaHorario... horarios) {
+        Turma t = Turma.builder().id(id).ativo(true).capacidade(capacidade).vagasOcupadas(ocupadas)
+                .horarios(new ArrayList<>(List.of(horarios))).build();
+        for (TurmaHorario h : horarios) h.setTurma(t);
+        return t;
+    }
+
+    private static TurmaHorario horario(int dia, String inicio, String fim) {
+        return TurmaHorario.builder().diaSemana(dia).horarioInicio(LocalTime.parse(inicio)).horarioFim(LocalTime.parse(fim)).build();
+    }
+}
@@ -33,6 +33,9 @@ class InstrumentoServiceTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private GradeHorariaIndex gradeHorariaIndex;
+
     @InjectMocks
     private InstrumentoService instrumentoService;
 
@@ -0,0 +1,97 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.JobExecucao;
+import br.com.newmusic.domain.StatusJobExecucao;
+import br.com.newmusic.domain.TipoExecucaoJob;
+import br.com.newmusic.repository.JobExecucaoRepository;
+import br.com.newmusic.web.dto.JobExecucaoDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JobExecucaoServiceTest {
+
+    private static final ZoneId RECIFE = ZoneId.of("America/Recife");
+
+    @Mock
+    private JobExecucaoRepository jobExecucaoRepository;
+
+    @InjectMocks
+    private JobExecucaoService jobExecucaoService;
+
+    private static JobExecucao sucessoEm(ZonedDateTime inicio) {
+        return JobExecucao.builder().job("job").rodada(inicio.toLocalDate().toString()).tipo(TipoExecucaoJob.AGENDADA)
+                .status(StatusJobExecucao.SUCESSO).no("no")
+                .inicio(inicio.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime()).build();
+    }
+
+    @Test
+    void horariosPerdidos_listaOsHorariosDoCronDepoisDoUltimoSucesso() {
+        when(jobExecucaoRepository.findFirstByJobAndStatusOrderByInicioDesc("job", StatusJobExecucao.SUCESSO))
+                .thenReturn(Optional.of(sucessoEm(ZonedDateTime.of(2026, 3, 10, 9, 0, 2, 0, RECIFE))));
+
+        List<ZonedDateTime> perdidos = jobExecucaoService.horariosPerdidos("job", "0 0 9 * * ?",
+                ZonedDateTime.of(2026, 3, 13, 8, 30, 0, 0, RECIFE));
+
+        assertThat(perdidos).extracting(ZonedDateTime::toLocalDate).extracting(Object::toString)
+                .containsExactly("2026-03-11", "2026-03-12");
+    }
+
+    @Test
+    void horariosPerdidos_semSucessoNoHistorico_naoRecupera() {
+        when(jobExecucaoRepository.findFirstByJobAndStatusOrderByInicioDesc("job", StatusJobExecucao.SUCESSO))
+                .thenReturn(Optional.empty());
+
+        assertThat(jobExecucaoService.horariosPerdidos("job", "0 0 9 * * ?", ZonedDateTime.now(RECIFE))).isEmpty();
+    }
+
+    @Test
+    void encerrarInterrompidas_marcaErroSoNasDeOutrasInstancias() {
+        JobExecucao daQueCaiu = JobExecucao.builder().id(1L).job("job").rodada("2026-03-10").tipo(TipoExecucaoJob.AGENDADA)
+                .status(StatusJobExecucao.EXECUTANDO).no("123@outro").inicio(LocalDateTime.now().minusHours(2)).build();
+        JobExecucao destaInstancia = JobExecucao.builder().id(2L).job("job").rodada("manual").tipo(TipoExecucaoJob.MANUAL)
+                .status(StatusJobExecucao.EXECUTANDO).no(CoordenacaoJobs.NO).inicio(LocalDateTime.now()).build();
+        when(jobExecucaoRepository.findByJobAndStatus("job", StatusJobExecucao.EXECUTANDO)).thenReturn(List.of(daQueCaiu, destaInstancia));
+
+        int encerradas = jobExecucaoService.encerrarInterrompidas("job");
+
+        assertThat(encerradas).isEqualTo(1);
+        assertThat(daQueCaiu.getStatus()).isEqualTo(StatusJobExecucao.ERRO);
+        assertThat(daQueCaiu.getFim()).isNotNull();
+        assertThat(daQueCaiu.getMensagemErro()).contains("123@outro");
+        assertThat(destaInstancia.getStatus()).isEqualTo(StatusJobExecucao.EXECUTANDO);
+        verify(jobExecucaoRepository).save(daQueCaiu);
+        verify(jobExecucaoRepository, never()).save(destaInstancia);
+    }
+
+    @Test
+    void concluir_comLotesComErro_marcaFalhaComDuracaoEMensagem() {
+        JobExecucao execucao = JobExecucao.builder().id(7L).job("job").rodada("2026-03-10").tipo(TipoExecucaoJob.MANUAL)
+                .status(StatusJobExecucao.EXECUTANDO).no("no").inicio(LocalDateTime.now().minusSeconds(3)).build();
+        when(jobExecucaoRepository.findById(7L)).thenReturn(Optional.of(execucao));
+        when(jobExecucaoRepository.save(any(JobExecucao.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        JobExecucaoDTO dto = jobExecucaoService.concluir(7L, 120, 4, 1, new IllegalStateException("timeout no lote"));
+
+        assertThat(dto.getStatus()).isEqualTo("FALHA");
+        assertThat(dto.getLinhasProcessadas()).isEqualTo(120);
+        assertThat(dto.getLotes()).isEqualTo(4);
+        assertThat(dto.getDuracaoMs()).isGreaterThanOrEqualTo(3000);
+        assertThat(dto.getMensagemErro()).isEqualTo("timeout no lote");
+    }
+}
@@ -0,0 +1,108 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.Aluno;
+import br.com.newmusic.domain.ListaEspera;
+import br.com.newmusic.domain.Turma;
+import br.com.newmusic.repository.AlunoRepository;
+import br.com.newmusic.repository.ListaEsperaRepository;
+import br.com.newmusic.repository.MatriculaRepository;
+import br.com.newmusic.repository.TurmaRepository;
+import br.com.newmusic.web.dto.ListaEsperaDTO;
+import br.com.newmusic.web.dto.MatriculaInput;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ListaEsperaServiceTest {
+
+    @Mock
+    private ListaEsperaRepository listaEsperaRepository;
+    @Mock
+    private AlunoRepository alunoRepository;
+    @Mock
+    private TurmaRepository turmaRepository;
+    @Mock
+    private MatriculaRepository matriculaRepository;
+    @Mock
+    private MatriculaService matriculaService;
+    @Mock
+    private AuditService auditService;
+
+    @InjectMocks
+    private ListaEsperaService listaEsperaService;
+
+    private Aluno aluno;
+    private Turma turma;
+    private MatriculaInput input;
+
+    @BeforeEach
+    void setUp() {
+        aluno = Aluno.builder().id(10L).nome("Aluno Teste").ativo(true).build();
+        turma = Turma.builder().id(1L).capacidade(8).build();
+        input = new MatriculaInput();
+        input.setAlunoId(10L);
+        input.setTurmaId(1L);
+        input.setDataInicio(LocalDate.of(2026, 3, 2));
+        when(alunoRepository.findById(10L)).thenReturn(Optional.of(aluno));
+        when(turmaRepository.findById(1L)).thenReturn(Optional.of(turma));
+    }
+
+    private void salvarComId() {
+        when(listaEsperaRepository.save(any())).thenAnswer(inv -> {
+            ListaEspera e = inv.getArgument(0);
+            e.setId(50L);
+            return e;
+        });
+    }
+
+    @Test
+    void inscrever_turmaLotada_entraNoFimDaFila() {
+        ListaEspera anterior = ListaEspera.builder().id(49L).turma(turma).aluno(Aluno.builder().id(9L).build()).build();
+        salvarComId();
+        when(matriculaService.promoverListaEspera(1L)).thenReturn(Map.of());
+        when(listaEsperaRepository.findByTurmaIdWithAluno(1L)).thenAnswer(inv ->
+                List.of(anterior, ListaEspera.builder().id(50L).turma(turma).aluno(aluno).build()));
+
+        ListaEsperaDTO dto = listaEsperaService.inscrever(input);
+
+        assertThat(dto.getPosicao()).isEqualTo(2);
+        assertThat(dto.getMatriculaId()).isNull();
+    }
+
+    @Test
+    void inscrever_vagaLiberadaNoMeioTempo_matriculaNaHora() {
+        salvarComId();
+        when(matriculaService.promoverListaEspera(1L)).thenReturn(Map.of(10L, 300L));
+
+        ListaEsperaDTO dto = listaEsperaService.inscrever(input);
+
+        assertThat(dto.getMatriculaId()).isEqualTo(300L);
+        assertThat(dto.getPosicao()).isNull();
+        verify(listaEsperaRepository, never()).findByTurmaIdWithAluno(any());
+    }
+
+    @Test
+    void inscrever_alunoJaNaFila_lancaExcecao() {
+        when(listaEsperaRepository.existsByTurmaIdAndAlunoId(1L, 10L)).thenReturn(true);
+
+        assertThatThrownBy(() -> listaEsperaService.inscrever(input))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("já está na lista de espera");
+    }
+}
@@ -10,9 +10,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -33,6 +36,14 @@ class MatriculaServiceTest {
     private MensalidadeService mensalidadeService;
     @Mock
     private AuditService auditService;
+    @Mock
+    private DashboardKpiService dashboardKpiService;
+
+    @Mock
+    private PagamentoEmDiaCache pagamentoEmDiaCache;
+
+    @Mock
+    private ListaEsperaRepository listaEsperaRepository;
 
     @InjectMocks
     private MatriculaService matriculaService;
@@ -111,12 +122,71 @@ class MatriculaServiceTest {
         mat.setTurma(turma);
         mat.setDataInicio(LocalDate.now());
         mat.setDataFim(LocalDate.now().plusMonths(12));
+        mat.setAtivo(true);
         when(matriculaRepository.findById(100L)).thenReturn(Optional.of(mat));
 
         matriculaService.excluir(100L);
 
         verify(mensalidadeService).excluirPorMatriculaId(eq(100L), eq(10L), any(), any());
         verify(matriculaRepository).delete(mat);
+        verify(turmaRepository).liberarVaga(1L);
+        verify(listaEsperaRepository).findProximaParaPromover(1L);
         verify(auditService).registrar(eq("EXCLUIR"), eq("matriculas"), eq("100"), any(), any());
     }
+
+    @Test
+    void criar_quandoTurmaLotada_naoSalvaESugereListaDeEspera() {
+        MatriculaInput input = new MatriculaInput();
+        input.setAlunoId(1L);
+        input.setTurmaId(1L);
+        input.setDataInicio(LocalDate.now());
+        Aluno aluno = new Aluno();
+        aluno.setId(1L);
+        aluno.setAtivo(true);
+        Turma turma = new Turma();
+        turma.setId(1L);
+        turma.setCapacidade(10);
+        when(alunoRepository.findById(1L)).thenReturn(Optional.of(aluno));
+        when(turmaRepository.findByIdWithHorarios(1L)).thenReturn(Optional.of(turma));
+        when(turmaRepository.reservarVaga(1L)).thenReturn(List.of());
+
+        assertThatThrownBy(() -> matriculaService.criar(input))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("lista de espera");
+
+        verify(matriculaRepository, never()).countByTurmaIdAndAtivoTrue(any());
+        verify(matriculaRepository, never()).save(any());
+    }
+
+    @Test
+    void promoverListaEspera_matriculaPorOrdemDeChegadaEnquantoHouverVaga() {
+        Turma turma = new Turma();
+        turma.setId(1L);
+        turma.setInstrumento(new Instrumento());
+        ListaEspera primeiro = entradaDaFila(1L, 21L, turma);
+        ListaEspera segundo = entradaDaFila(2L, 22L, turma);
+        when(listaEsperaRepository.findProximaParaPromover(1L)).thenReturn(Optional.of(primeiro), Optional.of(segundo));
+        when(turmaRepository.findByIdWithHorarios(1L)).thenReturn(Optional.of(turma));
+        when(turmaRepository.reservarVaga(1L)).thenReturn(List.of(10), List.of());
+        when(matriculaRepository.save(any())).thenAnswer(inv -> {
+            Matricula m = inv.getArgument(0);
+            m.setId(500L);
+            return m;
+        });
+
+        var criadas = matriculaService.promoverListaEspera(1L);
+
+        assertThat(criadas).containsExactly(Map.entry(21L, 500L));
+        verify(listaEsperaRepository).delete(primeiro);
+        verify(listaEsperaRepository, never()).delete(segundo);
+    }
+
+    private static ListaEspera entradaDaFila(Long id, Long alunoId, Turma turma) {
+        Aluno aluno = new Aluno();
+        aluno.setId(alunoId);
+        aluno.setNome("Aluno " + alunoId);
+        aluno.setAtivo(true);
+        return ListaEspera.builder().id(id).turma(turma).aluno(aluno).dataInicio(LocalDate.now().minusDays(3))
+                .criadoEm(LocalDateTime.now().minusDays(id)).build();
+    }
 }
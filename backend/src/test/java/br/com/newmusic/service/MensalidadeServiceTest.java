@@ -4,22 +4,34 @@ import br.com.newmusic.domain.*;
 import br.com.newmusic.repository.AlunoRepository;
 import br.com.newmusic.repository.MatriculaRepository;
 import br.com.newmusic.repository.MensalidadeRepository;
+import br.com.newmusic.repository.ReceitaDiariaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import br.com.newmusic.web.dto.BaixaPagamentoInput;
+
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,41 +47,43 @@ class MensalidadeServiceTest {
     @Mock
     private MatriculaRepository matriculaRepository;
 
+    @Mock
+    private DashboardKpiService dashboardKpiService;
+
+    @Mock
+    private ReportCache reportCache;
+
+    @Mock
+    private ReceitaDiariaRepository receitaDiariaRepository;
+
+    @Mock
+    private AuditService auditService;
+
+    @Mock
+    private CalendarioUteis calendarioUteis;
+
+    @Mock
+    private FechamentoMensalService fechamentoMensalService;
+
+    @Spy
+    private PagamentoEmDiaCache pagamentoEmDiaCache = new PagamentoEmDiaCache(Duration.ofMinutes(2));
+
     @InjectMocks
     private MensalidadeService mensalidadeService;
 
     private Aluno aluno;
-    private Mensalidade mensalidadePaga;
-    private Mensalidade mensalidadePendente;
 
     @BeforeEach
     void setUp() {
         aluno = new Aluno();
         aluno.setId(1L);
         aluno.setNome("Aluno Teste");
-
-        mensalidadePaga = new Mensalidade();
-        mensalidadePaga.setId(1L);
-        mensalidadePaga.setAluno(aluno);
-        mensalidadePaga.setAno(LocalDate.now().getYear());
-        mensalidadePaga.setMes(LocalDate.now().getMonthValue());
-        mensalidadePaga.setStatus(StatusMensalidade.PAGO);
-
-        mensalidadePendente = new Mensalidade();
-        mensalidadePendente.setId(2L);
-        mensalidadePendente.setAluno(aluno);
-        mensalidadePendente.setAno(LocalDate.now().getYear());
-        mensalidadePendente.setMes(LocalDate.now().getMonthValue());
-        mensalidadePendente.setStatus(StatusMensalidade.PENDENTE);
     }
 
     @Test
-    void alunoPagamentoEmDia_quandoExisteMensalidadePagaNoMesCorrente_retornaTrue() {
-        when(mensalidadeRepository.findByAlunoIdAndMatricula_AtivoTrueAndAnoAndMes(
-                eq(1L),
-                eq(LocalDate.now().getYear()),
-                eq(LocalDate.now().getMonthValue())))
-                .thenReturn(Optional.of(mensalidadePaga));
+    void alunoPagamentoEmDia_quandoMensalidadeDoMesCorrenteEstaPaga_retornaTrue() {
+        when(mensalidadeRepository.findAlunoIdsComMesPago(List.of(1L), LocalDate.now().getYear(), LocalDate.now().getMonthValue(), StatusMensalidade.PAGO))
+                .thenReturn(List.of(1L));
 
         boolean resultado = mensalidadeService.alunoPagamentoEmDia(1L);
 
@@ -78,11 +92,8 @@ class MensalidadeServiceTest {
 
     @Test
     void alunoPagamentoEmDia_quandoNaoExisteMensalidadeOuEstaPendente_retornaFalse() {
-        when(mensalidadeRepository.findByAlunoIdAndMatricula_AtivoTrueAndAnoAndMes(
-                eq(1L),
-                eq(LocalDate.now().getYear()),
-                eq(LocalDate.now().getMonthValue())))
-                .thenReturn(Optional.of(mensalidadePendente));
+        when(mensalidadeRepository.findAlunoIdsComMesPago(List.of(1L), LocalDate.now().getYear(), LocalDate.now().getMonthValue(), StatusMensalidade.PAGO))
+                .thenReturn(List.of());
 
         boolean resultado = mensalidadeService.alunoPagamentoEmDia(1L);
 
@@ -90,36 +101,94 @@ class MensalidadeServiceTest {
     }
 
     @Test
-    void alunoPagamentoEmDia_quandoNaoExisteMensalidade_retornaFalse() {
-        when(mensalidadeRepository.findByAlunoIdAndMatricula_AtivoTrueAndAnoAndMes(
-                eq(1L),
-                eq(LocalDate.now().getYear()),
-                eq(LocalDate.now().getMonthValue())))
-                .thenReturn(Optional.empty());
+    void statusPagamentoMesAtual_resolveATurmaNumaConsultaEReaproveitaOCache() {
+        when(mensalidadeRepository.findAlunoIdsComMesPago(anyList(), anyInt(), anyInt(), eq(StatusMensalidade.PAGO)))
+                .thenReturn(List.of(1L, 3L));
 
-        boolean resultado = mensalidadeService.alunoPagamentoEmDia(1L);
+        Map<Long, Boolean> status = mensalidadeService.statusPagamentoMesAtual(List.of(1L, 2L, 3L));
+        boolean aluno2 = mensalidadeService.alunoPagamentoEmDia(2L);
 
-        assertThat(resultado).isFalse();
+        assertThat(status).containsEntry(1L, true).containsEntry(2L, false).containsEntry(3L, true);
+        assertThat(aluno2).isFalse();
+        verify(mensalidadeRepository, times(1)).findAlunoIdsComMesPago(anyList(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void darBaixa_invalidaCacheDePagamentoEmDia() {
+        when(mensalidadeRepository.findAlunoIdsComMesPago(anyList(), anyInt(), anyInt(), eq(StatusMensalidade.PAGO)))
+                .thenReturn(List.of(), List.of(1L));
+        Mensalidade pendente = Mensalidade.builder().id(2L).aluno(aluno).ano(2026).mes(1).valor(new BigDecimal("180.00"))
+                .vencimento(LocalDate.of(2026, 1, 10)).status(StatusMensalidade.PENDENTE).build();
+        when(mensalidadeRepository.findById(2L)).thenReturn(Optional.of(pendente));
+        when(mensalidadeRepository.save(pendente)).thenReturn(pendente);
+
+        assertThat(mensalidadeService.alunoPagamentoEmDia(1L)).isFalse();
+        mensalidadeService.darBaixa(2L, new BaixaPagamentoInput(), null);
+
+        assertThat(mensalidadeService.alunoPagamentoEmDia(1L)).isTrue();
     }
 
     @Test
-    void atualizarPendentesParaAtrasado_atualizaMensalidadesVencidas() {
-        LocalDate ontem = LocalDate.now().minusDays(1);
-        mensalidadePendente.setVencimento(ontem);
-        mensalidadePendente.setValor(new BigDecimal("100.00"));
-        when(mensalidadeRepository.findByStatusAndVencimentoBefore(
-                eq(StatusMensalidade.PENDENTE),
-                eq(LocalDate.now())))
-                .thenReturn(List.of(mensalidadePendente));
-        when(mensalidadeRepository.saveAll(any())).thenAnswer(i -> i.getArgument(0));
+    void darBaixa_comDataEmMesFechado_naoAlteraAParcela() {
+        Mensalidade pendente = Mensalidade.builder().id(2L).aluno(aluno).ano(2026).mes(1).valor(new BigDecimal("180.00"))
+                .vencimento(LocalDate.of(2026, 1, 10)).status(StatusMensalidade.PENDENTE).build();
+        when(mensalidadeRepository.findById(2L)).thenReturn(Optional.of(pendente));
+        doThrow(new IllegalArgumentException("fechado")).when(fechamentoMensalService).exigirPagamentoEmMesAberto(LocalDate.of(2026, 1, 20));
+        BaixaPagamentoInput input = new BaixaPagamentoInput();
+        input.setDataPagamento(LocalDate.of(2026, 1, 20));
+
+        assertThatThrownBy(() -> mensalidadeService.darBaixa(2L, input, null)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(pendente.getStatus()).isEqualTo(StatusMensalidade.PENDENTE);
+        verify(mensalidadeRepository, never()).save(any());
+        verify(receitaDiariaRepository, never()).registrarPagamento(any(), any(), any());
+    }
+
+    @Test
+    void atualizarPendentesParaAtrasado_atualizaMensalidadesVencidasNumUnicoUpdate() {
+        when(mensalidadeRepository.marcarVencidasComoAtrasado(any(LocalDate.class), any(LocalDate.class),
+                eq(new BigDecimal("0.10")), eq(new BigDecimal("0.01")), eq(0L), eq(Long.MAX_VALUE)))
+                .thenReturn(3);
 
         int atualizadas = mensalidadeService.atualizarPendentesParaAtrasado();
 
-        assertThat(atualizadas).isEqualTo(1);
-        assertThat(mensalidadePendente.getStatus()).isEqualTo(StatusMensalidade.ATRASADO);
-        assertThat(mensalidadePendente.getValorMulta()).isEqualByComparingTo(new BigDecimal("10.00"));
-        // Juros: 0 ou 1 dia conforme horário (só conta novo dia após 9h)
-        assertThat(mensalidadePendente.getValorJuros()).isIn(new BigDecimal("0.00"), new BigDecimal("1.00"));
-        verify(mensalidadeRepository).saveAll(any());
+        assertThat(atualizadas).isEqualTo(3);
+        verify(reportCache).invalidar(Mensalidade.class);
+        verify(dashboardKpiService).recalcularFinanceiro();
+        verify(mensalidadeRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void atualizarMultaJurosAtrasados_semAlteracao_naoInvalidaCache() {
+        when(mensalidadeRepository.recalcularMultaJurosAtrasados(any(LocalDate.class),
+                eq(new BigDecimal("0.10")), eq(new BigDecimal("0.01")), eq(0L), eq(Long.MAX_VALUE)))
+                .thenReturn(0);
+
+        int atualizadas = mensalidadeService.atualizarMultaJurosAtrasados();
+
+        assertThat(atualizadas).isZero();
+        verify(reportCache, never()).invalidar(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void criarMensalidadesParaMatriculas_geraTudoNumSaveAllEIgnoraMatriculaComParcelas() {
+        Matricula nova = Matricula.builder().id(10L).aluno(aluno).dataInicio(LocalDate.of(2030, 2, 1)).dataFim(LocalDate.of(2031, 2, 1))
+                .valorCurso(new BigDecimal("180.00")).dataVencimento(LocalDate.of(2030, 2, 10)).aulasPorSemana(2).build();
+        Matricula jaGerada = Matricula.builder().id(11L).aluno(aluno).dataInicio(LocalDate.of(2030, 2, 1)).dataFim(LocalDate.of(2031, 2, 1))
+                .valorCurso(new BigDecimal("180.00")).dataVencimento(LocalDate.of(2030, 2, 10)).aulasPorSemana(2).build();
+        when(mensalidadeRepository.findMatriculaIdsComMensalidade(List.of(10L, 11L))).thenReturn(List.of(11L));
+        when(matriculaRepository.findByIdInWithAluno(List.of(10L, 11L))).thenReturn(List.of(nova, jaGerada));
+        when(calendarioUteis.proximoDiaUtil(any(LocalDate.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        int criadas = mensalidadeService.criarMensalidadesParaMatriculas(List.of(10L, 11L));
+
+        assertThat(criadas).isEqualTo(12);
+        ArgumentCaptor<List<Mensalidade>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mensalidadeRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).hasSize(12)
+                .allMatch(m -> m.getMatricula() == nova && m.getStatus() == StatusMensalidade.PENDENTE);
+        verify(mensalidadeRepository, never()).save(any());
+        verify(dashboardKpiService).recalcularFinanceiro();
     }
 }
@@ -0,0 +1,56 @@
+package br.com.newmusic.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PagamentoEmDiaCacheTest {
+
+    private static final YearMonth MES = YearMonth.of(2026, 3);
+
+    private final PagamentoEmDiaCache cache = new PagamentoEmDiaCache(Duration.ofMinutes(2),
+            Clock.fixed(Instant.parse("2026-03-10T12:00:00Z"), ZoneOffset.UTC));
+    private final List<List<Long>> consultas = new ArrayList<>();
+
+    private Map<Long, Boolean> obter(YearMonth mes, List<Long> alunoIds) {
+        return cache.obter(mes, alunoIds, faltantes -> {
+            consultas.add(faltantes);
+            return faltantes.contains(1L) ? List.of(1L) : List.of();
+        });
+    }
+
+    @Test
+    void obter_consultaSoOsAlunosForaDoCache() {
+        obter(MES, List.of(1L, 2L));
+        Map<Long, Boolean> status = obter(MES, List.of(1L, 2L, 3L, 3L));
+
+        assertThat(status).containsEntry(1L, true).containsEntry(2L, false).containsEntry(3L, false);
+        assertThat(consultas).containsExactly(List.of(1L, 2L), List.of(3L));
+    }
+
+    @Test
+    void obter_outroMes_naoReaproveitaEntradas() {
+        obter(MES, List.of(1L));
+        obter(MES.plusMonths(1), List.of(1L));
+
+        assertThat(consultas).hasSize(2);
+    }
+
+    @Test
+    void invalidar_foraDeTransacao_limpaNaHora() {
+        obter(MES, List.of(1L));
+        cache.invalidar();
+        obter(MES, List.of(1L));
+
+        assertThat(consultas).hasSize(2);
+    }
+}
@@ -33,6 +33,12 @@ class PresencaProfessorServiceTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private CalendarioUteis calendarioUteis;
+
+    @Mock
+    private GradeHorariaIndex gradeHorariaIndex;
+
     @InjectMocks
     private PresencaProfessorService presencaProfessorService;
 
@@ -50,7 +56,7 @@ class PresencaProfessorServiceTest {
         Professor prof = new Professor();
         prof.setId(1L);
         when(professorRepository.findById(1L)).thenReturn(Optional.of(prof));
-        when(turmaRepository.findByProfessorIdWithHorarios(1L)).thenReturn(List.of());
+        when(gradeHorariaIndex.turmasDoProfessorNoDia(1L, 1)).thenReturn(List.of());
         when(presencaProfessorRepository.findByProfessorIdAndDataAulaOrderByTurma_Id(1L, LocalDate.of(2025, 2, 17))).thenReturn(List.of());
 
         var result = presencaProfessorService.listarChamadaPorProfessorEData(1L, LocalDate.of(2025, 2, 17));
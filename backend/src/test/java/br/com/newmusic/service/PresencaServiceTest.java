@@ -14,6 +14,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -40,6 +41,12 @@ class PresencaServiceTest {
     @Mock
     private br.com.newmusic.service.AuditService auditService;
 
+    @Mock
+    private CalendarioUteis calendarioUteis;
+
+    @Mock
+    private GradeHorariaIndex gradeHorariaIndex;
+
     @InjectMocks
     private PresencaService presencaService;
 
@@ -78,8 +85,9 @@ class PresencaServiceTest {
     @Test
     void salvarLote_quandoAlunoNaoEstaEmDia_comPresenteTrue_lancaExcecao() {
         when(turmaRepository.findById(1L)).thenReturn(Optional.of(turma));
-        when(matriculaRepository.findById(100L)).thenReturn(Optional.of(matricula));
-        when(mensalidadeService.alunoPagamentoEmDia(10L)).thenReturn(false);
+        when(matriculaRepository.findByIdInWithAluno(List.of(100L))).thenReturn(List.of(matricula));
+        when(mensalidadeService.statusPagamentoMesAtual(List.of(10L))).thenReturn(Map.of(10L, false));
+        when(presencaRepository.findByTurmaIdAndDataAulaWithAluno(1L, input.getDataAula())).thenReturn(List.of());
 
         assertThatThrownBy(() -> presencaService.salvarLote(1L, input))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -92,13 +100,10 @@ class PresencaServiceTest {
     @Test
     void salvarLote_quandoAlunoEstaEmDia_salvaPresenca() {
         when(turmaRepository.findById(1L)).thenReturn(Optional.of(turma));
-        when(matriculaRepository.findById(100L)).thenReturn(Optional.of(matricula));
-        when(mensalidadeService.alunoPagamentoEmDia(10L)).thenReturn(true);
-        when(presencaRepository.findByTurmaIdAndMatriculaIdAndDataAula(1L, 100L, input.getDataAula()))
-                .thenReturn(Optional.empty());
+        when(matriculaRepository.findByIdInWithAluno(List.of(100L))).thenReturn(List.of(matricula));
+        when(mensalidadeService.statusPagamentoMesAtual(List.of(10L))).thenReturn(Map.of(10L, true));
+        when(presencaRepository.findByTurmaIdAndDataAulaWithAluno(1L, input.getDataAula())).thenReturn(List.of());
         when(presencaRepository.save(any())).thenAnswer(i -> i.getArgument(0));
-        when(presencaRepository.findByTurmaIdAndDataAulaOrderByMatricula_Aluno_Nome(1L, input.getDataAula()))
-                .thenReturn(List.of());
 
         presencaService.salvarLote(1L, input);
 
@@ -0,0 +1,113 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.Mensalidade;
+import br.com.newmusic.repository.MatriculaRepository;
+import br.com.newmusic.repository.MensalidadeRepository;
+import br.com.newmusic.web.dto.PrevisaoMesDTO;
+import br.com.newmusic.web.dto.PrevisaoRecebimentosDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PrevisaoRecebimentosServiceTest {
+
+    @Mock
+    private MensalidadeRepository mensalidadeRepository;
+
+    @Mock
+    private MatriculaRepository matriculaRepository;
+
+    private ReportCache reportCache;
+    private PrevisaoRecebimentosService previsaoRecebimentosService;
+
+    @BeforeEach
+    void setUp() {
+        reportCache = new ReportCache(Duration.ofMinutes(10), 1000, Clock.systemUTC());
+        previsaoRecebimentosService = new PrevisaoRecebimentosService(mensalidadeRepository, matriculaRepository, reportCache);
+    }
+
+    @Test
+    void calcular_descontaInadimplenciaDoMesDoAnoESomaRecuperacaoDosAtrasados() {
+        LocalDate inicio = LocalDate.of(2026, 3, 1);
+        when(mensalidadeRepository.somarEmAbertoPorMesVencimento(anyList(), eq(inicio), eq(LocalDate.of(2027, 3, 1))))
+                .thenReturn(List.of(new Object[]{2026, 3, 2L, new BigDecimal("300.00")}, new Object[]{2026, 5, 1L, new BigDecimal("150.00")}));
+        when(matriculaRepository.somarMesesContratadosSemParcela(inicio, LocalDate.of(2027, 2, 1)))
+                .thenReturn(List.<Object[]>of(new Object[]{2026, 4, 1L, new BigDecimal("200.00")}));
+        when(mensalidadeRepository.historicoRecebimentoPorMes(LocalDate.of(2024, 1, 1), LocalDate.of(2026, 1, 1), 30))
+                .thenReturn(List.of(new Object[]{3, new BigDecimal("1000"), new BigDecimal("100"), new BigDecimal("200"), new BigDecimal("150")},
+                        new Object[]{5, new BigDecimal("1000"), new BigDecimal("300"), new BigDecimal("400"), new BigDecimal("200")}));
+        when(mensalidadeRepository.somarEmAbertoVencidasAntesDe(anyList(), eq(inicio)))
+                .thenReturn(List.<Object[]>of(new Object[]{4L, new BigDecimal("600.00")}));
+
+        PrevisaoRecebimentosDTO previsao = previsaoRecebimentosService.calcular(YearMonth.of(2026, 3));
+
+        assertThat(previsao.getMeses()).hasSize(12);
+        assertThat(previsao.getTaxaRecuperacaoAtrasados()).isEqualByComparingTo("0.5833");
+        PrevisaoMesDTO marco = previsao.getMeses().get(0);
+        assertThat(marco.getTaxaInadimplencia()).isEqualByComparingTo("0.1");
+        assertThat(marco.getValorAtrasadoRecuperavel()).isEqualByComparingTo("349.98");
+        assertThat(marco.getValorPrevisto()).isEqualByComparingTo("619.98");
+        PrevisaoMesDTO abril = previsao.getMeses().get(1);
+        assertThat(abril.getParcelasProgramadas()).isEqualTo(1);
+        assertThat(abril.getTaxaInadimplencia()).isEqualByComparingTo("0.2"); // sem histórico do mês: taxa geral
+        assertThat(abril.getValorPrevisto()).isEqualByComparingTo("160.00");
+        assertThat(previsao.getMeses().get(2).getValorPrevisto()).isEqualByComparingTo("105.00");
+        assertThat(previsao.getMeses().get(3).getValorPrevisto()).isEqualByComparingTo("0");
+        assertThat(previsao.getTotalPrevisto()).isEqualByComparingTo("884.98");
+    }
+
+    @Test
+    void calcular_parcelaPendenteAindaNoPrazo_ficaForaDoHistorico() {
+        when(mensalidadeRepository.somarEmAbertoPorMesVencimento(anyList(), any(), any())).thenReturn(List.of());
+        when(matriculaRepository.somarMesesContratadosSemParcela(any(), any())).thenReturn(List.of());
+        when(mensalidadeRepository.historicoRecebimentoPorMes(any(), any(), anyInt())).thenReturn(List.of());
+        when(mensalidadeRepository.somarEmAbertoVencidasAntesDe(anyList(), any())).thenReturn(List.of());
+
+        previsaoRecebimentosService.calcular(YearMonth.of(2026, 3));
+
+        ArgumentCaptor<LocalDate> inicio = ArgumentCaptor.forClass(LocalDate.class);
+        ArgumentCaptor<LocalDate> fim = ArgumentCaptor.forClass(LocalDate.class);
+        verify(mensalidadeRepository).historicoRecebimentoPorMes(inicio.capture(), fim.capture(), eq(30));
+        // PENDENTE vencida em 10/02: em 01/03 ainda está na tolerância, não pode contar como não recebida
+        assertThat(fim.getValue()).isBeforeOrEqualTo(LocalDate.of(2026, 2, 10));
+        // vencida em 31/12: a tolerância acabou em 30/01
+        assertThat(fim.getValue()).isAfter(LocalDate.of(2025, 12, 31));
+        assertThat(inicio.getValue()).isEqualTo(fim.getValue().minusMonths(24));
+    }
+
+    @Test
+    void previsao_ficaEmCacheAteEscritaEmMensalidade() {
+        when(mensalidadeRepository.somarEmAbertoPorMesVencimento(anyList(), any(), any())).thenReturn(List.of());
+        when(matriculaRepository.somarMesesContratadosSemParcela(any(), any())).thenReturn(List.of());
+        when(mensalidadeRepository.historicoRecebimentoPorMes(any(), any(), anyInt())).thenReturn(List.of());
+        when(mensalidadeRepository.somarEmAbertoVencidasAntesDe(anyList(), any())).thenReturn(List.of());
+
+        previsaoRecebimentosService.previsao();
+        previsaoRecebimentosService.previsao();
+        reportCache.invalidar(Mensalidade.class);
+        PrevisaoRecebimentosDTO previsao = previsaoRecebimentosService.previsao();
+
+        assertThat(previsao.getTotalPrevisto()).isEqualByComparingTo("0");
+        verify(mensalidadeRepository, times(2)).historicoRecebimentoPorMes(any(), any(), anyInt());
+    }
+}
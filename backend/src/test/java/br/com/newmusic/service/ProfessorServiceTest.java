@@ -1,6 +1,7 @@
 package br.com.newmusic.service;
 
 import br.com.newmusic.domain.Professor;
+import br.com.newmusic.domain.Turma;
 import br.com.newmusic.repository.PresencaProfessorRepository;
 import br.com.newmusic.repository.PresencaRepository;
 import br.com.newmusic.repository.ProfessorRepository;
@@ -42,6 +43,11 @@ class ProfessorServiceTest {
     private PasswordEncoder passwordEncoder;
     @Mock
     private AuditService auditService;
+    @Mock
+    private DashboardKpiService dashboardKpiService;
+
+    @Mock
+    private GradeHorariaIndex gradeHorariaIndex;
 
     @InjectMocks
     private ProfessorService professorService;
@@ -133,4 +139,20 @@ class ProfessorServiceTest {
         verify(professorRepository).delete(prof);
         verify(auditService).registrar(eq("EXCLUIR"), eq("professores"), eq("1"), any(), any());
     }
+
+    @Test
+    void excluir_comTurmaSemAlunos_tiraATurmaDaGrade() {
+        Professor prof = new Professor();
+        prof.setId(1L);
+        prof.setNome("Maria");
+        Turma turma = Turma.builder().id(5L).build();
+        when(professorRepository.findById(1L)).thenReturn(Optional.of(prof));
+        when(turmaRepository.findByProfessor_IdOrderById(1L)).thenReturn(List.of(turma));
+        when(presencaProfessorRepository.findByProfessorId(1L)).thenReturn(List.of());
+
+        professorService.excluir(1L);
+
+        verify(turmaRepository).delete(turma);
+        verify(gradeHorariaIndex).turmaExcluida(5L);
+    }
 }
@@ -0,0 +1,281 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.RelatorioJob;
+import br.com.newmusic.domain.StatusRelatorioJob;
+import br.com.newmusic.repository.RelatorioJobRepository;
+import br.com.newmusic.web.dto.RelatorioJobDTO;
+import br.com.newmusic.web.dto.RelatorioJobInput;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RelatorioJobServiceTest {
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private RelatorioJobRepository relatorioJobRepository;
+
+    /** Tabela relatorio_job simulada, compartilhada pelas "instâncias" do teste. */
+    private final Map<String, RelatorioJob> tabela = new ConcurrentHashMap<>();
+
+    @TempDir
+    Path diretorio;
+
+    private RelatorioJobService relatorioJobService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        simularTabela();
+        relatorioJobService = novaInstancia();
+        relatorioJobService.prepararDiretorio();
+    }
+
+    private RelatorioJobService novaInstancia() {
+        ReportExportService exportService = new ReportExportService(new ObjectMapper(), transactionManager);
+        return new RelatorioJobService(reportService, exportService, relatorioJobRepository, transactionManager, diretorio, 1, 5, 1, Duration.ofHours(2));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void simularTabela() {
+        lenient().when(relatorioJobRepository.save(any())).thenAnswer(inv -> {
+            RelatorioJob job = inv.getArgument(0);
+            tabela.put(job.getId(), copia(job));
+            return copia(job);
+        });
+        lenient().when(relatorioJobRepository.findById(any())).thenAnswer(inv ->
+                Optional.ofNullable(tabela.get((String) inv.getArgument(0))).map(RelatorioJobServiceTest::copia));
+        lenient().when(relatorioJobRepository.findByUsuarioIdOrderByCriadoEmDesc(anyLong())).thenAnswer(inv -> tabela.values().stream()
+                .filter(j -> j.getUsuarioId().equals(inv.getArgument(0)))
+                .sorted(Comparator.comparing(RelatorioJob::getCriadoEm).reversed())
+                .map(RelatorioJobServiceTest::copia).toList());
+        lenient().when(relatorioJobRepository.countByUsuarioIdAndStatusIn(anyLong(), any())).thenAnswer(inv -> tabela.values().stream()
+                .filter(j -> j.getUsuarioId().equals(inv.getArgument(0))
+                        && ((Collection<StatusRelatorioJob>) inv.getArgument(1)).contains(j.getStatus()))
+                .count());
+        lenient().when(relatorioJobRepository.findByConcluidoEmBefore(any())).thenAnswer(inv -> tabela.values().stream()
+                .filter(j -> j.getConcluidoEm() != null && j.getConcluidoEm().isBefore(inv.getArgument(0)))
+                .map(RelatorioJobServiceTest::copia).toList());
+        lenient().when(relatorioJobRepository.findByStatusInAndCriadoEmBefore(any(), any())).thenAnswer(inv -> tabela.values().stream()
+                .filter(j -> ((Collection<StatusRelatorioJob>) inv.getArgument(0)).contains(j.getStatus())
+                        && j.getCriadoEm().isBefore(inv.getArgument(1)))
+                .map(RelatorioJobServiceTest::copia).toList());
+        lenient().doAnswer(inv -> tabela.remove(((RelatorioJob) inv.getArgument(0)).getId()))
+                .when(relatorioJobRepository).delete(any());
+    }
+
+    private static RelatorioJob copia(RelatorioJob j) {
+        return RelatorioJob.builder().id(j.getId()).usuarioId(j.getUsuarioId()).relatorio(j.getRelatorio()).formato(j.getFormato())
+                .status(j.getStatus()).linhasProcessadas(j.getLinhasProcessadas()).no(j.getNo()).criadoEm(j.getCriadoEm())
+                .iniciadoEm(j.getIniciadoEm()).concluidoEm(j.getConcluidoEm()).mensagemErro(j.getMensagemErro())
+                .arquivo(j.getArquivo()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        relatorioJobService.encerrar();
+    }
+
+    @Test
+    void enfileirar_auditoria_geraArquivoCompletoEDisponibilizaDownload() throws Exception {
+        when(reportService.relatorioAuditoriaStream(7L, "alunos", null, LocalDateTime.of(2025, 1, 1, 0, 0), null))
+                .thenReturn(Stream.of(linha(1L, "CRIAR"), linha(2L, "EXCLUIR")));
+
+        RelatorioJobDTO job = relatorioJobService.enfileirar(
+                input("auditoria", Map.of("usuarioId", "7", "tabela", " alunos ", "dataInicio", "2025-01-01T00:00:00")), 1L);
+        RelatorioJobDTO concluido = aguardar(job.getId(), 1L);
+
+        assertThat(concluido.getStatus()).isEqualTo("CONCLUIDO");
+        assertThat(concluido.getLinhasProcessadas()).isEqualTo(2);
+        RelatorioJobService.ArquivoRelatorio arquivo = relatorioJobService.arquivo(job.getId(), 1L);
+        assertThat(arquivo.nome()).isEqualTo("relatorio-auditoria.csv");
+        assertThat(Files.readString(arquivo.caminho(), StandardCharsets.UTF_8)).isEqualTo("\uFEFFid;acao\n1;CRIAR\n2;EXCLUIR\n");
+    }
+
+    @Test
+    void consultarEBaixar_emOutraInstancia_usaOStatusGravadoNoBanco() throws Exception {
+        when(reportService.relatorioErrosStream(null, null)).thenReturn(Stream.of(linha(1L, "ERRO")));
+        RelatorioJobDTO job = relatorioJobService.enfileirar(input("erros", Map.of()), 1L);
+        aguardar(job.getId(), 1L);
+
+        RelatorioJobService outraInstancia = novaInstancia();
+        try {
+            outraInstancia.prepararDiretorio();
+            RelatorioJobDTO dto = outraInstancia.consultar(job.getId(), 1L);
+
+            assertThat(dto.getStatus()).isEqualTo("CONCLUIDO");
+            assertThat(dto.getLinhasProcessadas()).isEqualTo(1);
+            assertThat(outraInstancia.arquivo(job.getId(), 1L).caminho()).exists();
+            assertThat(outraInstancia.listar(1L)).extracting(RelatorioJobDTO::getId).containsExactly(job.getId());
+        } finally {
+            outraInstancia.encerrar();
+        }
+    }
+
+    @Test
+    void prepararDiretorio_mantemArquivosRecentesDeOutrasInstancias() throws Exception {
+        Path emEscrita = Files.createFile(diretorio.resolve("relatorio-alunos-1.csv"));
+        Path orfao = Files.createFile(diretorio.resolve("relatorio-alunos-2.csv"));
+        Files.setLastModifiedTime(orfao, FileTime.from(Instant.now().minus(Duration.ofHours(3))));
+
+        relatorioJobService.prepararDiretorio();
+
+        assertThat(emEscrita).exists();
+        assertThat(orfao).doesNotExist();
+    }
+
+    @Test
+    void limparExpirados_jobAtivoDeInstanciaQueCaiu_marcaComErro() {
+        tabela.put("perdido", RelatorioJob.builder().id("perdido").usuarioId(1L).relatorio("alunos").formato("csv")
+                .status(StatusRelatorioJob.EXECUTANDO).no("123@outro").criadoEm(LocalDateTime.now().minusHours(3)).build());
+
+        relatorioJobService.limparExpirados(LocalDateTime.now());
+
+        RelatorioJobDTO dto = relatorioJobService.consultar("perdido", 1L);
+        assertThat(dto.getStatus()).isEqualTo("ERRO");
+        assertThat(dto.getMensagemErro()).contains("123@outro");
+    }
+
+    @Test
+    void enfileirar_novosRelatorios_resolveFontes() {
+        relatorioJobService.fonte("inadimplencia-faixas", Map.of("ano", "2025"));
+        relatorioJobService.fonte("receita-serie", Map.of("granularidade", "semana"));
+        relatorioJobService.fonte("frequencia", Map.of("agrupamento", "turma", "turmaId", "3"));
+        relatorioJobService.fonte("aulas-hoje", Map.of());
+
+        assertThatThrownBy(() -> relatorioJobService.fonte("frequencia", Map.of("turmaId", "x")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Filtro inválido: turmaId");
+    }
+
+    @Test
+    void enfileirar_acimaDoLimitePorUsuario_lancaExcecao() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(reportService.relatorioErrosStream(null, null)).thenAnswer(inv -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            return Stream.of(linha(1L, "ERRO"));
+        });
+
+        RelatorioJobDTO primeiro = relatorioJobService.enfileirar(input("erros", Map.of()), 1L);
+
+        assertThatThrownBy(() -> relatorioJobService.enfileirar(input("erros", Map.of()), 1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Limite de 1 relatório(s) em andamento");
+        liberar.countDown();
+        assertThat(aguardar(primeiro.getId(), 1L).getStatus()).isEqualTo("CONCLUIDO");
+    }
+
+    @Test
+    void enfileirar_contaOsAtivosSobATravaDoUsuario() throws Exception {
+        when(reportService.relatorioErrosStream(null, null)).thenReturn(Stream.of(linha(1L, "ERRO")));
+
+        RelatorioJobDTO job = relatorioJobService.enfileirar(input("erros", Map.of()), 1L);
+        aguardar(job.getId(), 1L);
+
+        InOrder ordem = inOrder(relatorioJobRepository, transactionManager);
+        ordem.verify(transactionManager).getTransaction(any());
+        ordem.verify(relatorioJobRepository).travarUsuario(1L);
+        ordem.verify(relatorioJobRepository).countByUsuarioIdAndStatusIn(eq(1L), any());
+        ordem.verify(relatorioJobRepository).save(any());
+        ordem.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void enfileirar_relatorioOuFiltroInvalido_lancaExcecaoSemEnfileirar() {
+        assertThatThrownBy(() -> relatorioJobService.enfileirar(input("inexistente", Map.of()), 1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Relatório inválido");
+        assertThatThrownBy(() -> relatorioJobService.enfileirar(input("mensalidades", Map.of("ano", "dois mil")), 1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Filtro inválido: ano");
+        assertThat(relatorioJobService.listar(1L)).isEmpty();
+    }
+
+    @Test
+    void consultar_jobDeOutroUsuario_naoEncontrado() throws Exception {
+        when(reportService.relatorioErrosStream(null, null)).thenReturn(Stream.empty());
+        RelatorioJobDTO job = relatorioJobService.enfileirar(input("erros", Map.of()), 1L);
+
+        assertThatThrownBy(() -> relatorioJobService.consultar(job.getId(), 2L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("não encontrado");
+        aguardar(job.getId(), 1L);
+    }
+
+    @Test
+    void limparExpirados_removeJobEArquivoAposRetencao() throws Exception {
+        when(reportService.relatorioErrosStream(null, null)).thenReturn(Stream.of(linha(1L, "ERRO")));
+        RelatorioJobDTO job = relatorioJobService.enfileirar(input("erros", Map.of()), 1L);
+        aguardar(job.getId(), 1L);
+        Path arquivo = relatorioJobService.arquivo(job.getId(), 1L).caminho();
+
+        assertThat(relatorioJobService.limparExpirados(LocalDateTime.now())).isZero();
+        assertThat(relatorioJobService.limparExpirados(LocalDateTime.now().plusHours(3))).isEqualTo(1);
+
+        assertThat(arquivo).doesNotExist();
+        assertThat(relatorioJobService.listar(1L)).isEmpty();
+    }
+
+    private RelatorioJobDTO aguardar(String id, Long usuarioId) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        RelatorioJobDTO dto = relatorioJobService.consultar(id, usuarioId);
+        while (("PENDENTE".equals(dto.getStatus()) || "EXECUTANDO".equals(dto.getStatus())) && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+            dto = relatorioJobService.consultar(id, usuarioId);
+        }
+        return dto;
+    }
+
+    private static RelatorioJobInput input(String relatorio, Map<String, String> filtros) {
+        RelatorioJobInput input = new RelatorioJobInput();
+        input.setRelatorio(relatorio);
+        input.setFiltros(filtros);
+        return input;
+    }
+
+    private static Map<String, Object> linha(Long id, String acao) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", id);
+        m.put("acao", acao);
+        return m;
+    }
+}
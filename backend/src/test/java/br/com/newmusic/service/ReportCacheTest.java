@@ -0,0 +1,181 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.domain.Aluno;
+import br.com.newmusic.domain.FechamentoMensal;
+import br.com.newmusic.domain.Mensalidade;
+import br.com.newmusic.domain.Usuario;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportCacheTest {
+
+    private static final Set<Class<?>> DEP = Set.of(Mensalidade.class, Aluno.class);
+
+    private final RelogioAjustavel clock = new RelogioAjustavel();
+    private final ReportCache cache = new ReportCache(Duration.ofMinutes(10), 100, clock);
+
+    @Test
+    void obter_mesmosFiltros_retornaDoCacheSemRecalcular() {
+        AtomicInteger chamadas = new AtomicInteger();
+
+        cache.obter("mensalidades", DEP, () -> linhas(2, chamadas), 2025, 3, "PENDENTE");
+        List<?> segunda = cache.obter("mensalidades", DEP, () -> linhas(2, chamadas), 2025, 3, " PENDENTE ");
+
+        assertThat(chamadas).hasValue(1);
+        assertThat(segunda).hasSize(2);
+        assertThat(cache.estatisticas().acertos()).isEqualTo(1);
+        assertThat(cache.estatisticas().faltas()).isEqualTo(1);
+    }
+
+    @Test
+    void obter_filtroVazioEquivaleANulo() {
+        AtomicInteger chamadas = new AtomicInteger();
+
+        cache.obter("usuarios", Set.of(Usuario.class), () -> linhas(1, chamadas), "");
+        cache.obter("usuarios", Set.of(Usuario.class), () -> linhas(1, chamadas), (Object) null);
+
+        assertThat(chamadas).hasValue(1);
+    }
+
+    @Test
+    void obter_aposTtl_recalcula() {
+        AtomicInteger chamadas = new AtomicInteger();
+        cache.obter("receita", DEP, () -> linhas(1, chamadas));
+
+        clock.avancar(Duration.ofMinutes(11));
+        cache.obter("receita", DEP, () -> linhas(1, chamadas));
+
+        assertThat(chamadas).hasValue(2);
+    }
+
+    @Test
+    void invalidar_removeSomenteEntradasDependentes() {
+        AtomicInteger chamadas = new AtomicInteger();
+        cache.obter("mensalidades", DEP, () -> linhas(1, chamadas));
+        cache.obter("usuarios", Set.of(Usuario.class), () -> linhas(1, chamadas));
+
+        cache.invalidar(Mensalidade.class);
+        cache.obter("mensalidades", DEP, () -> linhas(1, chamadas));
+        cache.obter("usuarios", Set.of(Usuario.class), () -> linhas(1, chamadas));
+
+        assertThat(chamadas).hasValue(3);
+        assertThat(cache.estatisticas().invalidacoes()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidar_fechamentoMensal_removeRelatoriosQueLeemOFechamento() {
+        AtomicInteger chamadas = new AtomicInteger();
+        Set<Class<?>> comFechamento = Set.of(Mensalidade.class, Aluno.class, FechamentoMensal.class);
+        cache.obter("inadimplencia-faixas", comFechamento, () -> linhas(1, chamadas), 2025, 3);
+        cache.obter("mensalidades", DEP, () -> linhas(1, chamadas), 2025, 3);
+
+        cache.invalidar(FechamentoMensal.class);
+        cache.obter("inadimplencia-faixas", comFechamento, () -> linhas(1, chamadas), 2025, 3);
+        cache.obter("mensalidades", DEP, () -> linhas(1, chamadas), 2025, 3);
+
+        assertThat(chamadas).hasValue(3);
+    }
+
+    @Test
+    void obter_geracaoAlteradaPorOutraInstancia_recalcula() {
+        ReportCacheGeracoes geracoes = mock(ReportCacheGeracoes.class);
+        ReportCache compartilhado = new ReportCache(Duration.ofMinutes(10), 100, clock, geracoes);
+        when(geracoes.ler(DEP)).thenReturn(
+                Map.of("Mensalidade", 1L, "Aluno", 0L),
+                Map.of("Mensalidade", 1L, "Aluno", 0L),
+                Map.of("Mensalidade", 2L, "Aluno", 0L));
+        AtomicInteger chamadas = new AtomicInteger();
+
+        compartilhado.obter("mensalidades", DEP, () -> linhas(1, chamadas));
+        compartilhado.obter("mensalidades", DEP, () -> linhas(1, chamadas));
+        compartilhado.obter("mensalidades", DEP, () -> linhas(1, chamadas));
+        compartilhado.obter("mensalidades", DEP, () -> linhas(1, chamadas));
+
+        assertThat(chamadas).hasValue(2);
+        assertThat(compartilhado.estatisticas().acertos()).isEqualTo(2);
+        assertThat(compartilhado.estatisticas().invalidacoes()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidar_semTransacao_incrementaGeracaoCompartilhada() {
+        ReportCacheGeracoes geracoes = mock(ReportCacheGeracoes.class);
+        ReportCache compartilhado = new ReportCache(Duration.ofMinutes(10), 100, clock, geracoes);
+
+        compartilhado.invalidar(Mensalidade.class);
+
+        verify(geracoes).incrementarAoConcluir(Set.of(Mensalidade.class));
+    }
+
+    @Test
+    void obter_acimaDoPeso_despejaMenosUsadoRecentemente() {
+        AtomicInteger chamadas = new AtomicInteger();
+        // cada resultado pesa 10 linhas x 2 colunas = 20; limite 100
+        for (int i = 0; i < 5; i++) {
+            int ano = 2020 + i;
+            cache.obter("mensalidades", DEP, () -> linhas(10, chamadas), ano);
+        }
+        cache.obter("mensalidades", DEP, () -> linhas(10, chamadas), 2020);
+        cache.obter("mensalidades", DEP, () -> linhas(10, chamadas), 2025);
+
+        assertThat(cache.estatisticas().despejos()).isEqualTo(1);
+        assertThat(cache.estatisticas().peso()).isLessThanOrEqualTo(100);
+        cache.obter("mensalidades", DEP, () -> linhas(10, chamadas), 2020);
+        assertThat(chamadas).hasValue(6);
+    }
+
+    @Test
+    void obter_resultadoGrandeDemais_naoEntraNoCache() {
+        AtomicInteger chamadas = new AtomicInteger();
+
+        cache.obter("alunos", DEP, () -> linhas(50, chamadas));
+        cache.obter("alunos", DEP, () -> linhas(50, chamadas));
+
+        assertThat(chamadas).hasValue(2);
+        assertThat(cache.estatisticas().entradas()).isZero();
+    }
+
+    private static List<Map<String, Object>> linhas(int quantidade, AtomicInteger chamadas) {
+        chamadas.incrementAndGet();
+        return IntStream.range(0, quantidade)
+                .<Map<String, Object>>mapToObj(i -> Map.of("id", (long) i, "nome", "Aluno " + i))
+                .toList();
+    }
+
+    private static final class RelogioAjustavel extends Clock {
+        private Instant agora = Instant.parse("2025-03-10T12:00:00Z");
+
+        void avancar(Duration d) {
+            agora = agora.plus(d);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return agora;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package br.com.newmusic.service;
+
+import br.com.newmusic.web.dto.LinhaRelatorio;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MockitoExtension.class)
+class ReportExportServiceTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReportExportService reportExportService;
+
+    @BeforeEach
+    void setUp() {
+        reportExportService = new ReportExportService(new ObjectMapper(), transactionManager);
+    }
+
+    @Test
+    void exportar_csv_escreveCabecalhoELinhasComSeparadorPontoEVirgula() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AtomicBoolean fechado = new AtomicBoolean(false);
+
+        reportExportService.exportar(ReportExportService.Formato.CSV,
+                () -> Stream.of(linha(1L, "Ana; Maria"), linha(2L, "João \"Jô\"")).onClose(() -> fechado.set(true)),
+                out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertThat(csv).isEqualTo("\uFEFFid;nome\n1;\"Ana; Maria\"\n2;\"João \"\"Jô\"\"\"\n");
+        assertThat(fechado).isTrue();
+    }
+
+    @Test
+    void exportar_ndjson_escreveUmObjetoPorLinha() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        reportExportService.exportar(ReportExportService.Formato.NDJSON,
+                () -> Stream.of(linha(1L, "Ana"), linha(2L, "Bruno")), out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo("{\"id\":1,\"nome\":\"Ana\"}\n{\"id\":2,\"nome\":\"Bruno\"}\n");
+    }
+
+    @Test
+    void exportar_linhaRelatorio_formataDatasEmIsoNosDoisFormatos() {
+        LinhaRelatorio.Cabecalho colunas = LinhaRelatorio.Cabecalho.of("id", "vencimento", "dataHora", "valor", "ativo");
+        LinhaRelatorio linha = colunas.linha(1L, LocalDate.of(2025, 3, 10), LocalDateTime.of(2025, 3, 10, 9, 0),
+                new BigDecimal("150.00"), true);
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+
+        reportExportService.exportar(ReportExportService.Formato.CSV, () -> Stream.of(linha), csv);
+        reportExportService.exportar(ReportExportService.Formato.NDJSON, () -> Stream.of(linha), ndjson);
+
+        assertThat(csv.toString(StandardCharsets.UTF_8))
+                .isEqualTo("\uFEFFid;vencimento;dataHora;valor;ativo\n1;2025-03-10;2025-03-10T09:00:00;150.00;true\n");
+        assertThat(ndjson.toString(StandardCharsets.UTF_8))
+                .isEqualTo("{\"id\":1,\"vencimento\":\"2025-03-10\",\"dataHora\":\"2025-03-10T09:00:00\",\"valor\":150.00,\"ativo\":true}\n");
+        assertThat(linha.get("vencimento")).isEqualTo("2025-03-10");
+        assertThat(linha).containsOnlyKeys("id", "vencimento", "dataHora", "valor", "ativo");
+    }
+
+    @Test
+    void exportar_xlsx_escrevePlanilhaComCelulasTipadas() throws Exception {
+        LinhaRelatorio.Cabecalho colunas = LinhaRelatorio.Cabecalho.of("id", "alunoNome", "vencimento", "valor", "ativo");
+        LinhaRelatorio linha = colunas.linha(1L, "Ana & Bia", LocalDate.of(2025, 1, 1), new BigDecimal("150.00"), true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        reportExportService.exportar(ReportExportService.Formato.XLSX, () -> Stream.of(linha), out);
+
+        Map<String, String> entradas = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry e = zip.getNextEntry(); e != null; e = zip.getNextEntry()) {
+                entradas.put(e.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        assertThat(entradas).containsKeys("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml",
+                "xl/_rels/workbook.xml.rels", "xl/styles.xml", "xl/worksheets/sheet1.xml");
+        assertThat(entradas.get("xl/worksheets/sheet1.xml"))
+                .contains("<c r=\"A1\" s=\"1\" t=\"inlineStr\"><is><t xml:space=\"preserve\">id</t></is></c>")
+                .contains("<c r=\"A2\"><v>1</v></c>")
+                .contains("<t xml:space=\"preserve\">Ana &amp; Bia</t>")
+                .contains("<c r=\"C2\" s=\"2\"><v>45658</v></c>")
+                .contains("<c r=\"D2\" s=\"4\"><v>150.00</v></c>")
+                .contains("<c r=\"E2\" t=\"b\"><v>1</v></c>");
+    }
+
+    @Test
+    void exportar_xlsx_naoEscreveSubstitutoSemPar() throws Exception {
+        String longo = "a".repeat(32_766) + "\uD83C\uDFB5"; // o corte em 32.767 cairia no meio do emoji
+        LinhaRelatorio.Cabecalho colunas = LinhaRelatorio.Cabecalho.of("longo", "solto", "nota");
+        LinhaRelatorio linha = colunas.linha(longo, "x\uD83Cy\uDFB5z", "Dó \uD83C\uDFB5");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        reportExportService.exportar(ReportExportService.Formato.XLSX, () -> Stream.of(linha), out);
+
+        String planilha = null;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry e = zip.getNextEntry(); e != null; e = zip.getNextEntry()) {
+                if (e.getName().equals("xl/worksheets/sheet1.xml")) planilha = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+        assertThat(planilha)
+                .contains("<t xml:space=\"preserve\">" + "a".repeat(32_766) + "</t>")
+                .contains("<t xml:space=\"preserve\">xyz</t>")
+                .contains("<t xml:space=\"preserve\">Dó \uD83C\uDFB5</t>");
+        assertThat(planilha.codePoints().filter(cp -> cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE)).isEmpty();
+    }
+
+    @Test
+    void formatoOf_invalido_lancaExcecao() {
+        assertThat(ReportExportService.Formato.of("CSV")).isEqualTo(ReportExportService.Formato.CSV);
+        assertThatThrownBy(() -> ReportExportService.Formato.of("pdf"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Formato de exportação inválido");
+    }
+
+    private static Map<String, Object> linha(Long id, String nome) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", id);
+        m.put("nome", nome);
+        return m;
+    }
+}
@@ -1,9 +1,15 @@
 package br.com.newmusic.service;
 
-import br.com.newmusic.domain.Grupo;
+import br.com.newmusic.domain.Aluno;
+import br.com.newmusic.domain.DashboardKpi;
+import br.com.newmusic.domain.Instrumento;
+import br.com.newmusic.domain.Mensalidade;
+import br.com.newmusic.domain.PresencaProfessor;
+import br.com.newmusic.domain.Professor;
+import br.com.newmusic.domain.StatusMensalidade;
+import br.com.newmusic.domain.Turma;
 import br.com.newmusic.repository.AlunoRepository;
-import br.com.newmusic.repository.AuditLogRepository;
-import br.com.newmusic.repository.ErrorLogRepository;
+import br.com.newmusic.repository.FechamentoMensalRepository;
 import br.com.newmusic.repository.GrupoRepository;
 import br.com.newmusic.repository.InstrumentoRepository;
 import br.com.newmusic.repository.MatriculaRepository;
@@ -11,17 +17,37 @@ import br.com.newmusic.repository.MensalidadeRepository;
 import br.com.newmusic.repository.PresencaProfessorRepository;
 import br.com.newmusic.repository.PresencaRepository;
 import br.com.newmusic.repository.ProfessorRepository;
+import br.com.newmusic.repository.ReceitaDiariaRepository;
 import br.com.newmusic.repository.TurmaRepository;
 import br.com.newmusic.repository.UsuarioRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,50 +74,243 @@ class ReportServiceTest {
     @Mock
     private PresencaProfessorRepository presencaProfessorRepository;
     @Mock
-    private AuditLogRepository auditLogRepository;
+    private DashboardKpiService dashboardKpiService;
     @Mock
-    private ErrorLogRepository errorLogRepository;
+    private ReceitaDiariaRepository receitaDiariaRepository;
+    @Spy
+    private ConsultasParalelas consultasParalelas = new ConsultasParalelas(2, 10, Duration.ofSeconds(2));
+
+    @Mock
+    private CalendarioUteis calendarioUteis;
+
+    @Mock
+    private GradeHorariaIndex gradeHorariaIndex;
+
+    @Mock
+    private FechamentoMensalRepository fechamentoMensalRepository;
+
+    @Mock
+    private EntityManager entityManager;
 
     @InjectMocks
     private ReportService reportService;
 
     @Test
     void relatorioGrupos_retornaListaOrdenadaPorId() {
-        Grupo g1 = new Grupo();
-        g1.setId(1L);
-        g1.setNome("Cordas");
-        Grupo g2 = new Grupo();
-        g2.setId(2L);
-        g2.setNome("Canto");
-        when(grupoRepository.findAll()).thenReturn(List.of(g2, g1));
-        when(instrumentoRepository.findByGrupoIdOrderByNomeAsc(1L)).thenReturn(List.of());
-        when(instrumentoRepository.findByGrupoIdOrderByNomeAsc(2L)).thenReturn(List.of());
+        when(grupoRepository.findIdNomeEQuantidadeInstrumentos()).thenReturn(List.of(
+                new Object[]{1L, "Cordas", 3L},
+                new Object[]{2L, "Canto", 0L}));
 
         var result = reportService.relatorioGrupos();
 
         assertThat(result).hasSize(2);
         assertThat(result.get(0).get("id")).isEqualTo(1L);
         assertThat(result.get(0).get("nome")).isEqualTo("Cordas");
+        assertThat(result.get(0).get("quantidadeInstrumentos")).isEqualTo(3L);
         assertThat(result.get(1).get("id")).isEqualTo(2L);
         assertThat(result.get(1).get("nome")).isEqualTo("Canto");
     }
 
+    @Test
+    void relatorioTurmas_contaMatriculadosComUmaConsultaAgrupada() {
+        Instrumento violao = new Instrumento();
+        violao.setId(5L);
+        violao.setNome("Violão");
+        Professor prof = new Professor();
+        prof.setId(9L);
+        prof.setNome("Carlos");
+        Turma t1 = new Turma();
+        t1.setId(1L);
+        t1.setInstrumento(violao);
+        t1.setProfessor(prof);
+        t1.setCapacidade(4);
+        t1.setAtivo(true);
+        Turma t2 = new Turma();
+        t2.setId(2L);
+        t2.setInstrumento(violao);
+        t2.setProfessor(prof);
+        t2.setCapacidade(3);
+        t2.setAtivo(true);
+        when(turmaRepository.findAllWithHorariosAndInstrumentoAndProfessor()).thenReturn(List.of(t2, t1));
+        when(matriculaRepository.countAtivasGroupByTurmaId()).thenReturn(List.<Object[]>of(new Object[]{1L, 2L}));
+
+        var result = reportService.relatorioTurmas(null, null, null);
+
+        assertThat(result).extracting(r -> r.get("capacidade")).containsExactly("2/4", "0/3");
+        verify(matriculaRepository, never()).countByTurmaIdAndAtivoTrue(any());
+    }
+
     @Test
     void relatorioConsolidadoDashboard_retornaContagens() {
-        when(alunoRepository.count()).thenReturn(10L);
-        when(professorRepository.count()).thenReturn(3L);
-        when(turmaRepository.count()).thenReturn(5L);
-        when(mensalidadeRepository.countDistinctAlunoByStatus(br.com.newmusic.domain.StatusMensalidade.ATRASADO)).thenReturn(1L);
-        when(turmaRepository.findAllWithHorariosAndInstrumentoAndProfessor()).thenReturn(List.of());
-        when(matriculaRepository.findAll()).thenReturn(List.of());
+        when(dashboardKpiService.obter()).thenReturn(DashboardKpi.builder()
+                .id(DashboardKpi.ID).alunos(10L).professores(3L).turmas(5L).matriculasAtivas(7L)
+                .alunosComPagamentoAtrasado(1L).alunosComMensalidade(8L).pendentes(12L).build());
+        when(gradeHorariaIndex.turmasAtivasNoDia(anyInt())).thenReturn(List.of());
 
         var result = reportService.relatorioConsolidadoDashboard();
 
         assertThat(result).containsEntry("alunos", 10L);
         assertThat(result).containsEntry("professores", 3L);
         assertThat(result).containsEntry("turmas", 5L);
-        assertThat(result).containsKey("matriculasAtivas");
+        assertThat(result).containsEntry("matriculasAtivas", 7L);
         assertThat(result).containsEntry("alunosComPagamentoAtrasado", 1L);
-        assertThat(result).containsKey("aulasHoje");
+        assertThat(result).containsEntry("aulasHoje", 0L);
+        assertThat(result).containsEntry("parcial", false);
+    }
+
+    @Test
+    void relatorioConsolidadoDashboard_fonteComFalha_retornaParcial() {
+        when(dashboardKpiService.obter()).thenReturn(DashboardKpi.builder()
+                .id(DashboardKpi.ID).alunos(10L).professores(3L).turmas(5L).matriculasAtivas(7L)
+                .alunosComPagamentoAtrasado(1L).build());
+        when(gradeHorariaIndex.turmasAtivasNoDia(anyInt())).thenThrow(new IllegalStateException("banco indisponível"));
+
+        var result = reportService.relatorioConsolidadoDashboard();
+
+        assertThat(result).containsEntry("alunos", 10L);
+        assertThat(result.get("aulasHoje")).isNull();
+        assertThat(result).containsEntry("parcial", true);
+        assertThat(result).containsEntry("fontesIndisponiveis", List.of("aulasHoje"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relatorioMensalidades_paginado_consultaNoBancoComOrdenacaoEDesempatePorId() {
+        Aluno aluno = new Aluno();
+        aluno.setId(1L);
+        aluno.setNome("Ana");
+        Mensalidade m = new Mensalidade();
+        m.setId(7L);
+        m.setAluno(aluno);
+        m.setAno(2025);
+        m.setMes(3);
+        m.setValor(new BigDecimal("150.00"));
+        m.setVencimento(LocalDate.of(2025, 3, 10));
+        m.setStatus(StatusMensalidade.PENDENTE);
+        Pageable esperado = PageRequest.of(1, 20, Sort.by(Sort.Direction.DESC, "aluno.nome").and(Sort.by("id")));
+        when(mensalidadeRepository.findAll(any(Specification.class), eq(esperado)))
+                .thenReturn(new PageImpl<>(List.of(m), esperado, 21));
+
+        var result = reportService.relatorioMensalidades(2025, 3, "pendente", null, 1, 20, "alunoNome,desc");
+
+        assertThat(result.getTotalElements()).isEqualTo(21);
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0)).containsEntry("id", 7L).containsEntry("alunoNome", "Ana");
+    }
+
+    @Test
+    void ordenacao_colunaNaoPermitida_lancaExcecao() {
+        assertThatThrownBy(() -> ReportService.ordenacao("senha", Map.of("id", "id")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Ordenação inválida");
+    }
+
+    @Test
+    void relatorioReceitaSerie_agrupaPorSemanaNoBanco() {
+        when(receitaDiariaRepository.serie("week", LocalDate.of(2025, 3, 1), null, "PIX"))
+                .thenReturn(List.<Object[]>of(new Object[]{java.sql.Date.valueOf("2025-03-03"), "PIX", new BigDecimal("360.00"), 2L}));
+
+        var result = reportService.relatorioReceitaSerie("Semana", LocalDate.of(2025, 3, 1), null, " PIX ");
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0)).containsEntry("periodo", "2025-03-03")
+                .containsEntry("valorTotal", new BigDecimal("360.00"))
+                .containsEntry("quantidade", 2L);
+    }
+
+    @Test
+    void relatorioReceitaSerie_porMes_mesFechadoVemDoFechamento() {
+        when(receitaDiariaRepository.serie("month", LocalDate.of(2025, 2, 10), LocalDate.of(2025, 4, 30), null))
+                .thenReturn(List.<Object[]>of(
+                        new Object[]{java.sql.Date.valueOf("2025-02-01"), "PIX", new BigDecimal("100.00"), 1L},
+                        new Object[]{java.sql.Date.valueOf("2025-03-01"), "PIX", new BigDecimal("999.00"), 9L},
+                        new Object[]{java.sql.Date.valueOf("2025-04-01"), "PIX", new BigDecimal("200.00"), 2L}));
+        when(fechamentoMensalRepository.findMesesFechados(202503, 202504)).thenReturn(List.of(202503));
+        when(fechamentoMensalRepository.findRecebimentos(202503, 202504, null)).thenReturn(List.<Object[]>of(
+                new Object[]{2025, 3, "PIX", new BigDecimal("360.00"), 2L},
+                new Object[]{2025, 3, "", new BigDecimal("180.00"), 1L}));
+
+        var result = reportService.relatorioReceitaSerie("mes", LocalDate.of(2025, 2, 10), LocalDate.of(2025, 4, 30), null);
+
+        assertThat(result).extracting(l -> l.get("periodo") + " " + l.get("formaPagamento") + " " + l.get("valorTotal"))
+                .containsExactly("2025-02-01 PIX 100.00", "2025-03-01  180.00", "2025-03-01 PIX 360.00", "2025-04-01 PIX 200.00");
+    }
+
+    @Test
+    void relatorioReceitaSerie_granularidadeInvalida_lancaExcecao() {
+        assertThatThrownBy(() -> reportService.relatorioReceitaSerie("ano", null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Granularidade inválida");
+        verify(receitaDiariaRepository, never()).serie(any(), any(), any(), any());
+    }
+
+    @Test
+    void relatorioInadimplenciaFaixas_semOrdenacao_agrupaNoBancoMaioresDevedoresPrimeiro() {
+        LocalDate hoje = LocalDate.now();
+        Pageable esperado = PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "valorTotal").and(Sort.by("id")));
+        Object[] linha = {3L, "Bia", 4L, hoje.minusDays(95), new BigDecimal("150.00"), BigDecimal.ZERO,
+                new BigDecimal("165.00"), new BigDecimal("171.50"), new BigDecimal("486.50")};
+        when(mensalidadeRepository.findInadimplenciaPorFaixa(StatusMensalidade.ATRASADO, 2025, null,
+                hoje.minusDays(30), hoje.minusDays(60), hoje.minusDays(90), esperado))
+                .thenReturn(new PageImpl<>(List.<Object[]>of(linha), esperado, 1));
+
+        var result = reportService.relatorioInadimplenciaFaixas(2025, null, null, null, null);
+
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getContent().get(0))
+                .containsEntry("alunoId", 3L)
+                .containsEntry("acima90", new BigDecimal("171.50"))
+                .containsEntry("valorTotal", new BigDecimal("486.50"));
+    }
+
+    @Test
+    void relatorioInadimplenciaFaixas_mesFechado_leDoFechamento() {
+        Pageable esperado = PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "valorTotal").and(Sort.by("id")));
+        Object[] linha = {3L, "Bia", 1L, LocalDate.of(2025, 3, 10), new BigDecimal("180.00"), BigDecimal.ZERO,
+                BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("180.00")};
+        when(fechamentoMensalRepository.existsByAnoAndMes(2025, 3)).thenReturn(true);
+        when(fechamentoMensalRepository.findInadimplenciaPorFaixa(2025, 3, esperado))
+                .thenReturn(new PageImpl<>(List.<Object[]>of(linha), esperado, 1));
+
+        var result = reportService.relatorioInadimplenciaFaixas(2025, 3, null, null, null);
+
+        assertThat(result.getContent().get(0)).containsEntry("alunoId", 3L).containsEntry("ate30", new BigDecimal("180.00"));
+        verify(mensalidadeRepository, never()).findInadimplenciaPorFaixa(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void relatorioFrequencia_porAluno_calculaPercentualDasContagensDoBanco() {
+        LocalDate inicio = LocalDate.of(2025, 3, 1);
+        LocalDate fim = LocalDate.of(2025, 3, 31);
+        when(presencaRepository.frequenciaPorAluno(null, 4L, inicio, fim))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "Ana", 2L, 1L}, new Object[]{2L, "Bruno", 0L, 0L}));
+
+        var result = reportService.relatorioFrequencia(null, null, 4L, inicio, fim);
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0)).containsEntry("presencas", 2L).containsEntry("faltas", 1L)
+                .containsEntry("percentualFrequencia", new BigDecimal("66.67"));
+        assertThat(result.get(1)).containsEntry("percentualFrequencia", BigDecimal.ZERO);
+    }
+
+    @Test
+    void relatorioFrequencia_agrupamentoInvalido_lancaExcecao() {
+        assertThatThrownBy(() -> reportService.relatorioFrequencia("professor", null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Agrupamento inválido");
+    }
+
+    @Test
+    void relatorioPresencaProfessoresStream_limpaOContextoDePersistenciaACadaBloco() {
+        Professor professor = Professor.builder().id(1L).nome("Carlos").build();
+        Turma turma = Turma.builder().id(2L).build();
+        when(presencaProfessorRepository.streamByDataAulaBetween(any(), any())).thenReturn(IntStream.range(0, 1001)
+                .mapToObj(i -> PresencaProfessor.builder().id((long) i).dataAula(LocalDate.of(2025, 3, 3)).professor(professor).turma(turma).build()));
+
+        List<Map<String, Object>> linhas = reportService.relatorioPresencaProfessoresStream(null, null, null).toList();
+
+        assertThat(linhas).hasSize(1001);
+        // a cada 500 linhas, e não só a entidade lida: professor e turma buscados junto também saem do contexto
+        verify(entityManager, times(2)).clear();
     }
 }
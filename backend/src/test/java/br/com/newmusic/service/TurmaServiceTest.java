@@ -40,6 +40,14 @@ class TurmaServiceTest {
     private PresencaProfessorRepository presencaProfessorRepository;
     @Mock
     private AuditService auditService;
+    @Mock
+    private DashboardKpiService dashboardKpiService;
+
+    @Mock
+    private GradeHorariaIndex gradeHorariaIndex;
+
+    @Mock
+    private MatriculaService matriculaService;
 
     @InjectMocks
     private TurmaService turmaService;
@@ -83,6 +91,26 @@ class TurmaServiceTest {
                 .hasMessageContaining("Dia da semana");
     }
 
+    @Test
+    void atualizar_capacidadeMenorQueAsVagasOcupadasNoBanco_lancaExcecao() {
+        Turma turma = Turma.builder().id(1L).capacidade(10).vagasOcupadas(3).build();
+        TurmaInput input = new TurmaInput();
+        input.setInstrumentoId(1L);
+        input.setProfessorId(1L);
+        input.setCapacidade(4);
+        input.setHorarios(List.of(horarioSlot(1, "09:00")));
+        when(turmaRepository.findByIdWithHorarios(1L)).thenReturn(Optional.of(turma));
+        when(instrumentoRepository.findById(1L)).thenReturn(Optional.of(new Instrumento()));
+        when(professorRepository.findById(1L)).thenReturn(Optional.of(new Professor()));
+        when(turmaRepository.alterarCapacidade(1L, 4)).thenReturn(0);
+        when(turmaRepository.findVagasOcupadas(1L)).thenReturn(5);
+
+        assertThatThrownBy(() -> turmaService.atualizar(1L, input))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("(5)");
+        verify(turmaRepository, never()).save(any());
+    }
+
     @Test
     void excluir_quandoPossuiMatriculas_lancaExcecao() {
         Turma turma = new Turma();
@@ -0,0 +1,26 @@
+package br.com.newmusic.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StringUtilTest {
+
+    @Test
+    void normalizar_removeAcentosEMaiusculas() {
+        assertThat(StringUtil.normalizar("João Conceição")).isEqualTo("joao conceicao");
+        assertThat(StringUtil.normalizar(null)).isEqualTo("");
+    }
+
+    @Test
+    void padraoBuscaPessoa_termoDeCpfViraDigitos() {
+        assertThat(StringUtil.padraoBuscaPessoa(" 123.456-7 ")).isEqualTo("%1234567%");
+        assertThat(StringUtil.padraoBuscaPessoa("Joao")).isEqualTo("%joao%");
+        assertThat(StringUtil.padraoBuscaPessoa("  ")).isNull();
+    }
+
+    @Test
+    void padraoBusca_escapaCuringasDoLike() {
+        assertThat(StringUtil.padraoBusca("100%_Violão")).isEqualTo("%100\\%\\_violao%");
+    }
+}
@@ -358,6 +358,21 @@ export default function Relatorios() {
     downloadCsv(csv, `relatorio-${report.id}.csv`)
   }
 
+  async function exportarXlsx() {
+    setErro('')
+    try {
+      const params = { ...buildParams(), format: 'xlsx' }
+      const res = await getApiClient().get(`${report.endpoint}?${new URLSearchParams(params).toString()}`, { responseType: 'blob' })
+      const a = document.createElement('a')
+      a.href = URL.createObjectURL(res.data as Blob)
+      a.download = `relatorio-${report.id}.xlsx`
+      a.click()
+      URL.revokeObjectURL(a.href)
+    } catch {
+      setErro('Erro ao exportar planilha.')
+    }
+  }
+
   function escapeCsv(s: string): string {
     if (/[;"\n]/.test(s)) return `"${s.replace(/"/g, '""')}"`
     return s
@@ -563,9 +578,14 @@ export default function Relatorios() {
           <div style={{ display: 'flex', justifyContent: 'space-between', alignItems: 'center', marginBottom: '1rem', flexWrap: 'wrap', gap: '0.5rem' }}>
             <h2 style={{ margin: 0, fontSize: '1.1rem' }}>{report.label}</h2>
             {isList ? (
-              <button type="button" className="btn btn-outline" onClick={exportarCsv}>
-                Exportar CSV
-              </button>
+              <div style={{ display: 'flex', gap: '0.5rem' }}>
+                <button type="button" className="btn btn-outline" onClick={exportarCsv}>
+                  Exportar CSV
+                </button>
+                <button type="button" className="btn btn-outline" onClick={exportarXlsx}>
+                  Exportar XLSX
+                </button>
+              </div>
             ) : (
               <button type="button" className="btn btn-outline" onClick={exportarCsv}>
                 Exportar CSV